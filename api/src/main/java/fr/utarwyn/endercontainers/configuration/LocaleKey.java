@@ -15,7 +15,13 @@ public enum LocaleKey {
     CMD_BACKUP_LOADED("commands.backups.loaded"),
     CMD_BACKUP_LOADING_STARTED("commands.backups.loading_starting"),
     CMD_BACKUP_REMOVED("commands.backups.removed"),
+    CMD_BACKUP_RESTORED("commands.backups.restored"),
+    CMD_BACKUP_RESTORE_EMPTY("commands.backups.restore_empty"),
     CMD_BACKUP_UNKNOWN("commands.backups.unknown"),
+    CMD_BACKUP_VERIFICATION_STARTED("commands.backups.verification_starting"),
+    CMD_BACKUP_VERIFIED("commands.backups.verified"),
+    CMD_BACKUP_CORRUPTED("commands.backups.corrupted"),
+    CMD_BACKUP_UNREADABLE("commands.backups.unreadable"),
     CMD_BACKUP_ZERO("commands.backups.zero"),
     CMD_BACKUP_LABEL_NAME("commands.backups.label_name"),
     CMD_BACKUP_LABEL_DATE("commands.backups.label_date"),
@@ -43,6 +49,8 @@ public enum LocaleKey {
     ERR_WORLD_DISABLED("errors.plugin_world_disabled"),
     ERR_CMD_INVALID_PARAM("errors.cmd_invalid_parameter"),
     ERR_CMD_ARG_COUNT("errors.cmd_wrong_argument_count"),
+    ERR_CMD_TOO_MANY_PENDING("errors.cmd_too_many_pending"),
+    ERR_ENDERCHEST_SAVING("errors.enderchest_saving"),
     ERR_DEP_FACTIONS("dependencies.access_denied_factions"),
     ERR_DEP_PLOTSQ("dependencies.access_denied_plotsq"),
 
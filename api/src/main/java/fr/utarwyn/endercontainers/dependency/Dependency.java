@@ -15,6 +15,11 @@ public abstract class Dependency implements DependencyValidator {
      */
     protected final Plugin plugin;
 
+    /**
+     * Action to run when protections of the dependency change
+     */
+    private Runnable stateChangeHandler;
+
     /**
      * Construct a dependency object.
      *
@@ -33,6 +38,29 @@ public abstract class Dependency implements DependencyValidator {
         return this.plugin;
     }
 
+    /**
+     * Define the action to run when protections of the dependency change.
+     * Used by the plugin to forget validations done before the change.
+     *
+     * @param handler action to run, null to remove it
+     */
+    public final void setStateChangeHandler(Runnable handler) {
+        this.stateChangeHandler = handler;
+    }
+
+    /**
+     * Notify that protections of the dependency have changed,
+     * for example when a claim or a membership has been modified.
+     * Dependencies which are also listeners are registered by the plugin,
+     * so they can call this method from their event handlers.
+     */
+    protected final void notifyStateChange() {
+        Runnable handler = this.stateChangeHandler;
+        if (handler != null) {
+            handler.run();
+        }
+    }
+
     /**
      * Called when the dependency has been enabled.
      */
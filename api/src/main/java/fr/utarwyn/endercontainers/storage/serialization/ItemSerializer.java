@@ -3,6 +3,7 @@ package fr.utarwyn.endercontainers.storage.serialization;
 import org.bukkit.inventory.ItemStack;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
@@ -14,6 +15,13 @@ import java.util.concurrent.ConcurrentMap;
  */
 public interface ItemSerializer {
 
+    /**
+     * Number of slots of the biggest chest, six rows of nine slots
+     *
+     * @since 2.3.0
+     */
+    int MAX_SLOTS = 54;
+
     /**
      * Serialize a map of items to a custom string.
      *
@@ -32,4 +40,53 @@ public interface ItemSerializer {
      */
     ConcurrentMap<Integer, ItemStack> deserialize(String data) throws IOException;
 
+    /**
+     * Serialize items stored by slot to a custom string.
+     * Produces the same format as the map-based method.
+     *
+     * @param slots items by slot, empty slots are null
+     * @return resulted formatted string with all items data
+     * @throws IOException thrown if an error occured during the serialization
+     * @since 2.3.0
+     */
+    default String serialize(ItemStack[] slots) throws IOException {
+        ConcurrentMap<Integer, ItemStack> items = new ConcurrentHashMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                items.put(i, slots[i]);
+            }
+        }
+        return this.serialize(items);
+    }
+
+    /**
+     * Unserialize items stored by slot from a custom formatted string.
+     * Items stored beyond the last slot of the biggest chest are ignored.
+     *
+     * @param data data string to decode
+     * @return generated items by slot, empty slots are null
+     * @throws IOException thrown if an error occured during the deserialization
+     * @since 2.3.0
+     */
+    default ItemStack[] deserializeSlots(String data) throws IOException {
+        ConcurrentMap<Integer, ItemStack> items = this.deserialize(data);
+        int length = 0;
+        for (int slot : items.keySet()) {
+            if (slot < 0) {
+                throw new IOException("invalid slot " + slot + " during deserialization");
+            }
+            if (slot < MAX_SLOTS) {
+                length = Math.max(length, slot + 1);
+            }
+        }
+
+        ItemStack[] slots = new ItemStack[length];
+        items.forEach((slot, item) -> {
+            if (slot < length) {
+                slots[slot] = item;
+            }
+        });
+        return slots;
+    }
+
 }
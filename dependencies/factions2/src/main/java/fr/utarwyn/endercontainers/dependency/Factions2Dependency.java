@@ -1,12 +1,19 @@
 package fr.utarwyn.endercontainers.dependency;
 
 import com.massivecraft.factions.entity.*;
+import com.massivecraft.factions.event.EventFactionsChunksChange;
+import com.massivecraft.factions.event.EventFactionsDisband;
+import com.massivecraft.factions.event.EventFactionsMembershipChange;
+import com.massivecraft.factions.event.EventFactionsPermChange;
 import com.massivecraft.massivecore.ps.PS;
 import fr.utarwyn.endercontainers.configuration.LocaleKey;
 import fr.utarwyn.endercontainers.dependency.exceptions.BlockChestOpeningException;
 import org.bukkit.ChatColor;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 
 import java.util.Collections;
@@ -14,11 +21,12 @@ import java.util.Collections;
 /**
  * Factions v2 dependency. Protect enderchests in enemy factions.
  * Support: Factions with MassiveCore
+ * Cached validations are dropped when claims, memberships or permissions change.
  *
  * @author Utarwyn
  * @since 2.2.0
  */
-public class Factions2Dependency extends Dependency {
+public class Factions2Dependency extends Dependency implements Listener {
 
     /**
      * Construct the Factions2 dependency object.
@@ -70,6 +78,46 @@ public class Factions2Dependency extends Dependency {
         }
     }
 
+    /**
+     * Called when chunks are claimed or unclaimed.
+     *
+     * @param event chunks change event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChunksChange(EventFactionsChunksChange event) {
+        this.notifyStateChange();
+    }
+
+    /**
+     * Called when a player joins or leaves a faction.
+     *
+     * @param event membership change event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMembershipChange(EventFactionsMembershipChange event) {
+        this.notifyStateChange();
+    }
+
+    /**
+     * Called when a faction permission is changed.
+     *
+     * @param event permission change event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPermChange(EventFactionsPermChange event) {
+        this.notifyStateChange();
+    }
+
+    /**
+     * Called when a faction is disbanded.
+     *
+     * @param event disband event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDisband(EventFactionsDisband event) {
+        this.notifyStateChange();
+    }
+
     /**
      * Verify if a faction is real and owned by a player.
      *
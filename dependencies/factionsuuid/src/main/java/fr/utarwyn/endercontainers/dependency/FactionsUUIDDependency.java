@@ -1,11 +1,20 @@
 package fr.utarwyn.endercontainers.dependency;
 
 import com.massivecraft.factions.*;
+import com.massivecraft.factions.event.FPlayerJoinEvent;
+import com.massivecraft.factions.event.FPlayerLeaveEvent;
+import com.massivecraft.factions.event.FactionDisbandEvent;
+import com.massivecraft.factions.event.LandClaimEvent;
+import com.massivecraft.factions.event.LandUnclaimAllEvent;
+import com.massivecraft.factions.event.LandUnclaimEvent;
 import com.massivecraft.factions.perms.PermissibleActions;
 import fr.utarwyn.endercontainers.configuration.LocaleKey;
 import fr.utarwyn.endercontainers.dependency.exceptions.BlockChestOpeningException;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 
 import java.util.Collections;
@@ -13,11 +22,12 @@ import java.util.Collections;
 /**
  * FactionsUUID dependency. Protect enderchests in enemy factions.
  * Works with <a href="https://www.spigotmc.org/resources/factionsuuid.1035/">FactionsUUID</a>
+ * Cached validations are dropped when claims or memberships change.
  *
  * @author Utarwyn
  * @since 2.2.3
  */
-public class FactionsUUIDDependency extends Dependency {
+public class FactionsUUIDDependency extends Dependency implements Listener {
 
     /**
      * Construct the FactionsUUID dependency object.
@@ -63,4 +73,64 @@ public class FactionsUUIDDependency extends Dependency {
         }
     }
 
+    /**
+     * Called when a chunk is claimed.
+     *
+     * @param event land claim event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLandClaim(LandClaimEvent event) {
+        this.notifyStateChange();
+    }
+
+    /**
+     * Called when a chunk is unclaimed.
+     *
+     * @param event land unclaim event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLandUnclaim(LandUnclaimEvent event) {
+        this.notifyStateChange();
+    }
+
+    /**
+     * Called when all chunks of a faction are unclaimed.
+     *
+     * @param event land unclaim all event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLandUnclaimAll(LandUnclaimAllEvent event) {
+        this.notifyStateChange();
+    }
+
+    /**
+     * Called when a player joins a faction.
+     *
+     * @param event faction join event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerJoin(FPlayerJoinEvent event) {
+        this.notifyStateChange();
+    }
+
+    /**
+     * Called when a player leaves a faction.
+     *
+     * @param event faction leave event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerLeave(FPlayerLeaveEvent event) {
+        this.notifyStateChange();
+    }
+
+    /**
+     * Called when a faction is disbanded.
+     *
+     * @param event faction disband event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFactionDisband(FactionDisbandEvent event) {
+        this.notifyStateChange();
+    }
+
 }
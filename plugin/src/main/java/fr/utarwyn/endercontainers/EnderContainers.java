@@ -13,8 +13,11 @@ import fr.utarwyn.endercontainers.inventory.InventoryManager;
 import fr.utarwyn.endercontainers.storage.StorageManager;
 import fr.utarwyn.endercontainers.util.MetricsHandler;
 import fr.utarwyn.endercontainers.util.Updater;
+import fr.utarwyn.endercontainers.util.uuid.UUIDFetcher;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Objects;
 import java.util.logging.Level;
 
@@ -27,6 +30,16 @@ import java.util.logging.Level;
  */
 public class EnderContainers extends JavaPlugin {
 
+    /**
+     * Name of the file where resolved player profiles are stored
+     */
+    private static final String PROFILES_FILE = "profiles.json";
+
+    /**
+     * Period between two savings of resolved player profiles, in ticks (5 minutes)
+     */
+    private static final long PROFILES_SAVE_PERIOD = 6000L;
+
     /**
      * Called when the plugin loads
      */
@@ -41,6 +54,21 @@ public class EnderContainers extends JavaPlugin {
             return;
         }
 
+        // Load player profiles resolved during previous runs
+        try {
+            UUIDFetcher.load(new File(this.getDataFolder(), PROFILES_FILE));
+        } catch (IOException e) {
+            this.getLogger().log(Level.WARNING, "Cannot load the cache of player profiles", e);
+        }
+
+        // Save resolved profiles regularly, so a crash does not lose them
+        this.getServer().getScheduler().runTaskTimerAsynchronously(
+                this, this::saveProfiles, PROFILES_SAVE_PERIOD, PROFILES_SAVE_PERIOD);
+
+        // Resolve server internals once and report those which are missing
+        NMSUtil.runSelfTest().forEach((handle, error) -> this.getLogger().log(Level.WARNING,
+                "Cannot resolve server internal {0}, related features are disabled: {1}", new Object[]{handle, error}));
+
         // Load all managers
         Managers.register(this, CommandManager.class);
         Managers.register(this, InventoryManager.class);
@@ -66,6 +94,8 @@ public class EnderContainers extends JavaPlugin {
     public void onDisable() {
         Managers.unloadAll();
         Managers.clear();
+
+        this.saveProfiles();
     }
 
     /**
@@ -94,4 +124,16 @@ public class EnderContainers extends JavaPlugin {
         }
     }
 
+    /**
+     * Saves resolved player profiles if they have changed.
+     * Can be called from any thread.
+     */
+    private void saveProfiles() {
+        try {
+            UUIDFetcher.save();
+        } catch (IOException e) {
+            this.getLogger().log(Level.WARNING, "Cannot save the cache of player profiles", e);
+        }
+    }
+
 }
@@ -0,0 +1,94 @@
+package fr.utarwyn.endercontainers.backup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Represents an entry stored in a backup (a file or a database row),
+ * with the checksum recorded in the backup manifest when it was created.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public abstract class BackupEntry {
+
+    /**
+     * Value used when no checksum has been recorded for the entry
+     */
+    public static final long NO_CHECKSUM = -1L;
+
+    /**
+     * Name of the entry in the backup
+     */
+    private final String name;
+
+    /**
+     * Checksum recorded in the manifest
+     */
+    private final long checksum;
+
+    /**
+     * Construct a new backup entry.
+     *
+     * @param name     name of the entry in the backup
+     * @param checksum checksum recorded in the manifest, or {@link #NO_CHECKSUM}
+     */
+    protected BackupEntry(String name, long checksum) {
+        this.name = name;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Compute the checksum of raw entry data.
+     *
+     * @param data data to compute
+     * @return CRC32 checksum of the data
+     */
+    public static long checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+
+    /**
+     * Compute the checksum of a string, encoded in UTF-8.
+     *
+     * @param data string to compute, null is considered as empty
+     * @return CRC32 checksum of the string
+     */
+    public static long checksum(String data) {
+        return checksum(data != null ? data.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getChecksum() {
+        return this.checksum;
+    }
+
+    public boolean hasChecksum() {
+        return this.checksum != NO_CHECKSUM;
+    }
+
+    /**
+     * Read raw data of the entry from the backup.
+     *
+     * @return raw data of the entry
+     * @throws IOException thrown if the entry is missing or cannot be read
+     */
+    public abstract byte[] read() throws IOException;
+
+    /**
+     * Extract serialized contents of all chests stored in the entry.
+     *
+     * @param data raw data of the entry
+     * @return serialized contents of chests
+     * @throws IOException thrown if the entry cannot be parsed
+     */
+    public abstract List<String> getContents(byte[] data) throws IOException;
+
+}
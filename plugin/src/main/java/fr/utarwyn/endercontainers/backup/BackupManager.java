@@ -5,11 +5,20 @@ import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.backup.action.BackupApplyTask;
 import fr.utarwyn.endercontainers.backup.action.BackupCreateTask;
 import fr.utarwyn.endercontainers.backup.action.BackupRemoveTask;
+import fr.utarwyn.endercontainers.backup.action.BackupRestorePlayerTask;
+import fr.utarwyn.endercontainers.backup.action.BackupVerifyTask;
+import fr.utarwyn.endercontainers.configuration.Configuration;
+import fr.utarwyn.endercontainers.configuration.Files;
+import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
 import fr.utarwyn.endercontainers.storage.StorageManager;
 import fr.utarwyn.endercontainers.storage.backups.BackupsData;
+import fr.utarwyn.endercontainers.util.IoRateLimiter;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Consumer;
 
 /**
@@ -20,6 +29,11 @@ import java.util.function.Consumer;
  */
 public class BackupManager extends AbstractManager {
 
+    /**
+     * Time between two checks of the backup scheduler, in ticks
+     */
+    static final long SCHEDULER_CHECK_PERIOD = 20L;
+
     /**
      * The list of all backups stored in memory
      */
@@ -30,6 +44,11 @@ public class BackupManager extends AbstractManager {
      */
     private BackupsData storage;
 
+    /**
+     * Task which creates backups automatically
+     */
+    BukkitTask schedulerTask;
+
     /**
      * {@inheritDoc}
      */
@@ -37,6 +56,16 @@ public class BackupManager extends AbstractManager {
     public synchronized void load() {
         this.storage = Managers.get(StorageManager.class).createBackupDataStorage();
         this.backups = this.storage.getCachedBackups();
+
+        // Start automatic backups only if they are enabled
+        Configuration config = Files.getConfiguration();
+        if (config.isAutoBackups()) {
+            BackupScheduler scheduler = new BackupScheduler(this, config.getAutoBackupsInterval(),
+                    config.getAutoBackupsKeepHourly(), config.getAutoBackupsKeepDaily());
+
+            this.schedulerTask = this.plugin.getServer().getScheduler()
+                    .runTaskTimer(this.plugin, scheduler, SCHEDULER_CHECK_PERIOD, SCHEDULER_CHECK_PERIOD);
+        }
     }
 
     /**
@@ -44,6 +73,11 @@ public class BackupManager extends AbstractManager {
      */
     @Override
     protected synchronized void unload() {
+        if (this.schedulerTask != null) {
+            this.schedulerTask.cancel();
+            this.schedulerTask = null;
+        }
+
         this.storage = null;
     }
 
@@ -79,6 +113,9 @@ public class BackupManager extends AbstractManager {
 
     /**
      * Asynchronously create a backup with a name and an operator.
+     * Loaded contexts are copied on the calling thread (the main one),
+     * so players can keep using their enderchests during the backup.
+     * Data transfers are throttled while players are online.
      *
      * @param name     name of the backup to create
      * @param operator name of the player who triggered this action
@@ -88,9 +125,15 @@ public class BackupManager extends AbstractManager {
         Optional<Backup> backup = this.getBackupByName(name);
 
         if (!backup.isPresent()) {
+            EnderChestManager enderChestManager = Managers.get(EnderChestManager.class);
+            BackupSnapshot snapshot = new BackupSnapshot(
+                    enderChestManager.snapshotContexts(), enderChestManager.getSequencer(),
+                    Managers.get(StorageManager.class).getItemSerializer()
+            );
+
             this.plugin.getServer().getScheduler().runTaskAsynchronously(
                     this.plugin,
-                    new BackupCreateTask(this.plugin, this, operator, name, consumer)
+                    new BackupCreateTask(this.plugin, this, operator, name, snapshot, this.createLimiter(), consumer)
             );
         } else {
             consumer.accept(false);
@@ -116,6 +159,36 @@ public class BackupManager extends AbstractManager {
         }
     }
 
+    /**
+     * Asynchronously restore chests of one player from a backup.
+     * Other players are not affected. If the player context is loaded,
+     * it is suspended during the restoration and then replaced by a fresh one.
+     *
+     * @param name     name of the backup to read
+     * @param owner    owner of chests to restore
+     * @param consumer object to consume when the action is finished
+     */
+    public void restorePlayerBackup(String name, UUID owner, Consumer<Boolean> consumer) {
+        Optional<Backup> backup = this.getBackupByName(name);
+
+        if (backup.isPresent()) {
+            EnderChestManager chestManager = Managers.get(EnderChestManager.class);
+            boolean loaded = chestManager.suspendPlayerContext(owner);
+
+            // Sequenced after pending saves of the player, so they cannot overwrite restored data
+            this.plugin.getServer().getScheduler().runTaskAsynchronously(
+                    this.plugin,
+                    chestManager.getSequencer().sequence(owner,
+                            new BackupRestorePlayerTask(this.plugin, this, backup.get(), owner, result -> {
+                                chestManager.resumePlayerContext(owner, loaded);
+                                consumer.accept(result);
+                            }))
+            );
+        } else {
+            consumer.accept(false);
+        }
+    }
+
     /**
      * Asynchronously remove a backup and all of its data.
      *
@@ -135,4 +208,41 @@ public class BackupManager extends AbstractManager {
         }
     }
 
+    /**
+     * Asynchronously verify that all chests of a backup can be read.
+     * An unknown backup is reported as unreadable.
+     *
+     * @param name     name of the backup to verify
+     * @param consumer object to consume when the verification is finished
+     */
+    public void verifyBackup(String name, Consumer<BackupVerification> consumer) {
+        Optional<Backup> backup = this.getBackupByName(name);
+
+        if (backup.isPresent()) {
+            this.plugin.getServer().getScheduler().runTaskAsynchronously(
+                    this.plugin,
+                    new BackupVerifyTask(this.plugin, this.storage, backup.get(),
+                            Managers.get(StorageManager.class).getItemSerializer(), consumer)
+            );
+        } else {
+            consumer.accept(new BackupVerification(name, false, 0, Collections.emptyList(), 0));
+        }
+    }
+
+    /**
+     * Create the limiter for a new backup. The configured
+     * limit only applies if players are connected.
+     *
+     * @return limiter used to throttle data transfers of the backup
+     */
+    private IoRateLimiter createLimiter() {
+        int limit = Files.getConfiguration().getBackupsIoLimit();
+
+        if (limit > 0 && !this.plugin.getServer().getOnlinePlayers().isEmpty()) {
+            return new IoRateLimiter(limit * 1024L);
+        }
+
+        return IoRateLimiter.UNLIMITED;
+    }
+
 }
@@ -0,0 +1,97 @@
+package fr.utarwyn.endercontainers.backup;
+
+import fr.utarwyn.endercontainers.util.IoRateLimiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects statistics of a backup run and throttles
+ * its data transfers with a rate limiter.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class BackupReport {
+
+    /**
+     * Limiter used to throttle data transfers
+     */
+    private final IoRateLimiter limiter;
+
+    /**
+     * Time when the run started, in milliseconds
+     */
+    private final long startTime;
+
+    /**
+     * Number of bytes transferred during the run
+     */
+    private final AtomicLong bytes;
+
+    /**
+     * Number of entries (files or rows) processed during the run
+     */
+    private final AtomicLong entries;
+
+    /**
+     * Time when the run finished, in milliseconds
+     */
+    private long endTime;
+
+    /**
+     * Construct a new backup report.
+     *
+     * @param limiter limiter used to throttle data transfers
+     */
+    public BackupReport(IoRateLimiter limiter) {
+        this.limiter = limiter;
+        this.startTime = System.currentTimeMillis();
+        this.bytes = new AtomicLong();
+        this.entries = new AtomicLong();
+    }
+
+    /**
+     * Record a data transfer, waiting if the transfer exceeds the rate limit.
+     *
+     * @param amount number of bytes to transfer
+     */
+    public void transfer(long amount) {
+        this.limiter.acquire(amount);
+        this.bytes.addAndGet(amount);
+    }
+
+    /**
+     * Record processed entries.
+     *
+     * @param amount number of processed entries
+     */
+    public void recordEntries(long amount) {
+        this.entries.addAndGet(amount);
+    }
+
+    /**
+     * Mark the end of the run.
+     */
+    public void finish() {
+        this.endTime = System.currentTimeMillis();
+    }
+
+    public long getBytes() {
+        return this.bytes.get();
+    }
+
+    public long getEntries() {
+        return this.entries.get();
+    }
+
+    /**
+     * Get the duration of the run, until now if not finished.
+     *
+     * @return duration in milliseconds
+     */
+    public long getDuration() {
+        long end = this.endTime > 0 ? this.endTime : System.currentTimeMillis();
+        return end - this.startTime;
+    }
+
+}
@@ -0,0 +1,220 @@
+package fr.utarwyn.endercontainers.backup;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically creates backups and removes the oldest automatic ones.
+ * Backups are created at wall-clock times, on multiples of the interval
+ * since midnight, whatever the uptime or the lag of the server.
+ * Each new backup is verified before pruning, and old backups are kept
+ * if the new one is corrupted. The latest backup of each hour and of each
+ * day are kept, up to a configured number of hours and days.
+ * Runs on the main thread.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class BackupScheduler implements Runnable {
+
+    /**
+     * Prefix of automatic backup names, only these backups can be pruned
+     */
+    static final String NAME_PREFIX = "auto-";
+
+    /**
+     * Name of the operator of automatic backups
+     */
+    static final String OPERATOR = "Scheduler";
+
+    /**
+     * The backup manager
+     */
+    private final BackupManager manager;
+
+    /**
+     * Time between two backups, in milliseconds
+     */
+    private final long interval;
+
+    /**
+     * Clock used to know the current time in milliseconds
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Number of hourly backups to keep
+     */
+    private final int keepHourly;
+
+    /**
+     * Number of daily backups to keep
+     */
+    private final int keepDaily;
+
+    /**
+     * True while a backup, its verification or its pruning is running
+     */
+    private final AtomicBoolean running;
+
+    /**
+     * Time of the next backup, in milliseconds
+     */
+    private long nextRunTime;
+
+    /**
+     * Construct a new backup scheduler.
+     *
+     * @param manager    the backup manager
+     * @param interval   time between two backups, in minutes
+     * @param keepHourly number of hourly backups to keep
+     * @param keepDaily  number of daily backups to keep
+     */
+    public BackupScheduler(BackupManager manager, int interval, int keepHourly, int keepDaily) {
+        this(manager, interval, keepHourly, keepDaily, System::currentTimeMillis);
+    }
+
+    /**
+     * Construct a new backup scheduler with a custom clock.
+     *
+     * @param manager    the backup manager
+     * @param interval   time between two backups, in minutes
+     * @param keepHourly number of hourly backups to keep
+     * @param keepDaily  number of daily backups to keep
+     * @param clock      clock which gives the current time in milliseconds
+     */
+    BackupScheduler(BackupManager manager, int interval, int keepHourly, int keepDaily, LongSupplier clock) {
+        this.manager = manager;
+        this.interval = TimeUnit.MINUTES.toMillis(interval);
+        this.keepHourly = keepHourly;
+        this.keepDaily = keepDaily;
+        this.clock = clock;
+        this.running = new AtomicBoolean();
+        this.nextRunTime = computeNextRunTime(clock.getAsLong(), this.interval, ZoneId.systemDefault());
+    }
+
+    /**
+     * Compute the time of the next backup after a given time.
+     * Backups are aligned on multiples of the interval since midnight,
+     * and the first backup of a day is always created at midnight.
+     *
+     * @param now      current time, in milliseconds
+     * @param interval time between two backups, in milliseconds
+     * @param zone     time zone of the server
+     * @return time of the next backup, in milliseconds
+     */
+    static long computeNextRunTime(long now, long interval, ZoneId zone) {
+        LocalDate today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        long midnight = today.atStartOfDay(zone).toInstant().toEpochMilli();
+        long nextMidnight = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        long next = midnight + ((now - midnight) / interval + 1) * interval;
+        return Math.min(next, nextMidnight);
+    }
+
+    /**
+     * Select automatic backups which are not retained by the retention policy.
+     * The most recent automatic backup is always kept, even if the policy retains nothing.
+     *
+     * @param backups    all existing backups
+     * @param keepHourly number of hourly backups to keep
+     * @param keepDaily  number of daily backups to keep
+     * @return expired backups, from the most recent to the oldest
+     */
+    static List<Backup> selectExpired(List<Backup> backups, int keepHourly, int keepDaily) {
+        List<Backup> automatic = backups.stream()
+                .filter(backup -> backup.getName().startsWith(NAME_PREFIX))
+                .sorted(Comparator.comparing(Backup::getDate).reversed())
+                .collect(Collectors.toList());
+
+        Set<LocalDateTime> hours = new HashSet<>();
+        Set<LocalDateTime> days = new HashSet<>();
+        List<Backup> expired = new ArrayList<>();
+        boolean latest = true;
+
+        for (Backup backup : automatic) {
+            LocalDateTime date = backup.getDate().toLocalDateTime();
+            boolean hourly = hours.size() < keepHourly && hours.add(date.truncatedTo(ChronoUnit.HOURS));
+            boolean daily = days.size() < keepDaily && days.add(date.truncatedTo(ChronoUnit.DAYS));
+
+            if (!hourly && !daily && !latest) {
+                expired.add(backup);
+            }
+            latest = false;
+        }
+
+        return expired;
+    }
+
+    /**
+     * Check if a scheduled backup is currently running
+     *
+     * @return true if a backup is running
+     */
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    /**
+     * Create a backup if its time has come.
+     * Called frequently by the server, so backups are created on time.
+     */
+    @Override
+    public void run() {
+        long now = this.clock.getAsLong();
+        if (now >= this.nextRunTime) {
+            this.nextRunTime = computeNextRunTime(now, this.interval, ZoneId.systemDefault());
+            this.backup();
+        }
+    }
+
+    /**
+     * Create a backup, then verify it and remove expired ones.
+     * Nothing is done if the previous backup is still running.
+     */
+    void backup() {
+        if (!this.running.compareAndSet(false, true)) {
+            return;
+        }
+
+        String name = NAME_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+
+        this.manager.createBackup(name, OPERATOR, result -> {
+            if (Boolean.TRUE.equals(result)) {
+                this.manager.verifyBackup(name, verification -> {
+                    if (verification.isValid()) {
+                        List<Backup> expired = selectExpired(this.manager.getBackups(), this.keepHourly, this.keepDaily);
+                        this.prune(expired.iterator());
+                    } else {
+                        this.running.set(false);
+                    }
+                });
+            } else {
+                this.running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Remove expired backups one after the other.
+     *
+     * @param expired iterator over backups to remove
+     */
+    private void prune(Iterator<Backup> expired) {
+        if (expired.hasNext()) {
+            this.manager.removeBackup(expired.next().getName(), result -> this.prune(expired));
+        } else {
+            this.running.set(false);
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package fr.utarwyn.endercontainers.backup;
+
+import fr.utarwyn.endercontainers.enderchest.ChestContents;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
+import fr.utarwyn.endercontainers.enderchest.context.OwnerSequencer;
+import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Copies of loaded contexts taken when a backup is created.
+ * They are put in the backup instead of the stored data of their owner,
+ * without ever being written in the live storage.
+ * Stored data is read in order with pending storage tasks of each player.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class BackupSnapshot {
+
+    /**
+     * Snapshot without any loaded context, stored data is read as is
+     */
+    public static final BackupSnapshot EMPTY = new BackupSnapshot(Collections.emptyMap(), null, null);
+
+    /**
+     * Copies of loaded chests, by owner
+     */
+    private final Map<UUID, List<EnderChestSnapshot>> chests;
+
+    /**
+     * Sequencer which orders storage tasks of each player
+     */
+    private final OwnerSequencer sequencer;
+
+    /**
+     * Serializer used to encode copied chests
+     */
+    private final ItemSerializer itemSerializer;
+
+    /**
+     * Construct a new backup snapshot.
+     *
+     * @param chests         copies of loaded chests, by owner
+     * @param sequencer      sequencer which orders storage tasks of each player
+     * @param itemSerializer serializer used to encode copied chests
+     */
+    public BackupSnapshot(Map<UUID, List<EnderChestSnapshot>> chests, OwnerSequencer sequencer,
+                          ItemSerializer itemSerializer) {
+        this.chests = chests;
+        this.sequencer = sequencer;
+        this.itemSerializer = itemSerializer;
+    }
+
+    /**
+     * Returns owners of all copied contexts.
+     *
+     * @return owners whose chests have been copied
+     */
+    public Set<UUID> getOwners() {
+        return this.chests.keySet();
+    }
+
+    /**
+     * Returns copied chests of a player.
+     *
+     * @param owner owner of the chests
+     * @return copied chests, empty if the context of the player was not loaded
+     */
+    public List<EnderChestSnapshot> getChests(UUID owner) {
+        return this.chests.getOrDefault(owner, Collections.emptyList());
+    }
+
+    /**
+     * Encode contents of a copied chest like they are stored.
+     *
+     * @param chest copied chest
+     * @return encoded contents, null if the chest is empty
+     * @throws IOException thrown if contents cannot be encoded
+     */
+    public String serializeContents(EnderChestSnapshot chest) throws IOException {
+        if (chest.getContents().isEmpty()) {
+            return null;
+        }
+
+        return this.itemSerializer.serialize(ChestContents.of(chest.getContents()).getSlots());
+    }
+
+    /**
+     * Read stored data of a player after all its pending storage tasks.
+     * Blocks the calling thread, so it must never be called on the main thread.
+     *
+     * @param owner owner of the data to read
+     * @param task  task which reads the data
+     * @param <T>   type of the task result
+     * @return result of the task
+     */
+    public <T> T read(UUID owner, Supplier<T> task) {
+        if (this.sequencer == null) {
+            return task.get();
+        }
+
+        AtomicReference<T> result = new AtomicReference<>();
+        this.sequencer.sequence(owner, () -> result.set(task.get())).run();
+        return result.get();
+    }
+
+    /**
+     * Wait for storage tasks of all players sequenced until now.
+     * Blocks the calling thread, so it must never be called on the main thread.
+     */
+    public void awaitPendingTasks() {
+        if (this.sequencer != null) {
+            this.sequencer.awaitPendingTasks();
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package fr.utarwyn.endercontainers.backup;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of the verification of a backup.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class BackupVerification {
+
+    /**
+     * Name of the verified backup
+     */
+    private final String backupName;
+
+    /**
+     * True if the list of entries of the backup has been read
+     */
+    private final boolean readable;
+
+    /**
+     * Number of verified entries
+     */
+    private final int entryCount;
+
+    /**
+     * Names of entries which are missing, corrupted or undecodable
+     */
+    private final List<String> corruptedEntries;
+
+    /**
+     * Duration of the verification in milliseconds
+     */
+    private final long duration;
+
+    /**
+     * Construct a new verification result.
+     *
+     * @param backupName       name of the verified backup
+     * @param readable         true if the list of entries has been read
+     * @param entryCount       number of verified entries
+     * @param corruptedEntries names of invalid entries
+     * @param duration         duration of the verification in milliseconds
+     */
+    public BackupVerification(String backupName, boolean readable, int entryCount,
+                              List<String> corruptedEntries, long duration) {
+        this.backupName = backupName;
+        this.readable = readable;
+        this.entryCount = entryCount;
+        this.corruptedEntries = Collections.unmodifiableList(corruptedEntries);
+        this.duration = duration;
+    }
+
+    public String getBackupName() {
+        return this.backupName;
+    }
+
+    public boolean isReadable() {
+        return this.readable;
+    }
+
+    public int getEntryCount() {
+        return this.entryCount;
+    }
+
+    public List<String> getCorruptedEntries() {
+        return this.corruptedEntries;
+    }
+
+    public long getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * Check if the backup can be safely applied.
+     *
+     * @return true if the backup is readable and all its entries are valid
+     */
+    public boolean isValid() {
+        return this.readable && this.corruptedEntries.isEmpty();
+    }
+
+}
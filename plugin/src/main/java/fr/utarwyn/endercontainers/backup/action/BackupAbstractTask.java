@@ -16,7 +16,7 @@ public abstract class BackupAbstractTask implements Runnable {
     /**
      * The EnderContainers plugin
      */
-    private final EnderContainers plugin;
+    protected final EnderContainers plugin;
 
     /**
      * The backup manager
@@ -41,6 +41,8 @@ public class BackupApplyTask extends BackupAbstractTask {
     @Override
     public void run() {
         Managers.reload(EnderChestManager.class);
+        // Saves of players who left before the reload may still be pending
+        Managers.get(EnderChestManager.class).getSequencer().awaitPendingTasks();
         this.supplyResult(this.manager.getStorage().applyBackup(this.backup));
     }
 
@@ -1,13 +1,15 @@
 package fr.utarwyn.endercontainers.backup.action;
 
 import fr.utarwyn.endercontainers.EnderContainers;
-import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.backup.Backup;
 import fr.utarwyn.endercontainers.backup.BackupManager;
-import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
+import fr.utarwyn.endercontainers.backup.BackupReport;
+import fr.utarwyn.endercontainers.backup.BackupSnapshot;
+import fr.utarwyn.endercontainers.util.IoRateLimiter;
 
 import java.sql.Timestamp;
 import java.util.function.Consumer;
+import java.util.logging.Level;
 
 /**
  * Task to asynchronously create a backup with a name and an operator.
@@ -27,6 +29,16 @@ public class BackupCreateTask extends BackupAbstractTask {
      */
     private final String name;
 
+    /**
+     * Copies of loaded contexts to put in the backup
+     */
+    private final BackupSnapshot snapshot;
+
+    /**
+     * Limiter used to throttle data transfers of the backup
+     */
+    private final IoRateLimiter limiter;
+
     /**
      * Construct a new task to create a backup.
      *
@@ -34,13 +46,18 @@ public class BackupCreateTask extends BackupAbstractTask {
      * @param manager  the backup manager
      * @param operator operator which creates the backup
      * @param name     name of the backup to create
+     * @param snapshot copies of loaded contexts, taken on the main thread
+     * @param limiter  limiter used to throttle data transfers
      * @param consumer object to consum at the end of the task
      */
     public BackupCreateTask(EnderContainers plugin, BackupManager manager, String operator,
-                            String name, Consumer<Boolean> consumer) {
+                            String name, BackupSnapshot snapshot,
+                            IoRateLimiter limiter, Consumer<Boolean> consumer) {
         super(plugin, manager, consumer);
         this.operator = operator;
         this.name = name;
+        this.snapshot = snapshot;
+        this.limiter = limiter;
     }
 
     /**
@@ -53,15 +70,21 @@ public class BackupCreateTask extends BackupAbstractTask {
         // Create a new backup
         Timestamp now = new Timestamp(System.currentTimeMillis());
         Backup backup = new Backup(this.name, now, this.operator);
+        BackupReport report = new BackupReport(this.limiter);
 
-        // Reload the manager to save all contexts data
-        Managers.reload(EnderChestManager.class);
-
-        // Save the backup in the proper config and execute the backup
-        if (this.manager.getStorage().saveNewBackup(backup) && this.manager.getStorage().executeStorage(backup)) {
+        // Save the backup in the proper config and execute the backup,
+        // copies of loaded contexts are put in the backup instead of their stored data
+        if (this.manager.getStorage().saveNewBackup(backup, this.snapshot, report)
+                && this.manager.getStorage().executeStorage(backup, this.snapshot, report)) {
             result = this.manager.getBackups().add(backup);
         }
 
+        report.finish();
+        if (result) {
+            this.plugin.getLogger().log(Level.INFO, "Backup {0} created in {1}ms: {2} entries, {3} bytes",
+                    new Object[]{this.name, report.getDuration(), report.getEntries(), report.getBytes()});
+        }
+
         this.supplyResult(result);
     }
 
@@ -0,0 +1,52 @@
+package fr.utarwyn.endercontainers.backup.action;
+
+import fr.utarwyn.endercontainers.EnderContainers;
+import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupManager;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Task to asynchronously restore chests of a single player from a backup.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class BackupRestorePlayerTask extends BackupAbstractTask {
+
+    /**
+     * Backup to read
+     */
+    private final Backup backup;
+
+    /**
+     * Owner of chests to restore
+     */
+    private final UUID owner;
+
+    /**
+     * Construct a new task to restore chests of a player.
+     *
+     * @param plugin   the EnderContainers plugin
+     * @param manager  the backup manager
+     * @param backup   backup to read
+     * @param owner    owner of chests to restore
+     * @param consumer object to consume at the end of the task
+     */
+    public BackupRestorePlayerTask(EnderContainers plugin, BackupManager manager,
+                                   Backup backup, UUID owner, Consumer<Boolean> consumer) {
+        super(plugin, manager, consumer);
+        this.backup = backup;
+        this.owner = owner;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+        this.supplyResult(this.manager.getStorage().restorePlayer(this.backup, this.owner));
+    }
+
+}
@@ -0,0 +1,180 @@
+package fr.utarwyn.endercontainers.backup.action;
+
+import fr.utarwyn.endercontainers.EnderContainers;
+import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupEntry;
+import fr.utarwyn.endercontainers.backup.BackupVerification;
+import fr.utarwyn.endercontainers.storage.backups.BackupsData;
+import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+/**
+ * Task to asynchronously check that all entries of a backup can be read.
+ * Entries are compared with their checksum and decoded in parallel,
+ * in a pool dedicated to the task so the common pool is not flooded.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class BackupVerifyTask implements Runnable {
+
+    /**
+     * The EnderContainers plugin
+     */
+    private final EnderContainers plugin;
+
+    /**
+     * Storage which contains the backup
+     */
+    private final BackupsData storage;
+
+    /**
+     * Backup to verify
+     */
+    private final Backup backup;
+
+    /**
+     * Serializer used to decode chest contents
+     */
+    private final ItemSerializer serializer;
+
+    /**
+     * Object to consume when the verification is finished
+     */
+    private final Consumer<BackupVerification> callback;
+
+    /**
+     * Construct a new task to verify a backup.
+     *
+     * @param plugin     the EnderContainers plugin
+     * @param storage    storage which contains the backup
+     * @param backup     backup to verify
+     * @param serializer serializer used to decode chest contents
+     * @param consumer   object to consume at the end of the task
+     */
+    public BackupVerifyTask(EnderContainers plugin, BackupsData storage, Backup backup,
+                            ItemSerializer serializer, Consumer<BackupVerification> consumer) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.backup = backup;
+        this.serializer = serializer;
+        this.callback = consumer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+        long start = System.currentTimeMillis();
+        Optional<List<BackupEntry>> entries = this.storage.readEntries(this.backup);
+        BackupVerification verification;
+
+        if (entries.isPresent()) {
+            List<String> corrupted = this.verifyEntries(entries.get());
+            verification = new BackupVerification(this.backup.getName(), true, entries.get().size(),
+                    corrupted, System.currentTimeMillis() - start);
+        } else {
+            verification = new BackupVerification(this.backup.getName(), false, 0,
+                    Collections.emptyList(), System.currentTimeMillis() - start);
+        }
+
+        this.log(verification);
+        this.plugin.getServer().getScheduler().scheduleSyncDelayedTask(this.plugin,
+                () -> this.callback.accept(verification));
+    }
+
+    /**
+     * Verify all entries in parallel.
+     *
+     * @param entries entries to verify
+     * @return sorted names of corrupted entries
+     */
+    private List<String> verifyEntries(List<BackupEntry> entries) {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        try {
+            return pool.submit(() -> entries.parallelStream()
+                    .filter(entry -> !this.isEntryValid(entry))
+                    .map(BackupEntry::getName)
+                    .sorted()
+                    .collect(Collectors.toList())
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return this.abort(entries, e);
+        } catch (ExecutionException e) {
+            return this.abort(entries, e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Check that an entry matches its checksum and that its chests can be decoded.
+     *
+     * @param entry entry to check
+     * @return true if the entry is valid
+     */
+    private boolean isEntryValid(BackupEntry entry) {
+        try {
+            byte[] data = entry.read();
+
+            if (entry.hasChecksum() && BackupEntry.checksum(data) != entry.getChecksum()) {
+                return false;
+            }
+
+            for (String contents : entry.getContents(data)) {
+                this.serializer.deserialize(contents);
+            }
+
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Consider all entries as corrupted if the verification cannot complete.
+     *
+     * @param entries entries which were verified
+     * @param cause   error which stopped the verification
+     * @return names of all entries
+     */
+    private List<String> abort(List<BackupEntry> entries, Exception cause) {
+        this.plugin.getLogger().log(Level.SEVERE, String.format(
+                "Cannot verify entries of the backup %s", this.backup.getName()), cause);
+
+        return entries.stream().map(BackupEntry::getName).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Log the result of a verification.
+     *
+     * @param verification result to log
+     */
+    private void log(BackupVerification verification) {
+        if (!verification.isReadable()) {
+            this.plugin.getLogger().log(Level.WARNING, "Backup {0} cannot be read", verification.getBackupName());
+        } else if (verification.isValid()) {
+            this.plugin.getLogger().log(Level.INFO, "Backup {0} verified in {1}ms: {2} entries", new Object[]{
+                    verification.getBackupName(), verification.getDuration(), verification.getEntryCount()
+            });
+        } else {
+            this.plugin.getLogger().log(Level.WARNING, "Backup {0} has {1} corrupted entries: {2}", new Object[]{
+                    verification.getBackupName(), verification.getCorruptedEntries().size(),
+                    String.join(", ", verification.getCorruptedEntries())
+            });
+        }
+    }
+
+}
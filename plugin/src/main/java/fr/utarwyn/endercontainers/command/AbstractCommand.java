@@ -1,5 +1,6 @@
 package fr.utarwyn.endercontainers.command;
 
+import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.configuration.LocaleKey;
 import fr.utarwyn.endercontainers.util.PluginMsg;
 import org.bukkit.command.*;
@@ -7,10 +8,9 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 import org.bukkit.util.StringUtil;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -21,6 +21,11 @@ import java.util.stream.Collectors;
  */
 public abstract class AbstractCommand extends Command implements TabCompleter, CommandExecutor, Listener {
 
+    /**
+     * Maximum number of offline player names proposed in an auto-completion
+     */
+    public static final int MAX_NAME_COMPLETIONS = 50;
+
     /**
      * Permission needed to type the command (for a player)
      */
@@ -159,8 +164,8 @@ public abstract class AbstractCommand extends Command implements TabCompleter, C
                 if (param.isCustomCompletions()) {
                     autocompletions.addAll(this.matchCompletions(lastWord, param.getCompletions()));
                 } else {
-                    // If the parameter does not have auto-completion, use the default one (player list)
-                    autocompletions.addAll(super.tabComplete(sender, alias, args));
+                    // If the parameter does not have auto-completion, use online and known players
+                    autocompletions.addAll(this.completePlayerNames(sender, alias, args));
                 }
             }
         }
@@ -210,6 +215,23 @@ public abstract class AbstractCommand extends Command implements TabCompleter, C
         // Not implemented by default
     }
 
+    /**
+     * Run a slow stage of the command off the main thread, like resolving
+     * a player name, and continue the command with its result on the main thread.
+     * The sender is warned if too many of its stages are already in progress.
+     *
+     * @param sender   sender who performed the command
+     * @param resolver stage to run off the main thread
+     * @param callback rest of the command, performed on the main thread
+     * @param <T>      type of the stage result
+     */
+    protected <T> void performAsync(CommandSender sender, Supplier<T> resolver, Consumer<T> callback) {
+        CommandManager manager = Managers.get(CommandManager.class);
+        if (!manager.runStage(sender, resolver, callback)) {
+            PluginMsg.errorMessage(sender, LocaleKey.ERR_CMD_TOO_MANY_PENDING);
+        }
+    }
+
     protected void addParameter(Parameter<?> parameter) {
         this.parameters.add(parameter);
     }
@@ -273,6 +295,29 @@ public abstract class AbstractCommand extends Command implements TabCompleter, C
         return parameter.convertValue(this.args.get(idx));
     }
 
+    /**
+     * Complete a player name with online players first, then with known offline players.
+     *
+     * @param sender sender who wants the auto-completion
+     * @param alias  alias of the command
+     * @param args   arguments sent by the sender
+     * @return completed player names
+     */
+    private List<String> completePlayerNames(CommandSender sender, String alias, String[] args) {
+        List<String> names = new ArrayList<>(super.tabComplete(sender, alias, args));
+        Set<String> lowerNames = new HashSet<>();
+        names.forEach(name -> lowerNames.add(name.toLowerCase(Locale.ROOT)));
+
+        PlayerNameIndex index = Managers.get(CommandManager.class).getNameIndex();
+        for (String name : index.complete(args[args.length - 1], MAX_NAME_COMPLETIONS)) {
+            if (lowerNames.add(name.toLowerCase(Locale.ROOT))) {
+                names.add(name);
+            }
+        }
+
+        return names;
+    }
+
     /**
      * Extract from a list and sort auto-completions that begin with a sent argument.
      *
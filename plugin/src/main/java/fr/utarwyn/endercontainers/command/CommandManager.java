@@ -1,17 +1,24 @@
 package fr.utarwyn.endercontainers.command;
 
 import fr.utarwyn.endercontainers.AbstractManager;
+import fr.utarwyn.endercontainers.util.uuid.UUIDFetcher;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.Server;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitScheduler;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
@@ -22,11 +29,60 @@ import java.util.logging.Level;
  */
 public class CommandManager extends AbstractManager {
 
+    /**
+     * Maximum number of asynchronous stages running at the same time for a sender
+     */
+    public static final int MAX_STAGES_PER_SENDER = 2;
+
+    /**
+     * Asynchronous stages in progress by sender key
+     */
+    private final Map<String, Set<CommandStage>> stages = new HashMap<>();
+
+    /**
+     * Index of known player names used to complete command arguments
+     */
+    private final PlayerNameIndex nameIndex = new PlayerNameIndex();
+
     /**
      * The Bukkit command map retrieved with reflection
      */
     private CommandMap cachedCommandMap;
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        this.registerListener(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void load() {
+        this.plugin.getServer().getScheduler().runTaskAsynchronously(this.plugin, this::indexKnownNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected synchronized void unload() {
+        List<CommandStage> running = new ArrayList<>();
+        synchronized (this.stages) {
+            this.stages.values().forEach(running::addAll);
+            this.stages.clear();
+        }
+
+        running.forEach(CommandStage::cancel);
+    }
+
+    public PlayerNameIndex getNameIndex() {
+        return this.nameIndex;
+    }
+
     /**
      * Register and initialize needed commands for the plugin.
      */
@@ -85,6 +141,143 @@ public class CommandManager extends AbstractManager {
         }
     }
 
+    /**
+     * Run a stage of a command off the main thread, like resolving its arguments,
+     * and pass its result to a callback back on the main thread.
+     * The stage is refused if the sender has too many stages in progress.
+     *
+     * @param sender   sender who performed the command
+     * @param resolver stage to run off the main thread
+     * @param callback action to perform on the main thread with the result
+     * @param <T>      type of the stage result
+     * @return true if the stage has been scheduled
+     */
+    public <T> boolean runStage(CommandSender sender, Supplier<T> resolver, Consumer<T> callback) {
+        CommandStage stage = new CommandStage(getSenderKey(sender));
+
+        synchronized (this.stages) {
+            Set<CommandStage> senderStages = this.stages.computeIfAbsent(stage.getSenderKey(), key -> new HashSet<>());
+            if (senderStages.size() >= MAX_STAGES_PER_SENDER) {
+                return false;
+            }
+            senderStages.add(stage);
+        }
+
+        BukkitScheduler scheduler = this.plugin.getServer().getScheduler();
+        stage.setTask(scheduler.runTaskAsynchronously(this.plugin, () -> {
+            if (stage.isCancelled()) {
+                return;
+            }
+
+            T result;
+            try {
+                result = resolver.get();
+            } catch (RuntimeException e) {
+                this.logger.log(Level.WARNING, String.format(
+                        "Cannot run a command stage of %s", sender.getName()
+                ), e);
+                scheduler.scheduleSyncDelayedTask(this.plugin, () -> this.finishStage(stage));
+                return;
+            }
+
+            scheduler.scheduleSyncDelayedTask(this.plugin, () -> {
+                if (this.finishStage(stage)) {
+                    callback.accept(result);
+                }
+            });
+        }));
+
+        return true;
+    }
+
+    /**
+     * Cancel all asynchronous stages in progress for a sender.
+     *
+     * @param sender sender whose stages have to be cancelled
+     */
+    public void cancelStages(CommandSender sender) {
+        Set<CommandStage> senderStages;
+        synchronized (this.stages) {
+            senderStages = this.stages.remove(getSenderKey(sender));
+        }
+
+        if (senderStages != null) {
+            senderStages.forEach(CommandStage::cancel);
+        }
+    }
+
+    /**
+     * Get the number of asynchronous stages in progress for a sender.
+     *
+     * @param sender sender who performed commands
+     * @return number of stages in progress
+     */
+    public int getStageCount(CommandSender sender) {
+        synchronized (this.stages) {
+            Set<CommandStage> senderStages = this.stages.get(getSenderKey(sender));
+            return senderStages != null ? senderStages.size() : 0;
+        }
+    }
+
+    /**
+     * Index the name of a player when joining the server.
+     *
+     * @param event player join event
+     */
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        this.nameIndex.add(event.getPlayer().getName());
+    }
+
+    /**
+     * Cancel stages of a player when leaving the server.
+     *
+     * @param event player quit event
+     */
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        this.cancelStages(event.getPlayer());
+    }
+
+    /**
+     * Get the key used to count stages of a sender.
+     *
+     * @param sender command sender
+     * @return identifier of a player, name of another sender
+     */
+    private static String getSenderKey(CommandSender sender) {
+        return sender instanceof Player ? ((Player) sender).getUniqueId().toString() : sender.getName();
+    }
+
+    /**
+     * Fill the name index with players known by the server and by the profile cache.
+     * Must be called off the main thread on big servers.
+     */
+    private void indexKnownNames() {
+        this.nameIndex.addAll(UUIDFetcher.getKnownNames());
+
+        for (OfflinePlayer player : this.plugin.getServer().getOfflinePlayers()) {
+            this.nameIndex.add(player.getName());
+        }
+    }
+
+    /**
+     * Remove a finished stage from stages in progress.
+     *
+     * @param stage finished stage
+     * @return true if the result of the stage can be used
+     */
+    private boolean finishStage(CommandStage stage) {
+        synchronized (this.stages) {
+            Set<CommandStage> senderStages = this.stages.get(stage.getSenderKey());
+            if (senderStages != null && senderStages.remove(stage) && senderStages.isEmpty()) {
+                this.stages.remove(stage.getSenderKey());
+            }
+        }
+
+        return !stage.isCancelled();
+    }
+
     /**
      * This method returns the command map of the server!
      *
@@ -0,0 +1,60 @@
+package fr.utarwyn.endercontainers.command;
+
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Asynchronous stage of a command, running off the main thread
+ * on behalf of a sender until its result is back on the main thread.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+class CommandStage {
+
+    /**
+     * Key of the sender who performed the command
+     */
+    private final String senderKey;
+
+    /**
+     * True if the result of the stage must be discarded
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Bukkit task which runs the stage
+     */
+    private BukkitTask task;
+
+    /**
+     * Construct a new command stage.
+     *
+     * @param senderKey key of the sender who performed the command
+     */
+    CommandStage(String senderKey) {
+        this.senderKey = senderKey;
+    }
+
+    String getSenderKey() {
+        return this.senderKey;
+    }
+
+    boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    synchronized void setTask(BukkitTask task) {
+        this.task = task;
+    }
+
+    /**
+     * Cancel the stage, its result will never reach the command.
+     */
+    synchronized void cancel() {
+        this.cancelled = true;
+        if (this.task != null) {
+            this.task.cancel();
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package fr.utarwyn.endercontainers.command;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index of known player names, sorted to complete names by prefix
+ * in logarithmic time. Names are matched without case.
+ * It can be filled from any thread while being queried.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class PlayerNameIndex {
+
+    /**
+     * Player names by lowercase name
+     */
+    private final NavigableMap<String, String> names;
+
+    /**
+     * Construct an empty player name index.
+     */
+    public PlayerNameIndex() {
+        this.names = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Add a player name to the index.
+     *
+     * @param name name of a player, ignored if empty
+     */
+    public void add(String name) {
+        if (name != null && !name.isEmpty()) {
+            this.names.put(name.toLowerCase(Locale.ROOT), name);
+        }
+    }
+
+    /**
+     * Add several player names to the index.
+     *
+     * @param names names of players
+     */
+    public void addAll(Iterable<String> names) {
+        for (String name : names) {
+            this.add(name);
+        }
+    }
+
+    /**
+     * Get the number of indexed names.
+     *
+     * @return number of names
+     */
+    public int size() {
+        return this.names.size();
+    }
+
+    /**
+     * Get names beginning with a prefix, ignoring case.
+     *
+     * @param prefix beginning of the names
+     * @param limit  maximum number of names to return
+     * @return matching names, sorted without case
+     */
+    public List<String> complete(String prefix, int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        List<String> completions = new ArrayList<>(Math.min(limit, 16));
+
+        for (Map.Entry<String, String> entry : this.names.tailMap(from, true).entrySet()) {
+            if (completions.size() >= limit || !entry.getKey().startsWith(from)) {
+                break;
+            }
+            completions.add(entry.getValue());
+        }
+
+        return completions;
+    }
+
+}
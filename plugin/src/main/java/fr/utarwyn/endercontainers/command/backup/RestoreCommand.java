@@ -0,0 +1,76 @@
+package fr.utarwyn.endercontainers.command.backup;
+
+import fr.utarwyn.endercontainers.backup.BackupManager;
+import fr.utarwyn.endercontainers.command.Parameter;
+import fr.utarwyn.endercontainers.configuration.LocaleKey;
+import fr.utarwyn.endercontainers.util.PluginMsg;
+import fr.utarwyn.endercontainers.util.uuid.UUIDFetcher;
+import org.bukkit.command.CommandSender;
+
+import java.util.*;
+
+public class RestoreCommand extends AbstractBackupCommand {
+
+    public RestoreCommand(BackupManager manager) {
+        super("restore", manager);
+
+        this.setPermission("endercontainers.backup.restore");
+        this.addParameter(Parameter.string());
+        this.addParameter(Parameter.string().withPlayersCompletions());
+    }
+
+    @Override
+    public void perform(CommandSender sender) {
+        String name = this.readArg();
+        String playerList = this.readArg();
+
+        if (!this.manager.getBackupByName(name).isPresent()) {
+            PluginMsg.errorMessage(
+                    sender, LocaleKey.CMD_BACKUP_UNKNOWN,
+                    Collections.singletonMap("backup", name)
+            );
+            return;
+        }
+
+        // Several players can be restored at once, separated by commas
+        List<String> playernames = new ArrayList<>(new LinkedHashSet<>(Arrays.asList(playerList.split(","))));
+        playernames.removeIf(String::isEmpty);
+
+        this.performAsync(sender, () -> UUIDFetcher.getUUIDs(playernames), uuids -> {
+            for (String playername : playernames) {
+                UUID uuid = uuids.get(playername);
+                if (uuid == null) {
+                    PluginMsg.errorMessage(
+                            sender, LocaleKey.ERR_PLAYER_NOT_FOUND,
+                            Collections.singletonMap("playername", playername)
+                    );
+                } else {
+                    this.restorePlayer(sender, name, playername, uuid);
+                }
+            }
+        });
+    }
+
+    /**
+     * Restore chests of a player from a backup and report the result.
+     *
+     * @param sender     sender of the command
+     * @param name       name of the backup
+     * @param playername name of the player
+     * @param uuid       identifier of the player
+     */
+    private void restorePlayer(CommandSender sender, String name, String playername, UUID uuid) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("backup", name);
+        parameters.put("player", playername);
+
+        this.manager.restorePlayerBackup(name, uuid, result -> {
+            if (Boolean.TRUE.equals(result)) {
+                PluginMsg.successMessage(sender, LocaleKey.CMD_BACKUP_RESTORED, parameters);
+            } else {
+                PluginMsg.errorMessage(sender, LocaleKey.CMD_BACKUP_RESTORE_EMPTY, parameters);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,53 @@
+package fr.utarwyn.endercontainers.command.backup;
+
+import fr.utarwyn.endercontainers.backup.BackupManager;
+import fr.utarwyn.endercontainers.command.Parameter;
+import fr.utarwyn.endercontainers.configuration.LocaleKey;
+import fr.utarwyn.endercontainers.util.PluginMsg;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class VerifyCommand extends AbstractBackupCommand {
+
+    public VerifyCommand(BackupManager manager) {
+        super("verify", manager, "check");
+
+        this.setPermission("endercontainers.backup.verify");
+        this.addParameter(Parameter.string());
+    }
+
+    @Override
+    public void perform(CommandSender sender) {
+        String name = this.readArg();
+
+        if (!this.manager.getBackupByName(name).isPresent()) {
+            PluginMsg.errorMessage(
+                    sender, LocaleKey.CMD_BACKUP_UNKNOWN,
+                    Collections.singletonMap("backup", name)
+            );
+            return;
+        }
+
+        PluginMsg.infoMessage(sender, LocaleKey.CMD_BACKUP_VERIFICATION_STARTED);
+
+        this.manager.verifyBackup(name, verification -> {
+            Map<String, String> parameters = new HashMap<>();
+            parameters.put("backup", name);
+
+            if (!verification.isReadable()) {
+                PluginMsg.errorMessage(sender, LocaleKey.CMD_BACKUP_UNREADABLE, parameters);
+            } else if (verification.isValid()) {
+                parameters.put("entries", String.valueOf(verification.getEntryCount()));
+                PluginMsg.successMessage(sender, LocaleKey.CMD_BACKUP_VERIFIED, parameters);
+            } else {
+                parameters.put("count", String.valueOf(verification.getCorruptedEntries().size()));
+                parameters.put("entries", String.join(", ", verification.getCorruptedEntries()));
+                PluginMsg.errorMessage(sender, LocaleKey.CMD_BACKUP_CORRUPTED, parameters);
+            }
+        });
+    }
+
+}
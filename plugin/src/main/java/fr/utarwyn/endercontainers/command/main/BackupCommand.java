@@ -27,6 +27,8 @@ public class BackupCommand extends AbstractCommand {
         this.addSubCommand(new InfoCommand(manager));
         this.addSubCommand(new CreateCommand(manager));
         this.addSubCommand(new LoadCommand(manager));
+        this.addSubCommand(new RestoreCommand(manager));
+        this.addSubCommand(new VerifyCommand(manager));
         this.addSubCommand(new RemoveCommand(manager));
     }
 
@@ -46,6 +48,10 @@ public class BackupCommand extends AbstractCommand {
         sender.sendMessage("  §7   ⏩ Create a new backup");
         sender.sendMessage("  " + HelpCommand.formatCommandFor(sender, "§6/ecp backup load §e[name]", "backup.load"));
         sender.sendMessage("  §7   ⏩ Replace all saved data by the backup");
+        sender.sendMessage("  " + HelpCommand.formatCommandFor(sender, "§6/ecp backup restore §e[name] [player]", "backup.restore"));
+        sender.sendMessage("  §7   ⏩ Restore chests of one player from the backup");
+        sender.sendMessage("  " + HelpCommand.formatCommandFor(sender, "§6/ecp backup verify §e[name]", "backup.verify"));
+        sender.sendMessage("  §7   ⏩ Check that all chests of the backup can be read");
         sender.sendMessage("  " + HelpCommand.formatCommandFor(sender, "§6/ecp backup remove §e[name]", "backup.remove"));
         sender.sendMessage("  §7   ⏩ Delete a backup with all its data");
         sender.sendMessage(" ");
@@ -12,7 +12,6 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.Collections;
-import java.util.UUID;
 
 public class OpenCommand extends AbstractCommand {
 
@@ -35,16 +34,17 @@ public class OpenCommand extends AbstractCommand {
         }
 
         String playername = this.readArg();
-        UUID uuid = UUIDFetcher.getUUID(playername);
-
-        if (uuid != null) {
-            this.manager.loadPlayerContext(uuid, context -> context.openListInventory(player));
-        } else {
-            PluginMsg.errorMessage(
-                    player, LocaleKey.ERR_PLAYER_NOT_FOUND,
-                    Collections.singletonMap("playername", playername)
-            );
-        }
+
+        this.performAsync(player, () -> UUIDFetcher.getUUID(playername), uuid -> {
+            if (uuid != null) {
+                this.manager.loadPlayerContext(uuid, context -> context.openListInventory(player));
+            } else {
+                PluginMsg.errorMessage(
+                        player, LocaleKey.ERR_PLAYER_NOT_FOUND,
+                        Collections.singletonMap("playername", playername)
+                );
+            }
+        });
     }
 
     @Override
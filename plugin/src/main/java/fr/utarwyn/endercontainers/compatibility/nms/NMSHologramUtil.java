@@ -2,10 +2,11 @@ package fr.utarwyn.endercontainers.compatibility.nms;
 
 import fr.utarwyn.endercontainers.compatibility.ServerVersion;
 import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.entity.Player;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.List;
@@ -14,6 +15,7 @@ import java.util.Optional;
 /**
  * This class is used to perform reflection things
  * on server net classes to spawn holograms for all versions.
+ * Version differences are handled once when resolving method handles.
  *
  * @author Utarwyn
  * @since 2.2.0
@@ -21,322 +23,411 @@ import java.util.Optional;
 public class NMSHologramUtil extends NMSUtil {
 
     /**
-     * Singleton instance of the utility class.
+     * Name of the group of handles used by holograms
      */
-    private static NMSHologramUtil instance;
+    private static final String GROUP = "hologram";
 
     /**
-     * Reflection NMS Entity class
+     * Singleton instance of the utility class.
      */
-    private final Class<?> entityClass;
+    private static NMSHologramUtil instance;
 
     /**
-     * Reflection NMS Packet class
+     * Utility class.
      */
-    private final Class<?> packetClass;
+    private NMSHologramUtil() {
+        // Handles are stored in a static holder
+    }
 
     /**
-     * Reflection CraftWorld class
+     * Retrieves or creates an instance of the utility class.
+     *
+     * @return utility class instance
+     * @throws ReflectiveOperationException thrown if cannot resolve NMS members
      */
-    private final Class<?> craftWorldClass;
+    public static NMSHologramUtil get() throws ReflectiveOperationException {
+        if (instance == null) {
+            resolveHandles();
+            checkHandles(GROUP);
+            instance = new NMSHologramUtil();
+        }
+        return instance;
+    }
 
     /**
-     * CraftChatMessages class for 1.13+ holograms
+     * Resolve all method handles used by holograms, if not already done.
      */
-    private final Class<?> chatMessageClass;
+    static void resolveHandles() {
+        Handles.load();
+    }
 
     /**
-     * IChatBaseComponent class for 1.13+ holograms
+     * Convert an entity identifier to an array of identifiers.
+     *
+     * @param entityId entity identifier
+     * @return array with the identifier
      */
-    private final Class<?> chatBaseComponentClass;
+    private static int[] toIdArray(int entityId) {
+        return new int[]{entityId};
+    }
 
     /**
-     * Constructor of the ArmorStand class
+     * Create a custom hologram entity (text, location) without spawning it.
+     * The entity can be spawned and updated many times for an observer.
+     *
+     * @param location location of the hologram
+     * @param text     text to display with the hologram
+     * @return server entity of the hologram
+     * @throws ReflectiveOperationException error with reflection
      */
-    private final Constructor<?> armorStandConstructor;
+    public Object createHologram(Location location, String text) throws ReflectiveOperationException {
+        try {
+            Object entity = Handles.NEW_ARMOR_STAND.invokeExact((Object) location.getWorld());
+            Handles.SET_CUSTOM_NAME.invokeExact(entity, (Object) text);
+            Handles.DISABLE_GRAVITY.invokeExact(entity);
+            Handles.SET_CUSTOM_NAME_VISIBLE.invokeExact(entity, true);
+            Handles.SET_LOCATION.invokeExact(entity, location.getX(), location.getY(), location.getZ());
+            Handles.SET_INVISIBLE.invokeExact(entity);
+            return entity;
+        } catch (Throwable throwable) {
+            throw wrap(throwable);
+        }
+    }
 
     /**
-     * Constructor for the spawn packet
+     * Spawn a hologram entity for a player.
+     *
+     * @param entity   server entity of the hologram
+     * @param observer observer of the hologram
+     * @return Entity identifier of the spawned hologram
+     * @throws ReflectiveOperationException error with reflection
+     * @see <a href="https://wiki.vg/Protocol#Spawn_Mob">Protocol for 1.8 to 1.14</a>
+     * @see <a href="https://wiki.vg/Pre-release_protocol#Spawn_Mob">Protocol for 1.15+</a>
      */
-    private final Constructor<?> spawnPacketConstructor;
+    public int spawnEntity(Object entity, Player observer) throws ReflectiveOperationException {
+        try {
+            int entityId = (int) Handles.GET_ID.invokeExact(entity);
 
-    /**
-     * Metadata Packet constructor for 1.15+ holograms
-     */
-    private final Constructor<?> metadataPacketConstructor;
+            // Send the spawn packet for 1.8+
+            Handles.SEND_PACKET.invokeExact((Object) observer, Handles.NEW_SPAWN_PACKET.invokeExact(entity));
 
-    /**
-     * Constructor for the destroy packet
-     */
-    private Constructor<?> destroyPacketConstructor;
+            // Send the metadata packet for 1.15+
+            if (Handles.SEPARATE_SPAWN_METADATA) {
+                Handles.SEND_PACKET.invokeExact((Object) observer, Handles.NEW_METADATA_PACKET.invokeExact(entityId, entity));
+            }
+
+            return entityId;
+        } catch (Throwable throwable) {
+            throw wrap(throwable);
+        }
+    }
 
     /**
-     * Stores if constructor for the destroy packet uses only one parameter
+     * Move a spawned hologram entity for a player.
+     *
+     * @param entity   server entity of the hologram
+     * @param location new location of the hologram
+     * @param observer observer of the hologram
+     * @throws ReflectiveOperationException error with reflection
      */
-    private boolean destroyPacketConstructorOneInt;
+    public void teleportEntity(Object entity, Location location, Player observer) throws ReflectiveOperationException {
+        try {
+            Handles.SET_LOCATION.invokeExact(entity, location.getX(), location.getY(), location.getZ());
+            Handles.SEND_PACKET.invokeExact((Object) observer, Handles.NEW_TELEPORT_PACKET.invokeExact(entity));
+        } catch (Throwable throwable) {
+            throw wrap(throwable);
+        }
+    }
 
     /**
-     * EntityTypes invokation method for 1.14+ holograms
+     * Update the text of a spawned hologram entity for a player,
+     * only by sending its changed metadata.
+     *
+     * @param entity   server entity of the hologram
+     * @param text     text to display with the hologram
+     * @param visible  true to show the text, false to hide it
+     * @param observer observer of the hologram
+     * @throws ReflectiveOperationException error with reflection
      */
-    private final Method entityTypesInvokationMethod;
+    public void updateHologram(Object entity, String text, boolean visible, Player observer)
+            throws ReflectiveOperationException {
+        try {
+            Handles.SET_CUSTOM_NAME.invokeExact(entity, (Object) text);
+            Handles.SET_CUSTOM_NAME_VISIBLE.invokeExact(entity, visible);
+
+            int entityId = (int) Handles.GET_ID.invokeExact(entity);
+            Handles.SEND_PACKET.invokeExact((Object) observer, Handles.NEW_METADATA_PACKET.invokeExact(entityId, entity));
+        } catch (Throwable throwable) {
+            throw wrap(throwable);
+        }
+    }
 
     /**
-     * Field with a playerConnection
+     * Destroy a specific entity for a player by its identifier.
+     *
+     * @param entityId identifier of the entity to destroy
+     * @param observer player concerned by the deletion
+     * @throws ReflectiveOperationException error with reflection
      */
-    private final Field playerConnectionField;
+    public void destroyEntity(int entityId, Player observer) throws ReflectiveOperationException {
+        try {
+            Handles.SEND_PACKET.invokeExact((Object) observer, Handles.NEW_DESTROY_PACKET.invokeExact(entityId));
+        } catch (Throwable throwable) {
+            throw wrap(throwable);
+        }
+    }
 
     /**
-     * Utility class.
+     * Holder of method handles, resolved once when first used.
+     * All handles accept and return objects to hide NMS classes.
      */
-    private NMSHologramUtil() throws ReflectiveOperationException {
-        Class<?> worldClass = getNMSClass("World", "world.level");
-        Class<?> armorStandClass = getNMSClass("EntityArmorStand", "world.entity.decoration");
-        Class<?> entityPlayerClass = getNMSClass("EntityPlayer", "server.level");
-        Class<?> destroyPacketClass = getNMSClass("PacketPlayOutEntityDestroy", "network.protocol.game");
-
-        // 1.19+ :: PacketPlayOutSpawnEntityLiving has been renamed PacketPlayOutSpawnEntity
-        String spawnPacketClassName = ServerVersion.isNewerThan(ServerVersion.V1_18)
-                ? "PacketPlayOutSpawnEntity" : "PacketPlayOutSpawnEntityLiving";
-        Class<?> spawnPacketClass = getNMSClass(spawnPacketClassName, "network.protocol.game");
-
-        this.packetClass = getNMSClass("Packet", "network.protocol");
-        this.entityClass = getNMSClass("Entity", "world.entity");
-        this.craftWorldClass = getCraftbukkitClass("CraftWorld");
-
-        // 1.19.3+ :: spawn packet constructor use Entity instead of LivingEntity
-        if (ServerVersion.isNewerThan(ServerVersion.V1_19)) {
-            this.spawnPacketConstructor = spawnPacketClass.getConstructor(this.entityClass);
-        } else {
-            this.spawnPacketConstructor = spawnPacketClass.getConstructor(getNMSClass("EntityLiving", "world.entity"));
+    private static final class Handles {
+
+        /**
+         * (CraftWorld) -> EntityArmorStand
+         */
+        static final MethodHandle NEW_ARMOR_STAND;
+
+        /**
+         * (Entity, String) -> void
+         */
+        static final MethodHandle SET_CUSTOM_NAME;
+
+        /**
+         * (Entity) -> void
+         */
+        static final MethodHandle DISABLE_GRAVITY;
+
+        /**
+         * (Entity, boolean) -> void
+         */
+        static final MethodHandle SET_CUSTOM_NAME_VISIBLE;
+
+        /**
+         * (Entity, double, double, double) -> void
+         */
+        static final MethodHandle SET_LOCATION;
+
+        /**
+         * (Entity) -> void
+         */
+        static final MethodHandle SET_INVISIBLE;
+
+        /**
+         * (Entity) -> int
+         */
+        static final MethodHandle GET_ID;
+
+        /**
+         * (Entity) -> Packet
+         */
+        static final MethodHandle NEW_SPAWN_PACKET;
+
+        /**
+         * (int, Entity) -> Packet
+         */
+        static final MethodHandle NEW_METADATA_PACKET;
+
+        /**
+         * (Entity) -> Packet
+         */
+        static final MethodHandle NEW_TELEPORT_PACKET;
+
+        /**
+         * 1.15+ :: entity metadatas have to be sent in separate packet on spawn
+         */
+        static final boolean SEPARATE_SPAWN_METADATA = ServerVersion.isNewerThan(ServerVersion.V1_14);
+
+        /**
+         * (int) -> Packet
+         */
+        static final MethodHandle NEW_DESTROY_PACKET;
+
+        /**
+         * (CraftPlayer, Packet) -> void
+         */
+        static final MethodHandle SEND_PACKET;
+
+        static {
+            NEW_ARMOR_STAND = resolve(GROUP + ".newArmorStand", Handles::resolveNewArmorStand);
+            SET_CUSTOM_NAME = resolve(GROUP + ".setCustomName", Handles::resolveSetCustomName);
+            DISABLE_GRAVITY = resolve(GROUP + ".disableGravity", Handles::resolveDisableGravity);
+            SET_CUSTOM_NAME_VISIBLE = resolve(GROUP + ".setCustomNameVisible", () -> LOOKUP.unreflect(
+                    getNMSDynamicMethod(entityClass(), "setCustomNameVisible", "n", boolean.class)
+            ).asType(MethodType.methodType(void.class, Object.class, boolean.class)));
+            SET_LOCATION = resolve(GROUP + ".setLocation", () -> MethodHandles.insertArguments(
+                    LOOKUP.unreflect(getNMSDynamicMethod(armorStandClass(), "setLocation", "a",
+                            double.class, double.class, double.class, float.class, float.class)), 4, 0F, 0F
+            ).asType(MethodType.methodType(void.class, Object.class, double.class, double.class, double.class)));
+            SET_INVISIBLE = resolve(GROUP + ".setInvisible", () -> generic(MethodHandles.insertArguments(
+                    LOOKUP.unreflect(getNMSDynamicMethod(armorStandClass(), "setInvisible", "j", boolean.class)), 1, true
+            )));
+            GET_ID = resolve(GROUP + ".getId", () -> LOOKUP.unreflect(getIdMethod())
+                    .asType(MethodType.methodType(int.class, Object.class)));
+            NEW_SPAWN_PACKET = resolve(GROUP + ".newSpawnPacket", Handles::resolveNewSpawnPacket);
+            NEW_METADATA_PACKET = resolve(GROUP + ".newMetadataPacket", Handles::resolveNewMetadataPacket);
+            NEW_TELEPORT_PACKET = resolve(GROUP + ".newTeleportPacket", () -> generic(LOOKUP.unreflectConstructor(
+                    getNMSClass("PacketPlayOutEntityTeleport", "network.protocol.game").getConstructor(entityClass())
+            )));
+            NEW_DESTROY_PACKET = resolve(GROUP + ".newDestroyPacket", Handles::resolveNewDestroyPacket);
+            SEND_PACKET = resolve(GROUP + ".sendPacket", Handles::resolveSendPacket);
         }
 
-        // 1.17+ :: try to use only one int in packet constructor parameters
-        try {
-            this.destroyPacketConstructor = destroyPacketClass.getConstructor(int[].class);
-            this.destroyPacketConstructorOneInt = false;
-        } catch (NoSuchMethodException ignored) {
-            this.destroyPacketConstructor = destroyPacketClass.getConstructor(int.class);
-            this.destroyPacketConstructorOneInt = true;
+        private Handles() {
+            // Holder class
         }
 
-        // 1.17+ :: New way of retrieving player connection instance
-        if (ServerVersion.isNewerThan(ServerVersion.V1_16)) {
-            this.playerConnectionField = entityPlayerClass.getField("b");
-        } else {
-            this.playerConnectionField = entityPlayerClass.getField("playerConnection");
+        /**
+         * Force the resolution of handles by initializing the holder.
+         */
+        static void load() {
+            // Handles are resolved by the static initializer
         }
 
-        // 1.13+ :: text to display needed to be converted to a IChatBaseComponent component
-        if (ServerVersion.isNewerThan(ServerVersion.V1_12)) {
-            this.chatMessageClass = getCraftbukkitClass("util.CraftChatMessage");
-            this.chatBaseComponentClass = getNMSClass("IChatBaseComponent", "network.chat");
-        } else {
-            this.chatMessageClass = null;
-            this.chatBaseComponentClass = null;
+        private static Class<?> entityClass() throws ClassNotFoundException {
+            return getNMSClass("Entity", "world.entity");
         }
 
-        // 1.14+ :: the living entity constructor must be called with the entity type
-        if (ServerVersion.isNewerThan(ServerVersion.V1_13)) {
-            Class<?> entityTypesClass = getNMSClass("EntityTypes", "world.entity");
-            this.entityTypesInvokationMethod = entityTypesClass.getMethod("a", String.class);
-            this.armorStandConstructor = armorStandClass.getConstructor(entityTypesClass, worldClass);
-        } else {
-            this.entityTypesInvokationMethod = null;
-            this.armorStandConstructor = armorStandClass.getConstructor(worldClass);
+        private static Class<?> armorStandClass() throws ClassNotFoundException {
+            return getNMSClass("EntityArmorStand", "world.entity.decoration");
         }
 
-        // 1.15+ :: entity metadatas have to be sent in separate packet
-        if (ServerVersion.isNewerThan(ServerVersion.V1_14)) {
-            Class<?> packetMetadataClass = getNMSClass("PacketPlayOutEntityMetadata", "network.protocol.game");
-            Class<?> dataWatcherClass = getNMSClass("DataWatcher", "network.syncher");
+        private static MethodHandle resolveNewArmorStand() throws ReflectiveOperationException {
+            Class<?> worldClass = getNMSClass("World", "world.level");
+            Class<?> craftWorldClass = getCraftbukkitClass("CraftWorld");
+            MethodHandle constructor;
 
-            // 1.19.3+ :: metadata packet use a list of datawatcher items
-            if (ServerVersion.isNewerThan(ServerVersion.V1_19)) {
-                this.metadataPacketConstructor = packetMetadataClass.getConstructor(int.class, List.class);
+            // 1.14+ :: the living entity constructor must be called with the entity type
+            if (ServerVersion.isNewerThan(ServerVersion.V1_13)) {
+                Class<?> entityTypesClass = getNMSClass("EntityTypes", "world.entity");
+                Optional<?> armorStandType = (Optional<?>) entityTypesClass.getMethod("a", String.class).invoke(null, "armor_stand");
+                Object type = armorStandType.orElseThrow(() -> new NullPointerException("ArmorStand entity type not found"));
+
+                constructor = MethodHandles.insertArguments(LOOKUP.unreflectConstructor(
+                        armorStandClass().getConstructor(entityTypesClass, worldClass)), 0, type);
             } else {
-                this.metadataPacketConstructor = packetMetadataClass.getConstructor(int.class, dataWatcherClass, boolean.class);
+                constructor = LOOKUP.unreflectConstructor(armorStandClass().getConstructor(worldClass));
             }
-        } else {
-            this.metadataPacketConstructor = null;
-        }
-    }
 
-    /**
-     * Retrieves or creates an instance of the utility class.
-     *
-     * @return utility class instance
-     * @throws ReflectiveOperationException thrown if cannot instanciate NMS objects
-     */
-    public static NMSHologramUtil get() throws ReflectiveOperationException {
-        if (instance == null) {
-            instance = new NMSHologramUtil();
+            MethodHandle getWorldHandle = LOOKUP.unreflect(craftWorldClass.getMethod("getHandle"))
+                    .asType(MethodType.methodType(worldClass, craftWorldClass));
+            return generic(MethodHandles.filterArguments(constructor, 0, getWorldHandle));
         }
-        return instance;
-    }
 
-    /**
-     * Spawn a custom hologram (text, location) for a player.
-     *
-     * @param location location of the hologram
-     * @param text     text to display with the hologram
-     * @param observer observer of the hologram
-     * @return Entity identifier of the spawned hologram
-     * @throws ReflectiveOperationException error with reflection
-     * @see <a href="https://wiki.vg/Protocol#Spawn_Mob">Protocol for 1.8 to 1.14</a>
-     * @see <a href="https://wiki.vg/Pre-release_protocol#Spawn_Mob">Protocol for 1.15+</a>
-     */
-    public int spawnHologram(Location location, String text, Player observer) throws ReflectiveOperationException {
-        // Then, we need to generate the fake armorstand
-        Object entity = this.createHologramEntity(location.getWorld(), location.getX(), location.getY(), location.getZ(), text);
-
-        // 1.19.3+ — 1.18+ :: New method name in Entity class
-        Method getId;
-        if (ServerVersion.isNewerThan(ServerVersion.V1_19)) {
-            getId = this.entityClass.getMethod("ah");
-        } else {
-            getId = getNMSDynamicMethod(this.entityClass, "getId", "ae");
+        private static MethodHandle resolveSetCustomName() throws ReflectiveOperationException {
+            // In 1.13+ versions, the custom name must be a IChatBaseComponent component
+            if (ServerVersion.isNewerThan(ServerVersion.V1_12)) {
+                Class<?> chatBaseComponentClass = getNMSClass("IChatBaseComponent", "network.chat");
+                Method fromString = getCraftbukkitClass("util.CraftChatMessage").getMethod("fromStringOrNull", String.class);
+
+                // 1.19+ :: method is now "b" (instead of "a")
+                String methodNamePost17 = ServerVersion.isNewerThan(ServerVersion.V1_18) ? "b" : "a";
+                MethodHandle setCustomName = LOOKUP.unreflect(getNMSDynamicMethod(
+                        armorStandClass(), "setCustomName", methodNamePost17, chatBaseComponentClass));
+
+                MethodHandle toComponent = LOOKUP.unreflect(fromString)
+                        .asType(MethodType.methodType(chatBaseComponentClass, String.class));
+                return generic(MethodHandles.filterArguments(setCustomName, 1, toComponent));
+            }
+
+            return generic(LOOKUP.unreflect(armorStandClass().getMethod("setCustomName", String.class)));
         }
-        int entityId = (int) getId.invoke(entity);
 
-        // Send the spawn packet for 1.8+
-        this.sendPacket(observer, spawnPacketConstructor.newInstance(entity));
+        private static MethodHandle resolveDisableGravity() throws ReflectiveOperationException {
+            // In 1.10+ versions, setGravity has been replaced with setNoGravity
+            if (ServerVersion.isNewerThan(ServerVersion.V1_9)) {
+                Method setNoGravity = getNMSDynamicMethod(armorStandClass(), "setNoGravity", "e", boolean.class);
+                return generic(MethodHandles.insertArguments(LOOKUP.unreflect(setNoGravity), 1, true));
+            }
 
-        // Send the metadata packet for 1.15+
-        if (ServerVersion.isNewerThan(ServerVersion.V1_14)) {
-            Object metadataPacket = this.createEntityMetadataPacket(entityId, entity);
-            this.sendPacket(observer, metadataPacket);
+            Method setGravity = armorStandClass().getMethod("setGravity", boolean.class);
+            return generic(MethodHandles.insertArguments(LOOKUP.unreflect(setGravity), 1, false));
         }
 
-        return entityId;
-    }
+        private static Method getIdMethod() throws ReflectiveOperationException {
+            // 1.19.3+ — 1.18+ :: New method name in Entity class
+            if (ServerVersion.isNewerThan(ServerVersion.V1_19)) {
+                return entityClass().getMethod("ah");
+            }
+            return getNMSDynamicMethod(entityClass(), "getId", "ae");
+        }
 
-    /**
-     * Destroy a specific entity for a player by its identifier.
-     *
-     * @param entityId identifier of the entity to destroy
-     * @param observer player concerned by the deletion
-     * @throws ReflectiveOperationException error with reflection
-     */
-    public void destroyEntity(int entityId, Player observer) throws ReflectiveOperationException {
-        Object packet;
+        private static MethodHandle resolveNewSpawnPacket() throws ReflectiveOperationException {
+            // 1.19+ :: PacketPlayOutSpawnEntityLiving has been renamed PacketPlayOutSpawnEntity
+            String spawnPacketClassName = ServerVersion.isNewerThan(ServerVersion.V1_18)
+                    ? "PacketPlayOutSpawnEntity" : "PacketPlayOutSpawnEntityLiving";
+            Class<?> spawnPacketClass = getNMSClass(spawnPacketClassName, "network.protocol.game");
+
+            // 1.19.3+ :: spawn packet constructor use Entity instead of LivingEntity
+            Class<?> entityParameterClass = ServerVersion.isNewerThan(ServerVersion.V1_19)
+                    ? entityClass() : getNMSClass("EntityLiving", "world.entity");
 
-        if (this.destroyPacketConstructorOneInt) {
-            packet = this.destroyPacketConstructor.newInstance(entityId);
-        } else {
-            packet = this.destroyPacketConstructor.newInstance(new int[]{entityId});
+            return generic(LOOKUP.unreflectConstructor(spawnPacketClass.getConstructor(entityParameterClass)));
         }
 
-        this.sendPacket(observer, packet);
-    }
+        private static MethodHandle resolveNewMetadataPacket() throws ReflectiveOperationException {
+            Class<?> packetMetadataClass = getNMSClass("PacketPlayOutEntityMetadata", "network.protocol.game");
+            Class<?> dataWatcherClass = getNMSClass("DataWatcher", "network.syncher");
+            MethodHandle constructor;
+            MethodHandle getMetadata;
 
-    /**
-     * Send a packet to the player linked to the hologram.
-     *
-     * @param player the player who has to receive the packet
-     * @param packet the packet to send
-     * @throws ReflectiveOperationException error with reflection
-     */
-    private void sendPacket(Player player, Object packet) throws ReflectiveOperationException {
-        Method getHandle = player.getClass().getMethod("getHandle");
-        Object entityPlayer = getHandle.invoke(player);
-        Object pConnection = this.playerConnectionField.get(entityPlayer);
-        Method sendMethod = getNMSDynamicMethod(pConnection.getClass(), "sendPacket", "a", this.packetClass);
+            // 1.19.3+ :: metadata packet use a list of datawatcher items
+            if (ServerVersion.isNewerThan(ServerVersion.V1_19)) {
+                MethodHandle getDataWatcher = LOOKUP.unreflect(entityClass().getMethod("al"))
+                        .asType(MethodType.methodType(dataWatcherClass, entityClass()));
+                MethodHandle getItemList = LOOKUP.unreflect(dataWatcherClass.getMethod("b"))
+                        .asType(MethodType.methodType(List.class, dataWatcherClass));
 
-        sendMethod.invoke(pConnection, packet);
-    }
+                constructor = LOOKUP.unreflectConstructor(packetMetadataClass.getConstructor(int.class, List.class));
+                getMetadata = MethodHandles.filterReturnValue(getDataWatcher, getItemList);
+            } else {
+                constructor = MethodHandles.insertArguments(LOOKUP.unreflectConstructor(
+                        packetMetadataClass.getConstructor(int.class, dataWatcherClass, boolean.class)), 2, false);
+                getMetadata = LOOKUP.unreflect(getNMSDynamicMethod(entityClass(), "getDataWatcher", "ai"))
+                        .asType(MethodType.methodType(dataWatcherClass, entityClass()));
+            }
 
-    /**
-     * Create the entity used to display an hologram.
-     *
-     * @param w    World
-     * @param x    X coordinate
-     * @param y    Y coordinate
-     * @param z    Z coordinate
-     * @param text Text to display
-     * @return The spawn packet object
-     * @throws ReflectiveOperationException error with reflection
-     */
-    private Object createHologramEntity(World w, double x, double y, double z, String text) throws ReflectiveOperationException {
-        Object craftWorldObj = this.craftWorldClass.cast(w);
-        Method getHandleMethod = craftWorldObj.getClass().getMethod("getHandle");
-        Object entityObject;
-
-        // In 1.14+ versions, we need to specify a type to create an instance of an ArmorStand.
-        if (ServerVersion.isNewerThan(ServerVersion.V1_13)) {
-            Optional<Object> armorStandType = (Optional<Object>) this.entityTypesInvokationMethod.invoke(null, "armor_stand");
-            entityObject = this.armorStandConstructor.newInstance(
-                    armorStandType.orElseThrow(() -> new NullPointerException("ArmorStand entity type not found")),
-                    getHandleMethod.invoke(craftWorldObj));
-        } else {
-            entityObject = this.armorStandConstructor.newInstance(getHandleMethod.invoke(craftWorldObj));
+            return MethodHandles.filterArguments(constructor, 1, getMetadata)
+                    .asType(MethodType.methodType(Object.class, int.class, Object.class));
         }
 
-        // In 1.13+ versions, the custom name must be a IChatBaseComponent component
-        if (ServerVersion.isNewerThan(ServerVersion.V1_12)) {
-            Method fromStringOrNullMethod = this.chatMessageClass.getMethod("fromStringOrNull", String.class);
-            Object chatComponent = fromStringOrNullMethod.invoke(null, text);
-
-            // 1.19+ :: method is now "b" (instead of "a")
-            String methodNamePost17 = ServerVersion.isNewerThan(ServerVersion.V1_18) ? "b" : "a";
-            getNMSDynamicMethod(entityObject.getClass(), "setCustomName", methodNamePost17, this.chatBaseComponentClass)
-                    .invoke(entityObject, chatComponent);
-        } else {
-            Method setCustomName = entityObject.getClass().getMethod("setCustomName", String.class);
-            setCustomName.invoke(entityObject, text);
-        }
+        private static MethodHandle resolveNewDestroyPacket() throws ReflectiveOperationException {
+            Class<?> destroyPacketClass = getNMSClass("PacketPlayOutEntityDestroy", "network.protocol.game");
+            MethodHandle constructor;
+
+            // 1.17+ :: try to use only one int in packet constructor parameters
+            try {
+                constructor = MethodHandles.filterArguments(
+                        LOOKUP.unreflectConstructor(destroyPacketClass.getConstructor(int[].class)), 0,
+                        LOOKUP.findStatic(NMSHologramUtil.class, "toIdArray", MethodType.methodType(int[].class, int.class))
+                );
+            } catch (NoSuchMethodException ignored) {
+                constructor = LOOKUP.unreflectConstructor(destroyPacketClass.getConstructor(int.class));
+            }
 
-        // In 1.10+ versions, setGravity has been replaced with setNoGravity
-        if (ServerVersion.isNewerThan(ServerVersion.V1_9)) {
-            Method setNoGravity = getNMSDynamicMethod(entityObject.getClass(), "setNoGravity", "e", boolean.class);
-            setNoGravity.invoke(entityObject, true);
-        } else {
-            Method setGravity = entityObject.getClass().getMethod("setGravity", boolean.class);
-            setGravity.invoke(entityObject, false);
+            return constructor.asType(MethodType.methodType(Object.class, int.class));
         }
 
-        Method setCustomNameVisible = getNMSDynamicMethod(entityClass, "setCustomNameVisible", "n", boolean.class);
-        setCustomNameVisible.invoke(entityObject, true);
+        private static MethodHandle resolveSendPacket() throws ReflectiveOperationException {
+            Class<?> craftPlayerClass = getCraftbukkitClass("entity.CraftPlayer");
+            Class<?> entityPlayerClass = getNMSClass("EntityPlayer", "server.level");
+            Class<?> packetClass = getNMSClass("Packet", "network.protocol");
 
-        Method setLocation = getNMSDynamicMethod(
-                entityObject.getClass(), "setLocation", "a",
-                double.class, double.class, double.class, float.class, float.class
-        );
-        setLocation.invoke(entityObject, x, y, z, 0.0F, 0.0F);
+            // 1.17+ :: New way of retrieving player connection instance
+            Field playerConnectionField = entityPlayerClass.getField(
+                    ServerVersion.isNewerThan(ServerVersion.V1_16) ? "b" : "playerConnection");
+            Method sendMethod = getNMSDynamicMethod(playerConnectionField.getType(), "sendPacket", "a", packetClass);
 
-        Method setInvisible = getNMSDynamicMethod(entityObject.getClass(), "setInvisible", "j", boolean.class);
-        setInvisible.invoke(entityObject, true);
-
-        return entityObject;
-    }
+            MethodHandle send = LOOKUP.unreflect(sendMethod);
+            MethodHandle getConnection = MethodHandles.filterReturnValue(
+                    LOOKUP.unreflect(craftPlayerClass.getMethod("getHandle"))
+                            .asType(MethodType.methodType(entityPlayerClass, craftPlayerClass)),
+                    LOOKUP.unreflectGetter(playerConnectionField)
+            ).asType(MethodType.methodType(send.type().parameterType(0), craftPlayerClass));
 
-    /**
-     * Creates a packet to send metadata of the hologram entity (in 1.15+ versions).
-     *
-     * @param entityId id of the entity
-     * @param entity   entity object
-     * @return created packet
-     * @throws ReflectiveOperationException if the packet cannot be instanciated
-     */
-    private Object createEntityMetadataPacket(int entityId, Object entity) throws ReflectiveOperationException {
-        Method getDataWatcher;
-        if (ServerVersion.isNewerThan(ServerVersion.V1_19)) {
-            getDataWatcher = this.entityClass.getMethod("al");
-        } else {
-            getDataWatcher = getNMSDynamicMethod(this.entityClass, "getDataWatcher", "ai");
-        }
-        Object entityDataWatcher = getDataWatcher.invoke(entity);
-        Object metadataPacket;
-
-        // 1.19.3+ :: metadata packet use a list of datawatcher items
-        if (ServerVersion.isNewerThan(ServerVersion.V1_19)) {
-            Method getItemListMethod = entityDataWatcher.getClass().getMethod("b");
-            metadataPacket = this.metadataPacketConstructor.newInstance(entityId, getItemListMethod.invoke(entityDataWatcher));
-        } else {
-            // 1.18+ :: New method name in Entity class
-            metadataPacket = this.metadataPacketConstructor.newInstance(entityId, entityDataWatcher, false);
+            return generic(MethodHandles.filterArguments(send, 0, getConnection));
         }
 
-        return metadataPacket;
     }
 
 }
@@ -0,0 +1,192 @@
+package fr.utarwyn.endercontainers.compatibility.nms;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * This class is used to convert items from and to the binary
+ * NBT format of the server, without loading any entity.
+ * Internal methods are located by signature, so they can be resolved
+ * whatever the obfuscated name they have in the running version.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class NMSItemUtil extends NMSUtil {
+
+    /**
+     * Singleton instance of the utility class.
+     */
+    private static NMSItemUtil instance;
+
+    /**
+     * Name of the group of handles used to convert items
+     */
+    private static final String GROUP = "item";
+
+    /**
+     * Utility class!
+     */
+    private NMSItemUtil() {
+        // Not implemented
+    }
+
+    /**
+     * Retrieves or creates an instance of the utility class.
+     *
+     * @return utility class instance
+     * @throws ReflectiveOperationException thrown if a method handle cannot be resolved
+     */
+    public static NMSItemUtil get() throws ReflectiveOperationException {
+        if (instance == null) {
+            resolveHandles();
+            checkHandles(GROUP);
+            instance = new NMSItemUtil();
+        }
+        return instance;
+    }
+
+    /**
+     * Resolve all method handles used to convert items, if not already done.
+     */
+    static void resolveHandles() {
+        Handles.load();
+    }
+
+    /**
+     * Create an item from its uncompressed NBT representation.
+     * Can be called asynchronously.
+     *
+     * @param tag binary representation of the item, as a root compound
+     * @return created item
+     * @throws ReflectiveOperationException thrown if the item cannot be decoded
+     */
+    public ItemStack fromTag(byte[] tag) throws ReflectiveOperationException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(tag))) {
+            Object compound = Handles.READ_COMPOUND.invokeExact((DataInput) input);
+            Object item = Handles.ITEM_OF.invokeExact(compound);
+            return (ItemStack) Handles.AS_BUKKIT_COPY.invokeExact(item);
+        } catch (Throwable throwable) {
+            throw wrap(throwable);
+        }
+    }
+
+    /**
+     * Get the uncompressed NBT representation of an item.
+     * Can be called asynchronously.
+     *
+     * @param item item to encode
+     * @return binary representation of the item, as a root compound
+     * @throws ReflectiveOperationException thrown if the item cannot be encoded
+     */
+    public byte[] toTag(ItemStack item) throws ReflectiveOperationException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            Object nmsItem = Handles.AS_NMS_COPY.invokeExact(item);
+            Object compound = Handles.ITEM_SAVE.invokeExact(nmsItem, Handles.NEW_COMPOUND.invokeExact());
+            Handles.WRITE_COMPOUND.invokeExact(compound, (DataOutput) output);
+        } catch (Throwable throwable) {
+            throw wrap(throwable);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Holder of method handles, resolved once when first used.
+     */
+    private static final class Handles {
+
+        /**
+         * (DataInput) -> NBTTagCompound
+         */
+        static final MethodHandle READ_COMPOUND;
+
+        /**
+         * (NBTTagCompound, DataOutput) -> void
+         */
+        static final MethodHandle WRITE_COMPOUND;
+
+        /**
+         * () -> NBTTagCompound
+         */
+        static final MethodHandle NEW_COMPOUND;
+
+        /**
+         * (NBTTagCompound) -> ItemStack
+         */
+        static final MethodHandle ITEM_OF;
+
+        /**
+         * (ItemStack, NBTTagCompound) -> NBTTagCompound
+         */
+        static final MethodHandle ITEM_SAVE;
+
+        /**
+         * (ItemStack) -> org.bukkit.inventory.ItemStack
+         */
+        static final MethodHandle AS_BUKKIT_COPY;
+
+        /**
+         * (org.bukkit.inventory.ItemStack) -> ItemStack
+         */
+        static final MethodHandle AS_NMS_COPY;
+
+        static {
+            READ_COMPOUND = resolve(GROUP + ".readCompound", Handles::resolveReadCompound);
+            WRITE_COMPOUND = resolve(GROUP + ".writeCompound", () -> LOOKUP.unreflect(getNMSMethodBySignature(
+                    getNMSClass("NBTCompressedStreamTools", "nbt"), true, void.class,
+                    getNMSClass("NBTTagCompound", "nbt"), DataOutput.class
+            )).asType(MethodType.methodType(void.class, Object.class, DataOutput.class)));
+            NEW_COMPOUND = resolve(GROUP + ".newCompound", () -> LOOKUP.unreflectConstructor(
+                    getNMSClass("NBTTagCompound", "nbt").getConstructor()
+            ).asType(MethodType.methodType(Object.class)));
+            ITEM_OF = resolve(GROUP + ".itemOf", () -> generic(LOOKUP.unreflect(getNMSMethodBySignature(
+                    getNMSClass("ItemStack", "world.item"), true, getNMSClass("ItemStack", "world.item"),
+                    getNMSClass("NBTTagCompound", "nbt")
+            ))));
+            ITEM_SAVE = resolve(GROUP + ".itemSave", () -> generic(LOOKUP.unreflect(getNMSMethodBySignature(
+                    getNMSClass("ItemStack", "world.item"), false, getNMSClass("NBTTagCompound", "nbt"),
+                    getNMSClass("NBTTagCompound", "nbt")
+            ))));
+            AS_BUKKIT_COPY = resolve(GROUP + ".asBukkitCopy", () -> LOOKUP.unreflect(
+                    getCraftbukkitClass("inventory.CraftItemStack").getMethod(
+                            "asBukkitCopy", getNMSClass("ItemStack", "world.item"))
+            ).asType(MethodType.methodType(ItemStack.class, Object.class)));
+            AS_NMS_COPY = resolve(GROUP + ".asNMSCopy", () -> LOOKUP.unreflect(
+                    getCraftbukkitClass("inventory.CraftItemStack").getMethod("asNMSCopy", ItemStack.class)
+            ).asType(MethodType.methodType(Object.class, ItemStack.class)));
+        }
+
+        private Handles() {
+            // Holder class
+        }
+
+        /**
+         * Force the resolution of handles by initializing the holder.
+         */
+        static void load() {
+            // Handles are resolved by the static initializer
+        }
+
+        private static MethodHandle resolveReadCompound() throws ReflectiveOperationException {
+            Class<?> streamToolsClass = getNMSClass("NBTCompressedStreamTools", "nbt");
+            Class<?> compoundClass = getNMSClass("NBTTagCompound", "nbt");
+            Method method;
+
+            try {
+                method = getNMSMethodBySignature(streamToolsClass, true, compoundClass, DataInput.class);
+            } catch (NoSuchMethodException e) {
+                // 1.15- :: uncompressed compounds are read from a data input stream
+                method = getNMSMethodBySignature(streamToolsClass, true, compoundClass, DataInputStream.class);
+            }
+
+            return LOOKUP.unreflect(method).asType(MethodType.methodType(Object.class, DataInput.class));
+        }
+
+    }
+
+}
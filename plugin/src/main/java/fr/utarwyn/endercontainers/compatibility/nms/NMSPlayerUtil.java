@@ -4,6 +4,9 @@ import fr.utarwyn.endercontainers.compatibility.ServerVersion;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.UUID;
@@ -11,6 +14,7 @@ import java.util.UUID;
 /**
  * This class is used to perform reflection things
  * on server classes to deal with offline players.
+ * Version differences are handled once when resolving method handles.
  *
  * @author Utarwyn
  * @since 2.2.0
@@ -22,11 +26,10 @@ public class NMSPlayerUtil extends NMSUtil {
      */
     private static NMSPlayerUtil instance;
 
-    private final Constructor<?> entityPlayerConstructor;
-
-    private final Constructor<?> gameProfileContructor;
-
-    private final Method getBukkitEntityMethod;
+    /**
+     * Name of the group of handles used to load players
+     */
+    private static final String GROUP = "player";
 
     private final Object minecraftServer;
 
@@ -42,38 +45,18 @@ public class NMSPlayerUtil extends NMSUtil {
      * @throws ReflectiveOperationException thrown if cannot instanciate NMS objects
      */
     private NMSPlayerUtil() throws ReflectiveOperationException {
-        Class<?> entityPlayerClass = getNMSClass("EntityPlayer", "server.level");
         Class<?> minecraftServerClass = getNMSClass("MinecraftServer", "server");
-        Class<?> gameProfileClass = Class.forName("com.mojang.authlib.GameProfile");
-        Class<?> worldServerClass = getNMSClass("WorldServer", "server.level");
 
         // 1.18+ :: New method names
         methodGetWorldServer = ServerVersion.isNewerThan(ServerVersion.V1_17) ? "a" : "getWorldServer";
 
-        gameProfileContructor = gameProfileClass.getDeclaredConstructor(UUID.class, String.class);
         minecraftServer = minecraftServerClass.getMethod("getServer").invoke(null);
-        getBukkitEntityMethod = entityPlayerClass.getDeclaredMethod("getBukkitEntity");
         worldServer = this.prepareWorldServer(minecraftServerClass);
 
-        if (ServerVersion.isNewerThan(ServerVersion.V1_18)) {
-            // 1.19+ :: constructor also need a public key
-            Class<?> publicKeyClass = getNMSClass("ProfilePublicKey", "world.entity.player");
-            entityPlayerConstructor = entityPlayerClass.getDeclaredConstructor(
-                    minecraftServerClass, worldServerClass, gameProfileClass, publicKeyClass
-            );
-        } else if (ServerVersion.isNewerThan(ServerVersion.V1_16)) {
-            // 1.17+ :: we do not have to pass PlayerInteractManager to entity player constructor
-            entityPlayerConstructor = entityPlayerClass.getDeclaredConstructor(
-                    minecraftServerClass, worldServerClass, gameProfileClass
-            );
-        } else {
+        // 1.16- :: prepare the PlayerInteractManager
+        if (!ServerVersion.isNewerThan(ServerVersion.V1_16)) {
+            Class<?> worldServerClass = getNMSClass("WorldServer", "server.level");
             Class<?> playerInteractManagerClass = getNMSClass("PlayerInteractManager", "server.level");
-            entityPlayerConstructor = entityPlayerClass.getDeclaredConstructor(
-                    minecraftServerClass, worldServerClass,
-                    gameProfileClass, playerInteractManagerClass
-            );
-
-            // Prepare the PlayerInteractManager
             playerInteractManager = this.preparePlayerInteractManager(worldServerClass, playerInteractManagerClass);
         }
     }
@@ -86,11 +69,20 @@ public class NMSPlayerUtil extends NMSUtil {
      */
     public static NMSPlayerUtil get() throws ReflectiveOperationException {
         if (instance == null) {
+            resolveHandles();
+            checkHandles(GROUP);
             instance = new NMSPlayerUtil();
         }
         return instance;
     }
 
+    /**
+     * Resolve all method handles used to load players, if not already done.
+     */
+    static void resolveHandles() {
+        Handles.load();
+    }
+
     /**
      * Load the profile of an offline player to manipulate its enderchest.
      *
@@ -103,23 +95,17 @@ public class NMSPlayerUtil extends NMSUtil {
             return null;
         }
 
-        Object gameProfile = gameProfileContructor.newInstance(offline.getUniqueId(), offline.getName());
-        Object entityPlayer;
-
-        // 1.17+ :: we do not have to pass PlayerInteractManager to entity player constructor
-        if (playerInteractManager == null) {
-            // 1.19+ :: constructor also need a public key
-            if (ServerVersion.isNewerThan(ServerVersion.V1_18)) {
-                entityPlayer = entityPlayerConstructor.newInstance(minecraftServer, worldServer, gameProfile, null);
-            } else {
-                entityPlayer = entityPlayerConstructor.newInstance(minecraftServer, worldServer, gameProfile);
-            }
-        } else {
-            entityPlayer = entityPlayerConstructor.newInstance(minecraftServer, worldServer, gameProfile, playerInteractManager);
+        Player player;
+        try {
+            Object gameProfile = Handles.NEW_GAME_PROFILE.invokeExact(offline.getUniqueId(), offline.getName());
+            Object entityPlayer = Handles.NEW_ENTITY_PLAYER.invokeExact(
+                    minecraftServer, worldServer, gameProfile, playerInteractManager
+            );
+            player = (Player) Handles.GET_BUKKIT_ENTITY.invokeExact(entityPlayer);
+        } catch (Throwable throwable) {
+            throw wrap(throwable);
         }
 
-        Player player = (Player) getBukkitEntityMethod.invoke(entityPlayer);
-
         if (player != null) {
             player.loadData();
         }
@@ -178,4 +164,76 @@ public class NMSPlayerUtil extends NMSUtil {
         return manager;
     }
 
+    /**
+     * Holder of method handles, resolved once when first used.
+     */
+    private static final class Handles {
+
+        /**
+         * (UUID, String) -> GameProfile
+         */
+        static final MethodHandle NEW_GAME_PROFILE;
+
+        /**
+         * (MinecraftServer, WorldServer, GameProfile, Object) -> EntityPlayer,
+         * the last argument is only used by some versions
+         */
+        static final MethodHandle NEW_ENTITY_PLAYER;
+
+        /**
+         * (EntityPlayer) -> CraftPlayer
+         */
+        static final MethodHandle GET_BUKKIT_ENTITY;
+
+        static {
+            NEW_GAME_PROFILE = resolve(GROUP + ".newGameProfile", () -> LOOKUP.unreflectConstructor(
+                    Class.forName("com.mojang.authlib.GameProfile").getDeclaredConstructor(UUID.class, String.class)
+            ).asType(MethodType.methodType(Object.class, UUID.class, String.class)));
+            NEW_ENTITY_PLAYER = resolve(GROUP + ".newEntityPlayer", Handles::resolveNewEntityPlayer);
+            GET_BUKKIT_ENTITY = resolve(GROUP + ".getBukkitEntity", () -> LOOKUP.unreflect(
+                    getNMSClass("EntityPlayer", "server.level").getDeclaredMethod("getBukkitEntity")
+            ).asType(MethodType.methodType(Player.class, Object.class)));
+        }
+
+        private Handles() {
+            // Holder class
+        }
+
+        /**
+         * Force the resolution of handles by initializing the holder.
+         */
+        static void load() {
+            // Handles are resolved by the static initializer
+        }
+
+        private static MethodHandle resolveNewEntityPlayer() throws ReflectiveOperationException {
+            Class<?> entityPlayerClass = getNMSClass("EntityPlayer", "server.level");
+            Class<?> minecraftServerClass = getNMSClass("MinecraftServer", "server");
+            Class<?> gameProfileClass = Class.forName("com.mojang.authlib.GameProfile");
+            Class<?> worldServerClass = getNMSClass("WorldServer", "server.level");
+            MethodHandle constructor;
+
+            if (ServerVersion.isNewerThan(ServerVersion.V1_18)) {
+                // 1.19+ :: constructor also need a public key, always null
+                Class<?> publicKeyClass = getNMSClass("ProfilePublicKey", "world.entity.player");
+                constructor = LOOKUP.unreflectConstructor(entityPlayerClass.getDeclaredConstructor(
+                        minecraftServerClass, worldServerClass, gameProfileClass, publicKeyClass
+                ));
+            } else if (ServerVersion.isNewerThan(ServerVersion.V1_16)) {
+                // 1.17+ :: we do not have to pass PlayerInteractManager to entity player constructor
+                constructor = MethodHandles.dropArguments(LOOKUP.unreflectConstructor(entityPlayerClass.getDeclaredConstructor(
+                        minecraftServerClass, worldServerClass, gameProfileClass
+                )), 3, Object.class);
+            } else {
+                Class<?> playerInteractManagerClass = getNMSClass("PlayerInteractManager", "server.level");
+                constructor = LOOKUP.unreflectConstructor(entityPlayerClass.getDeclaredConstructor(
+                        minecraftServerClass, worldServerClass, gameProfileClass, playerInteractManagerClass
+                ));
+            }
+
+            return generic(constructor);
+        }
+
+    }
+
 }
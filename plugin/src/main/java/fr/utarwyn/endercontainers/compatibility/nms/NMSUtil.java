@@ -2,11 +2,21 @@ package fr.utarwyn.endercontainers.compatibility.nms;
 
 import fr.utarwyn.endercontainers.compatibility.ServerVersion;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Base class to perform reflection things on current server net classes.
+ * Members used often are resolved once as method handles and stored in
+ * static final fields, so they can be called as fast as direct calls.
  *
  * @author Utarwyn
  * @since 2.2.0
@@ -28,6 +38,16 @@ public abstract class NMSUtil {
      */
     private static final String CRAFTBUKKIT_PACKAGE;
 
+    /**
+     * Lookup object used to create method handles
+     */
+    protected static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Errors of method handles which cannot be resolved, by handle name
+     */
+    private static final Map<String, String> FAILED_HANDLES = Collections.synchronizedMap(new TreeMap<>());
+
     /**
      * Field whiches stores enabling state of asynchronous tasks in Spigot
      */
@@ -98,6 +118,126 @@ public abstract class NMSUtil {
         return clazz.getMethod(ServerVersion.isNewerThan(ServerVersion.V1_17) ? namePost17 : name, parameterTypes);
     }
 
+    /**
+     * Get an internal method by its signature, when its name changes between versions.
+     *
+     * @param clazz          class where the method is located
+     * @param isStatic       true if the method is static
+     * @param returnType     exact return type of the method
+     * @param parameterTypes exact parameter types of the method
+     * @return the only method which matches the signature
+     * @throws NoSuchMethodException thrown if there is no such method or more than one
+     */
+    protected static Method getNMSMethodBySignature(
+            Class<?> clazz, boolean isStatic, Class<?> returnType, Class<?>... parameterTypes
+    ) throws NoSuchMethodException {
+        Method found = null;
+        for (Method method : clazz.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) == isStatic
+                    && method.getReturnType() == returnType
+                    && Arrays.equals(method.getParameterTypes(), parameterTypes)) {
+                if (found != null) {
+                    throw new NoSuchMethodException("ambiguous signature in " + clazz.getName());
+                }
+                found = method;
+            }
+        }
+
+        if (found == null) {
+            throw new NoSuchMethodException("no method with signature "
+                    + Arrays.toString(parameterTypes) + " in " + clazz.getName());
+        }
+        return found;
+    }
+
+    /**
+     * Resolve all method handles of the NMS layer and report those which failed.
+     * Should be called once at startup.
+     *
+     * @return errors of handles which cannot be resolved, by handle name
+     */
+    public static Map<String, String> runSelfTest() {
+        NMSHologramUtil.resolveHandles();
+        NMSPlayerUtil.resolveHandles();
+        NMSItemUtil.resolveHandles();
+        return getFailedHandles();
+    }
+
+    /**
+     * Get method handles which cannot be resolved.
+     *
+     * @return errors of handles which cannot be resolved, by handle name
+     */
+    public static Map<String, String> getFailedHandles() {
+        synchronized (FAILED_HANDLES) {
+            return Collections.unmodifiableMap(new TreeMap<>(FAILED_HANDLES));
+        }
+    }
+
+    /**
+     * Resolve a method handle, recording the error if it cannot be resolved.
+     *
+     * @param name     name of the handle, prefixed by the name of its group
+     * @param resolver function which resolves the handle
+     * @return resolved handle, null if it cannot be resolved
+     */
+    protected static MethodHandle resolve(String name, HandleResolver resolver) {
+        try {
+            return resolver.resolve();
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            FAILED_HANDLES.put(name, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Ensure that all handles of a group have been resolved.
+     *
+     * @param group name of the group of handles
+     * @throws ReflectiveOperationException thrown if a handle of the group cannot be resolved
+     */
+    protected static void checkHandles(String group) throws ReflectiveOperationException {
+        for (Map.Entry<String, String> failure : getFailedHandles().entrySet()) {
+            if (failure.getKey().startsWith(group + ".")) {
+                throw new NoSuchMethodException("cannot resolve " + failure.getKey() + ": " + failure.getValue());
+            }
+        }
+    }
+
+    /**
+     * Adapt a method handle to accept and return objects,
+     * so it can be invoked exactly without knowing NMS classes.
+     *
+     * @param handle handle to adapt
+     * @return handle with object parameters, keeping a void return type
+     */
+    protected static MethodHandle generic(MethodHandle handle) {
+        MethodType type = handle.type().generic();
+        if (handle.type().returnType() == void.class) {
+            type = type.changeReturnType(void.class);
+        }
+        return handle.asType(type);
+    }
+
+    /**
+     * Wrap an error thrown by a method handle.
+     *
+     * @param throwable thrown error
+     * @return exception to throw
+     */
+    protected static ReflectiveOperationException wrap(Throwable throwable) {
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        if (throwable instanceof ReflectiveOperationException) {
+            return (ReflectiveOperationException) throwable;
+        }
+        return new ReflectiveOperationException(throwable);
+    }
+
     /**
      * Checks if usage of asynchronous tasks is disabled.
      * This can occurs when using Spigot with the restart command for example.
@@ -111,4 +251,15 @@ public abstract class NMSUtil {
             return false;
         }
     }
+
+    /**
+     * Function which resolves a method handle.
+     */
+    @FunctionalInterface
+    protected interface HandleResolver {
+
+        MethodHandle resolve() throws ReflectiveOperationException;
+
+    }
+
 }
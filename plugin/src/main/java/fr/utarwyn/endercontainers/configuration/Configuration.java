@@ -3,7 +3,9 @@ package fr.utarwyn.endercontainers.configuration;
 import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -24,7 +26,7 @@ public class Configuration {
     private final boolean onlyShowAccessibleEnderchests;
     private final boolean useVanillaEnderchest;
     private final boolean numberingEnderchests;
-    private final List<Material> forbiddenMaterials;
+    private final Set<Material> forbiddenMaterials;
 
     private final boolean mysql;
     private final String mysqlHost;
@@ -39,6 +41,12 @@ public class Configuration {
     private final String mysqlSslTrustKeystorePassword;
     private final String mysqlTablePrefix;
 
+    private final boolean autoBackups;
+    private final int autoBackupsInterval;
+    private final int autoBackupsKeepHourly;
+    private final int autoBackupsKeepDaily;
+    private final int backupsIoLimit;
+
     private final boolean blockNametag;
     private final boolean updateChecker;
     private final boolean globalSound;
@@ -62,7 +70,8 @@ public class Configuration {
         this.forbiddenMaterials = loadValue(
                 "enderchests.forbiddenMaterials",
                 key -> config.isList(key) && config.getStringList(key).stream().allMatch(material -> Material.matchMaterial(material) != null),
-                key -> config.getStringList(key).stream().map(Material::matchMaterial).collect(Collectors.toList())
+                key -> config.getStringList(key).stream().map(Material::matchMaterial)
+                        .collect(Collectors.toCollection(() -> EnumSet.noneOf(Material.class)))
         );
 
         this.mysql = loadValue("mysql.enabled", config::isBoolean, config::getBoolean);
@@ -86,6 +95,12 @@ public class Configuration {
             this.mysqlSslTrustKeystorePassword = null;
         }
 
+        this.autoBackups = loadValue("backups.auto.enabled", config::isBoolean, config::getBoolean);
+        this.autoBackupsInterval = loadValue("backups.auto.interval", key -> config.isInt(key) && config.getInt(key) > 0, config::getInt);
+        this.autoBackupsKeepHourly = loadValue("backups.auto.keepHourly", key -> config.isInt(key) && config.getInt(key) >= 0, config::getInt);
+        this.autoBackupsKeepDaily = loadValue("backups.auto.keepDaily", key -> config.isInt(key) && config.getInt(key) >= 0, config::getInt);
+        this.backupsIoLimit = loadValue("backups.ioLimit", key -> config.isInt(key) && config.getInt(key) >= 0, config::getInt);
+
         this.blockNametag = loadValue("others.blockNametag", config::isBoolean, config::getBoolean);
         this.updateChecker = loadValue("others.updateChecker", config::isBoolean, config::getBoolean);
         this.globalSound = loadValue("others.globalSound", config::isBoolean, config::getBoolean);
@@ -120,7 +135,7 @@ public class Configuration {
         return this.numberingEnderchests;
     }
 
-    public List<Material> getForbiddenMaterials() {
+    public Set<Material> getForbiddenMaterials() {
         return this.forbiddenMaterials;
     }
 
@@ -172,6 +187,26 @@ public class Configuration {
         return this.mysqlTablePrefix;
     }
 
+    public boolean isAutoBackups() {
+        return this.autoBackups;
+    }
+
+    public int getAutoBackupsInterval() {
+        return this.autoBackupsInterval;
+    }
+
+    public int getAutoBackupsKeepHourly() {
+        return this.autoBackupsKeepHourly;
+    }
+
+    public int getAutoBackupsKeepDaily() {
+        return this.autoBackupsKeepDaily;
+    }
+
+    public int getBackupsIoLimit() {
+        return this.backupsIoLimit;
+    }
+
     public boolean isBlockNametag() {
         return this.blockNametag;
     }
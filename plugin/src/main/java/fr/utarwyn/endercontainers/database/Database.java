@@ -6,13 +6,16 @@ import com.zaxxer.hikari.pool.HikariPool;
 import fr.utarwyn.endercontainers.configuration.Configuration;
 import fr.utarwyn.endercontainers.configuration.Files;
 import fr.utarwyn.endercontainers.database.adapter.DatabaseAdapter;
+import fr.utarwyn.endercontainers.database.request.BatchRequest;
 import fr.utarwyn.endercontainers.database.request.DeleteRequest;
 import fr.utarwyn.endercontainers.database.request.Request;
 import fr.utarwyn.endercontainers.database.request.SavingRequest;
 import fr.utarwyn.endercontainers.database.request.SelectRequest;
 
 import java.sql.*;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -159,6 +162,25 @@ public class Database implements AutoCloseable {
         return tables;
     }
 
+    /**
+     * Returns a collection with all columns of a table.
+     *
+     * @param table name of the table
+     * @return collection of column names
+     */
+    public Set<String> getColumns(String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+
+        try (Connection conn = this.source.getConnection();
+             ResultSet result = conn.getMetaData().getColumns(null, null, table, "%")) {
+            while (result.next()) {
+                columns.add(result.getString(4));
+            }
+        }
+
+        return columns;
+    }
+
     /**
      * Select data on a specific table
      *
@@ -179,6 +201,16 @@ public class Database implements AutoCloseable {
         return new SavingRequest(this, table);
     }
 
+    /**
+     * Insert a large amount of rows in a table inside a single transaction.
+     *
+     * @param table Table to be filled
+     * @return The Request object
+     */
+    public BatchRequest batch(String table) {
+        return new BatchRequest(this, table);
+    }
+
     /**
      * Create a delete request with conditions to be executed on a table.
      *
@@ -246,4 +278,143 @@ public class Database implements AutoCloseable {
         }
     }
 
+    /**
+     * Execute update requests in order over the same connection inside one transaction.
+     * Nothing is kept if one of them fails.
+     *
+     * @param requests Requests to execute, in order
+     * @throws SQLException if a SQL exception has been thrown during the process
+     */
+    public void transaction(Request... requests) throws SQLException {
+        this.inTransaction(connection -> {
+            executeUpdates(connection, Arrays.asList(requests));
+            return null;
+        });
+    }
+
+    /**
+     * Execute a batch insert statement on the database.
+     * Preliminary requests and all rows are sent over the same connection
+     * inside one transaction, so other connections keep seeing the previous
+     * data until everything has been committed. Nothing is kept if one
+     * of the statements fails, or if a page of rows read lazily cannot be retrieved.
+     * Without rows, only preliminary requests are executed.
+     * This method must be called from a Request object.
+     *
+     * @param request Batch request object to manage
+     * @return Number of inserted rows
+     * @throws SQLException if a SQL exception has been thrown during the process
+     */
+    public int execBatchStatement(BatchRequest request) throws SQLException {
+        return this.inTransaction(connection -> {
+            executeUpdates(connection, request.getPreliminaries());
+            return this.insertBatchRows(connection, request);
+        });
+    }
+
+    /**
+     * Run a work on a connection with an opened transaction,
+     * which is committed if the work succeeds and rolled back otherwise.
+     *
+     * @param work work to run in the transaction
+     * @param <T>  type of the work result
+     * @return result of the work
+     * @throws SQLException if a SQL exception has been thrown during the process
+     */
+    private <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        try (Connection connection = this.source.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (PagedIterator.ReadException e) {
+                connection.rollback();
+                throw e.getCause();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * Execute update requests in order on an opened connection.
+     *
+     * @param connection connection to use
+     * @param requests   requests to execute
+     * @throws SQLException if a SQL exception has been thrown during the process
+     */
+    private static void executeUpdates(Connection connection, List<Request> requests) throws SQLException {
+        for (Request request : requests) {
+            try (PreparedStatement statement = connection.prepareStatement(request.getRequest())) {
+                bindAttributes(statement, request.getAttributes());
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Send all rows of a batch request in chunks on an opened connection.
+     *
+     * @param connection connection with an opened transaction
+     * @param request    batch request object to manage
+     * @return number of inserted rows
+     * @throws SQLException if a SQL exception has been thrown during the process
+     */
+    private int insertBatchRows(Connection connection, BatchRequest request) throws SQLException {
+        Iterator<Object[]> rows = request.getRows();
+        int count = 0;
+
+        if (!rows.hasNext()) {
+            return count;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(request.getRequest())) {
+            while (rows.hasNext()) {
+                bindAttributes(statement, rows.next());
+                statement.addBatch();
+
+                if (++count % request.getBatchSize() == 0) {
+                    statement.executeBatch();
+                }
+            }
+
+            if (count % request.getBatchSize() != 0) {
+                statement.executeBatch();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Bind a list of attributes to a prepared statement.
+     *
+     * @param statement  statement to prepare
+     * @param attributes attributes to bind, in order
+     * @throws SQLException if an attribute cannot be bound
+     */
+    private static void bindAttributes(PreparedStatement statement, Object[] attributes) throws SQLException {
+        for (int i = 1; i <= attributes.length; i++) {
+            statement.setObject(i, attributes[i - 1]);
+        }
+    }
+
+    /**
+     * Work executed on a connection inside a transaction.
+     *
+     * @param <T> type of the work result
+     */
+    @FunctionalInterface
+    private interface TransactionWork<T> {
+
+        T run(Connection connection) throws SQLException;
+
+    }
+
 }
@@ -1,5 +1,6 @@
 package fr.utarwyn.endercontainers.database;
 
+import com.google.common.collect.Iterators;
 import fr.utarwyn.endercontainers.AbstractManager;
 import fr.utarwyn.endercontainers.configuration.Files;
 import fr.utarwyn.endercontainers.database.adapter.MySQLAdapter;
@@ -27,6 +28,11 @@ public class DatabaseManager extends AbstractManager {
      */
     private static final String BACKUP_TABLE = "backups";
 
+    /**
+     * The table where chests of backups are indexed by owner
+     */
+    private static final String BACKUP_CHEST_TABLE = "backup_chests";
+
     /**
      * The database object to perform requests
      */
@@ -103,19 +109,20 @@ public class DatabaseManager extends AbstractManager {
      * @param num      The num of the chest
      * @param rows     The number of rows of the chest
      * @param contents All contents of the chest
+     * @param filled   The number of filled slots of the chest
      * @throws SQLException thrown if the enderchest cannot be saved
      */
-    public void saveEnderchest(boolean insert, UUID owner, int num, int rows, String contents)
+    public void saveEnderchest(boolean insert, UUID owner, int num, int rows, String contents, int filled)
             throws SQLException {
         if (insert) {
             this.database.update(formatTable(CHEST_TABLE))
-                    .fields("num", "owner", "rows", "contents")
-                    .values(num, owner.toString(), rows, contents)
+                    .fields("num", "owner", "rows", "contents", "filled")
+                    .values(num, owner.toString(), rows, contents, filled)
                     .execute();
         } else {
             this.database.update(formatTable(CHEST_TABLE))
-                    .fields("rows", "contents")
-                    .values(rows, contents)
+                    .fields("rows", "contents", "filled")
+                    .values(rows, contents, filled)
                     .where("`num` = ?", "`owner` = ?")
                     .attributes(num, owner.toString())
                     .execute();
@@ -134,6 +141,23 @@ public class DatabaseManager extends AbstractManager {
                 .findAll();
     }
 
+    /**
+     * Returns a page of saved enderchests, ordered by their identifier.
+     * Used to read the whole table by chunks without holding it at once.
+     *
+     * @param lastId identifier of the last chest of the previous page, zero for the first page
+     * @param length maximum number of chests in the page
+     * @return The list of enderchests saved after the given identifier
+     * @throws SQLException thrown if enderchests cannot be retrieved
+     */
+    public List<DatabaseSet> getEnderchestsAfter(int lastId, int length) throws SQLException {
+        return this.database.select()
+                .from(formatTable(CHEST_TABLE))
+                .where("`id` > ?").attributes(lastId)
+                .order("`id`").limit(length)
+                .findAll();
+    }
+
     /**
      * Returns all enderchests stored in database of a specific player (UUID here)
      *
@@ -148,23 +172,61 @@ public class DatabaseManager extends AbstractManager {
     }
 
     /**
-     * Replace all enderchests in the table
-     * by a list of new enderchests.
+     * Returns the summary of all enderchests stored in database of a specific player,
+     * without their contents.
      *
-     * @param datasets The list of enderchests to save
+     * @param owner The owner of chests
+     * @return The list of chest numbers, rows and filled slots for a player
+     * @throws SQLException thrown if the summary cannot be resolved
+     */
+    public List<DatabaseSet> getEnderchestSummariesOf(UUID owner) throws SQLException {
+        return this.database.select("num", "rows", "filled").from(formatTable(CHEST_TABLE))
+                .where("`owner` = ?").attributes(owner.toString())
+                .findAll();
+    }
+
+    /**
+     * Replace all enderchests in the table by a stream of new enderchests.
+     * The old rows are removed and the new ones inserted by batches inside
+     * a single transaction, so readers see either the old or the new data.
+     *
+     * @param datasets Enderchests to save, consumed lazily
+     * @return The number of enderchests saved
      * @throws SQLException thrown if enderchest cannot be replaced
      */
-    public void replaceEnderchests(List<DatabaseSet> datasets) throws SQLException {
+    public int replaceEnderchests(Iterator<DatabaseSet> datasets) throws SQLException {
         String chestTable = formatTable(CHEST_TABLE);
 
-        this.database.delete().from(chestTable).execute();
+        return this.database.batch(chestTable)
+                .before(this.database.delete().from(chestTable))
+                .fields("id", "num", "owner", "rows", "contents")
+                .rows(Iterators.transform(datasets, set -> new Object[]{
+                        set.getInteger("id"), set.getInteger("num"), set.getString("owner"),
+                        set.getInteger("rows"), set.getString("contents")
+                }))
+                .execute();
+    }
 
-        for (DatabaseSet set : datasets) {
-            this.database.update(formatTable(CHEST_TABLE))
-                    .fields(set.getKeys().toArray(new String[0]))
-                    .values(set.getValues().toArray(new Object[0]))
-                    .execute();
-        }
+    /**
+     * Replace all enderchests of one player by a stream of new enderchests,
+     * inside a single transaction. Other players are not affected.
+     *
+     * @param owner    The owner of chests to replace
+     * @param datasets Enderchests to save, consumed lazily
+     * @return The number of enderchests saved
+     * @throws SQLException thrown if enderchests cannot be replaced
+     */
+    public int replaceEnderchestsOf(UUID owner, Iterator<DatabaseSet> datasets) throws SQLException {
+        String chestTable = formatTable(CHEST_TABLE);
+
+        return this.database.batch(chestTable)
+                .before(this.database.delete("`owner` = ?").from(chestTable).attributes(owner.toString()))
+                .fields("num", "owner", "rows", "contents")
+                .rows(Iterators.transform(datasets, set -> new Object[]{
+                        set.getInteger("num"), owner.toString(),
+                        set.getInteger("rows"), set.getString("contents")
+                }))
+                .execute();
     }
 
     /**
@@ -192,24 +254,80 @@ public class DatabaseManager extends AbstractManager {
     }
 
     /**
-     * Save a backup in the database.
+     * Save a backup in the database with its chests, indexed by their owner
+     * so they can be restored player per player. Each chest is saved with
+     * the checksum of its contents. The backup and its chests are written
+     * inside a single transaction, so none of them is kept if one fails.
      *
      * @param name      backup name
      * @param date      backup creation date
-     * @param data      backup data
      * @param createdBy name of the entity who created the backup
+     * @param datasets  chests of the backup, consumed lazily
+     * @return The number of saved chests
      * @throws SQLException thrown if the backup cannot be saved
      */
-    public void saveBackup(String name, long date, String data, String createdBy)
+    public int saveBackup(String name, long date, String createdBy, Iterator<DatabaseSet> datasets)
             throws SQLException {
-        this.database.update(formatTable(BACKUP_TABLE))
-                .fields("name", "date", "data", "created_by")
-                .values(name, new Timestamp(date), data, createdBy)
+        return this.database.batch(formatTable(BACKUP_CHEST_TABLE))
+                .before(this.database.update(formatTable(BACKUP_TABLE))
+                        .fields("name", "date", "created_by")
+                        .values(name, new Timestamp(date), createdBy))
+                .fields("backup", "num", "owner", "rows", "contents", "checksum")
+                .rows(Iterators.transform(datasets, set -> new Object[]{
+                        name, set.getInteger("num"), set.getString("owner"),
+                        set.getInteger("rows"), set.getString("contents"), set.getLong("checksum")
+                }))
                 .execute();
     }
 
     /**
-     * Remove a backup by its name
+     * Returns all chests saved in a backup.
+     * Backups created before the owner index have no chest here,
+     * their chests are only stored in the data of the backup.
+     *
+     * @param name Name of the backup
+     * @return The list of all chests of the backup
+     * @throws SQLException thrown if chests cannot be resolved
+     */
+    public List<DatabaseSet> getBackupEnderchests(String name) throws SQLException {
+        return this.database.select().from(formatTable(BACKUP_CHEST_TABLE))
+                .where("`backup` = ?").attributes(name)
+                .findAll();
+    }
+
+    /**
+     * Returns a page of chests saved in a backup, ordered by their identifier.
+     * Used to read a whole backup by chunks without holding it at once.
+     *
+     * @param name   Name of the backup
+     * @param lastId identifier of the last chest of the previous page, zero for the first page
+     * @param length maximum number of chests in the page
+     * @return The list of chests of the backup saved after the given identifier
+     * @throws SQLException thrown if chests cannot be resolved
+     */
+    public List<DatabaseSet> getBackupEnderchestsAfter(String name, int lastId, int length) throws SQLException {
+        return this.database.select().from(formatTable(BACKUP_CHEST_TABLE))
+                .where("`backup` = ?", "`id` > ?").attributes(name, lastId)
+                .order("`id`").limit(length)
+                .findAll();
+    }
+
+    /**
+     * Returns all chests of a player saved in a backup
+     *
+     * @param name  Name of the backup
+     * @param owner The owner of chests
+     * @return The list of all chests of the player in the backup
+     * @throws SQLException thrown if chests cannot be resolved
+     */
+    public List<DatabaseSet> getBackupEnderchestsOf(String name, UUID owner) throws SQLException {
+        return this.database.select().from(formatTable(BACKUP_CHEST_TABLE))
+                .where("`backup` = ?", "`owner` = ?").attributes(name, owner.toString())
+                .findAll();
+    }
+
+    /**
+     * Remove a backup by its name, with its chests inside a single transaction.
      *
      * @param name Name of the backup to remove
      * @return True if the backup was successfully removed.
@@ -218,10 +336,20 @@ public class DatabaseManager extends AbstractManager {
     public boolean removeBackup(String name) throws SQLException {
         Optional<DatabaseSet> backup = this.getBackup(name);
 
-        return backup.isPresent() && this.database.delete("`id` = ?")
-                .from(formatTable(BACKUP_TABLE))
-                .attributes(backup.get().getInteger("id"))
-                .execute();
+        if (!backup.isPresent()) {
+            return false;
+        }
+
+        this.database.transaction(
+                this.database.delete("`backup` = ?")
+                        .from(formatTable(BACKUP_CHEST_TABLE))
+                        .attributes(name),
+                this.database.delete("`id` = ?")
+                        .from(formatTable(BACKUP_TABLE))
+                        .attributes(backup.get().getInteger("id"))
+        );
+
+        return true;
     }
 
     /**
@@ -269,12 +397,19 @@ public class DatabaseManager extends AbstractManager {
         Set<String> tables = this.database.getTables();
 
         if (!tables.contains(formatTable(CHEST_TABLE))) {
-            database.request("CREATE TABLE `" + formatTable(CHEST_TABLE) + "` (`id` INT(11) NOT NULL AUTO_INCREMENT, `num` TINYINT(2) NOT NULL DEFAULT '0', `owner` VARCHAR(36) NULL, `contents` MEDIUMTEXT NULL, `rows` INT(1) NOT NULL DEFAULT 0, PRIMARY KEY (`id`), UNIQUE KEY `NUM OWNER` (`num`,`owner`), INDEX `USER KEY` (`num`, `owner`)) COLLATE='" + collation + "' ENGINE=InnoDB;");
+            database.request("CREATE TABLE `" + formatTable(CHEST_TABLE) + "` (`id` INT(11) NOT NULL AUTO_INCREMENT, `num` TINYINT(2) NOT NULL DEFAULT '0', `owner` VARCHAR(36) NULL, `contents` MEDIUMTEXT NULL, `rows` INT(1) NOT NULL DEFAULT 0, `filled` TINYINT(2) NULL, PRIMARY KEY (`id`), UNIQUE KEY `NUM OWNER` (`num`,`owner`), INDEX `USER KEY` (`num`, `owner`)) COLLATE='" + collation + "' ENGINE=InnoDB;");
+        } else if (!database.getColumns(formatTable(CHEST_TABLE)).contains("filled")) {
+            // 2.3.0 :: filled slots are stored to summarize chests without their contents
+            database.request("ALTER TABLE `" + formatTable(CHEST_TABLE) + "` ADD COLUMN `filled` TINYINT(2) NULL;");
         }
 
         if (!tables.contains(formatTable(BACKUP_TABLE))) {
             database.request("CREATE TABLE `" + formatTable(BACKUP_TABLE) + "` (`id` INT(11) NOT NULL AUTO_INCREMENT, `name` VARCHAR(255) NOT NULL, `date` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, `data` MEDIUMTEXT NULL, `created_by` VARCHAR(60) NULL, PRIMARY KEY (`id`)) COLLATE='" + collation + "' ENGINE=InnoDB;");
         }
+
+        if (!tables.contains(formatTable(BACKUP_CHEST_TABLE))) {
+            database.request("CREATE TABLE `" + formatTable(BACKUP_CHEST_TABLE) + "` (`id` INT(11) NOT NULL AUTO_INCREMENT, `backup` VARCHAR(255) NOT NULL, `num` TINYINT(2) NOT NULL DEFAULT '0', `owner` VARCHAR(36) NULL, `contents` MEDIUMTEXT NULL, `rows` INT(1) NOT NULL DEFAULT 0, `checksum` BIGINT NULL, PRIMARY KEY (`id`), INDEX `BACKUP OWNER` (`backup`, `owner`)) COLLATE='" + collation + "' ENGINE=InnoDB;");
+        }
     }
 
     /**
@@ -80,6 +80,19 @@ public class DatabaseSet {
             return null;
     }
 
+    /**
+     * Returns a Long object for the row
+     *
+     * @param key The column used to get the value.
+     * @return The value stored in the selected column (key)
+     */
+    public Long getLong(String key) {
+        if (set.containsKey(key) && set.get(key) instanceof Number)
+            return ((Number) set.get(key)).longValue();
+        else
+            return null;
+    }
+
     /**
      * Returns a Timestamp object for the row
      *
@@ -0,0 +1,136 @@
+package fr.utarwyn.endercontainers.database;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the rows of a table page by page, ordered by their identifier.
+ * A page is only requested once all rows of the previous one have been consumed,
+ * so a whole table can be read without holding it in memory.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class PagedIterator implements Iterator<DatabaseSet> {
+
+    /**
+     * Reads the rows of a page
+     */
+    private final PageReader reader;
+
+    /**
+     * Maximum number of rows in a page
+     */
+    private final int pageSize;
+
+    /**
+     * Rows of the current page
+     */
+    private Iterator<DatabaseSet> page;
+
+    /**
+     * Identifier of the last returned row, zero before the first one
+     */
+    private int lastId;
+
+    /**
+     * True if the current page is the last one of the table
+     */
+    private boolean lastPage;
+
+    /**
+     * Construct a new iterator which reads rows page by page.
+     *
+     * @param reader   function which reads a page of rows
+     * @param pageSize maximum number of rows in a page
+     */
+    public PagedIterator(PageReader reader, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        this.reader = reader;
+        this.pageSize = pageSize;
+        this.page = Collections.emptyIterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ReadException thrown if the next page cannot be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (!this.page.hasNext() && !this.lastPage) {
+            try {
+                List<DatabaseSet> rows = this.reader.read(this.lastId, this.pageSize);
+                this.lastPage = rows.size() < this.pageSize;
+                this.page = rows.iterator();
+            } catch (SQLException e) {
+                throw new ReadException(e);
+            }
+        }
+
+        return this.page.hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ReadException thrown if the next page cannot be read
+     */
+    @Override
+    public DatabaseSet next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        DatabaseSet set = this.page.next();
+        this.lastId = set.getInteger("id");
+        return set;
+    }
+
+    /**
+     * Reads a page of rows saved after a given identifier.
+     */
+    @FunctionalInterface
+    public interface PageReader {
+
+        /**
+         * Read rows saved after a given identifier, ordered by their identifier.
+         *
+         * @param lastId identifier of the last row of the previous page, zero for the first page
+         * @param length maximum number of rows in the page
+         * @return rows of the page
+         * @throws SQLException thrown if rows cannot be retrieved
+         */
+        List<DatabaseSet> read(int lastId, int length) throws SQLException;
+
+    }
+
+    /**
+     * Thrown when a page cannot be read while iterating.
+     * Batch requests unwrap it to throw its cause.
+     */
+    public static class ReadException extends RuntimeException {
+
+        /**
+         * Construct an exception with the SQL cause which prevented to read a page.
+         *
+         * @param cause cause which triggered this exception
+         */
+        public ReadException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+
+    }
+
+}
@@ -41,6 +41,9 @@ public class MySQLAdapter implements DatabaseAdapter {
         databaseConfig.addDataSourceProperty("characterEncoding", "utf8");
         databaseConfig.addDataSourceProperty("encoding", "UTF-8");
         databaseConfig.addDataSourceProperty("useUnicode", "true");
+
+        // Send batched inserts as multi-row statements
+        databaseConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
     }
 
 }
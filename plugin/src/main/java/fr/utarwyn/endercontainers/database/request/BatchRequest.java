@@ -0,0 +1,135 @@
+package fr.utarwyn.endercontainers.database.request;
+
+import com.google.common.base.Joiner;
+import fr.utarwyn.endercontainers.database.Database;
+import fr.utarwyn.endercontainers.database.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Builds a batch insert request to perform in the database.
+ * All rows are sent in chunks inside a single transaction, after
+ * optional preliminary requests executed in the same transaction.
+ * Without rows, it only executes preliminary requests atomically.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class BatchRequest implements Request {
+
+    /**
+     * Default number of rows sent to the server in one batch
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Used database
+     */
+    private final Database database;
+
+    /**
+     * Table where rows have to be inserted
+     */
+    private final String table;
+
+    /**
+     * Requests executed in the transaction before inserting rows
+     */
+    private final List<Request> preliminaries;
+
+    /**
+     * Columns to fill with the request
+     */
+    private String[] fields;
+
+    /**
+     * Rows to insert, consumed lazily during the execution
+     */
+    private Iterator<Object[]> rows;
+
+    /**
+     * Number of rows sent to the server in one batch
+     */
+    private int batchSize;
+
+    /**
+     * Construct the request with basic informations.
+     *
+     * @param database database which contains the table to fill
+     * @param table    table to fill
+     */
+    public BatchRequest(Database database, String table) {
+        this.database = database;
+        this.table = table;
+
+        this.fields = new String[0];
+        this.preliminaries = new ArrayList<>();
+        this.rows = Collections.emptyIterator();
+        this.batchSize = DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object[] getAttributes() {
+        return new Object[0];
+    }
+
+    public List<Request> getPreliminaries() {
+        return Collections.unmodifiableList(this.preliminaries);
+    }
+
+    public Iterator<Object[]> getRows() {
+        return this.rows;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public BatchRequest before(Request request) {
+        this.preliminaries.add(request);
+        return this;
+    }
+
+    public BatchRequest fields(String... fields) {
+        this.fields = DatabaseManager.espaceFields(fields);
+        return this;
+    }
+
+    public BatchRequest rows(Iterator<Object[]> rows) {
+        this.rows = Objects.requireNonNull(rows, "rows cannot be null");
+        return this;
+    }
+
+    public BatchRequest batchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public int execute() throws SQLException {
+        return this.database.execBatchStatement(this);
+    }
+
+    @Override
+    public String getRequest() {
+        // We do some verifications on object's attributes
+        if (this.table == null) {
+            throw new NullPointerException("Table seems to be null");
+        }
+        if (this.fields.length == 0) {
+            throw new IllegalArgumentException("You must add at least one field");
+        }
+
+        return "INSERT INTO `" + this.table + '`' +
+                "(" + Joiner.on(',').join(this.fields) + ")" +
+                " VALUES (" + Joiner.on(',').join(Collections.nCopies(this.fields.length, '?')) + ")";
+    }
+
+}
@@ -5,10 +5,15 @@ import fr.utarwyn.endercontainers.dependency.exceptions.BlockChestOpeningExcepti
 import fr.utarwyn.endercontainers.dependency.resolve.DependencyResolver;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.PluginManager;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 /**
@@ -17,7 +22,17 @@ import java.util.logging.Level;
  * @author Utarwyn
  * @since 1.0.3
  */
-public class DependenciesManager extends AbstractManager implements DependencyValidator {
+public class DependenciesManager extends AbstractManager implements DependencyValidator, Listener {
+
+    /**
+     * Duration in milliseconds during which a validation is reused
+     */
+    static final long VALIDATION_TTL = 2000L;
+
+    /**
+     * Number of cached validations from which expired ones are removed
+     */
+    private static final int VALIDATION_CLEANUP_THRESHOLD = 512;
 
     /**
      * The Bukkit plugin manager
@@ -29,11 +44,31 @@ public class DependenciesManager extends AbstractManager implements DependencyVa
      */
     private final Set<Dependency> dependencies;
 
+    /**
+     * Results of recent validations, by player and block
+     */
+    final Map<ValidationKey, Validation> validations;
+
+    /**
+     * Version of protections of dependencies, increased when one of them changes
+     */
+    private final AtomicInteger stateVersion;
+
     /**
      * Construct the dependencies manager.
      */
     public DependenciesManager() {
         this.dependencies = new HashSet<>();
+        this.validations = new ConcurrentHashMap<>();
+        this.stateVersion = new AtomicInteger();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        this.registerListener(this);
     }
 
     /**
@@ -52,8 +87,15 @@ public class DependenciesManager extends AbstractManager implements DependencyVa
      */
     @Override
     public synchronized void unload() {
-        this.dependencies.forEach(Dependency::onDisable);
+        this.dependencies.forEach(dependency -> {
+            dependency.onDisable();
+            dependency.setStateChangeHandler(null);
+            if (dependency instanceof Listener) {
+                HandlerList.unregisterAll((Listener) dependency);
+            }
+        });
         this.dependencies.clear();
+        this.invalidateValidations();
     }
 
     /**
@@ -67,15 +109,73 @@ public class DependenciesManager extends AbstractManager implements DependencyVa
 
     /**
      * {@inheritDoc}
+     * The result is reused for the same player and block during a short time,
+     * unless protections of a dependency change meanwhile.
      */
     @Override
     public void validateBlockChestOpening(Block block, Player player)
             throws BlockChestOpeningException {
-        for (Dependency dependency : this.dependencies) {
-            dependency.validateBlockChestOpening(block, player);
+        if (this.dependencies.isEmpty()) return;
+
+        ValidationKey key = new ValidationKey(player, block);
+        long now = System.currentTimeMillis();
+        int version = this.stateVersion.get();
+        Validation validation = this.validations.get(key);
+
+        if (validation == null || validation.isExpired(version, now)) {
+            BlockChestOpeningException error = null;
+            try {
+                for (Dependency dependency : this.dependencies) {
+                    dependency.validateBlockChestOpening(block, player);
+                }
+            } catch (BlockChestOpeningException e) {
+                error = e;
+            }
+
+            validation = new Validation(version, now + VALIDATION_TTL, error);
+            this.cacheValidation(key, validation, now);
+        }
+
+        if (validation.error != null) {
+            throw validation.error;
         }
     }
 
+    /**
+     * Forget all validations, so dependencies are checked again.
+     * Called when protections of a dependency change.
+     */
+    public void invalidateValidations() {
+        this.stateVersion.incrementAndGet();
+        this.validations.clear();
+    }
+
+    /**
+     * Forget validations of a player when leaving the server.
+     *
+     * @param event player quit event
+     */
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        this.validations.keySet().removeIf(key -> uuid.equals(key.player));
+    }
+
+    /**
+     * Store the result of a validation, removing expired ones if there are many.
+     *
+     * @param key        player and block of the validation
+     * @param validation result of the validation
+     * @param now        current time in milliseconds
+     */
+    private void cacheValidation(ValidationKey key, Validation validation, long now) {
+        if (this.validations.size() >= VALIDATION_CLEANUP_THRESHOLD) {
+            int version = this.stateVersion.get();
+            this.validations.values().removeIf(cached -> cached.isExpired(version, now));
+        }
+        this.validations.put(key, validation);
+    }
+
     /**
      * Load each dependency if the needed plugin is enabled.
      */
@@ -125,7 +225,74 @@ public class DependenciesManager extends AbstractManager implements DependencyVa
      */
     private void enableDependency(Dependency dependency) {
         dependency.onEnable();
+        dependency.setStateChangeHandler(this::invalidateValidations);
+        if (dependency instanceof Listener) {
+            this.registerListener((Listener) dependency);
+        }
         this.dependencies.add(dependency);
     }
 
+    /**
+     * Player and block position for which a validation has been done.
+     */
+    static final class ValidationKey {
+
+        private final UUID player;
+
+        private final UUID world;
+
+        private final int x;
+
+        private final int y;
+
+        private final int z;
+
+        ValidationKey(Player player, Block block) {
+            this.player = player.getUniqueId();
+            this.world = block.getWorld() != null ? block.getWorld().getUID() : null;
+            this.x = block.getX();
+            this.y = block.getY();
+            this.z = block.getZ();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ValidationKey)) return false;
+            ValidationKey other = (ValidationKey) o;
+            return this.x == other.x && this.y == other.y && this.z == other.z
+                    && Objects.equals(this.player, other.player)
+                    && Objects.equals(this.world, other.world);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.player, this.world, this.x, this.y, this.z);
+        }
+
+    }
+
+    /**
+     * Result of a validation, valid until it expires or protections change.
+     */
+    static final class Validation {
+
+        private final int version;
+
+        private final long expiration;
+
+        private final BlockChestOpeningException error;
+
+        Validation(int version, long expiration, BlockChestOpeningException error) {
+            this.version = version;
+            this.expiration = expiration;
+            this.error = error;
+        }
+
+        boolean isExpired(int currentVersion, long now) {
+            return this.version != currentVersion || now >= this.expiration;
+        }
+
+    }
+
 }
@@ -0,0 +1,342 @@
+package fr.utarwyn.endercontainers.enderchest;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Contents of an enderchest, stored in an array of slots.
+ * Writes publish a new copy of the array, so readers always get
+ * a consistent snapshot without locking. The number of filled slots
+ * is maintained by writes, so it is read without counting.
+ * Also exposed as a map of items by slot, where a map of contents is expected.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class ChestContents extends AbstractMap<Integer, ItemStack> implements ConcurrentMap<Integer, ItemStack> {
+
+    /**
+     * Number of slots allocated on the first write, enough for the biggest chest
+     */
+    public static final int DEFAULT_SIZE = 54;
+
+    /**
+     * Slots of an empty chest, shared by all empty contents
+     */
+    private static final ItemStack[] EMPTY = new ItemStack[0];
+
+    /**
+     * Items by slot, never modified once published
+     */
+    private volatile ItemStack[] slots;
+
+    /**
+     * Number of filled slots in the published array
+     */
+    private volatile int filled;
+
+    /**
+     * Construct empty contents.
+     */
+    public ChestContents() {
+        this.slots = EMPTY;
+    }
+
+    /**
+     * Construct contents from an array of slots.
+     * The array is used as is, so it must not be modified afterwards.
+     *
+     * @param slots items by slot, empty slots are null
+     */
+    public ChestContents(ItemStack[] slots) {
+        this.slots = Objects.requireNonNull(slots, "slots cannot be null");
+        this.filled = countFilled(slots);
+    }
+
+    /**
+     * Construct contents from a map of items.
+     *
+     * @param items items by slot
+     */
+    public ChestContents(Map<Integer, ItemStack> items) {
+        this(toSlots(items));
+    }
+
+    /**
+     * Get contents from a map of items, converting it only if needed.
+     *
+     * @param items items by slot
+     * @return the same contents if already stored in slots, a converted copy otherwise
+     */
+    public static ChestContents of(Map<Integer, ItemStack> items) {
+        return items instanceof ChestContents ? (ChestContents) items : new ChestContents(items);
+    }
+
+    /**
+     * Copy a map of items into a new array of slots.
+     *
+     * @param items items by slot
+     * @return new array of slots, empty slots are null
+     */
+    public static ItemStack[] toSlots(Map<Integer, ItemStack> items) {
+        if (items instanceof ChestContents) {
+            return ((ChestContents) items).getSlots().clone();
+        }
+
+        int length = 0;
+        for (Integer slot : items.keySet()) {
+            length = Math.max(length, slot + 1);
+        }
+
+        ItemStack[] slots = new ItemStack[length];
+        items.forEach((slot, item) -> slots[slot] = item);
+        return slots;
+    }
+
+    /**
+     * Count filled slots of an array of slots.
+     *
+     * @param slots items by slot, empty slots are null
+     * @return number of non-null items
+     */
+    private static int countFilled(ItemStack[] slots) {
+        int count = 0;
+        for (ItemStack item : slots) {
+            if (item != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the current snapshot of slots.
+     * The returned array is shared and must not be modified.
+     *
+     * @return items by slot, empty slots are null
+     */
+    public ItemStack[] getSlots() {
+        return this.slots;
+    }
+
+    /**
+     * Apply several changes at once, publishing a single new array of slots.
+     *
+     * @param length minimum number of slots needed by the changes
+     * @param writer function which modifies a copy of the slots
+     */
+    public synchronized void update(int length, Consumer<ItemStack[]> writer) {
+        ItemStack[] current = this.slots;
+        ItemStack[] copy = Arrays.copyOf(current, Math.max(current.length, length));
+        writer.accept(copy);
+        this.publish(copy, countFilled(copy));
+    }
+
+    /**
+     * Publish a new array of slots with its number of filled slots.
+     *
+     * @param copy  new items by slot, never modified afterwards
+     * @param count number of filled slots in the new array
+     */
+    private void publish(ItemStack[] copy, int count) {
+        this.filled = count;
+        this.slots = copy;
+    }
+
+    /**
+     * Returns the number of filled slots, maintained by writes.
+     *
+     * @return number of filled slots
+     */
+    @Override
+    public int size() {
+        return this.filled;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ItemStack get(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+
+        int slot = (Integer) key;
+        ItemStack[] current = this.slots;
+        return slot >= 0 && slot < current.length ? current[slot] : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ItemStack put(Integer slot, ItemStack item) {
+        Objects.requireNonNull(item, "item cannot be null");
+        if (slot < 0) {
+            throw new IllegalArgumentException("slot cannot be negative");
+        }
+
+        ItemStack[] current = this.slots;
+        ItemStack previous = this.get(slot);
+        ItemStack[] copy = Arrays.copyOf(current, Math.max(current.length, Math.max(slot + 1, DEFAULT_SIZE)));
+        copy[slot] = item;
+        this.publish(copy, previous == null ? this.filled + 1 : this.filled);
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ItemStack remove(Object key) {
+        ItemStack previous = this.get(key);
+        if (previous != null) {
+            ItemStack[] copy = this.slots.clone();
+            copy[(Integer) key] = null;
+            this.publish(copy, this.filled - 1);
+        }
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ItemStack putIfAbsent(Integer slot, ItemStack item) {
+        ItemStack previous = this.get(slot);
+        return previous != null ? previous : this.put(slot, item);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        ItemStack previous = this.get(key);
+        if (previous != null && previous.equals(value)) {
+            this.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean replace(Integer slot, ItemStack oldValue, ItemStack newValue) {
+        ItemStack previous = this.get(slot);
+        if (previous != null && previous.equals(oldValue)) {
+            this.put(slot, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ItemStack replace(Integer slot, ItemStack item) {
+        return this.containsKey(slot) ? this.put(slot, item) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear() {
+        this.publish(EMPTY, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEach(BiConsumer<? super Integer, ? super ItemStack> action) {
+        ItemStack[] current = this.slots;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != null) {
+                action.accept(i, current[i]);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entry<Integer, ItemStack>> entrySet() {
+        return new EntrySet();
+    }
+
+    /**
+     * View of filled slots as map entries, iterating over a snapshot of the slots.
+     */
+    private class EntrySet extends AbstractSet<Entry<Integer, ItemStack>> {
+
+        @Override
+        public Iterator<Entry<Integer, ItemStack>> iterator() {
+            ItemStack[] current = ChestContents.this.slots;
+
+            return new Iterator<Entry<Integer, ItemStack>>() {
+                private int next = this.findNext(0);
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < current.length;
+                }
+
+                @Override
+                public Entry<Integer, ItemStack> next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    this.last = this.next;
+                    this.next = this.findNext(this.next + 1);
+                    return new SimpleImmutableEntry<>(this.last, current[this.last]);
+                }
+
+                @Override
+                public void remove() {
+                    if (this.last < 0) {
+                        throw new IllegalStateException();
+                    }
+
+                    ChestContents.this.remove(this.last);
+                    this.last = -1;
+                }
+
+                private int findNext(int from) {
+                    int slot = from;
+                    while (slot < current.length && current[slot] == null) {
+                        slot++;
+                    }
+                    return slot;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ChestContents.this.size();
+        }
+
+    }
+
+}
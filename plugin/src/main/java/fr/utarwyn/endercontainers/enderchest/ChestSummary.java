@@ -0,0 +1,225 @@
+package fr.utarwyn.endercontainers.enderchest;
+
+import fr.utarwyn.endercontainers.configuration.Files;
+import fr.utarwyn.endercontainers.enderchest.context.PermissionProfile;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Compact summary of the enderchests of a player: rows and filled slots of each chest.
+ * It is persisted next to chest data, so it can be loaded without
+ * deserializing contents nor creating inventories.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class ChestSummary {
+
+    /**
+     * Amount of rows of a chest which has never been saved
+     */
+    static final int DEFAULT_ROWS = 3;
+
+    /**
+     * Owner of the summarized chests
+     */
+    private final UUID owner;
+
+    /**
+     * Amount of rows of each chest, by number
+     */
+    private final int[] rows;
+
+    /**
+     * Number of filled slots of each chest, by number
+     */
+    private final int[] filled;
+
+    /**
+     * Cached permissions of the owner, null if not resolved yet
+     */
+    private volatile PermissionProfile permissionProfile;
+
+    /**
+     * Construct a new chest summary.
+     * Arrays are used as is, so they must not be modified afterwards.
+     *
+     * @param owner  owner of the summarized chests
+     * @param rows   amount of rows of each chest, by number
+     * @param filled number of filled slots of each chest, by number
+     */
+    public ChestSummary(UUID owner, int[] rows, int[] filled) {
+        if (rows.length != filled.length) {
+            throw new IllegalArgumentException("rows and filled slots must have the same length");
+        }
+
+        this.owner = owner;
+        this.rows = rows;
+        this.filled = filled;
+    }
+
+    /**
+     * Construct a new chest summary which reuses permissions of the owner.
+     *
+     * @param owner             owner of the summarized chests
+     * @param rows              amount of rows of each chest, by number
+     * @param filled            number of filled slots of each chest, by number
+     * @param permissionProfile cached permissions of the owner, can be null
+     */
+    public ChestSummary(UUID owner, int[] rows, int[] filled, PermissionProfile permissionProfile) {
+        this(owner, rows, filled);
+        this.permissionProfile = permissionProfile;
+    }
+
+    /**
+     * Summarize copies of chests.
+     *
+     * @param owner  owner of the chests
+     * @param chests chest snapshots to summarize
+     * @return summary of the chests
+     */
+    public static ChestSummary of(UUID owner, Collection<EnderChestSnapshot> chests) {
+        int length = 0;
+        for (EnderChestSnapshot chest : chests) {
+            length = Math.max(length, chest.getNum() + 1);
+        }
+
+        int[] rows = new int[length];
+        int[] filled = new int[length];
+        Arrays.fill(rows, DEFAULT_ROWS);
+
+        for (EnderChestSnapshot chest : chests) {
+            rows[chest.getNum()] = chest.getRows();
+            filled[chest.getNum()] = chest.getContents().size();
+        }
+
+        return new ChestSummary(owner, rows, filled);
+    }
+
+    /**
+     * Get the owner of the summarized chests.
+     *
+     * @return owner uuid
+     */
+    public UUID getOwner() {
+        return this.owner;
+    }
+
+    /**
+     * Get the number of summarized chests, which is also
+     * the first chest number without data.
+     *
+     * @return number of summarized chests
+     */
+    public int getChestCount() {
+        return this.rows.length;
+    }
+
+    /**
+     * Get the amount of rows of a chest.
+     *
+     * @param num number of the chest
+     * @return amount of rows of the chest
+     */
+    public int getRows(int num) {
+        return num >= 0 && num < this.rows.length ? this.rows[num] : DEFAULT_ROWS;
+    }
+
+    /**
+     * Get the number of slots of a chest.
+     *
+     * @param num number of the chest
+     * @return number of slots of the chest
+     */
+    public int getMaxSize(int num) {
+        return this.getRows(num) * 9;
+    }
+
+    /**
+     * Get the number of filled slots of a chest.
+     *
+     * @param num number of the chest
+     * @return number of filled slots of the chest
+     */
+    public int getFilledSlots(int num) {
+        return num >= 0 && num < this.filled.length ? this.filled[num] : 0;
+    }
+
+    /**
+     * Get the fill percentage of a chest.
+     *
+     * @param num number of the chest
+     * @return the fill percentage of the chest
+     */
+    public double getFillPercentage(int num) {
+        return (double) this.getFilledSlots(num) / this.getMaxSize(num);
+    }
+
+    /**
+     * Check if a chest is empty.
+     *
+     * @param num number of the chest
+     * @return true if the chest is empty
+     */
+    public boolean isEmpty(int num) {
+        return this.getFilledSlots(num) == 0;
+    }
+
+    /**
+     * Check if a chest is full.
+     *
+     * @param num number of the chest
+     * @return true if the chest is full
+     */
+    public boolean isFull(int num) {
+        return this.getFilledSlots(num) >= this.getMaxSize(num);
+    }
+
+    /**
+     * Count the number of accessible enderchests of the owner.
+     * All chests are accessible if the owner is offline.
+     *
+     * @return the number of accessible enderchests
+     */
+    public int getAccessibleChestCount() {
+        int max = Files.getConfiguration().getMaxEnderchests();
+        PermissionProfile profile = this.getPermissionProfile();
+        if (profile == null) {
+            return max;
+        }
+
+        int count = Math.min(max, Files.getConfiguration().getDefaultEnderchests());
+        for (int num = count; num < max; num++) {
+            if (profile.canOpen(num)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Get cached permissions of the owner about its enderchests.
+     *
+     * @return permission profile of the owner, null if the owner is offline
+     */
+    private PermissionProfile getPermissionProfile() {
+        Player player = Bukkit.getPlayer(this.owner);
+        if (player == null || !player.isOnline()) {
+            return null;
+        }
+
+        PermissionProfile profile = this.permissionProfile;
+        if (profile == null || !profile.isValidFor(player, System.currentTimeMillis())) {
+            profile = new PermissionProfile(player, Files.getConfiguration().getMaxEnderchests());
+            this.permissionProfile = profile;
+        }
+
+        return profile;
+    }
+
+}
@@ -1,6 +1,7 @@
 package fr.utarwyn.endercontainers.enderchest;
 
 import fr.utarwyn.endercontainers.configuration.Files;
+import fr.utarwyn.endercontainers.enderchest.context.PermissionProfile;
 import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
 import fr.utarwyn.endercontainers.inventory.EnderChestInventory;
 import org.bukkit.entity.Player;
@@ -17,10 +18,6 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class EnderChest {
 
-    private static final String PERM_OPEN = "endercontainers.open.%d";
-    private static final String PERM_SLOT_ROW = "endercontainers.slot%d.row%d";
-    private static final String PERM_SLOTS_ROW = "endercontainers.slots.row%d";
-
     /**
      * The number of the enderchest.
      */
@@ -83,6 +80,15 @@ public class EnderChest {
         return this.context.getOwner();
     }
 
+    /**
+     * Get the name of the owner of this enderchest, without blocking.
+     *
+     * @return name of the owner, or a fallback name if not known yet
+     */
+    public String getOwnerName() {
+        return this.context.getOwnerName();
+    }
+
     /**
      * Returns the size of the chest
      *
@@ -132,20 +138,41 @@ public class EnderChest {
         }
     }
 
+    /**
+     * Captures a point-in-time copy of this enderchest.
+     * Contents are pulled from the container without closing it,
+     * and items are cloned so later moves are not reflected in the copy.
+     *
+     * @return snapshot of the enderchest
+     */
+    public EnderChestSnapshot snapshot() {
+        if (this.container != null && this.container.isInitialized()) {
+            this.container.updateContentsFromContainer();
+        }
+
+        ItemStack[] copy = ChestContents.toSlots(this.getContents());
+        for (int i = 0; i < copy.length; i++) {
+            if (copy[i] != null) {
+                copy[i] = copy[i].clone();
+            }
+        }
+
+        return new EnderChestSnapshot(this.getOwner(), this.num, this.rows, new ChestContents(copy));
+    }
+
     /**
      * Check the accessibility of the chest
      *
      * @return True if the chest is accessible
      */
     public boolean isAccessible() {
-        Player player = this.context.getOwnerAsObject();
-
-        // For the first chest or if the player is offline, viewer has the access.
-        if (!this.isDefault() && player != null) {
-            return player.hasPermission(String.format(PERM_OPEN, this.getNum()));
-        } else {
+        if (this.isDefault()) {
             return true;
         }
+
+        // If the player is offline, viewer has the access.
+        PermissionProfile profile = this.context.getPermissionProfile();
+        return profile == null || profile.canOpen(this.num);
     }
 
     /**
@@ -197,30 +224,28 @@ public class EnderChest {
         this.container.open(player);
     }
 
+    /**
+     * Close the chest container for all its viewers, if it was created.
+     */
+    public void closeContainer() {
+        if (this.container != null) {
+            this.container.close();
+        }
+    }
+
     /**
      * Retrieves the amount of rows accessible by a player.
-     * Computes player permissions if connected, or the cache otherwise.
+     * Uses player permissions if connected, or the cache otherwise.
      */
     public void updateRowCount() {
-        int count = 3;
-        Player player = this.context.getOwnerAsObject();
+        PermissionProfile profile = this.context.getPermissionProfile();
 
         // player not connected, retrieve the amount from the cache
-        if (player == null) {
+        if (profile == null) {
             this.rows = this.context.getData().getEnderchestRows(this);
-            return;
-        }
-
-        // check player permissions to compute the row count for this slot
-        for (int perm = 6; perm > 0; perm--) {
-            if (player.hasPermission(String.format(PERM_SLOT_ROW, this.num, perm))
-                    || player.hasPermission(String.format(PERM_SLOTS_ROW, perm))) {
-                count = perm;
-                break;
-            }
+        } else {
+            this.rows = profile.getRows(this.num);
         }
-
-        this.rows = count;
     }
 
     /**
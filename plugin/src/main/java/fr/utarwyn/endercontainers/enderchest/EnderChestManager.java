@@ -3,20 +3,30 @@ package fr.utarwyn.endercontainers.enderchest;
 import fr.utarwyn.endercontainers.AbstractManager;
 import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.configuration.Files;
+import fr.utarwyn.endercontainers.enderchest.context.LoadMetrics;
 import fr.utarwyn.endercontainers.enderchest.context.LoadTask;
+import fr.utarwyn.endercontainers.enderchest.context.OwnerSequencer;
 import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
 import fr.utarwyn.endercontainers.enderchest.context.SaveTask;
 import fr.utarwyn.endercontainers.enderchest.listener.EnderChestInventoryListener;
 import fr.utarwyn.endercontainers.enderchest.listener.EnderChestListener;
 import fr.utarwyn.endercontainers.inventory.InventoryManager;
+import fr.utarwyn.endercontainers.storage.StorageManager;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitScheduler;
 
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.logging.Level;
 
 /**
  * The new enderchest manager to manage all chests
@@ -26,15 +36,80 @@ import java.util.function.Consumer;
  */
 public class EnderChestManager extends AbstractManager {
 
+    /**
+     * Maximum time to wait for the loading of a context, in ticks
+     */
+    static final long CONTEXT_LOAD_TIMEOUT = 600L;
+
+    /**
+     * Maximum time to wait for offline enderchest writes before a login, in seconds
+     */
+    static final long LOGIN_WAIT_TIMEOUT = 10L;
+
+    /**
+     * Maximum duration of a login, in seconds.
+     * A player still not joined after it has disconnected during its login.
+     */
+    static final long LOGIN_EXPIRATION = 30L;
+
+    /**
+     * Maximum time to wait for the saving of all contexts when unloading, in seconds
+     */
+    static final long UNLOAD_TIMEOUT = 30L;
+
+    /**
+     * Maximum number of chest summaries kept in memory without a context
+     */
+    static final int SUMMARY_CACHE_SIZE = 256;
+
     /**
      * A map which contains all loaded player contexts.
      */
     Map<UUID, PlayerContext> contextMap;
 
     /**
-     * Collection of player identifiers which are waiting for context loading
+     * Pending context loadings, by player identifier.
+     * A suspended context has a pending loading which is not started yet.
+     */
+    Map<UUID, CompletableFuture<PlayerContext>> loadingContexts;
+
+    /**
+     * Number of suspensions of each player context.
+     * A loading started before a suspension reads data which may have been replaced.
+     */
+    Map<UUID, Integer> contextGenerations;
+
+    /**
+     * Vanilla enderchests opened through the plugin, by viewer identifier
+     */
+    Map<UUID, VanillaEnderChest> vanillaViewers;
+
+    /**
+     * Chest summaries loaded from the storage, by owner identifier.
+     * Least recently used summaries are evicted once the cache is full.
      */
-    Set<UUID> loadingContexts;
+    Map<UUID, ChestSummary> summaries;
+
+    /**
+     * Loadings of chest summaries in progress, by owner identifier
+     */
+    Map<UUID, CompletableFuture<ChestSummary>> loadingSummaries;
+
+    /**
+     * Hook notified about the loading of contexts
+     */
+    private LoadMetrics loadMetrics = LoadMetrics.NONE;
+
+    /**
+     * Orders loadings and savings of the data of each player
+     */
+    OwnerSequencer sequencer;
+
+    /**
+     * Start time of logins in progress, by player identifier.
+     * Their data file is about to be read by the server, so it must not be written.
+     */
+    Map<UUID, Long> loggingPlayers;
 
     /**
      * {@inheritDoc}
@@ -51,7 +126,22 @@ public class EnderChestManager extends AbstractManager {
     @Override
     public synchronized void load() {
         this.contextMap = new ConcurrentHashMap<>();
-        this.loadingContexts = ConcurrentHashMap.newKeySet();
+        this.loadingContexts = new ConcurrentHashMap<>();
+        this.contextGenerations = new ConcurrentHashMap<>();
+        this.vanillaViewers = new ConcurrentHashMap<>();
+        this.summaries = Collections.synchronizedMap(new LinkedHashMap<UUID, ChestSummary>(16, .75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ChestSummary> eldest) {
+                return this.size() > SUMMARY_CACHE_SIZE;
+            }
+        });
+        this.loadingSummaries = new ConcurrentHashMap<>();
+
+        // Kept across reloads, so tasks started before stay ordered
+        if (this.sequencer == null) {
+            this.sequencer = new OwnerSequencer(this.logger);
+            this.loggingPlayers = new ConcurrentHashMap<>();
+        }
     }
 
     /**
@@ -64,8 +154,22 @@ public class EnderChestManager extends AbstractManager {
 
         // Save and unload all data
         this.loadingContexts.clear();
-        this.contextMap.values().forEach(PlayerContext::save);
+        this.vanillaViewers.clear();
+        this.summaries.clear();
+        this.loadingSummaries.clear();
+        // Saves run after pending tasks of each player, so older data is never written last.
+        // The plugin may be disabled, so they cannot be scheduled with Bukkit.
+        ExecutorService executor = Executors.newCachedThreadPool();
+        this.contextMap.forEach((owner, context) -> executor.execute(this.sequencer.sequence(owner, context::save)));
+        executor.shutdown();
         this.contextMap.clear();
+
+        // Only wait once for all players, pending saves are finished on their own threads
+        if (!this.sequencer.awaitPendingTasks(UNLOAD_TIMEOUT, TimeUnit.SECONDS)) {
+            this.logger.log(Level.WARNING, String.format(
+                    "Some enderchests are still being saved after %d seconds", UNLOAD_TIMEOUT
+            ));
+        }
     }
 
     /**
@@ -79,7 +183,8 @@ public class EnderChestManager extends AbstractManager {
 
     /**
      * Retrieve the vanilla enderchest used by a specific player.
-     * It searchs for the enderchest through all contexts, so it can be slow.
+     * Enderchests opened through the plugin are found in the viewer index,
+     * otherwise only the own enderchest of the player is checked.
      *
      * @param player viewer of the enderchest
      * @return found vanilla enderchest, null otherwise
@@ -89,12 +194,40 @@ public class EnderChestManager extends AbstractManager {
             return Optional.empty();
         }
 
-        return this.contextMap.values().stream()
-                .map(context -> context.getChest(0))
-                .filter(Optional::isPresent)
-                .map(ec -> (VanillaEnderChest) ec.get())
-                .filter(ec -> ec.isUsedBy(player))
-                .findFirst();
+        VanillaEnderChest chest = this.vanillaViewers.get(player.getUniqueId());
+        if (chest != null) {
+            return Optional.of(chest);
+        }
+
+        // Own enderchest opened without the plugin
+        PlayerContext context = this.contextMap.get(player.getUniqueId());
+        if (context == null) {
+            return Optional.empty();
+        }
+
+        return context.getChest(0)
+                .filter(VanillaEnderChest.class::isInstance)
+                .map(VanillaEnderChest.class::cast)
+                .filter(ec -> ec.isUsedBy(player));
+    }
+
+    /**
+     * Register a player as a viewer of a vanilla enderchest.
+     *
+     * @param viewer player who has opened the enderchest
+     * @param chest  opened vanilla enderchest
+     */
+    public void registerVanillaViewer(Player viewer, VanillaEnderChest chest) {
+        this.vanillaViewers.put(viewer.getUniqueId(), chest);
+    }
+
+    /**
+     * Unregister a player which does not view a vanilla enderchest anymore.
+     *
+     * @param viewer player who has closed the enderchest
+     */
+    public void unregisterVanillaViewer(Player viewer) {
+        this.vanillaViewers.remove(viewer.getUniqueId());
     }
 
     /**
@@ -108,23 +241,288 @@ public class EnderChestManager extends AbstractManager {
         return this.contextMap.containsKey(owner) && this.contextMap.get(owner).isChestsUnused();
     }
 
+    /**
+     * Captures a point-in-time copy of all loaded contexts.
+     * Unlike a reload, inventories stay opened and contexts stay in memory.
+     * Must be called on the main thread, copies can then be read from any thread.
+     *
+     * @return chest snapshots of every loaded context, by owner
+     */
+    public Map<UUID, List<EnderChestSnapshot>> snapshotContexts() {
+        Map<UUID, List<EnderChestSnapshot>> snapshots = new HashMap<>();
+        this.contextMap.forEach((owner, context) -> snapshots.put(owner, context.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Returns the sequencer which orders storage tasks of each player.
+     * Data of a player must be read or written through it outside of contexts.
+     *
+     * @return sequencer of storage tasks
+     */
+    public OwnerSequencer getSequencer() {
+        return this.sequencer;
+    }
+
+    /**
+     * Prepares the login of a player, before the server reads its data file.
+     * Offline enderchest writes are refused from now on, and pending ones are awaited.
+     * Blocks the calling thread, so it must never be called on the main thread.
+     *
+     * @param owner identifier of the player who logs in
+     * @return true if the player can log in, false if its data file is still being written
+     */
+    public boolean prepareLogin(UUID owner) {
+        long now = System.currentTimeMillis();
+        this.loggingPlayers.values().removeIf(start -> isLoginExpired(start, now));
+        this.loggingPlayers.put(owner, now);
+        return this.sequencer.awaitTasks(owner, LOGIN_WAIT_TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Ends the login of a player, whether it has succeeded or not.
+     * A login never ended expires after a while, in case the player disconnects before joining.
+     *
+     * @param owner identifier of the player who logged in
+     */
+    public void finishLogin(UUID owner) {
+        this.loggingPlayers.remove(owner);
+    }
+
+    /**
+     * Saves the vanilla enderchest of an offline player in its data file.
+     * Items are copied on the main thread, then written asynchronously.
+     * Nothing is done if the enderchest has not been read from the data file.
+     *
+     * @param chest vanilla enderchest to save
+     */
+    public void saveOfflineEnderchest(VanillaEnderChest chest) {
+        UUID owner = chest.getOwner();
+        ItemStack[] contents = chest.copyOfflineContents();
+        if (contents == null) {
+            return;
+        }
+
+        AtomicBoolean refused = new AtomicBoolean();
+        Runnable task = this.sequencer.sequence(owner, () -> {
+            if (refused.get()) {
+                return;
+            }
+
+            try {
+                chest.writeOfflineContents(contents);
+            } catch (IOException | ReflectiveOperationException e) {
+                this.logger.log(Level.SEVERE, String.format(
+                        "cannot save the enderchest of offline player %s", owner
+                ), e);
+            }
+        });
+
+        // Checked once the write is sequenced: a login started since then waits for it.
+        // The server saves the data file by itself once the owner is online.
+        if (this.isOwnerConnecting(owner)) {
+            refused.set(true);
+        }
+
+        this.plugin.executeTaskOnOtherThread(task);
+    }
+
+    /**
+     * Checks if a player is online or is logging in.
+     *
+     * @param owner identifier of the player
+     * @return true if the server may read or write the data file of the player
+     */
+    private boolean isOwnerConnecting(UUID owner) {
+        Long start = this.loggingPlayers.get(owner);
+        if (start != null && isLoginExpired(start, System.currentTimeMillis())) {
+            this.loggingPlayers.remove(owner, start);
+            start = null;
+        }
+
+        return start != null || this.plugin.getServer().getPlayer(owner) != null;
+    }
+
+    /**
+     * Checks if a login has started for too long to be still in progress.
+     *
+     * @param start start time of the login, in milliseconds
+     * @param now   current time, in milliseconds
+     * @return true if the login has expired
+     */
+    private static boolean isLoginExpired(long start, long now) {
+        return now - start > TimeUnit.SECONDS.toMillis(LOGIN_EXPIRATION);
+    }
+
+    /**
+     * Defines the hook notified about the loading of contexts.
+     *
+     * @param loadMetrics hook to notify, null to remove the current one
+     */
+    public void setLoadMetrics(LoadMetrics loadMetrics) {
+        this.loadMetrics = loadMetrics != null ? loadMetrics : LoadMetrics.NONE;
+    }
+
+    /**
+     * Loads data context of a player asynchronously if needed.
+     * Concurrent requests for the same player share a single loading.
+     * Must be called on the main thread: the future is always completed on it,
+     * exceptionally with a {@link TimeoutException} if the loading takes too long.
+     *
+     * @param owner player for which the method has to load context
+     * @return future completed with the loaded context
+     */
+    public CompletableFuture<PlayerContext> loadPlayerContext(UUID owner) {
+        CompletableFuture<PlayerContext> loading = this.loadingContexts.get(owner);
+        if (loading != null) {
+            this.loadMetrics.loadShared(owner);
+            return loading;
+        }
+
+        PlayerContext context = this.contextMap.get(owner);
+        if (context != null) {
+            return CompletableFuture.completedFuture(context);
+        }
+
+        loading = new CompletableFuture<>();
+        this.loadingContexts.put(owner, loading);
+        this.startContextLoading(owner, loading);
+        return loading;
+    }
+
     /**
      * Loads data context of a player asynchronously if needed and consume it when done.
-     * Uses a temporary collection to avoid duplication loading.
+     * The consumer is called on the main thread, never if the loading fails.
      *
      * @param owner    player for which the method has to load context
      * @param consumer method consumed at the end of the task
      */
     public void loadPlayerContext(UUID owner, Consumer<PlayerContext> consumer) {
-        if (!this.loadingContexts.contains(owner)) {
-            if (this.contextMap.containsKey(owner)) {
-                consumer.accept(this.contextMap.get(owner));
-            } else {
-                this.loadingContexts.add(owner);
-                this.plugin.getServer().getScheduler().runTaskAsynchronously(this.plugin,
-                        new LoadTask(this.plugin, this, owner, consumer));
-            }
+        this.loadPlayerContext(owner).thenAccept(consumer).exceptionally(throwable -> {
+            this.logger.log(Level.WARNING, String.format(
+                    "cannot use the context of player %s", owner
+            ), throwable);
+            return null;
+        });
+    }
+
+    /**
+     * Loads the summary of chests of a player.
+     * The loaded context is summarized if there is one, otherwise only the summary
+     * persisted next to chest data is read off the main thread, and then cached.
+     * A full context is only loaded if the storage has no summary up to date.
+     * Concurrent requests share the same loading.
+     * Must be called on the main thread: the future is always completed on it.
+     *
+     * @param owner player for which the method has to load the summary
+     * @return future completed with the summary of the chests
+     */
+    public CompletableFuture<ChestSummary> loadChestSummary(UUID owner) {
+        PlayerContext context = this.contextMap.get(owner);
+        if (context != null) {
+            return CompletableFuture.completedFuture(context.summarize());
+        }
+
+        ChestSummary summary = this.summaries.get(owner);
+        if (summary != null) {
+            return CompletableFuture.completedFuture(summary);
+        }
+
+        // Context loading in progress or suspended, stored data is not reliable yet
+        if (this.loadingContexts.containsKey(owner)) {
+            return this.loadPlayerContext(owner).thenApply(PlayerContext::summarize);
+        }
+
+        CompletableFuture<ChestSummary> loading = this.loadingSummaries.get(owner);
+        if (loading != null) {
+            return loading;
+        }
+
+        CompletableFuture<ChestSummary> future = new CompletableFuture<>();
+        this.loadingSummaries.put(owner, future);
+
+        StorageManager storageManager = Managers.get(StorageManager.class);
+        BukkitScheduler scheduler = this.plugin.getServer().getScheduler();
+        scheduler.runTaskAsynchronously(this.plugin, this.sequencer.sequence(owner, () -> {
+            ChestSummary loaded = storageManager.loadChestSummary(owner);
+            scheduler.scheduleSyncDelayedTask(this.plugin, () -> this.completeSummaryLoading(owner, future, loaded));
+        }));
+
+        return future;
+    }
+
+    /**
+     * Completes the loading of a chest summary read from the storage.
+     * The summary is only cached if it has not been invalidated meanwhile.
+     * Without stored summary, the summary is built from a loaded context.
+     *
+     * @param owner   owner of the chests
+     * @param loading future to complete with the summary
+     * @param loaded  summary read from the storage, null if there is none up to date
+     */
+    private void completeSummaryLoading(UUID owner, CompletableFuture<ChestSummary> loading, ChestSummary loaded) {
+        boolean valid = this.loadingSummaries.remove(owner, loading);
+
+        if (loaded == null) {
+            this.loadPlayerContext(owner).thenApply(PlayerContext::summarize).whenComplete((summary, throwable) -> {
+                if (throwable != null) {
+                    loading.completeExceptionally(throwable);
+                } else {
+                    loading.complete(summary);
+                }
+            });
+            return;
+        }
+
+        if (valid) {
+            this.summaries.put(owner, loaded);
         }
+        loading.complete(loaded);
+    }
+
+    /**
+     * Loads the summary of chests of a player and consume it when done.
+     * The consumer is called on the main thread, never if the loading fails.
+     *
+     * @param owner    player for which the method has to load the summary
+     * @param consumer method consumed with the summary
+     */
+    public void loadChestSummary(UUID owner, Consumer<ChestSummary> consumer) {
+        this.loadChestSummary(owner).thenAccept(consumer).exceptionally(throwable -> {
+            this.logger.log(Level.WARNING, String.format(
+                    "cannot use the chest summary of player %s", owner
+            ), throwable);
+            return null;
+        });
+    }
+
+    /**
+     * Forget the summary of chests of a player, so it will be loaded again.
+     *
+     * @param owner owner of the chests
+     */
+    private void invalidateChestSummary(UUID owner) {
+        this.summaries.remove(owner);
+        this.loadingSummaries.remove(owner);
+    }
+
+    /**
+     * Registers a loaded context and completes its loading.
+     * The context is discarded if it has been suspended since the loading started,
+     * so the suspension goes on and requests wait for the loading started once resumed.
+     *
+     * @param context    loaded context
+     * @param loading    future to complete with the loaded context
+     * @param generation number of suspensions of the context when the loading started
+     */
+    private void completeContextLoading(PlayerContext context, CompletableFuture<PlayerContext> loading,
+                                        int generation) {
+        if (this.contextGenerations.getOrDefault(context.getOwner(), 0) != generation) {
+            return;
+        }
+
+        this.registerPlayerContext(context);
+        loading.complete(context);
     }
 
     /**
@@ -136,6 +534,99 @@ public class EnderChestManager extends AbstractManager {
     public void registerPlayerContext(PlayerContext context) {
         this.contextMap.put(context.getOwner(), context);
         this.loadingContexts.remove(context.getOwner());
+        this.invalidateChestSummary(context.getOwner());
+    }
+
+    /**
+     * Suspend the context of a player, so its data can be replaced in the storage.
+     * The loaded context is discarded without being saved and its chests are closed.
+     * Until the context is resumed, it cannot be loaded or saved.
+     * Loadings in progress are discarded when they end, because they read old data.
+     * Must be called on the main thread.
+     *
+     * @param owner owner of the context to suspend
+     * @return true if a context was loaded for this player
+     */
+    public boolean suspendPlayerContext(UUID owner) {
+        this.contextGenerations.merge(owner, 1, Integer::sum);
+        this.loadingContexts.putIfAbsent(owner, new CompletableFuture<>());
+        this.invalidateChestSummary(owner);
+
+        // Remove the context first, so closing its chests cannot save it
+        PlayerContext context = this.contextMap.remove(owner);
+        if (context != null) {
+            context.closeChests();
+        }
+
+        return context != null;
+    }
+
+    /**
+     * Resume a suspended context of a player.
+     * If needed, a fresh context is loaded from the storage to replace the old one.
+     * Requests received during the suspension are completed with the fresh context.
+     *
+     * @param owner  owner of the context to resume
+     * @param reload true if the context has to be loaded again
+     */
+    public void resumePlayerContext(UUID owner, boolean reload) {
+        CompletableFuture<PlayerContext> loading = this.loadingContexts.remove(owner);
+        boolean waited = loading != null && loading.getNumberOfDependents() > 0;
+
+        if (reload || waited) {
+            if (loading == null || loading.isDone()) {
+                loading = new CompletableFuture<>();
+            }
+            this.loadingContexts.put(owner, loading);
+            this.startContextLoading(owner, loading);
+        }
+    }
+
+    /**
+     * Starts the asynchronous loading of a context, which completes a future.
+     * The future is completed exceptionally if the loading times out,
+     * so later requests can start a new loading.
+     *
+     * @param owner   owner of the context to load
+     * @param loading future to complete with the loaded context
+     */
+    private void startContextLoading(UUID owner, CompletableFuture<PlayerContext> loading) {
+        BukkitScheduler scheduler = this.plugin.getServer().getScheduler();
+        int generation = this.contextGenerations.getOrDefault(owner, 0);
+        long start = System.currentTimeMillis();
+        this.loadMetrics.loadStarted(owner);
+
+        int timeoutTask = scheduler.scheduleSyncDelayedTask(this.plugin, () -> {
+            if (loading.completeExceptionally(new TimeoutException(String.format(
+                    "context of player %s not loaded in %d ticks", owner, CONTEXT_LOAD_TIMEOUT
+            )))) {
+                this.loadingContexts.remove(owner, loading);
+            }
+        }, CONTEXT_LOAD_TIMEOUT);
+
+        loading.whenComplete((context, throwable) -> {
+            scheduler.cancelTask(timeoutTask);
+            if (throwable == null) {
+                this.loadMetrics.loadCompleted(owner, System.currentTimeMillis() - start);
+            } else {
+                this.loadMetrics.loadFailed(owner, throwable);
+            }
+        });
+
+        scheduler.runTaskAsynchronously(this.plugin, this.sequencer.sequence(owner, new LoadTask(
+                this.plugin, this, owner, context -> this.completeContextLoading(context, loading, generation))));
+    }
+
+    /**
+     * Invalidate cached permissions of a player, if its context is loaded.
+     *
+     * @param owner owner of the context
+     */
+    public void invalidatePermissionProfile(UUID owner) {
+        PlayerContext context = this.contextMap.get(owner);
+        if (context != null) {
+            context.invalidatePermissionProfile();
+        }
     }
 
     /**
@@ -148,9 +639,10 @@ public class EnderChestManager extends AbstractManager {
     public void savePlayerContext(UUID owner, boolean delete) {
         if (this.contextMap.containsKey(owner)) {
             SaveTask saveTask = new SaveTask(this.contextMap.get(owner));
-            this.plugin.executeTaskOnOtherThread(saveTask);
+            this.plugin.executeTaskOnOtherThread(this.sequencer.sequence(owner, saveTask));
 
             if (delete) {
+                // The summary is saved with data, later loadings are sequenced after
                 this.contextMap.remove(owner);
             }
         }
@@ -0,0 +1,88 @@
+package fr.utarwyn.endercontainers.enderchest;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Point-in-time copy of an enderchest, detached from its container.
+ * Used to persist data of a chest without touching its viewers.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class EnderChestSnapshot {
+
+    /**
+     * Owner of the enderchest
+     */
+    private final UUID owner;
+
+    /**
+     * Number of the enderchest
+     */
+    private final int num;
+
+    /**
+     * Amount of rows of the enderchest
+     */
+    private final int rows;
+
+    /**
+     * Copy of the enderchest contents
+     */
+    private final ConcurrentMap<Integer, ItemStack> contents;
+
+    /**
+     * Construct a new enderchest snapshot.
+     *
+     * @param owner    owner of the enderchest
+     * @param num      number of the enderchest
+     * @param rows     amount of rows of the enderchest
+     * @param contents copy of the enderchest contents
+     */
+    public EnderChestSnapshot(UUID owner, int num, int rows, ConcurrentMap<Integer, ItemStack> contents) {
+        this.owner = owner;
+        this.num = num;
+        this.rows = rows;
+        this.contents = contents;
+    }
+
+    /**
+     * Returns the owner of the enderchest.
+     *
+     * @return UUID of the chest's owner
+     */
+    public UUID getOwner() {
+        return this.owner;
+    }
+
+    /**
+     * Returns the number of the enderchest.
+     *
+     * @return Number of the enderchest
+     */
+    public int getNum() {
+        return this.num;
+    }
+
+    /**
+     * Returns the number of rows of the enderchest.
+     *
+     * @return Number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns contents of the enderchest when the snapshot was taken.
+     *
+     * @return content of the enderchest
+     */
+    public ConcurrentMap<Integer, ItemStack> getContents() {
+        return this.contents;
+    }
+
+}
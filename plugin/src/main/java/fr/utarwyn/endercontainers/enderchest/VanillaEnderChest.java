@@ -1,15 +1,19 @@
 package fr.utarwyn.endercontainers.enderchest;
 
+import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.compatibility.nms.NMSPlayerUtil;
 import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
 import fr.utarwyn.endercontainers.enderchest.context.PlayerOfflineLoadException;
+import fr.utarwyn.endercontainers.inventory.AbstractInventoryHolder;
+import fr.utarwyn.endercontainers.storage.nbt.PlayerDatFile;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
 
-import java.util.Arrays;
-import java.util.Objects;
+import java.io.IOException;
 
 /**
  * Represents the Bukkit enderchest of a player.
@@ -25,6 +29,31 @@ public class VanillaEnderChest extends EnderChest {
      */
     private Player owner;
 
+    /**
+     * Data file of the offline owner, if the enderchest has been read from it
+     */
+    private PlayerDatFile offlineDataFile;
+
+    /**
+     * Items read from the data file of the offline owner, waiting for an inventory
+     */
+    private ItemStack[] offlineContents;
+
+    /**
+     * Inventory created for the enderchest of an offline owner, without its player entity
+     */
+    private Inventory offlineInventory;
+
+    /**
+     * Number of filled slots, counted again once the enderchest has changed
+     */
+    private volatile int filledSlots;
+
+    /**
+     * True if filled slots have been counted at least once
+     */
+    private volatile boolean filledSlotsCounted;
+
     /**
      * Construct a new vanilla enderchest.
      *
@@ -38,18 +67,28 @@ public class VanillaEnderChest extends EnderChest {
     /**
      * Get the owner of the enderchest as a Player object.
      *
-     * @return player object
+     * @return player object, null if the enderchest has been read from the data file of the owner
      */
     public Player getOwnerAsPlayer() {
         return this.owner;
     }
 
+    /**
+     * Get the inventory which contains items of the enderchest.
+     *
+     * @return inventory of the enderchest, null if not loaded
+     */
+    private Inventory getInventory() {
+        return this.owner != null ? this.owner.getEnderChest() : this.offlineInventory;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public boolean isContainerUsed() {
-        return this.owner != null && !this.owner.getEnderChest().getViewers().isEmpty();
+        Inventory inventory = this.getInventory();
+        return inventory != null && !inventory.getViewers().isEmpty();
     }
 
     /**
@@ -59,7 +98,8 @@ public class VanillaEnderChest extends EnderChest {
      * @return true if the player is using this container
      */
     public boolean isUsedBy(Player player) {
-        return this.owner != null && this.owner.getEnderChest().getViewers().contains(player);
+        Inventory inventory = this.getInventory();
+        return inventory != null && inventory.getViewers().contains(player);
     }
 
     /**
@@ -67,12 +107,20 @@ public class VanillaEnderChest extends EnderChest {
      */
     @Override
     public int getSize() {
-        if (this.owner != null) {
-            Inventory inventory = this.owner.getEnderChest();
-            return (int) Arrays.stream(inventory.getContents()).filter(Objects::nonNull).count();
-        } else {
-            return 0;
+        if (!this.filledSlotsCounted) {
+            this.updateSize();
         }
+        return this.filledSlots;
+    }
+
+    /**
+     * Count filled slots again, once changes of the enderchest have been applied.
+     * Must be called on the main thread.
+     */
+    public void updateSize() {
+        Inventory inventory = this.getInventory();
+        this.filledSlots = inventory != null ? AbstractInventoryHolder.countFilledSlots(inventory.getContents()) : 0;
+        this.filledSlotsCounted = true;
     }
 
     /**
@@ -80,8 +128,10 @@ public class VanillaEnderChest extends EnderChest {
      */
     @Override
     public void openContainerFor(Player player) {
-        if (this.owner != null) {
-            player.openInventory(this.owner.getEnderChest());
+        Inventory inventory = this.getInventory();
+        if (inventory != null) {
+            player.openInventory(inventory);
+            Managers.get(EnderChestManager.class).registerVanillaViewer(player, this);
         }
     }
 
@@ -102,15 +152,87 @@ public class VanillaEnderChest extends EnderChest {
     }
 
     /**
-     * Retrieves the offline player profile from server data.
+     * Reads items of the enderchest from the data file of the offline owner.
+     * Can be called asynchronously, the inventory is created by {@link #loadOfflinePlayer()}.
+     * Nothing is read if the file cannot be decoded without the server,
+     * the player profile is loaded instead.
+     *
+     * @throws PlayerOfflineLoadException thrown when the data file cannot be read
+     */
+    public void readOfflinePlayer() throws PlayerOfflineLoadException {
+        int dataVersion = PlayerDatFile.getServerDataVersion();
+        PlayerDatFile dataFile = PlayerDatFile.of(this.context.getOwner());
+        if (dataVersion < 0 || dataFile == null || !dataFile.exists()) {
+            return;
+        }
+
+        try {
+            this.offlineContents = dataFile.readEnderItems(this.getMaxSize(), dataVersion);
+            this.offlineDataFile = this.offlineContents != null ? dataFile : null;
+        } catch (ReflectiveOperationException e) {
+            // Unresolved server internals have been reported at startup
+            this.offlineContents = null;
+        } catch (IOException e) {
+            throw new PlayerOfflineLoadException(String.format(
+                    "cannot read data file of player %s", this.context.getOwner()
+            ), e);
+        }
+    }
+
+    /**
+     * Copy items of the enderchest read from the data file of the offline owner.
+     * Must be called on the main thread.
+     *
+     * @return copy of items by slot, null if the enderchest has not been read from a data file
+     */
+    public ItemStack[] copyOfflineContents() {
+        if (this.offlineInventory == null) {
+            return null;
+        }
+
+        ItemStack[] contents = this.offlineInventory.getContents();
+        for (int i = 0; i < contents.length; i++) {
+            if (contents[i] != null) {
+                contents[i] = contents[i].clone();
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Writes items of the enderchest back to the data file of the offline owner.
+     * Can be called asynchronously.
+     *
+     * @param contents items by slot, copied with {@link #copyOfflineContents()}
+     * @throws IOException                  thrown if the data file cannot be written
+     * @throws ReflectiveOperationException thrown if an item cannot be encoded
+     */
+    public void writeOfflineContents(ItemStack[] contents) throws IOException, ReflectiveOperationException {
+        if (this.offlineDataFile != null) {
+            this.offlineDataFile.writeEnderItems(contents);
+        }
+    }
+
+    /**
+     * Retrieves the offline player profile from server data,
+     * unless items have already been read from its data file.
      * MUST be called in a synchronous way.
      *
      * @throws PlayerOfflineLoadException thrown when cannot get player profile
      */
     public void loadOfflinePlayer() throws PlayerOfflineLoadException {
+        if (this.offlineContents != null) {
+            this.offlineInventory = Bukkit.createInventory(null, InventoryType.ENDER_CHEST);
+            this.offlineInventory.setContents(this.offlineContents);
+            this.offlineContents = null;
+            this.updateSize();
+            return;
+        }
+
         OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(context.getOwner());
         try {
             this.owner = NMSPlayerUtil.get().loadPlayer(offlinePlayer);
+            this.updateSize();
         } catch (ReflectiveOperationException e) {
             throw new PlayerOfflineLoadException(String.format(
                     "cannot get profile of player %s using reflection", this.context.getOwner()
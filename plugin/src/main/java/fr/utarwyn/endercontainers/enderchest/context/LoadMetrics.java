@@ -0,0 +1,58 @@
+package fr.utarwyn.endercontainers.enderchest.context;
+
+import java.util.UUID;
+
+/**
+ * Hook notified about the loading of player contexts.
+ * Every method is called on the main thread and must return quickly.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public interface LoadMetrics {
+
+    /**
+     * Hook which ignores every notification.
+     */
+    LoadMetrics NONE = new LoadMetrics() {
+    };
+
+    /**
+     * Called when the loading of a context starts.
+     *
+     * @param owner owner of the context
+     */
+    default void loadStarted(UUID owner) {
+        // Nothing by default
+    }
+
+    /**
+     * Called when a request joins a loading already in progress.
+     *
+     * @param owner owner of the context
+     */
+    default void loadShared(UUID owner) {
+        // Nothing by default
+    }
+
+    /**
+     * Called when a context has been loaded.
+     *
+     * @param owner    owner of the context
+     * @param duration time spent to load the context, in milliseconds
+     */
+    default void loadCompleted(UUID owner, long duration) {
+        // Nothing by default
+    }
+
+    /**
+     * Called when the loading of a context has failed or timed out.
+     *
+     * @param owner owner of the context
+     * @param cause reason of the failure
+     */
+    default void loadFailed(UUID owner, Throwable cause) {
+        // Nothing by default
+    }
+
+}
@@ -63,6 +63,22 @@ public class LoadTask implements Runnable {
         // This task can take a certain amount of time to be executed
         context.loadEnderchests(count);
 
+        // Read the vanilla enderchest of an offline owner here, so the main thread does not have to
+        try {
+            context.readOfflinePlayerProfile();
+        } catch (PlayerOfflineLoadException e) {
+            this.plugin.getLogger().log(Level.WARNING, "cannot read offline player data file", e);
+        }
+
+        // Resolve the owner name here, so inventory titles never wait for it
+        try {
+            context.resolveOwnerName();
+        } catch (RuntimeException e) {
+            this.plugin.getLogger().log(Level.WARNING, String.format(
+                    "cannot resolve the name of player %s", this.owner
+            ), e);
+        }
+
         this.plugin.getServer().getScheduler().scheduleSyncDelayedTask(this.plugin, () -> {
             // Load offline player profile in a synchronous way if needed
             try {
@@ -71,8 +87,7 @@ public class LoadTask implements Runnable {
                 this.plugin.getLogger().log(Level.SEVERE, "cannot load offline player profile", e);
             }
 
-            // Register player context in memory
-            this.manager.registerPlayerContext(context);
+            // Context is registered by the consumer, unless it has been suspended meanwhile
             this.consumer.accept(context);
         });
     }
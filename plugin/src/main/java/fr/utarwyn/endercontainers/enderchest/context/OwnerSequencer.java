@@ -0,0 +1,156 @@
+package fr.utarwyn.endercontainers.enderchest.context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Orders storage tasks of each player, so a loading never reads
+ * data which is still being written by a previous saving.
+ * Tasks are ordered by sequencing time, whatever the thread which runs them.
+ * Tasks of different players are never blocked by each other.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class OwnerSequencer {
+
+    /**
+     * Maximum time to wait for the previous task of a player, in seconds.
+     * A task which has never been executed cannot block a player forever.
+     */
+    static final long WAIT_TIMEOUT = 60L;
+
+    /**
+     * Logger used to report tasks which have waited too long
+     */
+    private final Logger logger;
+
+    /**
+     * Completion of the last sequenced task, by player identifier
+     */
+    final Map<UUID, CompletableFuture<Void>> lastTasks;
+
+    /**
+     * Construct a new sequencer.
+     *
+     * @param logger logger used to report tasks which have waited too long
+     */
+    public OwnerSequencer(Logger logger) {
+        this.logger = logger;
+        this.lastTasks = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Sequence a task of a player after all tasks previously sequenced for this player.
+     * The returned task blocks until previous ones are done, so it must be
+     * executed on another thread than the main one, except during shutdown.
+     *
+     * @param owner owner of the data used by the task
+     * @param task  task to sequence
+     * @return task to execute instead of the given one
+     */
+    public Runnable sequence(UUID owner, Runnable task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = this.lastTasks.put(owner, done);
+
+        return () -> {
+            try {
+                if (previous != null) {
+                    this.await(owner, previous);
+                }
+                task.run();
+            } finally {
+                done.complete(null);
+                this.lastTasks.remove(owner, done);
+            }
+        };
+    }
+
+    /**
+     * Check if a player has tasks sequenced but not done yet.
+     *
+     * @param owner owner of the data
+     * @return true if tasks of the player are pending
+     */
+    public boolean hasPendingTasks(UUID owner) {
+        return this.lastTasks.containsKey(owner);
+    }
+
+    /**
+     * Wait for the completion of tasks of a player sequenced until now.
+     *
+     * @param owner   owner of the data
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if tasks of the player are done, false if they are still pending
+     */
+    public boolean awaitTasks(UUID owner, long timeout, TimeUnit unit) {
+        CompletableFuture<Void> last = this.lastTasks.get(owner);
+        if (last == null) {
+            return true;
+        }
+
+        try {
+            last.get(timeout, unit);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Wait for the completion of all tasks sequenced until now, whatever their player.
+     * Tasks sequenced during the wait are not awaited.
+     */
+    public void awaitPendingTasks() {
+        new HashMap<>(this.lastTasks).forEach(this::await);
+    }
+
+    /**
+     * Wait for the completion of all tasks sequenced until now, whatever their player,
+     * for at most the given time in total. Tasks sequenced during the wait are not awaited.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if all tasks are done, false if some of them are still pending
+     */
+    public boolean awaitPendingTasks(long timeout, TimeUnit unit) {
+        CompletableFuture<?>[] pending = this.lastTasks.values().toArray(new CompletableFuture<?>[0]);
+
+        try {
+            CompletableFuture.allOf(pending).get(timeout, unit);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Wait for the completion of the previous task of a player.
+     *
+     * @param owner    owner of the data used by the task
+     * @param previous completion of the previous task
+     */
+    private void await(UUID owner, CompletableFuture<Void> previous) {
+        try {
+            previous.get(WAIT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            this.logger.log(Level.WARNING, String.format(
+                    "previous storage task of player %s not done in %d seconds", owner, WAIT_TIMEOUT
+            ), e);
+        }
+    }
+
+}
@@ -0,0 +1,262 @@
+package fr.utarwyn.endercontainers.enderchest.context;
+
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches permissions of a player about its enderchests.
+ * Accessibility and row count of each chest are resolved once
+ * from precomputed permission nodes, then read from arrays
+ * until the profile expires or is invalidated.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class PermissionProfile {
+
+    /**
+     * Time after which permissions have to be checked again, in milliseconds
+     */
+    static final long TTL = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Maximum number of rows of a chest
+     */
+    static final int MAX_ROWS = 6;
+
+    /**
+     * Number of rows of a chest without permission
+     */
+    static final int DEFAULT_ROWS = 3;
+
+    private static final String PERM_OPEN = "endercontainers.open.%d";
+    private static final String PERM_SLOT_ROW = "endercontainers.slot%d.row%d";
+    private static final String PERM_SLOTS_ROW = "endercontainers.slots.row%d";
+
+    /**
+     * Permission nodes to have a number of rows in all chests, by number of rows
+     */
+    private static final String[] SLOTS_ROW_NODES;
+
+    /**
+     * Precomputed permission nodes of chests, replaced as a whole when more chests are needed
+     */
+    private static volatile ChestNodes chestNodes = new ChestNodes(0);
+
+    static {
+        SLOTS_ROW_NODES = new String[MAX_ROWS + 1];
+        for (int row = 1; row <= MAX_ROWS; row++) {
+            SLOTS_ROW_NODES[row] = String.format(PERM_SLOTS_ROW, row);
+        }
+    }
+
+    /**
+     * Player for which permissions are resolved
+     */
+    private final Player player;
+
+    /**
+     * Time from which the profile is expired, in milliseconds
+     */
+    private final long expirationTime;
+
+    /**
+     * Access of each chest: 0 if not resolved, 1 if allowed, 2 if denied
+     */
+    private final byte[] access;
+
+    /**
+     * Row count of each chest, 0 if not resolved
+     */
+    private final byte[] rows;
+
+    /**
+     * Row count given to all chests, 0 if none, -1 if not resolved
+     */
+    private volatile int globalRows;
+
+    /**
+     * Construct a new permission profile.
+     *
+     * @param player     player for which permissions are resolved
+     * @param chestCount number of chests to cache
+     */
+    public PermissionProfile(Player player, int chestCount) {
+        this.player = player;
+        this.expirationTime = System.currentTimeMillis() + TTL;
+        this.access = new byte[Math.max(0, chestCount)];
+        this.rows = new byte[Math.max(0, chestCount)];
+        this.globalRows = -1;
+    }
+
+    /**
+     * Get precomputed permission nodes covering a number of chests.
+     * Nodes are read without locking, the lock is only taken to grow them.
+     *
+     * @param chestCount number of chests
+     * @return permission nodes of at least this number of chests
+     */
+    private static ChestNodes getChestNodes(int chestCount) {
+        ChestNodes nodes = chestNodes;
+        return nodes.open.length >= chestCount ? nodes : growChestNodes(chestCount);
+    }
+
+    /**
+     * Grow precomputed permission nodes to cover a number of chests.
+     *
+     * @param chestCount number of chests
+     * @return permission nodes of at least this number of chests
+     */
+    private static synchronized ChestNodes growChestNodes(int chestCount) {
+        ChestNodes nodes = chestNodes;
+        if (nodes.open.length < chestCount) {
+            // Grow at least twice, so chests opened one after another do not rebuild nodes each time
+            nodes = new ChestNodes(Math.max(chestCount, nodes.open.length * 2));
+            chestNodes = nodes;
+        }
+        return nodes;
+    }
+
+    /**
+     * Get the permission node to open a chest.
+     *
+     * @param num chest number
+     * @return permission node
+     */
+    static String getOpenNode(int num) {
+        return getChestNodes(num + 1).open[num];
+    }
+
+    /**
+     * Get the permission node to have a number of rows in a chest.
+     *
+     * @param num chest number
+     * @param row number of rows
+     * @return permission node
+     */
+    static String getSlotRowNode(int num, int row) {
+        return getChestNodes(num + 1).slotRow[num][row];
+    }
+
+    /**
+     * Check if this profile can still be used for a player.
+     *
+     * @param player player to check
+     * @param now    current time in milliseconds
+     * @return true if the profile was created for this player and is not expired
+     */
+    public boolean isValidFor(Player player, long now) {
+        return this.player == player && now < this.expirationTime;
+    }
+
+    /**
+     * Check if the player has the permission to open a chest.
+     *
+     * @param num chest number
+     * @return true if the player can open the chest
+     */
+    public boolean canOpen(int num) {
+        if (num >= this.access.length) {
+            return this.player.hasPermission(getOpenNode(num));
+        }
+
+        if (this.access[num] == 0) {
+            this.access[num] = (byte) (this.player.hasPermission(getOpenNode(num)) ? 1 : 2);
+        }
+
+        return this.access[num] == 1;
+    }
+
+    /**
+     * Get the number of rows of a chest given by player permissions.
+     *
+     * @param num chest number
+     * @return number of rows
+     */
+    public int getRows(int num) {
+        if (num >= this.rows.length) {
+            return this.resolveRows(num);
+        }
+
+        if (this.rows[num] == 0) {
+            this.rows[num] = (byte) this.resolveRows(num);
+        }
+
+        return this.rows[num];
+    }
+
+    /**
+     * Resolve the number of rows of a chest with player permissions.
+     * The highest row count between chest and global permissions is kept.
+     *
+     * @param num chest number
+     * @return number of rows
+     */
+    private int resolveRows(int num) {
+        int global = this.getGlobalRows();
+
+        for (int row = MAX_ROWS; row > global; row--) {
+            if (this.player.hasPermission(getSlotRowNode(num, row))) {
+                return row;
+            }
+        }
+
+        return global > 0 ? global : DEFAULT_ROWS;
+    }
+
+    /**
+     * Get the number of rows given to all chests by player permissions.
+     *
+     * @return number of rows, zero if there is no global permission
+     */
+    private int getGlobalRows() {
+        if (this.globalRows < 0) {
+            int count = 0;
+            for (int row = MAX_ROWS; row > 0 && count == 0; row--) {
+                if (this.player.hasPermission(SLOTS_ROW_NODES[row])) {
+                    count = row;
+                }
+            }
+            this.globalRows = count;
+        }
+
+        return this.globalRows;
+    }
+
+    /**
+     * Permission nodes of a number of chests, never modified once built.
+     */
+    private static final class ChestNodes {
+
+        /**
+         * Permission nodes to open a chest, by chest number
+         */
+        private final String[] open;
+
+        /**
+         * Permission nodes to have a number of rows in a chest, by chest number and number of rows
+         */
+        private final String[][] slotRow;
+
+        /**
+         * Build permission nodes of a number of chests.
+         *
+         * @param chestCount number of chests
+         */
+        private ChestNodes(int chestCount) {
+            this.open = new String[chestCount];
+            this.slotRow = new String[chestCount][];
+
+            for (int num = 0; num < chestCount; num++) {
+                this.open[num] = String.format(PERM_OPEN, num);
+                this.slotRow[num] = new String[MAX_ROWS + 1];
+                for (int row = 1; row <= MAX_ROWS; row++) {
+                    this.slotRow[num][row] = String.format(PERM_SLOT_ROW, num, row);
+                }
+            }
+        }
+
+    }
+
+}
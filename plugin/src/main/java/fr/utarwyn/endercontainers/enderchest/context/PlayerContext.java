@@ -3,17 +3,26 @@ package fr.utarwyn.endercontainers.enderchest.context;
 import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.compatibility.CompatibilityHelper;
 import fr.utarwyn.endercontainers.configuration.Files;
+import fr.utarwyn.endercontainers.enderchest.ChestSummary;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import fr.utarwyn.endercontainers.enderchest.VanillaEnderChest;
+import fr.utarwyn.endercontainers.inventory.menu.ChestPaneCache;
 import fr.utarwyn.endercontainers.inventory.menu.EnderChestListMenu;
 import fr.utarwyn.endercontainers.storage.StorageManager;
 import fr.utarwyn.endercontainers.storage.player.PlayerData;
+import fr.utarwyn.endercontainers.util.uuid.UUIDFetcher;
 import org.bukkit.Bukkit;
 import org.bukkit.Sound;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * A context in which all enderchests of a player are loaded.
@@ -34,9 +43,30 @@ public class PlayerContext {
     private final PlayerData data;
 
     /**
-     * List of all chests loaded in the context
+     * All chests loaded in the context, indexed by their number.
+     * The array is replaced as a whole when chests are loaded again.
      */
-    private final Set<EnderChest> chests;
+    private volatile AtomicReferenceArray<EnderChest> chests;
+
+    /**
+     * Panes of the chest list menu rendered for this context
+     */
+    private final ChestPaneCache paneCache;
+
+    /**
+     * Cached permissions of the owner, null if not resolved yet
+     */
+    private volatile PermissionProfile permissionProfile;
+
+    /**
+     * Name of the owner, null if not resolved yet
+     */
+    private volatile String ownerName;
+
+    /**
+     * True while the name of the owner is resolved in background
+     */
+    private final AtomicBoolean resolvingOwnerName;
 
     /**
      * Construct a new player context.
@@ -45,7 +75,9 @@ public class PlayerContext {
      */
     PlayerContext(UUID owner) {
         this.owner = owner;
-        this.chests = Collections.synchronizedSet(new HashSet<>());
+        this.chests = new AtomicReferenceArray<>(0);
+        this.paneCache = new ChestPaneCache();
+        this.resolvingOwnerName = new AtomicBoolean();
         this.data = Managers.get(StorageManager.class).createPlayerDataStorage(this.owner);
     }
 
@@ -69,6 +101,85 @@ public class PlayerContext {
         return player != null && player.isOnline() ? player : null;
     }
 
+    /**
+     * Get the name of the owner without blocking.
+     * If the name has not been resolved yet, it is resolved in background
+     * and a short form of the owner identifier is returned meanwhile.
+     *
+     * @return name of the owner, or a fallback name if not known yet
+     */
+    public String getOwnerName() {
+        String name = this.ownerName;
+        if (name != null) {
+            return name;
+        }
+
+        Player player = this.getOwnerAsObject();
+        if (player != null) {
+            this.ownerName = player.getName();
+            return this.ownerName;
+        }
+
+        if (this.resolvingOwnerName.compareAndSet(false, true)) {
+            UUIDFetcher.getName(this.owner, resolved -> {
+                if (resolved != null) {
+                    this.ownerName = resolved;
+                }
+                this.resolvingOwnerName.set(false);
+            });
+        }
+
+        return this.owner.toString().substring(0, 8);
+    }
+
+    /**
+     * Resolve the name of the owner, possibly with a network request.
+     * Must not be called on the main thread.
+     */
+    public void resolveOwnerName() {
+        if (this.ownerName == null) {
+            this.ownerName = UUIDFetcher.getName(this.owner);
+        }
+    }
+
+    /**
+     * Get panes of the chest list menu rendered for this context.
+     *
+     * @return cache of rendered panes
+     */
+    public ChestPaneCache getPaneCache() {
+        return this.paneCache;
+    }
+
+    /**
+     * Get cached permissions of the owner about its enderchests.
+     * Permissions are resolved again once expired or invalidated.
+     *
+     * @return permission profile of the owner, null if the owner is offline
+     */
+    public PermissionProfile getPermissionProfile() {
+        Player player = this.getOwnerAsObject();
+        if (player == null) {
+            return null;
+        }
+
+        PermissionProfile profile = this.permissionProfile;
+        if (profile == null || !profile.isValidFor(player, System.currentTimeMillis())) {
+            profile = new PermissionProfile(player, Files.getConfiguration().getMaxEnderchests());
+            this.permissionProfile = profile;
+        }
+
+        return profile;
+    }
+
+    /**
+     * Invalidate cached permissions of the owner,
+     * so they will be resolved again on the next check.
+     */
+    public void invalidatePermissionProfile() {
+        this.permissionProfile = null;
+    }
+
     /**
      * Get the storage object which manages this context.
      *
@@ -85,9 +196,11 @@ public class PlayerContext {
      * @return chest found
      */
     public Optional<EnderChest> getChest(int num) {
-        return this.chests.stream()
-                .filter(ch -> ch.getNum() == num)
-                .findFirst();
+        AtomicReferenceArray<EnderChest> loaded = this.chests;
+        if (num < 0 || num >= loaded.length()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(loaded.get(num));
     }
 
     /**
@@ -96,9 +209,39 @@ public class PlayerContext {
      * @return The number of accessible enderchests loaded in the context
      */
     public int getAccessibleChestCount() {
-        return (int) this.chests.stream()
-                .filter(EnderChest::isAccessible)
-                .count();
+        AtomicReferenceArray<EnderChest> loaded = this.chests;
+        int count = 0;
+
+        for (int i = 0; i < loaded.length(); i++) {
+            EnderChest chest = loaded.get(i);
+            if (chest != null && chest.isAccessible()) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Summarize chests loaded in the context, reusing cached permissions of the owner.
+     * Must be called on the main thread.
+     *
+     * @return summary of the loaded chests
+     */
+    public ChestSummary summarize() {
+        AtomicReferenceArray<EnderChest> loaded = this.chests;
+        int[] rows = new int[loaded.length()];
+        int[] filled = new int[loaded.length()];
+
+        for (int i = 0; i < loaded.length(); i++) {
+            EnderChest chest = loaded.get(i);
+            if (chest != null) {
+                rows[i] = chest.getRows();
+                filled[i] = chest.getSize();
+            }
+        }
+
+        return new ChestSummary(this.owner, rows, filled, this.permissionProfile);
     }
 
     /**
@@ -107,7 +250,16 @@ public class PlayerContext {
      * @return true if chests of this context are unused
      */
     public boolean isChestsUnused() {
-        return this.chests.stream().noneMatch(EnderChest::isContainerUsed);
+        AtomicReferenceArray<EnderChest> loaded = this.chests;
+
+        for (int i = 0; i < loaded.length(); i++) {
+            EnderChest chest = loaded.get(i);
+            if (chest != null && chest.isContainerUsed()) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     /**
@@ -116,9 +268,26 @@ public class PlayerContext {
      * @param count amount of chests to load
      */
     public void loadEnderchests(int count) {
-        this.chests.clear();
-        for (int i = 0; i < count; i++) {
-            this.chests.add(this.createEnderchest(i));
+        AtomicReferenceArray<EnderChest> loaded = new AtomicReferenceArray<>(Math.max(0, count));
+        for (int i = 0; i < loaded.length(); i++) {
+            loaded.set(i, this.createEnderchest(i));
+        }
+        this.chests = loaded;
+    }
+
+    /**
+     * Reads the vanilla enderchest of the offline owner from its data file, if needed.
+     * Can be called asynchronously, before {@link #loadOfflinePlayerProfile()}.
+     *
+     * @throws PlayerOfflineLoadException thrown when the data file cannot be read
+     */
+    public void readOfflinePlayerProfile() throws PlayerOfflineLoadException {
+        if (Files.getConfiguration().isUseVanillaEnderchest()) {
+            Optional<EnderChest> chest = this.getChest(0);
+            if (chest.isPresent() && chest.get() instanceof VanillaEnderChest
+                    && ((VanillaEnderChest) chest.get()).getOwnerAsPlayer() == null) {
+                ((VanillaEnderChest) chest.get()).readOfflinePlayer();
+            }
         }
     }
 
@@ -188,12 +357,48 @@ public class PlayerContext {
         return accessible;
     }
 
+    /**
+     * Close containers of all chests managed by the plugin, for all their viewers.
+     */
+    public void closeChests() {
+        this.streamChests()
+                .filter(chest -> !(chest instanceof VanillaEnderChest))
+                .forEach(EnderChest::closeContainer);
+    }
+
     /**
      * Save all datas stored in the context.
      */
     public void save() {
-        this.chests.forEach(EnderChest::updateContainer);
-        this.data.saveContext(this.chests);
+        List<EnderChest> loaded = this.streamChests().collect(Collectors.toList());
+        loaded.forEach(EnderChest::updateContainer);
+        this.data.saveContext(loaded);
+    }
+
+    /**
+     * Captures a point-in-time copy of all chests managed by the plugin.
+     * Containers stay opened, so this can be done while players use them.
+     * Must be called on the main thread.
+     *
+     * @return snapshots of all custom enderchests of the context
+     */
+    public List<EnderChestSnapshot> snapshot() {
+        return this.streamChests()
+                .filter(chest -> !(chest instanceof VanillaEnderChest))
+                .map(EnderChest::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stream over all chests loaded in the context, ordered by number.
+     *
+     * @return stream of loaded chests
+     */
+    private Stream<EnderChest> streamChests() {
+        AtomicReferenceArray<EnderChest> loaded = this.chests;
+        return IntStream.range(0, loaded.length())
+                .mapToObj(loaded::get)
+                .filter(Objects::nonNull);
     }
 
     /**
@@ -8,6 +8,7 @@ import fr.utarwyn.endercontainers.enderchest.VanillaEnderChest;
 import fr.utarwyn.endercontainers.inventory.EnderChestInventory;
 import fr.utarwyn.endercontainers.inventory.InventoryManager;
 import org.bukkit.Sound;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -20,6 +21,7 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * Intercepts events about chest inventories.
@@ -33,9 +35,12 @@ public class EnderChestInventoryListener implements Listener {
 
     private final InventoryManager inventoryManager;
 
+    private final Predicate<ItemStack> restrictedItemPredicate;
+
     public EnderChestInventoryListener(EnderChestManager manager) {
         this.manager = manager;
         this.inventoryManager = Managers.get(InventoryManager.class);
+        this.restrictedItemPredicate = this::checkIfMaterialIsRestricted;
     }
 
     /**
@@ -48,7 +53,10 @@ public class EnderChestInventoryListener implements Listener {
     public void onInventoryClick(InventoryClickEvent event) {
         Inventory inventory = event.getView().getTopInventory();
         if (isEnderChestInventory(inventory) || inventory.getHolder() instanceof EnderChestInventory) {
-            this.inventoryManager.cancelClickEventIfRestricted(event, this::checkIfMaterialIsRestricted);
+            this.inventoryManager.cancelClickEventIfRestricted(event, this.restrictedItemPredicate);
+            if (!event.isCancelled()) {
+                this.updateVanillaSizeAfterChanges(inventory, event.getWhoClicked());
+            }
         }
     }
 
@@ -62,7 +70,10 @@ public class EnderChestInventoryListener implements Listener {
     public void onInventoryDrag(InventoryDragEvent event) {
         Inventory inventory = event.getView().getTopInventory();
         if (isEnderChestInventory(inventory) || inventory.getHolder() instanceof EnderChestInventory) {
-            this.inventoryManager.cancelDragEventIfRestricted(event, items -> items.length > 0 && this.checkIfMaterialIsRestricted(items[0]));
+            this.inventoryManager.cancelDragEventIfRestricted(event, this.restrictedItemPredicate);
+            if (!event.isCancelled()) {
+                this.updateVanillaSizeAfterChanges(inventory, event.getWhoClicked());
+            }
         }
     }
 
@@ -79,13 +90,18 @@ public class EnderChestInventoryListener implements Listener {
         // Play the closing sound when we use the default enderchest!
         if (this.isEnderChestInventory(event.getInventory())) {
             Optional<VanillaEnderChest> vanilla = this.manager.getVanillaEnderchestUsedBy(player);
+            this.manager.unregisterVanillaViewer(player);
 
             // When closing the default enderchest ...
             if (vanilla.isPresent()) {
+                vanilla.get().updateSize();
                 Player ownerObj = vanilla.get().getOwnerAsPlayer();
 
                 // ... save and delete the context from memory if the player is offline.
-                if (!ownerObj.equals(player) && !ownerObj.isOnline()) {
+                if (ownerObj == null) {
+                    this.manager.savePlayerContext(vanilla.get().getOwner(), true);
+                    this.manager.saveOfflineEnderchest(vanilla.get());
+                } else if (!ownerObj.equals(player) && !ownerObj.isOnline()) {
                     this.manager.savePlayerContext(vanilla.get().getOwner(), true);
                     ownerObj.saveData();
                 }
@@ -101,6 +117,20 @@ public class EnderChestInventoryListener implements Listener {
         }
     }
 
+    /**
+     * Count filled slots of the vanilla enderchest viewed by a player again,
+     * once Bukkit has applied the change of the current event.
+     *
+     * @param inventory inventory used by the player
+     * @param viewer    player who interacts with the inventory
+     */
+    private void updateVanillaSizeAfterChanges(Inventory inventory, HumanEntity viewer) {
+        if (this.isEnderChestInventory(inventory) && viewer instanceof Player) {
+            this.manager.getVanillaEnderchestUsedBy((Player) viewer).ifPresent(chest ->
+                    this.inventoryManager.runAfterChanges(chest::updateSize));
+        }
+    }
+
     /**
      * Checks if an item material has been forbidden from enderchests.
      *
@@ -108,8 +138,7 @@ public class EnderChestInventoryListener implements Listener {
      * @return true if material is forbidden, false otherwise
      */
     private boolean checkIfMaterialIsRestricted(ItemStack item) {
-        return !Files.getConfiguration().getForbiddenMaterials().isEmpty() && item != null
-                && Files.getConfiguration().getForbiddenMaterials().stream().anyMatch(material -> item.getType() == material);
+        return item != null && Files.getConfiguration().getForbiddenMaterials().contains(item.getType());
     }
 
     /**
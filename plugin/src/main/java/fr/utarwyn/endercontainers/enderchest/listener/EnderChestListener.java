@@ -2,6 +2,7 @@ package fr.utarwyn.endercontainers.enderchest.listener;
 
 import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.configuration.Files;
+import fr.utarwyn.endercontainers.configuration.LocaleKey;
 import fr.utarwyn.endercontainers.dependency.DependenciesManager;
 import fr.utarwyn.endercontainers.dependency.exceptions.BlockChestOpeningException;
 import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
@@ -11,9 +12,14 @@ import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.util.UUID;
@@ -88,6 +94,70 @@ public class EnderChestListener implements Listener {
         }
     }
 
+    /**
+     * Method called asynchronously before a player logs in.
+     * The server reads the data file of the player once logged in,
+     * so pending offline enderchest writes must be done before.
+     *
+     * @param event The pre-login event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED
+                && !this.manager.prepareLogin(event.getUniqueId())) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                    Files.getLocale().getMessage(LocaleKey.ERR_ENDERCHEST_SAVING));
+        }
+    }
+
+    /**
+     * Method called once the pre-login result of a player is definitive.
+     *
+     * @param event The pre-login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLoginResult(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            this.manager.finishLogin(event.getUniqueId());
+        }
+    }
+
+    /**
+     * Method called once the login result of a player is definitive.
+     *
+     * @param event The login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLoginResult(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            this.manager.finishLogin(event.getPlayer().getUniqueId());
+        }
+    }
+
+    /**
+     * Method called when a player joins the server.
+     * Permissions of the player may have changed while disconnected.
+     *
+     * @param event The join event
+     */
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        UUID owner = event.getPlayer().getUniqueId();
+        this.manager.finishLogin(owner);
+        this.manager.invalidatePermissionProfile(owner);
+    }
+
+    /**
+     * Method called when a player changes of world.
+     * Permissions of the player may be defined per world.
+     *
+     * @param event The world change event
+     */
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        this.manager.invalidatePermissionProfile(event.getPlayer().getUniqueId());
+    }
+
     /**
      * Method called when a player quits the server
      *
@@ -96,6 +166,7 @@ public class EnderChestListener implements Listener {
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         UUID owner = event.getPlayer().getUniqueId();
+        this.manager.finishLogin(owner);
 
         // Clear all the player data from memory
         boolean unused = this.manager.isContextUnused(owner);
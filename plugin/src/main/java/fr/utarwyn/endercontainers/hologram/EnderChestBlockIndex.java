@@ -0,0 +1,268 @@
+package fr.utarwyn.endercontainers.hologram;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+/**
+ * Index of ender chest blocks in loaded chunks, grouped by world and by chunk.
+ * Used to know quickly if a player can target an ender chest.
+ * Must only be used on the main thread.
+ * <p>
+ * Ender chests are indexed when their chunk loads or when placed by a player.
+ * Blocks changed without a block event, like with WorldEdit or /setblock,
+ * are only seen once their chunk is refreshed or reloaded.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class EnderChestBlockIndex {
+
+    /**
+     * Method to read tile entities of a chunk without copying their state,
+     * only provided by some server implementations, null if not available
+     */
+    private static final MethodHandle GET_TILE_ENTITIES = resolveTileEntitiesHandle();
+
+    /**
+     * Positions of ender chests by chunk key, by world identifier
+     */
+    private final Map<UUID, Map<Long, Set<Long>>> chests;
+
+    /**
+     * Construct an empty ender chest block index.
+     */
+    public EnderChestBlockIndex() {
+        this.chests = new HashMap<>();
+    }
+
+    /**
+     * Pack chunk coordinates in a single key.
+     *
+     * @param chunkX X coordinate of the chunk
+     * @param chunkZ Z coordinate of the chunk
+     * @return key of the chunk
+     */
+    static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Pack block coordinates in a single position.
+     *
+     * @param x X coordinate of the block
+     * @param y Y coordinate of the block
+     * @param z Z coordinate of the block
+     * @return position of the block
+     */
+    static long getPosition(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Add an ender chest block to the index.
+     *
+     * @param block ender chest block
+     */
+    public void add(Block block) {
+        this.add(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Remove a block from the index.
+     *
+     * @param block removed block
+     */
+    public void remove(Block block) {
+        Map<Long, Set<Long>> worldChests = this.chests.get(block.getWorld().getUID());
+        if (worldChests == null) {
+            return;
+        }
+
+        long chunkKey = getChunkKey(block.getX() >> 4, block.getZ() >> 4);
+        Set<Long> chunkChests = worldChests.get(chunkKey);
+        if (chunkChests != null && chunkChests.remove(getPosition(block.getX(), block.getY(), block.getZ()))
+                && chunkChests.isEmpty()) {
+            worldChests.remove(chunkKey);
+        }
+    }
+
+    /**
+     * Resolve the method which reads tile entities of a chunk without snapshot.
+     *
+     * @return method handle, null if the server does not provide it
+     */
+    private static MethodHandle resolveTileEntitiesHandle() {
+        try {
+            return MethodHandles.publicLookup().unreflect(Chunk.class.getMethod("getTileEntities", boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get tile entities of a chunk, without snapshot when the server allows it.
+     * Only types and positions of states are read, so snapshots are useless.
+     *
+     * @param chunk loaded chunk
+     * @return tile entities of the chunk
+     */
+    private static BlockState[] getTileEntities(Chunk chunk) {
+        if (GET_TILE_ENTITIES != null) {
+            try {
+                return (BlockState[]) GET_TILE_ENTITIES.invokeExact(chunk, false);
+            } catch (Throwable ignored) {
+                // Fallback on the snapshot method
+            }
+        }
+
+        return chunk.getTileEntities();
+    }
+
+    /**
+     * Index all ender chests of a chunk, using its tile entities.
+     *
+     * @param chunk loaded chunk
+     */
+    public void addChunk(Chunk chunk) {
+        for (BlockState state : getTileEntities(chunk)) {
+            if (state.getType() == Material.ENDER_CHEST) {
+                this.add(chunk.getWorld(), state.getX(), state.getY(), state.getZ());
+            }
+        }
+    }
+
+    /**
+     * Forget all ender chests of a chunk.
+     *
+     * @param chunk unloaded chunk
+     */
+    public void removeChunk(Chunk chunk) {
+        Map<Long, Set<Long>> worldChests = this.chests.get(chunk.getWorld().getUID());
+        if (worldChests != null) {
+            worldChests.remove(getChunkKey(chunk.getX(), chunk.getZ()));
+        }
+    }
+
+    /**
+     * Index all ender chests in loaded chunks of a world.
+     *
+     * @param world world to index
+     */
+    public void addWorld(World world) {
+        for (Chunk chunk : world.getLoadedChunks()) {
+            this.addChunk(chunk);
+        }
+    }
+
+    /**
+     * Forget all ender chests of a world.
+     *
+     * @param world unloaded world
+     */
+    public void removeWorld(World world) {
+        this.chests.remove(world.getUID());
+    }
+
+    /**
+     * Index again all ender chests of a loaded chunk.
+     * Catches ender chests placed or removed without a block event.
+     *
+     * @param chunk loaded chunk
+     */
+    public void refreshChunk(Chunk chunk) {
+        this.removeChunk(chunk);
+        this.addChunk(chunk);
+    }
+
+    /**
+     * Clear the whole index.
+     */
+    public void clear() {
+        this.chests.clear();
+    }
+
+    /**
+     * Get the number of indexed ender chests.
+     *
+     * @return number of ender chests
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, Set<Long>> worldChests : this.chests.values()) {
+            for (Set<Long> chunkChests : worldChests.values()) {
+                size += chunkChests.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Check if an ender chest is within a range of a location.
+     * Only chunks which intersect the range are checked.
+     *
+     * @param location location to check
+     * @param range    maximum distance to an ender chest
+     * @return true if an indexed ender chest is in range
+     */
+    public boolean isNear(Location location, double range) {
+        World world = location.getWorld();
+        Map<Long, Set<Long>> worldChests = world != null ? this.chests.get(world.getUID()) : null;
+        if (worldChests == null || worldChests.isEmpty()) {
+            return false;
+        }
+
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+        double rangeSquared = range * range;
+
+        int minChunkX = (int) Math.floor(x - range) >> 4;
+        int maxChunkX = (int) Math.floor(x + range) >> 4;
+        int minChunkZ = (int) Math.floor(z - range) >> 4;
+        int maxChunkZ = (int) Math.floor(z + range) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                Set<Long> chunkChests = worldChests.get(getChunkKey(chunkX, chunkZ));
+                if (chunkChests == null) {
+                    continue;
+                }
+
+                for (long position : chunkChests) {
+                    double dx = (position >> 38) + .5 - x;
+                    double dy = (position << 52 >> 52) + .5 - y;
+                    double dz = (position << 26 >> 38) + .5 - z;
+
+                    if (dx * dx + dy * dy + dz * dz <= rangeSquared) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Add an ender chest position to the index.
+     *
+     * @param world world of the ender chest
+     * @param x     X coordinate of the ender chest
+     * @param y     Y coordinate of the ender chest
+     * @param z     Z coordinate of the ender chest
+     */
+    private void add(World world, int x, int y, int z) {
+        this.chests.computeIfAbsent(world.getUID(), id -> new HashMap<>())
+                .computeIfAbsent(getChunkKey(x >> 4, z >> 4), key -> new HashSet<>())
+                .add(getPosition(x, y, z));
+    }
+
+}
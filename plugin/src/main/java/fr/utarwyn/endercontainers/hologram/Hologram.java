@@ -2,12 +2,15 @@ package fr.utarwyn.endercontainers.hologram;
 
 import fr.utarwyn.endercontainers.compatibility.nms.NMSHologramUtil;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 /**
  * This class is used to display a text above an enderchest block
  * if the option blockNametag was set to true.
  * This class uses packets and supports versions from 1.8 to 1.15.
+ * The entity is kept for its observer and reused for every enderchest,
+ * only changes of location or text are sent once spawned.
  *
  * @author Utarwyn
  * @since 2.0.0
@@ -21,39 +24,52 @@ class Hologram {
     static final double LINE_HEIGHT = 0.23D;
 
     /**
-     * The title of the hologram (its content)
+     * The player who has to receive the hologram
      */
-    private final String title;
+    private final Player observer;
 
     /**
-     * The location where the hologram have to spawn
+     * Server entity used to display the hologram
      */
-    private final Location location;
+    private Object entity;
 
     /**
-     * The player who has to receive the hologram
+     * Identifier of the spawned entity for the observer
      */
-    private final Player observer;
+    private int entityId = -1;
 
     /**
-     * Identifier of the spawned entity for the observer
+     * True if the entity has been spawned for the observer
+     */
+    private boolean spawned;
+
+    /**
+     * World in which the entity has been spawned
+     */
+    private World world;
+
+    /**
+     * The title of the hologram (its content)
+     */
+    private String title;
+
+    /**
+     * The location where the hologram is displayed
      */
-    private Integer entityId;
+    private Location location;
 
     /**
-     * Construct an hologram and spawn it directly
+     * True if the title is shown to the observer
+     */
+    private boolean visible;
+
+    /**
+     * Construct an hologram for an observer, without spawning it.
      *
      * @param observer The observer who has to receive the hologram
-     * @param title    The title/content of the hologram
-     * @param location The location of the hologram
-     * @throws HologramException thrown if cannot spawn the hologram
      */
-    Hologram(Player observer, String title, Location location) throws HologramException {
+    Hologram(Player observer) {
         this.observer = observer;
-        this.title = title;
-        this.location = location;
-
-        this.spawn();
     }
 
     /**
@@ -65,13 +81,81 @@ class Hologram {
         return this.observer != null && this.observer.isOnline();
     }
 
+    /**
+     * Know if the title of the hologram is shown to the observer.
+     *
+     * @return True if the hologram is visible
+     */
+    boolean isVisible() {
+        return this.visible;
+    }
+
+    /**
+     * Know if the hologram is shown at a specific location.
+     *
+     * @param location location to check
+     * @return True if the hologram is visible at this location
+     */
+    boolean isVisibleAt(Location location) {
+        return this.visible && location.equals(this.location);
+    }
+
+    /**
+     * Show the hologram with a title at a location.
+     * The entity is spawned only once per world, then it is moved
+     * or its title updated only if they have changed.
+     *
+     * @param title    The title/content of the hologram
+     * @param location The location of the hologram
+     * @throws HologramException thrown if cannot show the hologram
+     */
+    void show(String title, Location location) throws HologramException {
+        if (!this.spawned || this.world != location.getWorld()) {
+            this.spawn(title, location);
+            return;
+        }
+
+        try {
+            if (!location.equals(this.location)) {
+                NMSHologramUtil.get().teleportEntity(this.entity, location, this.observer);
+                this.location = location;
+            }
+            if (!this.visible || !title.equals(this.title)) {
+                NMSHologramUtil.get().updateHologram(this.entity, title, true, this.observer);
+                this.title = title;
+                this.visible = true;
+            }
+        } catch (ReflectiveOperationException cause) {
+            throw new HologramException("cannot update hologram entity", cause);
+        }
+    }
+
+    /**
+     * Hide the title of the hologram, keeping its entity for later.
+     *
+     * @throws HologramException thrown if cannot hide the hologram
+     */
+    void hide() throws HologramException {
+        if (this.spawned && this.visible) {
+            try {
+                NMSHologramUtil.get().updateHologram(this.entity, this.title, false, this.observer);
+                this.visible = false;
+            } catch (ReflectiveOperationException cause) {
+                throw new HologramException("cannot hide hologram entity", cause);
+            }
+        }
+    }
+
     /**
      * Destroy the hologram for the observer with the stored entity id.
      *
      * @throws HologramException thrown if cannot destroy the hologram
      */
     void destroy() throws HologramException {
-        if (this.entityId != null && this.entityId >= 0) {
+        if (this.spawned && this.entityId >= 0) {
+            this.spawned = false;
+            this.visible = false;
+
             try {
                 NMSHologramUtil.get().destroyEntity(this.entityId, this.observer);
             } catch (ReflectiveOperationException cause) {
@@ -81,16 +165,26 @@ class Hologram {
     }
 
     /**
-     * Spawn the hologram.
+     * Spawn the hologram entity for the observer.
      *
+     * @param title    The title/content of the hologram
+     * @param location The location of the hologram
      * @throws HologramException thrown if cannot spawn the hologram
      */
-    private void spawn() throws HologramException {
+    private void spawn(String title, Location location) throws HologramException {
         try {
-            this.entityId = NMSHologramUtil.get().spawnHologram(this.location, this.title, this.observer);
+            NMSHologramUtil util = NMSHologramUtil.get();
+            this.entity = util.createHologram(location, title);
+            this.entityId = util.spawnEntity(this.entity, this.observer);
         } catch (ReflectiveOperationException cause) {
             throw new HologramException("cannot spawn hologram entity", cause);
         }
+
+        this.spawned = true;
+        this.visible = true;
+        this.world = location.getWorld();
+        this.title = title;
+        this.location = location;
     }
 
 }
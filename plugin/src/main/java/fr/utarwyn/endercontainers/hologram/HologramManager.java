@@ -6,16 +6,31 @@ import fr.utarwyn.endercontainers.configuration.Files;
 import fr.utarwyn.endercontainers.configuration.LocaleKey;
 import fr.utarwyn.endercontainers.dependency.DependenciesManager;
 import fr.utarwyn.endercontainers.dependency.exceptions.BlockChestOpeningException;
+import fr.utarwyn.endercontainers.enderchest.ChestSummary;
 import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
-import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -24,12 +39,41 @@ import java.util.logging.Level;
 /**
  * The hologram manager. It runs automatically a task to show/hide
  * holograms to player who needs to.
+ * Players are checked in small batches over several ticks, and only
+ * those near an indexed ender chest need a ray trace. Each player keeps
+ * its hologram entity, which is only moved or updated when needed.
  *
  * @author Utarwyn
  * @since 2.0.0
  */
 public class HologramManager extends AbstractManager implements Runnable {
 
+    /**
+     * Number of ticks needed to check all online players
+     */
+    static final int SCAN_PERIOD = 5;
+
+    /**
+     * Number of ticks between two refreshes of the ender chest index (5 minutes),
+     * to catch blocks changed without a block event
+     */
+    static final int INDEX_REFRESH_PERIOD = 6000;
+
+    /**
+     * Number of loaded chunks indexed again on each tick of a refresh
+     */
+    static final int INDEX_REFRESH_BATCH = 8;
+
+    /**
+     * Maximum distance between a player and a targeted ender chest
+     */
+    private static final int TARGET_DISTANCE = 6;
+
+    /**
+     * Distance from the feet of a player in which an ender chest can be targeted
+     */
+    private static final double SCAN_RANGE = TARGET_DISTANCE + 2D;
+
     /**
      * All stored holograms by owner
      */
@@ -38,6 +82,38 @@ public class HologramManager extends AbstractManager implements Runnable {
      * The BukkitTask object which manage the spawning/dispawning of holograms
      */
     BukkitTask task;
+    /**
+     * Index of ender chest blocks in loaded chunks
+     */
+    final EnderChestBlockIndex blockIndex = new EnderChestBlockIndex();
+    /**
+     * Players to check during the current scan cycle
+     */
+    private List<Player> scanQueue = Collections.emptyList();
+    /**
+     * Position of the next player to check in the scan queue
+     */
+    private int scanCursor;
+    /**
+     * Number of players checked on each tick of the current scan cycle
+     */
+    private int scanBatch;
+    /**
+     * Loaded chunks to index again during the current refresh
+     */
+    private List<Chunk> refreshQueue = Collections.emptyList();
+    /**
+     * Position of the next chunk to index again in the refresh queue
+     */
+    private int refreshCursor;
+    /**
+     * Number of ticks since the last refresh of the ender chest index
+     */
+    private int indexAge;
+    /**
+     * Nametag titles by accessible enderchest count
+     */
+    private final Map<Integer, String> titles = new ConcurrentHashMap<>();
     /**
      * The enderchest manager
      */
@@ -62,6 +138,14 @@ public class HologramManager extends AbstractManager implements Runnable {
                 .replace("%plural%", ((chestCount > 1) ? "s" : ""));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void initialize() {
+        this.registerListener(this);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -70,10 +154,16 @@ public class HologramManager extends AbstractManager implements Runnable {
         this.chestManager = Managers.get(EnderChestManager.class);
         this.dependenciesManager = Managers.get(DependenciesManager.class);
         this.holograms = new ConcurrentHashMap<>();
+        this.titles.clear();
 
         // Start the task only if the block nametag is enabled
         if (Files.getConfiguration().isBlockNametag()) {
-            this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this, 20L, 5L);
+            for (World world : this.plugin.getServer().getWorlds()) {
+                this.blockIndex.addWorld(world);
+            }
+
+            this.indexAge = 0;
+            this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this, 20L, 1L);
         }
     }
 
@@ -89,6 +179,12 @@ public class HologramManager extends AbstractManager implements Runnable {
 
         this.holograms.values().forEach(this::destroyHologram);
         this.holograms.clear();
+        this.blockIndex.clear();
+        this.titles.clear();
+        this.scanQueue = Collections.emptyList();
+        this.scanCursor = 0;
+        this.refreshQueue = Collections.emptyList();
+        this.refreshCursor = 0;
     }
 
     /**
@@ -96,15 +192,169 @@ public class HologramManager extends AbstractManager implements Runnable {
      */
     @Override
     public void run() {
+        this.refreshIndex();
+
+        if (this.scanCursor >= this.scanQueue.size()) {
+            // Unused holograms can be cleared before a new scan cycle
+            this.holograms.entrySet().removeIf(entry -> !entry.getValue().isObserverOnline());
+
+            this.scanQueue = new ArrayList<>(Bukkit.getOnlinePlayers());
+            this.scanCursor = 0;
+            this.scanBatch = (this.scanQueue.size() + SCAN_PERIOD - 1) / SCAN_PERIOD;
+        }
+
         List<String> disabledWorlds = Files.getConfiguration().getDisabledWorlds();
+        int end = Math.min(this.scanCursor + this.scanBatch, this.scanQueue.size());
 
-        // We have to check hologram status for all players in enabled worlds
-        Bukkit.getOnlinePlayers().stream()
-                .filter(player -> !disabledWorlds.contains(player.getWorld().getName()))
-                .forEach(this::checkHologramStatus);
+        // We have to check hologram status for a batch of players in enabled worlds
+        for (; this.scanCursor < end; this.scanCursor++) {
+            Player player = this.scanQueue.get(this.scanCursor);
+            if (player.isOnline() && !disabledWorlds.contains(player.getWorld().getName())) {
+                this.checkHologramStatus(player);
+            }
+        }
+    }
 
-        // Unused holograms can be cleared
-        this.holograms.entrySet().removeIf(entry -> !entry.getValue().isObserverOnline());
+    /**
+     * Index again a batch of loaded chunks if a refresh is in progress,
+     * or start a new refresh once the refresh period has elapsed.
+     * Chunks are spread over several ticks, so tile entities of all
+     * loaded chunks are never read during the same tick.
+     */
+    private void refreshIndex() {
+        if (this.refreshCursor >= this.refreshQueue.size()) {
+            if (++this.indexAge < INDEX_REFRESH_PERIOD) {
+                return;
+            }
+
+            this.refreshQueue = new ArrayList<>();
+            this.refreshCursor = 0;
+            this.indexAge = 0;
+
+            for (World world : this.plugin.getServer().getWorlds()) {
+                Collections.addAll(this.refreshQueue, world.getLoadedChunks());
+            }
+        }
+
+        int end = Math.min(this.refreshCursor + INDEX_REFRESH_BATCH, this.refreshQueue.size());
+
+        // Chunks unloaded since the start of the refresh have already been removed
+        for (; this.refreshCursor < end; this.refreshCursor++) {
+            Chunk chunk = this.refreshQueue.get(this.refreshCursor);
+            if (chunk.isLoaded()) {
+                this.blockIndex.refreshChunk(chunk);
+            }
+        }
+
+        if (this.refreshCursor >= this.refreshQueue.size()) {
+            this.refreshQueue = Collections.emptyList();
+            this.refreshCursor = 0;
+        }
+    }
+
+    /**
+     * Index ender chests of a chunk when it loads.
+     *
+     * @param event chunk load event
+     */
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (this.task != null) {
+            this.blockIndex.addChunk(event.getChunk());
+        }
+    }
+
+    /**
+     * Forget ender chests of a chunk when it unloads.
+     *
+     * @param event chunk unload event
+     */
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        this.blockIndex.removeChunk(event.getChunk());
+    }
+
+    /**
+     * Forget ender chests of a world when it unloads.
+     *
+     * @param event world unload event
+     */
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        this.blockIndex.removeWorld(event.getWorld());
+    }
+
+    /**
+     * Index an ender chest when placed.
+     *
+     * @param event block place event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        if (this.task != null && Material.ENDER_CHEST.equals(block.getType())) {
+            this.blockIndex.add(block);
+        }
+    }
+
+    /**
+     * Forget an ender chest when broken.
+     *
+     * @param event block break event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        Block block = event.getBlock();
+        if (Material.ENDER_CHEST.equals(block.getType())) {
+            this.blockIndex.remove(block);
+        }
+    }
+
+    /**
+     * Forget the hologram of a player who changed of world,
+     * its entity has been removed by the client.
+     *
+     * @param event player changed world event
+     */
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        if (this.holograms != null) {
+            this.holograms.remove(event.getPlayer().getUniqueId());
+        }
+    }
+
+    /**
+     * Forget the hologram of a player who respawns,
+     * its entity has been removed by the client, even in the same world.
+     *
+     * @param event player respawn event
+     */
+    @EventHandler
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        if (this.holograms != null) {
+            this.holograms.remove(event.getPlayer().getUniqueId());
+        }
+    }
+
+    /**
+     * Destroy the hologram of a player teleported beyond its view distance,
+     * its entity is removed by the client with the chunks left behind.
+     *
+     * @param event player teleport event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        double viewRange = this.plugin.getServer().getViewDistance() * 16D;
+
+        if (this.holograms != null && to != null && (from.getWorld() != to.getWorld()
+                || from.distanceSquared(to) > viewRange * viewRange)) {
+            Hologram hologram = this.holograms.remove(event.getPlayer().getUniqueId());
+            if (hologram != null) {
+                this.destroyHologram(hologram);
+            }
+        }
     }
 
     /**
@@ -114,43 +364,73 @@ public class HologramManager extends AbstractManager implements Runnable {
      */
     private void checkHologramStatus(Player player) {
         UUID uuid = player.getUniqueId();
-        Block block = player.getTargetBlock(null, 6);
+        Hologram hologram = this.holograms.get(uuid);
+
+        // Ray tracing is useless if no ender chest is in range
+        if (!this.blockIndex.isNear(player.getLocation(), SCAN_RANGE)) {
+            if (hologram != null) {
+                this.destroyHologram(this.holograms.remove(uuid));
+            }
+            return;
+        }
+
+        Block block = player.getTargetBlock(null, TARGET_DISTANCE);
 
         if (Material.ENDER_CHEST.equals(block.getType())) {
-            if (!this.holograms.containsKey(uuid)) {
+            Location location = block.getLocation().clone().add(.5, -0.79D - Hologram.LINE_HEIGHT, .5);
+
+            // Access to a newly targeted enderchest has to be checked
+            if (hologram == null || !hologram.isVisibleAt(location)) {
                 try {
                     this.dependenciesManager.validateBlockChestOpening(block, player);
                 } catch (BlockChestOpeningException ignored) {
+                    this.hideHologram(hologram);
                     return;
                 }
-
-                this.chestManager.loadPlayerContext(player.getUniqueId(),
-                        context -> this.spawnHologram(context, player, block));
             }
-        } else if (this.holograms.containsKey(uuid)) {
-            this.destroyHologram(this.holograms.remove(uuid));
+
+            this.chestManager.loadChestSummary(uuid, summary -> this.showHologram(summary, player, location));
+        } else {
+            this.hideHologram(hologram);
         }
     }
 
     /**
-     * Spawn an hologram above a block for a specific player.
+     * Show an hologram above a block for a specific player,
+     * reusing the entity of the player if there is one.
      *
-     * @param context  Context in which all chests are loaded
-     * @param observer Player for which the hologram should spawn
-     * @param block    Enderchest for which the hologram have to appear
+     * @param summary  Summary of the chests of the player
+     * @param observer Player for which the hologram should appear
+     * @param location Location of the hologram above the enderchest
      */
-    private void spawnHologram(PlayerContext context, Player observer, Block block) {
-        int count = context.getAccessibleChestCount();
-        String title = HologramManager.generateNametagTitle(count);
-        Location location = block.getLocation().clone().add(.5, -0.79D - Hologram.LINE_HEIGHT, .5);
+    private void showHologram(ChestSummary summary, Player observer, Location location) {
+        int count = summary.getAccessibleChestCount();
+        String title = this.titles.computeIfAbsent(count, HologramManager::generateNametagTitle);
+        Hologram hologram = this.holograms.computeIfAbsent(observer.getUniqueId(), id -> new Hologram(observer));
 
         try {
-            this.holograms.put(observer.getUniqueId(), new Hologram(observer, title, location));
+            hologram.show(title, location);
         } catch (HologramException e) {
+            this.holograms.remove(observer.getUniqueId());
             this.plugin.getLogger().log(Level.WARNING, "cannot create hologram instance", e);
         }
     }
 
+    /**
+     * Hide a specific hologram, keeping its entity for later.
+     *
+     * @param hologram hologram instance to hide, can be null
+     */
+    private void hideHologram(Hologram hologram) {
+        if (hologram != null) {
+            try {
+                hologram.hide();
+            } catch (HologramException e) {
+                this.plugin.getLogger().log(Level.WARNING, "cannot hide hologram instance", e);
+            }
+        }
+    }
+
     /**
      * Destroys a specific hologram by despawning its entity.
      *
@@ -3,13 +3,14 @@ package fr.utarwyn.endercontainers.inventory;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * Manages an inventory created by the plugin.
@@ -35,13 +36,29 @@ public abstract class AbstractInventoryHolder implements InventoryHolder {
      */
     private boolean initialized;
 
+    /**
+     * Count filled slots of an inventory contents array.
+     *
+     * @param contents contents to check
+     * @return number of non-null items
+     */
+    public static int countFilledSlots(ItemStack[] contents) {
+        int count = 0;
+        for (ItemStack item : contents) {
+            if (item != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Returns the number of filled slots in the container.
      *
      * @return Number of fileld slots
      */
     public int getFilledSlotsNb() {
-        return (int) Arrays.stream(this.inventory.getContents()).filter(Objects::nonNull).count();
+        return countFilledSlots(this.inventory.getContents());
     }
 
     /**
@@ -91,6 +108,35 @@ public abstract class AbstractInventoryHolder implements InventoryHolder {
         // Not implemented
     }
 
+    /**
+     * Record slots of the inventory which may be changed by a click.
+     * Changes are applied by Bukkit after the event, so they are
+     * reconciled later with {@link #reconcileChanges()}.
+     *
+     * @param event click event on the inventory
+     * @return true if changes need to be reconciled
+     */
+    public boolean trackChanges(InventoryClickEvent event) {
+        return false;
+    }
+
+    /**
+     * Record slots of the inventory which may be changed by a drag.
+     *
+     * @param event drag event on the inventory
+     * @return true if changes need to be reconciled
+     */
+    public boolean trackChanges(InventoryDragEvent event) {
+        return false;
+    }
+
+    /**
+     * Apply recorded changes of the inventory, once Bukkit has updated it.
+     */
+    public void reconcileChanges() {
+        // Not implemented
+    }
+
     /**
      * Open the container to a specific player.
      *
@@ -5,14 +5,17 @@ import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.compatibility.CompatibilityHelper;
 import fr.utarwyn.endercontainers.configuration.Files;
 import fr.utarwyn.endercontainers.configuration.LocaleKey;
+import fr.utarwyn.endercontainers.enderchest.ChestContents;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
 import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
-import fr.utarwyn.endercontainers.util.uuid.UUIDFetcher;
 import org.bukkit.Bukkit;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.BitSet;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentMap;
 
@@ -32,7 +35,17 @@ public class EnderChestInventory extends AbstractInventoryHolder {
     /**
      * Internal map to cache all contents of the chest (even those not displayed in the container).
      */
-    private ConcurrentMap<Integer, ItemStack> contents;
+    private ChestContents contents;
+
+    /**
+     * Slots of the container changed since the contents map was last updated
+     */
+    private final BitSet changedSlots;
+
+    /**
+     * True if unknown slots of the container may have changed
+     */
+    private boolean allSlotsChanged;
 
     /**
      * Constructs an inventory which contains contents of an enderchest.
@@ -42,6 +55,7 @@ public class EnderChestInventory extends AbstractInventoryHolder {
     public EnderChestInventory(EnderChest chest) {
         this.chest = chest;
         this.itemMovingRestricted = false;
+        this.changedSlots = new BitSet();
 
         this.reloadInventory();
     }
@@ -50,8 +64,10 @@ public class EnderChestInventory extends AbstractInventoryHolder {
      * {@inheritDoc}
      */
     @Override
-    protected void prepare() {
-        this.contents = this.chest.getContents();
+    protected synchronized void prepare() {
+        this.contents = ChestContents.of(this.chest.getContents());
+        this.changedSlots.clear();
+        this.allSlotsChanged = false;
 
         // Add all items in the container (only those which can be displayed)
         int size = this.chest.getMaxSize();
@@ -72,22 +88,122 @@ public class EnderChestInventory extends AbstractInventoryHolder {
     }
 
     /**
-     * Updates the whole content of this chest, based on its container.
-     * Check first for all items in the container, but take also those which are in cache (not displayed).
+     * Returns the number of filled slots of the chest, maintained by writes of its contents.
+     * Changes of the container are only counted once reconciled with its contents.
+     *
+     * @return number of filled slots, including items not displayed
+     */
+    @Override
+    public int getFilledSlotsNb() {
+        return this.contents.size();
+    }
+
+    /**
+     * Check if some slots of the container have changed since the last update of contents.
+     *
+     * @return true if contents have to be updated from the container
+     */
+    public synchronized boolean hasChangedSlots() {
+        return this.allSlotsChanged || !this.changedSlots.isEmpty();
+    }
+
+    /**
+     * Mark a slot of the container as changed.
+     *
+     * @param slot changed slot
+     */
+    public synchronized void markSlotChanged(int slot) {
+        this.changedSlots.set(slot);
+    }
+
+    /**
+     * Mark all slots of the container as changed, when changes cannot be tracked.
+     */
+    public synchronized void markAllSlotsChanged() {
+        this.allSlotsChanged = true;
+    }
+
+    /**
+     * {@inheritDoc}
      */
-    public void updateContentsFromContainer() {
+    @Override
+    public boolean trackChanges(InventoryClickEvent event) {
+        int slot = event.getRawSlot();
+        boolean inContainer = slot >= 0 && slot < this.inventory.getSize();
+
+        switch (event.getAction()) {
+            case NOTHING:
+                return false;
+            case MOVE_TO_OTHER_INVENTORY:
+                // Items shifted from the player inventory can be merged in any slot
+                if (inContainer) {
+                    this.markSlotChanged(slot);
+                } else {
+                    this.markAllSlotsChanged();
+                }
+                return true;
+            case COLLECT_TO_CURSOR:
+            case UNKNOWN:
+                this.markAllSlotsChanged();
+                return true;
+            default:
+                // Pickups, places, swaps and hotbar moves only change the clicked slot
+                if (inContainer) {
+                    this.markSlotChanged(slot);
+                }
+                return inContainer;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean trackChanges(InventoryDragEvent event) {
+        int size = this.inventory.getSize();
+        boolean changed = false;
+
+        for (Integer slot : event.getRawSlots()) {
+            if (slot < size) {
+                this.markSlotChanged(slot);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reconcileChanges() {
+        this.updateContentsFromContainer();
+    }
+
+    /**
+     * Updates the content of this chest from slots changed in its container.
+     * All slots are copied only if changes could not be tracked.
+     * Items in cache but not displayed are kept.
+     */
+    public synchronized void updateContentsFromContainer() {
         Preconditions.checkNotNull(this.inventory, "container seems to be null");
         Preconditions.checkNotNull(this.contents, "internal contents map seems to be null");
 
-        ItemStack[] containerContents = this.inventory.getContents();
+        int size = this.inventory.getSize();
+        if (this.allSlotsChanged) {
+            this.changedSlots.set(0, size);
+            this.allSlotsChanged = false;
+        }
 
-        // Replace cache contents with container contents if filled
-        for (int i = 0; i < containerContents.length; i++) {
-            if (containerContents[i] != null) {
-                this.contents.put(i, containerContents[i]);
-            } else {
-                this.contents.remove(i);
-            }
+        // Replace cache contents with container contents, in a single write
+        if (!this.changedSlots.isEmpty()) {
+            this.contents.update(size, slots -> {
+                for (int i = this.changedSlots.nextSetBit(0); i >= 0 && i < size; i = this.changedSlots.nextSetBit(i + 1)) {
+                    slots[i] = this.inventory.getItem(i);
+                }
+            });
+            this.changedSlots.clear();
         }
     }
 
@@ -105,7 +221,7 @@ public class EnderChestInventory extends AbstractInventoryHolder {
     @Override
     protected String getTitle() {
         String num = String.valueOf(this.chest.getNum() + 1);
-        String playername = Objects.requireNonNull(UUIDFetcher.getName(this.chest.getOwner()));
+        String playername = Objects.requireNonNull(this.chest.getOwnerName());
 
         return Files.getLocale().getMessage(LocaleKey.MENU_CHEST_TITLE)
                 .replace("%player%", playername)
@@ -8,9 +8,10 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.inventory.*;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.Optional;
+import java.util.*;
 import java.util.function.Predicate;
 
 /**
@@ -22,6 +23,21 @@ import java.util.function.Predicate;
  */
 public class InventoryManager extends AbstractManager {
 
+    /**
+     * Holders with changes to reconcile once Bukkit has applied them
+     */
+    private final Set<AbstractInventoryHolder> changedHolders = new LinkedHashSet<>();
+
+    /**
+     * Tasks to run once Bukkit has applied changes of the current tick
+     */
+    private final List<Runnable> reconciliationTasks = new ArrayList<>();
+
+    /**
+     * True if a reconciliation of changed holders is scheduled
+     */
+    private boolean reconciliationScheduled;
+
     /**
      * {@inheritDoc}
      */
@@ -39,16 +55,24 @@ public class InventoryManager extends AbstractManager {
     @EventHandler(ignoreCancelled = true)
     public void onInventoryClick(InventoryClickEvent event) {
         Inventory inventory = event.getView().getTopInventory();
-        this.getInventoryHolder(inventory).ifPresent(holder -> {
-            this.cancelClickEventIfRestricted(event, item -> holder.isItemMovingRestricted());
-
-            // Perform the action only when player clicks on a valid slot of the inventory
-            int slot = event.getRawSlot();
-            boolean validSlot = slot >= 0 && slot < inventory.getSize();
-            if (validSlot) {
-                holder.onClick((Player) event.getWhoClicked(), slot);
-            }
-        });
+        AbstractInventoryHolder holder = this.getInventoryHolder(inventory);
+        if (holder == null) {
+            return;
+        }
+
+        event.setCancelled(isAffectingTopInventory(event, inventory)
+                && (isSpectator(event.getWhoClicked()) || holder.isItemMovingRestricted()));
+
+        if (!event.isCancelled() && holder.trackChanges(event)) {
+            this.scheduleReconciliation(holder);
+        }
+
+        // Perform the action only when player clicks on a valid slot of the inventory
+        int slot = event.getRawSlot();
+        boolean validSlot = slot >= 0 && slot < inventory.getSize();
+        if (validSlot) {
+            holder.onClick((Player) event.getWhoClicked(), slot);
+        }
     }
 
     /**
@@ -59,9 +83,18 @@ public class InventoryManager extends AbstractManager {
      */
     @EventHandler(ignoreCancelled = true)
     public void onInventoryDrag(InventoryDragEvent event) {
-        this.getInventoryHolder(event.getView().getTopInventory()).ifPresent(holder ->
-                this.cancelDragEventIfRestricted(event, items -> holder.isItemMovingRestricted())
-        );
+        Inventory inventory = event.getView().getTopInventory();
+        AbstractInventoryHolder holder = this.getInventoryHolder(inventory);
+        if (holder == null) {
+            return;
+        }
+
+        event.setCancelled(isAffectingTopInventory(event, inventory)
+                && (isSpectator(event.getWhoClicked()) || holder.isItemMovingRestricted()));
+
+        if (!event.isCancelled() && holder.trackChanges(event)) {
+            this.scheduleReconciliation(holder);
+        }
     }
 
     /**
@@ -72,8 +105,10 @@ public class InventoryManager extends AbstractManager {
      */
     @EventHandler
     public void onInventoryClose(InventoryCloseEvent event) {
-        this.getInventoryHolder(event.getInventory())
-                .ifPresent(holder -> holder.onClose((Player) event.getPlayer()));
+        AbstractInventoryHolder holder = this.getInventoryHolder(event.getInventory());
+        if (holder != null) {
+            holder.onClose((Player) event.getPlayer());
+        }
     }
 
     /**
@@ -86,40 +121,80 @@ public class InventoryManager extends AbstractManager {
             InventoryClickEvent event, Predicate<ItemStack> itemPredicate
     ) {
         HumanEntity whoClicked = event.getWhoClicked();
-        Inventory topInventory = event.getView().getTopInventory();
-        Inventory bottomInventory = event.getView().getBottomInventory();
-        boolean validSlot = event.getRawSlot() >= 0 && event.getRawSlot() < topInventory.getSize();
-        boolean isSpectator = GameMode.SPECTATOR == whoClicked.getGameMode();
-
-        ItemStack item;
-        if (event.isShiftClick()) {
-            item = event.getCurrentItem();
-        } else if (event.getAction() == InventoryAction.HOTBAR_SWAP) {
-            // Since `-1` is not a number slot, then we should look an item in off-hand.
-            item = event.getHotbarButton() == -1 ?
-                    whoClicked.getInventory().getItemInOffHand() : bottomInventory.getItem(event.getHotbarButton());
-        } else {
-            item = event.getCursor();
-        }
-
-        event.setCancelled((validSlot || event.isShiftClick()) && (isSpectator || itemPredicate.test(item)));
+        event.setCancelled(isAffectingTopInventory(event, event.getView().getTopInventory())
+                && (isSpectator(whoClicked) || itemPredicate.test(getMovedItem(event))));
     }
 
     /**
      * Cancels an inventory drag event based on its context.
      *
-     * @param event          event to possibly cancel
-     * @param itemsPredicate predicate to test if used itemstacks can trigger a cancellation
+     * @param event         event to possibly cancel
+     * @param itemPredicate predicate to test if one of used itemstacks can trigger a cancellation
      */
     public void cancelDragEventIfRestricted(
-            InventoryDragEvent event, Predicate<ItemStack[]> itemsPredicate
+            InventoryDragEvent event, Predicate<ItemStack> itemPredicate
     ) {
-        Inventory inventory = event.getView().getTopInventory();
-        event.setCancelled(
-                event.getRawSlots().stream().anyMatch(slot -> slot < inventory.getSize())
-                        && (GameMode.SPECTATOR == event.getWhoClicked().getGameMode()
-                        || itemsPredicate.test(event.getNewItems().values().toArray(new ItemStack[0])))
-        );
+        boolean restricted = isAffectingTopInventory(event, event.getView().getTopInventory());
+
+        if (restricted && !isSpectator(event.getWhoClicked())) {
+            restricted = false;
+            for (ItemStack item : event.getNewItems().values()) {
+                if (itemPredicate.test(item)) {
+                    restricted = true;
+                    break;
+                }
+            }
+        }
+
+        event.setCancelled(restricted);
+    }
+
+    /**
+     * Reconcile changes of all holders at the next tick, after Bukkit has applied them.
+     * Must be called on the main thread.
+     *
+     * @param holder holder with changes to reconcile
+     */
+    private void scheduleReconciliation(AbstractInventoryHolder holder) {
+        this.changedHolders.add(holder);
+        this.scheduleReconciliation();
+    }
+
+    /**
+     * Run a task at the next tick with the reconciliation of changed holders,
+     * once Bukkit has applied changes of the current event.
+     * Must be called on the main thread.
+     *
+     * @param task task to run after changes have been applied
+     */
+    public void runAfterChanges(Runnable task) {
+        this.reconciliationTasks.add(task);
+        this.scheduleReconciliation();
+    }
+
+    /**
+     * Schedule the reconciliation at the next tick, if not already scheduled.
+     */
+    private void scheduleReconciliation() {
+        if (!this.reconciliationScheduled) {
+            this.reconciliationScheduled = true;
+            this.plugin.getServer().getScheduler().scheduleSyncDelayedTask(this.plugin, this::reconcileChanges);
+        }
+    }
+
+    /**
+     * Apply tracked changes of all holders changed during the last tick,
+     * then run tasks waiting for these changes.
+     */
+    private void reconcileChanges() {
+        this.reconciliationScheduled = false;
+
+        List<AbstractInventoryHolder> holders = new ArrayList<>(this.changedHolders);
+        List<Runnable> tasks = new ArrayList<>(this.reconciliationTasks);
+        this.changedHolders.clear();
+        this.reconciliationTasks.clear();
+        holders.forEach(AbstractInventoryHolder::reconcileChanges);
+        tasks.forEach(Runnable::run);
     }
 
     /**
@@ -129,11 +204,11 @@ public class InventoryManager extends AbstractManager {
     public void closeAll() {
         for (Player player : Bukkit.getOnlinePlayers()) {
             Inventory inventory = player.getOpenInventory().getTopInventory();
-            Optional<AbstractInventoryHolder> holder = this.getInventoryHolder(inventory);
+            AbstractInventoryHolder holder = this.getInventoryHolder(inventory);
 
-            if (holder.isPresent()) {
+            if (holder != null) {
                 player.closeInventory();
-                holder.get().onClose(player);
+                holder.onClose(player);
             }
 
             if (InventoryType.ENDER_CHEST.equals(inventory.getType())) {
@@ -142,15 +217,67 @@ public class InventoryManager extends AbstractManager {
         }
     }
 
+    /**
+     * Checks if a click can move items in the top inventory of its view.
+     *
+     * @param event        click event to check
+     * @param topInventory top inventory of the view
+     * @return true if the clicked slot is in the top inventory or if items are shift-moved
+     */
+    private static boolean isAffectingTopInventory(InventoryClickEvent event, Inventory topInventory) {
+        int slot = event.getRawSlot();
+        return event.isShiftClick() || (slot >= 0 && slot < topInventory.getSize());
+    }
+
+    /**
+     * Checks if a drag puts items in the top inventory of its view.
+     *
+     * @param event        drag event to check
+     * @param topInventory top inventory of the view
+     * @return true if at least one dragged slot is in the top inventory
+     */
+    private static boolean isAffectingTopInventory(InventoryDragEvent event, Inventory topInventory) {
+        int size = topInventory.getSize();
+        for (Integer slot : event.getRawSlots()) {
+            if (slot < size) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the item moved by a click.
+     *
+     * @param event click event
+     * @return moved item, can be null
+     */
+    private static ItemStack getMovedItem(InventoryClickEvent event) {
+        if (event.isShiftClick()) {
+            return event.getCurrentItem();
+        } else if (event.getAction() == InventoryAction.HOTBAR_SWAP) {
+            // Since `-1` is not a number slot, then we should look an item in off-hand.
+            return event.getHotbarButton() == -1
+                    ? event.getWhoClicked().getInventory().getItemInOffHand()
+                    : event.getView().getBottomInventory().getItem(event.getHotbarButton());
+        } else {
+            return event.getCursor();
+        }
+    }
+
+    private static boolean isSpectator(HumanEntity entity) {
+        return GameMode.SPECTATOR == entity.getGameMode();
+    }
+
     /**
      * Gets a plugin-specific holder object which manages an inventory.
      *
      * @param inventory inventory to check
      * @return inventory holder if found, otherwise null
      */
-    private Optional<AbstractInventoryHolder> getInventoryHolder(Inventory inventory) {
-        boolean isCustom = inventory.getHolder() instanceof AbstractInventoryHolder;
-        return isCustom ? Optional.of((AbstractInventoryHolder) inventory.getHolder()) : Optional.empty();
+    private AbstractInventoryHolder getInventoryHolder(Inventory inventory) {
+        InventoryHolder holder = inventory.getHolder();
+        return holder instanceof AbstractInventoryHolder ? (AbstractInventoryHolder) holder : null;
     }
 
 }
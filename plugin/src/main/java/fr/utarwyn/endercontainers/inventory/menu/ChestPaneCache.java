@@ -0,0 +1,80 @@
+package fr.utarwyn.endercontainers.inventory.menu;
+
+import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keeps rendered panes of the enderchest list menu of a player.
+ * A pane is rendered again only if the state of its chest
+ * (accessibility, rows or fill count) has changed since the last render,
+ * so unchanged panes are reused across openings and viewers.
+ * MUST be used on the primary thread of the server.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class ChestPaneCache {
+
+    /**
+     * Last rendered pane of each chest, by chest number
+     */
+    private final Map<Integer, Pane> panes;
+
+    /**
+     * Construct a new empty cache of panes.
+     */
+    public ChestPaneCache() {
+        this.panes = new HashMap<>();
+    }
+
+    /**
+     * Compute the state version of a chest. Two chests with the
+     * same number and the same version are rendered in the same way.
+     *
+     * @param chest chest to check
+     * @return version of the chest state
+     */
+    static int getVersion(EnderChest chest) {
+        return chest.getSize() << 16 | chest.getMaxSize() << 1 | (chest.isAccessible() ? 1 : 0);
+    }
+
+    /**
+     * Get the pane of a chest, rendered again only if its state has changed.
+     *
+     * @param chest    chest represented by the pane
+     * @param renderer function which renders the pane of a chest
+     * @return pane representing the chest
+     */
+    public ItemStack getPane(EnderChest chest, Function<EnderChest, ItemStack> renderer) {
+        int version = getVersion(chest);
+        Pane pane = this.panes.get(chest.getNum());
+
+        if (pane == null || pane.version != version) {
+            pane = new Pane(version, renderer.apply(chest));
+            this.panes.put(chest.getNum(), pane);
+        }
+
+        return pane.item;
+    }
+
+    /**
+     * Pane rendered for a specific chest state.
+     */
+    private static class Pane {
+
+        private final int version;
+
+        private final ItemStack item;
+
+        Pane(int version, ItemStack item) {
+            this.version = version;
+            this.item = item;
+        }
+
+    }
+
+}
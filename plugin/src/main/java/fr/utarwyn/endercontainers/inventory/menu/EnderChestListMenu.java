@@ -7,7 +7,6 @@ import fr.utarwyn.endercontainers.configuration.LocaleKey;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
 import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
 import fr.utarwyn.endercontainers.inventory.AbstractInventoryHolder;
-import fr.utarwyn.endercontainers.util.uuid.UUIDFetcher;
 import org.bukkit.ChatColor;
 import org.bukkit.DyeColor;
 import org.bukkit.Material;
@@ -113,7 +112,8 @@ public class EnderChestListMenu extends AbstractInventoryHolder {
 
             if (chest.isPresent() && (chest.get().isAccessible() || !Files.getConfiguration().isOnlyShowAccessibleEnderchests())) {
                 chest.get().updateRowCount();
-                this.inventory.setItem(num - min, this.getItemStackOf(chest.get()));
+                this.inventory.setItem(num - min,
+                        this.context.getPaneCache().getPane(chest.get(), this::getItemStackOf));
             }
         }
 
@@ -146,7 +146,7 @@ public class EnderChestListMenu extends AbstractInventoryHolder {
      */
     @Override
     protected String getTitle() {
-        String name = UUIDFetcher.getName(this.context.getOwner());
+        String name = this.context.getOwnerName();
         return Files.getLocale().getMessage(LocaleKey.MENU_MAIN_TITLE)
                 .replace("%player%", Objects.requireNonNull(name));
     }
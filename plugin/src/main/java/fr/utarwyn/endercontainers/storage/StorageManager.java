@@ -4,6 +4,7 @@ import fr.utarwyn.endercontainers.AbstractManager;
 import fr.utarwyn.endercontainers.EnderContainers;
 import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.database.DatabaseManager;
+import fr.utarwyn.endercontainers.enderchest.ChestSummary;
 import fr.utarwyn.endercontainers.storage.backups.BackupsData;
 import fr.utarwyn.endercontainers.storage.backups.BackupsFlatData;
 import fr.utarwyn.endercontainers.storage.backups.BackupsSQLData;
@@ -65,6 +66,15 @@ public class StorageManager extends AbstractManager {
         this.playerDataPattern = null;
     }
 
+    /**
+     * Get the item serializer used by chest storage classes.
+     *
+     * @return loaded item serializer
+     */
+    public ItemSerializer getItemSerializer() {
+        return this.itemSerializer;
+    }
+
     /**
      * Create a new object to store backup data.
      *
@@ -81,6 +91,21 @@ public class StorageManager extends AbstractManager {
         }
     }
 
+    /**
+     * Load the summary of chests of a player, without loading its data.
+     * Must not be called on the main thread.
+     *
+     * @param uuid uuid of the player
+     * @return summary of the chests, null if it has to be built from player data
+     */
+    public ChestSummary loadChestSummary(UUID uuid) {
+        if (this.playerDataPattern == PlayerSQLData.class) {
+            return PlayerSQLData.loadSummary(this.plugin, uuid);
+        } else {
+            return PlayerFlatData.loadSummary(this.plugin, uuid);
+        }
+    }
+
     /**
      * Create a new object to store player data.
      *
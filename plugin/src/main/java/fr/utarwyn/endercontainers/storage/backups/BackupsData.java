@@ -2,9 +2,15 @@ package fr.utarwyn.endercontainers.storage.backups;
 
 import fr.utarwyn.endercontainers.EnderContainers;
 import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupEntry;
+import fr.utarwyn.endercontainers.backup.BackupReport;
+import fr.utarwyn.endercontainers.backup.BackupSnapshot;
 import fr.utarwyn.endercontainers.storage.StorageWrapper;
+import fr.utarwyn.endercontainers.util.IoRateLimiter;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Storage wrapper to manage backups data.
@@ -38,21 +44,45 @@ public abstract class BackupsData extends StorageWrapper {
     }
 
     /**
-     * Save a new backup
+     * Save a new backup of stored data, without any transfer limit
      *
      * @param backup Backup object to save
      * @return True if the backup was sucessfully saved
      */
-    public abstract boolean saveNewBackup(Backup backup);
+    public boolean saveNewBackup(Backup backup) {
+        return this.saveNewBackup(backup, BackupSnapshot.EMPTY, new BackupReport(IoRateLimiter.UNLIMITED));
+    }
+
+    /**
+     * Save a new backup
+     *
+     * @param backup   Backup object to save
+     * @param snapshot copies of loaded contexts, saved instead of the stored data of their owner
+     * @param report   report used to throttle and measure data transfers
+     * @return True if the backup was sucessfully saved
+     */
+    public abstract boolean saveNewBackup(Backup backup, BackupSnapshot snapshot, BackupReport report);
+
+    /**
+     * Execute the backup of stored data, without any transfer limit.
+     *
+     * @param backup Backup object to execute
+     * @return True if the backup was sucessfully executed
+     */
+    public boolean executeStorage(Backup backup) {
+        return this.executeStorage(backup, BackupSnapshot.EMPTY, new BackupReport(IoRateLimiter.UNLIMITED));
+    }
 
     /**
      * Execute the backup. It means that all data will be saved in
      * another place to create a "backup".
      *
-     * @param backup Backup object to execute
+     * @param backup   Backup object to execute
+     * @param snapshot copies of loaded contexts, saved instead of the stored data of their owner
+     * @param report   report used to throttle and measure data transfers
      * @return True if the backup was sucessfully executed
      */
-    public abstract boolean executeStorage(Backup backup);
+    public abstract boolean executeStorage(Backup backup, BackupSnapshot snapshot, BackupReport report);
 
     /**
      * Apply a backup. It means that all data of the plugin will be
@@ -63,6 +93,27 @@ public abstract class BackupsData extends StorageWrapper {
      */
     public abstract boolean applyBackup(Backup backup);
 
+    /**
+     * Restore chests of a single player from a backup.
+     * Only entries of this player are read and written, other players are not affected.
+     * The player context must not be loaded during the restoration.
+     *
+     * @param backup Backup object to read
+     * @param owner  Owner of chests to restore
+     * @return True if chests of the player were found in the backup and restored
+     */
+    public abstract boolean restorePlayer(Backup backup, UUID owner);
+
+    /**
+     * Read the list of entries of a backup, with checksums recorded in its manifest.
+     * Entries listed in the manifest but missing in the backup are also returned,
+     * so they are detected when reading them. Entry data is read lazily.
+     *
+     * @param backup Backup object to read
+     * @return entries of the backup, empty if the backup cannot be read
+     */
+    public abstract Optional<List<BackupEntry>> readEntries(Backup backup);
+
     /**
      * Remove a backup
      *
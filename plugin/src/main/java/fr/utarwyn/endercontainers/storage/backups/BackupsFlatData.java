@@ -2,17 +2,29 @@ package fr.utarwyn.endercontainers.storage.backups;
 
 import fr.utarwyn.endercontainers.EnderContainers;
 import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupEntry;
+import fr.utarwyn.endercontainers.backup.BackupReport;
+import fr.utarwyn.endercontainers.backup.BackupSnapshot;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
+import fr.utarwyn.endercontainers.storage.player.PlayerFlatData;
+import fr.utarwyn.endercontainers.util.IoRateLimiter;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.sql.Timestamp;
-import java.util.ArrayList;
+import java.util.*;
 import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 /**
  * Storage wrapper to manage backups through a Yaml file.
@@ -27,6 +39,31 @@ public class BackupsFlatData extends BackupsData {
      */
     private static final String PREFIX = "backups";
 
+    /**
+     * Size of the buffer used to copy files
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Name of the file which stores checksums of all files of a backup
+     */
+    private static final String MANIFEST_FILE = "manifest.yml";
+
+    /**
+     * Path of checksums in the manifest file
+     */
+    private static final String MANIFEST_ENTRIES = "entries";
+
+    /**
+     * Separator used for paths of the manifest, because file names contain dots
+     */
+    private static final char MANIFEST_SEPARATOR = '/';
+
+    /**
+     * Pattern of player data file names, with the owner identifier without dashes
+     */
+    private static final Pattern DATA_FILE_PATTERN = Pattern.compile("^([0-9a-f]{32})\\.yml$");
+
     /**
      * Storage file native object
      */
@@ -88,7 +125,7 @@ public class BackupsFlatData extends BackupsData {
      * {@inheritDoc}
      */
     @Override
-    public boolean saveNewBackup(Backup backup) {
+    public boolean saveNewBackup(Backup backup, BackupSnapshot snapshot, BackupReport report) {
         String name = backup.getName();
 
         this.configuration.set(PREFIX + "." + name + ".name", name);
@@ -103,7 +140,7 @@ public class BackupsFlatData extends BackupsData {
      * {@inheritDoc}
      */
     @Override
-    public boolean executeStorage(Backup backup) {
+    public boolean executeStorage(Backup backup, BackupSnapshot snapshot, BackupReport report) {
         File folder = this.getBackupFolder(backup);
 
         if (!folder.exists() && !folder.mkdirs()) {
@@ -111,7 +148,42 @@ public class BackupsFlatData extends BackupsData {
         }
 
         File enderFolder = new File(this.plugin.getDataFolder(), "data");
-        return this.copyFolderFiles(enderFolder, folder);
+        File[] files = enderFolder.listFiles();
+        if (files == null) return false;
+
+        Map<String, Long> checksums = new HashMap<>();
+        Set<UUID> copiedOwners = new HashSet<>(snapshot.getOwners());
+
+        for (File file : files) {
+            String name = file.getName();
+            if (name.contains(".") && !name.equals(MANIFEST_FILE)) {
+                UUID owner = getFileOwner(name);
+                File fileTo = new File(folder, name);
+                boolean saved;
+
+                if (owner != null) {
+                    copiedOwners.remove(owner);
+                    // The file is read after pending saves of its owner, never during them
+                    saved = snapshot.read(owner, () -> this.backupPlayerFile(
+                            file, fileTo, snapshot.getChests(owner), snapshot, report, checksums));
+                } else {
+                    saved = this.backupPlayerFile(file, fileTo, Collections.emptyList(), snapshot, report, checksums);
+                }
+
+                if (!saved) return false;
+            }
+        }
+
+        // Loaded contexts which have never been saved, skipped if they have no custom chest
+        for (UUID owner : copiedOwners) {
+            String name = getFileName(owner);
+            if (!this.backupPlayerFile(new File(enderFolder, name), new File(folder, name),
+                    snapshot.getChests(owner), snapshot, report, checksums)) {
+                return false;
+            }
+        }
+
+        return this.saveManifest(folder, checksums);
     }
 
     /**
@@ -123,12 +195,72 @@ public class BackupsFlatData extends BackupsData {
 
         if (folder.exists()) {
             File enderFolder = new File(this.plugin.getDataFolder(), "data");
-            return this.copyFolderFiles(folder, enderFolder);
+            return this.copyFolderFiles(folder, enderFolder,
+                    new BackupReport(IoRateLimiter.UNLIMITED), new HashMap<>());
         }
 
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean restorePlayer(Backup backup, UUID owner) {
+        String fileName = getFileName(owner);
+        File backupFile = new File(this.getBackupFolder(backup), fileName);
+
+        if (!backupFile.isFile()) {
+            return false;
+        }
+
+        File enderFolder = new File(this.plugin.getDataFolder(), "data");
+        File playerFile = new File(enderFolder, fileName);
+        File tempFile = new File(enderFolder, fileName + ".tmp");
+
+        try {
+            // Copy then move the file, so the player file is never partially written
+            copyFile(backupFile, tempFile, new BackupReport(IoRateLimiter.UNLIMITED));
+            Files.move(tempFile.toPath(), playerFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            this.plugin.getLogger().log(Level.SEVERE, String.format(
+                    "Cannot restore file %s to %s", backupFile.toPath(), playerFile.toPath()
+            ), e);
+            return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<List<BackupEntry>> readEntries(Backup backup) {
+        File folder = this.getBackupFolder(backup);
+        File[] files = folder.listFiles();
+
+        if (files == null) {
+            return Optional.empty();
+        }
+
+        Map<String, Long> checksums = this.loadManifest(folder);
+        List<BackupEntry> entries = new ArrayList<>();
+
+        for (File file : files) {
+            String name = file.getName();
+            if (name.contains(".") && !name.equals(MANIFEST_FILE)) {
+                Long checksum = checksums.remove(name);
+                entries.add(new FileEntry(file, checksum != null ? checksum : BackupEntry.NO_CHECKSUM));
+            }
+        }
+
+        // Files listed in the manifest but not present in the backup
+        checksums.forEach((name, checksum) -> entries.add(new FileEntry(new File(folder, name), checksum)));
+
+        return Optional.of(entries);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -154,6 +286,163 @@ public class BackupsFlatData extends BackupsData {
         return false;
     }
 
+    /**
+     * Copy a file by chunks, so the transfer can be throttled.
+     *
+     * @param from   Source file
+     * @param to     Destination file, replaced if it already exists
+     * @param report Report used to throttle and measure the copy
+     * @return CRC32 checksum of the copied data
+     * @throws IOException thrown if the file cannot be copied
+     */
+    private static long copyFile(File from, File to, BackupReport report) throws IOException {
+        try (CheckedInputStream in = new CheckedInputStream(new FileInputStream(from), new CRC32());
+             OutputStream out = new FileOutputStream(to)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                report.transfer(read);
+                out.write(buffer, 0, read);
+            }
+
+            return in.getChecksum().getValue();
+        }
+    }
+
+    /**
+     * Get the name of the data file of a player.
+     *
+     * @param owner owner of the data file
+     * @return name of the data file
+     */
+    private static String getFileName(UUID owner) {
+        return owner.toString().replace("-", "") + ".yml";
+    }
+
+    /**
+     * Get the owner of a player data file from its name.
+     *
+     * @param name name of the file
+     * @return owner of the file, null if it is not a player data file
+     */
+    private static UUID getFileOwner(String name) {
+        Matcher matcher = DATA_FILE_PATTERN.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        String uuid = matcher.group(1);
+        return UUID.fromString(uuid.substring(0, 8) + "-" + uuid.substring(8, 12) + "-"
+                + uuid.substring(12, 16) + "-" + uuid.substring(16, 20) + "-" + uuid.substring(20));
+    }
+
+    /**
+     * Save a player data file in a backup. Copied chests of the player,
+     * if its context was loaded, replace chests stored in the file.
+     * A player without data file nor copied chest has nothing to save.
+     *
+     * @param from      data file of the player, which may not exist
+     * @param to        file of the backup
+     * @param chests    copied chests of the player
+     * @param snapshot  snapshot which contains copied chests
+     * @param report    report used to throttle and measure the copy
+     * @param checksums map filled with the checksum of the saved file
+     * @return True if the file has been saved in the backup or if there is nothing to save
+     */
+    private boolean backupPlayerFile(File from, File to, List<EnderChestSnapshot> chests, BackupSnapshot snapshot,
+                                     BackupReport report, Map<String, Long> checksums) {
+        if (chests.isEmpty() && !from.isFile()) {
+            return true;
+        }
+
+        try {
+            if (chests.isEmpty()) {
+                checksums.put(to.getName(), copyFile(from, to, report));
+            } else {
+                YamlConfiguration configuration = new YamlConfiguration();
+                if (from.isFile()) {
+                    report.transfer(from.length());
+                    configuration.load(from);
+                }
+
+                for (EnderChestSnapshot chest : chests) {
+                    PlayerFlatData.writeEnderchest(configuration, chest, snapshot.serializeContents(chest));
+                }
+
+                byte[] data = configuration.saveToString().getBytes(StandardCharsets.UTF_8);
+                report.transfer(data.length);
+                Files.write(to.toPath(), data);
+                checksums.put(to.getName(), BackupEntry.checksum(data));
+            }
+
+            report.recordEntries(1);
+            return true;
+        } catch (IOException | InvalidConfigurationException e) {
+            this.plugin.getLogger().log(Level.SEVERE, String.format(
+                    "Cannot save file %s to %s", from.toPath(), to.toPath()
+            ), e);
+            return false;
+        }
+    }
+
+    /**
+     * Write checksums of all files of a backup in its manifest.
+     *
+     * @param folder    Folder of the backup
+     * @param checksums Checksum of each file of the backup
+     * @return True if the manifest has been written
+     */
+    private boolean saveManifest(File folder, Map<String, Long> checksums) {
+        File file = new File(folder, MANIFEST_FILE);
+        YamlConfiguration manifest = new YamlConfiguration();
+        manifest.options().pathSeparator(MANIFEST_SEPARATOR);
+
+        checksums.forEach((name, checksum) ->
+                manifest.set(MANIFEST_ENTRIES + MANIFEST_SEPARATOR + name, checksum));
+
+        try {
+            manifest.save(file);
+            return true;
+        } catch (IOException e) {
+            this.plugin.getLogger().log(Level.SEVERE, String.format(
+                    "Cannot save backup manifest to %s", file.getPath()
+            ), e);
+            return false;
+        }
+    }
+
+    /**
+     * Read checksums of all files of a backup from its manifest.
+     *
+     * @param folder Folder of the backup
+     * @return Checksum of each file, empty if there is no manifest
+     */
+    private Map<String, Long> loadManifest(File folder) {
+        File file = new File(folder, MANIFEST_FILE);
+        Map<String, Long> checksums = new HashMap<>();
+
+        if (file.isFile()) {
+            YamlConfiguration manifest = new YamlConfiguration();
+            manifest.options().pathSeparator(MANIFEST_SEPARATOR);
+
+            try {
+                manifest.load(file);
+            } catch (IOException | InvalidConfigurationException e) {
+                this.plugin.getLogger().log(Level.WARNING, String.format(
+                        "Cannot read backup manifest %s", file.getPath()
+                ), e);
+            }
+
+            ConfigurationSection section = manifest.getConfigurationSection(MANIFEST_ENTRIES);
+            if (section != null) {
+                section.getKeys(false).forEach(name -> checksums.put(name, section.getLong(name)));
+            }
+        }
+
+        return checksums;
+    }
+
     /**
      * Get the folder which used to store files of a specific backup.
      *
@@ -168,23 +457,23 @@ public class BackupsFlatData extends BackupsData {
     /**
      * Copy all files from a folder to a different folder.
      *
-     * @param from Source folder
-     * @param to   Destination folder
+     * @param from      Source folder
+     * @param to        Destination folder
+     * @param report    Report used to throttle and measure the copy
+     * @param checksums Map filled with the checksum of each copied file
      * @return True if all files have been copied in destination folder.
      */
-    private boolean copyFolderFiles(File from, File to) {
+    private boolean copyFolderFiles(File from, File to, BackupReport report, Map<String, Long> checksums) {
         File[] filesFrom = from.listFiles();
         if (filesFrom == null) return false;
 
         for (File fileFrom : filesFrom) {
-            if (fileFrom.getName().contains(".")) {
+            if (fileFrom.getName().contains(".") && !fileFrom.getName().equals(MANIFEST_FILE)) {
                 File fileTo = new File(to, fileFrom.getName());
 
                 try {
-                    Files.copy(
-                            fileFrom.toPath(), fileTo.toPath(),
-                            StandardCopyOption.REPLACE_EXISTING
-                    );
+                    checksums.put(fileFrom.getName(), copyFile(fileFrom, fileTo, report));
+                    report.recordEntries(1);
                 } catch (IOException e) {
                     this.plugin.getLogger().log(Level.SEVERE, String.format(
                             "Cannot copy file %s to %s", fileFrom.toPath(), fileTo.toPath()
@@ -221,4 +510,42 @@ public class BackupsFlatData extends BackupsData {
         Files.delete(folder.toPath());
     }
 
+    /**
+     * Backup entry stored as a player data file.
+     */
+    private static class FileEntry extends BackupEntry {
+
+        /**
+         * File of the entry in the backup folder
+         */
+        private final File file;
+
+        FileEntry(File file, long checksum) {
+            super(file.getName(), checksum);
+            this.file = file;
+        }
+
+        @Override
+        public byte[] read() throws IOException {
+            return Files.readAllBytes(this.file.toPath());
+        }
+
+        @Override
+        public List<String> getContents(byte[] data) throws IOException {
+            YamlConfiguration config = new YamlConfiguration();
+
+            try {
+                config.loadFromString(new String(data, StandardCharsets.UTF_8));
+            } catch (InvalidConfigurationException e) {
+                throw new IOException("invalid player data file " + this.file.getName(), e);
+            }
+
+            return config.getKeys(true).stream()
+                    .filter(key -> key.endsWith(".contents"))
+                    .map(config::getString)
+                    .collect(Collectors.toList());
+        }
+
+    }
+
 }
@@ -1,18 +1,25 @@
 package fr.utarwyn.endercontainers.storage.backups;
 
+import com.google.common.collect.Iterators;
 import fr.utarwyn.endercontainers.EnderContainers;
 import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupEntry;
+import fr.utarwyn.endercontainers.backup.BackupReport;
+import fr.utarwyn.endercontainers.backup.BackupSnapshot;
 import fr.utarwyn.endercontainers.database.DatabaseManager;
 import fr.utarwyn.endercontainers.database.DatabaseSet;
+import fr.utarwyn.endercontainers.database.PagedIterator;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Optional;
+import java.util.*;
 import java.util.logging.Level;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Storage wrapper for backups (MySQL)
@@ -22,6 +29,16 @@ import java.util.stream.Stream;
  */
 public class BackupsSQLData extends BackupsData {
 
+    /**
+     * Pattern used to split enderchests stored in a backup
+     */
+    private static final Pattern ENTRY_SEPARATOR = Pattern.compile(";");
+
+    /**
+     * Number of enderchests read at once when saving or applying a backup
+     */
+    static final int READ_PAGE_SIZE = 500;
+
     /**
      * The database manager
      */
@@ -42,19 +59,29 @@ public class BackupsSQLData extends BackupsData {
     }
 
     /**
-     * Formats an enderchest stored in the database into a string
+     * Create a backup entry from a chest stored in the data of a legacy backup.
      *
-     * @param set enderchest as a database row
-     * @return string representation of the enderchest to be backuped
+     * @param entry chest stored as a string
+     * @param index position of the chest in the backup data
+     * @return backup entry of the chest
      */
-    private static String formatDatabaseSet(DatabaseSet set) {
-        Integer id = set.getInteger("id");
-        Integer num = set.getInteger("num");
-        String owner = Base64Coder.encodeString(Optional.ofNullable(set.getString("owner")).orElse(""));
-        String contents = Base64Coder.encodeString(Optional.ofNullable(set.getString("contents")).orElse(""));
-        Integer rows = set.getInteger("rows");
+    private static BackupEntry createLegacyEntry(String entry, int index) {
+        try {
+            DatabaseSet set = formatString(entry);
+            return new RowEntry(getEntryName(set), true, set.getString("contents"), BackupEntry.NO_CHECKSUM);
+        } catch (RuntimeException e) {
+            return new RowEntry("#" + index, false, null, BackupEntry.NO_CHECKSUM);
+        }
+    }
 
-        return String.format("%d:%d:%s:%s:%d", id, num, owner, contents, rows);
+    /**
+     * Get the name used to identify a chest in a backup
+     *
+     * @param set database row object with chest information
+     * @return name of the chest entry
+     */
+    private static String getEntryName(DatabaseSet set) {
+        return set.getString("owner") + "#" + set.getInteger("num");
     }
 
     /**
@@ -105,11 +132,75 @@ public class BackupsSQLData extends BackupsData {
         }
     }
 
+    /**
+     * Get the number of bytes of the contents of a chest once encoded.
+     *
+     * @param set enderchest as a database row
+     * @return number of bytes transferred with the chest contents
+     */
+    private static int encodedLength(DatabaseSet set) {
+        String contents = set.getString("contents");
+        return contents != null ? contents.getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+
+    /**
+     * Format a copied enderchest like a database row.
+     *
+     * @param snapshot snapshot which contains the chest
+     * @param chest    copied enderchest
+     * @return enderchest as a database row
+     * @throws IOException thrown if contents of the chest cannot be encoded
+     */
+    private static DatabaseSet formatSnapshot(BackupSnapshot snapshot, EnderChestSnapshot chest) throws IOException {
+        DatabaseSet set = new DatabaseSet();
+        set.setObject("num", chest.getNum());
+        set.setObject("owner", chest.getOwner().toString());
+        set.setObject("rows", chest.getRows());
+        set.setObject("contents", snapshot.serializeContents(chest));
+        return set;
+    }
+
+    /**
+     * Read all saved enderchests lazily page by page,
+     * each chest being throttled as soon as it has been read.
+     * Chests of loaded contexts are replaced by their copies,
+     * which are returned after all stored chests.
+     *
+     * @param snapshot copies of loaded contexts
+     * @param report   report which throttles the read chests
+     * @return all enderchests to backup, read while iterating
+     * @throws IOException thrown if a copied enderchest cannot be encoded
+     */
+    private Iterator<DatabaseSet> readAllEnderchests(BackupSnapshot snapshot, BackupReport report)
+            throws IOException {
+        Set<String> copiedOwners = snapshot.getOwners().stream().map(UUID::toString).collect(Collectors.toSet());
+        List<DatabaseSet> copiedChests = new ArrayList<>();
+
+        for (UUID owner : snapshot.getOwners()) {
+            for (EnderChestSnapshot chest : snapshot.getChests(owner)) {
+                copiedChests.add(formatSnapshot(snapshot, chest));
+            }
+        }
+
+        // Rows written by pending saves must be read
+        snapshot.awaitPendingTasks();
+
+        Iterator<DatabaseSet> storedChests = new PagedIterator(this.databaseManager::getEnderchestsAfter, READ_PAGE_SIZE);
+
+        return Iterators.concat(
+                Iterators.filter(storedChests, set -> {
+                    report.transfer(encodedLength(set));
+                    return !copiedOwners.contains(set.getString("owner"));
+                }),
+                copiedChests.iterator()
+        );
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public boolean executeStorage(Backup backup) {
+    public boolean executeStorage(Backup backup, BackupSnapshot snapshot, BackupReport report) {
         return true;
     }
 
@@ -117,18 +208,22 @@ public class BackupsSQLData extends BackupsData {
      * {@inheritDoc}
      */
     @Override
-    public boolean saveNewBackup(Backup backup) {
+    public boolean saveNewBackup(Backup backup, BackupSnapshot snapshot, BackupReport report) {
         try {
-            String data = this.databaseManager.getAllEnderchests().stream()
-                    .map(BackupsSQLData::formatDatabaseSet)
-                    .collect(Collectors.joining(";"));
+            Iterator<DatabaseSet> chests = Iterators.transform(this.readAllEnderchests(snapshot, report), set -> {
+                set.setObject("checksum", BackupEntry.checksum(set.getString("contents")));
+                report.transfer(encodedLength(set));
+                report.recordEntries(1);
+                return set;
+            });
 
+            // Chests are only stored in the owner index, the data of the backup stays empty
             this.databaseManager.saveBackup(
-                    backup.getName(), backup.getDate().getTime(), data, backup.getCreatedBy()
+                    backup.getName(), backup.getDate().getTime(), backup.getCreatedBy(), chests
             );
 
             return true;
-        } catch (SQLException e) {
+        } catch (SQLException | IOException | PagedIterator.ReadException e) {
             this.plugin.getLogger().log(Level.SEVERE, String.format(
                     "Cannot save the backup %s", backup.getName()), e);
             return false;
@@ -152,14 +247,23 @@ public class BackupsSQLData extends BackupsData {
 
         if (backupSet.isPresent()) {
             try {
-                String backupData = backupSet.get().getString("data");
+                long beginTime = System.currentTimeMillis();
+                Iterator<DatabaseSet> chests = new PagedIterator((lastId, length) ->
+                        this.databaseManager.getBackupEnderchestsAfter(backup.getName(), lastId, length),
+                        READ_PAGE_SIZE);
 
-                this.databaseManager.replaceEnderchests(Stream.of(backupData.split(";"))
+                // Backups created before the owner index have to be read from their data
+                Iterator<DatabaseSet> datasets = chests.hasNext() ? chests
+                        : ENTRY_SEPARATOR.splitAsStream(Optional.ofNullable(backupSet.get().getString("data")).orElse(""))
+                        .filter(entry -> !entry.isEmpty())
                         .map(BackupsSQLData::formatString)
-                        .collect(Collectors.toList()));
+                        .iterator();
+
+                int count = this.databaseManager.replaceEnderchests(datasets);
 
+                this.logApplyThroughput(backup, count, System.currentTimeMillis() - beginTime);
                 return true;
-            } catch (SQLException e) {
+            } catch (SQLException | PagedIterator.ReadException e) {
                 this.plugin.getLogger().log(Level.SEVERE,
                         "Cannot replace enderchests in the database", e);
             }
@@ -168,6 +272,70 @@ public class BackupsSQLData extends BackupsData {
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean restorePlayer(Backup backup, UUID owner) {
+        try {
+            List<DatabaseSet> chests = this.databaseManager.getBackupEnderchestsOf(backup.getName(), owner);
+
+            // Backups created before the owner index have to be read entirely
+            if (chests.isEmpty()) {
+                chests = this.readLegacyBackupOf(backup, owner);
+            }
+
+            if (chests.isEmpty()) {
+                return false;
+            }
+
+            this.databaseManager.replaceEnderchestsOf(owner, chests.iterator());
+            return true;
+        } catch (SQLException e) {
+            this.plugin.getLogger().log(Level.SEVERE, String.format(
+                    "Cannot restore chests of %s from the backup %s", owner, backup.getName()
+            ), e);
+            return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<List<BackupEntry>> readEntries(Backup backup) {
+        try {
+            Optional<DatabaseSet> backupSet = this.databaseManager.getBackup(backup.getName());
+            if (!backupSet.isPresent()) {
+                return Optional.empty();
+            }
+
+            List<BackupEntry> entries = new ArrayList<>();
+
+            for (DatabaseSet set : this.databaseManager.getBackupEnderchests(backup.getName())) {
+                long checksum = Optional.ofNullable(set.getLong("checksum")).orElse(BackupEntry.NO_CHECKSUM);
+                entries.add(new RowEntry(getEntryName(set), true, set.getString("contents"), checksum));
+            }
+
+            // Backups created before the owner index only have their data, without checksums
+            if (entries.isEmpty()) {
+                String backupData = Optional.ofNullable(backupSet.get().getString("data")).orElse("");
+                for (String entry : ENTRY_SEPARATOR.split(backupData)) {
+                    if (!entry.isEmpty()) {
+                        entries.add(createLegacyEntry(entry, entries.size()));
+                    }
+                }
+            }
+
+            return Optional.of(entries);
+        } catch (SQLException e) {
+            this.plugin.getLogger().log(Level.SEVERE, String.format(
+                    "Cannot read entries of the backup %s", backup.getName()
+            ), e);
+            return Optional.empty();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -183,4 +351,77 @@ public class BackupsSQLData extends BackupsData {
         }
     }
 
+    /**
+     * Read chests of a player from the data of a backup which is not indexed by owner.
+     *
+     * @param backup backup to read
+     * @param owner  owner of chests to read
+     * @return chests of the player in the backup
+     * @throws SQLException thrown if the backup cannot be retrieved
+     */
+    private List<DatabaseSet> readLegacyBackupOf(Backup backup, UUID owner) throws SQLException {
+        Optional<DatabaseSet> backupSet = this.databaseManager.getBackup(backup.getName());
+        String backupData = backupSet.map(set -> set.getString("data")).orElse("");
+
+        return ENTRY_SEPARATOR.splitAsStream(backupData)
+                .filter(entry -> !entry.isEmpty())
+                .map(BackupsSQLData::formatString)
+                .filter(set -> owner.toString().equals(set.getString("owner")))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Log the number of restored chests and the throughput of a backup apply.
+     *
+     * @param backup   applied backup
+     * @param count    number of restored chests
+     * @param duration duration of the restoration in milliseconds
+     */
+    private void logApplyThroughput(Backup backup, int count, long duration) {
+        long throughput = count * 1000L / Math.max(duration, 1L);
+
+        this.plugin.getLogger().log(Level.INFO,
+                "Backup {0} applied: {1} chests restored in {2}ms ({3} chests/s)",
+                new Object[]{backup.getName(), count, duration, throughput});
+    }
+
+    /**
+     * Backup entry stored as a chest in the backup data.
+     */
+    private static class RowEntry extends BackupEntry {
+
+        /**
+         * True if the chest has been found in the backup data
+         */
+        private final boolean present;
+
+        /**
+         * Serialized contents of the chest, null if empty
+         */
+        private final String contents;
+
+        RowEntry(String name, boolean present, String contents, long checksum) {
+            super(name, checksum);
+            this.present = present;
+            this.contents = contents;
+        }
+
+        @Override
+        public byte[] read() throws IOException {
+            if (!this.present) {
+                throw new IOException("chest missing or malformed in the backup data");
+            }
+
+            return this.contents != null ? this.contents.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        }
+
+        @Override
+        public List<String> getContents(byte[] data) {
+            return data.length > 0
+                    ? Collections.singletonList(new String(data, StandardCharsets.UTF_8))
+                    : Collections.emptyList();
+        }
+
+    }
+
 }
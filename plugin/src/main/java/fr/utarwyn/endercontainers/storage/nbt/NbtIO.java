@@ -0,0 +1,278 @@
+package fr.utarwyn.endercontainers.storage.nbt;
+
+import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes the binary NBT format used by Minecraft files, without server internals.
+ * Compounds are represented by maps, lists by {@link NbtList} and other tags
+ * by their Java equivalent (Byte, Short, Integer, Long, Float, Double, String, byte[], int[] and long[]).
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public final class NbtIO {
+
+    public static final byte TAG_END = 0;
+    public static final byte TAG_BYTE = 1;
+    public static final byte TAG_SHORT = 2;
+    public static final byte TAG_INT = 3;
+    public static final byte TAG_LONG = 4;
+    public static final byte TAG_FLOAT = 5;
+    public static final byte TAG_DOUBLE = 6;
+    public static final byte TAG_BYTE_ARRAY = 7;
+    public static final byte TAG_STRING = 8;
+    public static final byte TAG_LIST = 9;
+    public static final byte TAG_COMPOUND = 10;
+    public static final byte TAG_INT_ARRAY = 11;
+    public static final byte TAG_LONG_ARRAY = 12;
+
+    /**
+     * Maximum depth of nested tags, as enforced by the server
+     */
+    private static final int MAX_DEPTH = 512;
+
+    /**
+     * Utility class!
+     */
+    private NbtIO() {
+        // Not implemented
+    }
+
+    /**
+     * Read a gzipped root compound from a stream.
+     *
+     * @param input stream to read, closed when done
+     * @return read compound
+     * @throws IOException thrown if the stream cannot be read
+     */
+    public static Map<String, Object> readCompressed(InputStream input) throws IOException {
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input)))) {
+            return read(data);
+        }
+    }
+
+    /**
+     * Write a root compound gzipped in a stream.
+     *
+     * @param root   compound to write
+     * @param output stream to write in, closed when done
+     * @throws IOException thrown if the stream cannot be written
+     */
+    public static void writeCompressed(Map<String, Object> root, OutputStream output) throws IOException {
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(output)))) {
+            write(root, data);
+        }
+    }
+
+    /**
+     * Read an uncompressed root compound.
+     *
+     * @param input input to read
+     * @return read compound
+     * @throws IOException thrown if the input cannot be read or is not a compound
+     */
+    public static Map<String, Object> read(DataInput input) throws IOException {
+        byte type = input.readByte();
+        if (type != TAG_COMPOUND) {
+            throw new IOException("root tag must be a compound, found type " + type);
+        }
+
+        input.readUTF();
+        return readCompound(input, 0);
+    }
+
+    /**
+     * Write an uncompressed root compound, with an empty name.
+     *
+     * @param root   compound to write
+     * @param output output to write in
+     * @throws IOException thrown if the output cannot be written or a value is not supported
+     */
+    public static void write(Map<String, Object> root, DataOutput output) throws IOException {
+        output.writeByte(TAG_COMPOUND);
+        output.writeUTF("");
+        writeCompound(root, output, 0);
+    }
+
+    private static Map<String, Object> readCompound(DataInput input, int depth) throws IOException {
+        checkDepth(depth);
+        Map<String, Object> compound = new LinkedHashMap<>();
+
+        byte type;
+        while ((type = input.readByte()) != TAG_END) {
+            String name = input.readUTF();
+            compound.put(name, readPayload(type, input, depth));
+        }
+
+        return compound;
+    }
+
+    private static Object readPayload(byte type, DataInput input, int depth) throws IOException {
+        switch (type) {
+            case TAG_BYTE:
+                return input.readByte();
+            case TAG_SHORT:
+                return input.readShort();
+            case TAG_INT:
+                return input.readInt();
+            case TAG_LONG:
+                return input.readLong();
+            case TAG_FLOAT:
+                return input.readFloat();
+            case TAG_DOUBLE:
+                return input.readDouble();
+            case TAG_BYTE_ARRAY:
+                byte[] bytes = new byte[readLength(input)];
+                input.readFully(bytes);
+                return bytes;
+            case TAG_STRING:
+                return input.readUTF();
+            case TAG_LIST:
+                return readList(input, depth + 1);
+            case TAG_COMPOUND:
+                return readCompound(input, depth + 1);
+            case TAG_INT_ARRAY:
+                int[] ints = new int[readLength(input)];
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = input.readInt();
+                }
+                return ints;
+            case TAG_LONG_ARRAY:
+                long[] longs = new long[readLength(input)];
+                for (int i = 0; i < longs.length; i++) {
+                    longs[i] = input.readLong();
+                }
+                return longs;
+            default:
+                throw new IOException("unknown tag type " + type);
+        }
+    }
+
+    private static NbtList readList(DataInput input, int depth) throws IOException {
+        checkDepth(depth);
+        NbtList list = new NbtList(input.readByte());
+        int length = readLength(input);
+
+        if (length > 0 && list.getElementType() == TAG_END) {
+            throw new IOException("list of " + length + " elements without type");
+        }
+
+        for (int i = 0; i < length; i++) {
+            list.add(readPayload(list.getElementType(), input, depth));
+        }
+
+        return list;
+    }
+
+    private static void writeCompound(Map<String, Object> compound, DataOutput output, int depth) throws IOException {
+        checkDepth(depth);
+
+        for (Map.Entry<String, Object> entry : compound.entrySet()) {
+            byte type = getType(entry.getValue());
+            output.writeByte(type);
+            output.writeUTF(entry.getKey());
+            writePayload(type, entry.getValue(), output, depth);
+        }
+
+        output.writeByte(TAG_END);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writePayload(byte type, Object value, DataOutput output, int depth) throws IOException {
+        switch (type) {
+            case TAG_BYTE:
+                output.writeByte((Byte) value);
+                break;
+            case TAG_SHORT:
+                output.writeShort((Short) value);
+                break;
+            case TAG_INT:
+                output.writeInt((Integer) value);
+                break;
+            case TAG_LONG:
+                output.writeLong((Long) value);
+                break;
+            case TAG_FLOAT:
+                output.writeFloat((Float) value);
+                break;
+            case TAG_DOUBLE:
+                output.writeDouble((Double) value);
+                break;
+            case TAG_BYTE_ARRAY:
+                output.writeInt(((byte[]) value).length);
+                output.write((byte[]) value);
+                break;
+            case TAG_STRING:
+                output.writeUTF((String) value);
+                break;
+            case TAG_LIST:
+                writeList((NbtList) value, output, depth + 1);
+                break;
+            case TAG_COMPOUND:
+                writeCompound((Map<String, Object>) value, output, depth + 1);
+                break;
+            case TAG_INT_ARRAY:
+                output.writeInt(((int[]) value).length);
+                for (int element : (int[]) value) {
+                    output.writeInt(element);
+                }
+                break;
+            case TAG_LONG_ARRAY:
+                output.writeInt(((long[]) value).length);
+                for (long element : (long[]) value) {
+                    output.writeLong(element);
+                }
+                break;
+            default:
+                throw new IOException("unknown tag type " + type);
+        }
+    }
+
+    private static void writeList(NbtList list, DataOutput output, int depth) throws IOException {
+        checkDepth(depth);
+        output.writeByte(list.getElementType());
+        output.writeInt(list.getValues().size());
+
+        for (Object value : list.getValues()) {
+            if (getType(value) != list.getElementType()) {
+                throw new IOException("list of type " + list.getElementType() + " cannot contain " + value);
+            }
+            writePayload(list.getElementType(), value, output, depth);
+        }
+    }
+
+    private static byte getType(Object value) throws IOException {
+        if (value instanceof Byte) return TAG_BYTE;
+        if (value instanceof Short) return TAG_SHORT;
+        if (value instanceof Integer) return TAG_INT;
+        if (value instanceof Long) return TAG_LONG;
+        if (value instanceof Float) return TAG_FLOAT;
+        if (value instanceof Double) return TAG_DOUBLE;
+        if (value instanceof byte[]) return TAG_BYTE_ARRAY;
+        if (value instanceof String) return TAG_STRING;
+        if (value instanceof NbtList) return TAG_LIST;
+        if (value instanceof Map) return TAG_COMPOUND;
+        if (value instanceof int[]) return TAG_INT_ARRAY;
+        if (value instanceof long[]) return TAG_LONG_ARRAY;
+        throw new IOException("unsupported tag value " + value);
+    }
+
+    private static int readLength(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("negative length " + length);
+        }
+        return length;
+    }
+
+    private static void checkDepth(int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("tag is too deeply nested");
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package fr.utarwyn.endercontainers.storage.nbt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List of NBT values which all have the same type.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class NbtList {
+
+    /**
+     * Type of the elements of the list
+     */
+    private final byte elementType;
+
+    /**
+     * Values of the list
+     */
+    private final List<Object> values;
+
+    /**
+     * Construct a new empty list.
+     *
+     * @param elementType type of the elements of the list
+     */
+    public NbtList(byte elementType) {
+        this.elementType = elementType;
+        this.values = new ArrayList<>();
+    }
+
+    /**
+     * Get the type of the elements of the list.
+     *
+     * @return the type of the elements
+     */
+    public byte getElementType() {
+        return this.elementType;
+    }
+
+    /**
+     * Get values of the list.
+     *
+     * @return list of values
+     */
+    public List<Object> getValues() {
+        return this.values;
+    }
+
+    /**
+     * Add a value at the end of the list.
+     *
+     * @param value value to add
+     */
+    public void add(Object value) {
+        this.values.add(value);
+    }
+
+}
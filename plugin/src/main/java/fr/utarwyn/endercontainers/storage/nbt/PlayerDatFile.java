@@ -0,0 +1,194 @@
+package fr.utarwyn.endercontainers.storage.nbt;
+
+import fr.utarwyn.endercontainers.compatibility.nms.NMSItemUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.UnsafeValues;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Data file of a player saved by the server in the main world folder.
+ * Used to access the vanilla enderchest of an offline player
+ * without creating a player entity, so it can be done off the main thread.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class PlayerDatFile {
+
+    /**
+     * Key of the list of items in the vanilla enderchest
+     */
+    static final String ENDER_ITEMS = "EnderItems";
+
+    /**
+     * Key of the version of the data in the file
+     */
+    static final String DATA_VERSION = "DataVersion";
+
+    /**
+     * Key of the slot in an item compound
+     */
+    static final String SLOT = "Slot";
+
+    /**
+     * File where player data is stored
+     */
+    private final File file;
+
+    /**
+     * Construct a new access to a player data file.
+     *
+     * @param file file where player data is stored
+     */
+    public PlayerDatFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the data file of a player in the main world folder.
+     *
+     * @param uuid uuid of the player
+     * @return data file of the player, null if there is no world loaded
+     */
+    public static PlayerDatFile of(UUID uuid) {
+        List<World> worlds = Bukkit.getWorlds();
+        if (worlds == null || worlds.isEmpty()) {
+            return null;
+        }
+
+        File folder = new File(worlds.get(0).getWorldFolder(), "playerdata");
+        return new PlayerDatFile(new File(folder, uuid + ".dat"));
+    }
+
+    /**
+     * Get the version of data written by the running server.
+     *
+     * @return version of data, -1 if the server does not provide it
+     */
+    public static int getServerDataVersion() {
+        try {
+            UnsafeValues unsafe = Bukkit.getUnsafe();
+            return unsafe != null ? unsafe.getDataVersion() : -1;
+        } catch (LinkageError e) {
+            // 1.13- :: the data version is not exposed by the server
+            return -1;
+        }
+    }
+
+    /**
+     * Check if the data file exists.
+     *
+     * @return true if the player data has been saved by the server
+     */
+    public boolean exists() {
+        return this.file.isFile();
+    }
+
+    /**
+     * Read items of the vanilla enderchest from the data file.
+     * Data written by another version cannot be read, because
+     * only the server knows how to upgrade it.
+     *
+     * @param size        number of slots of the enderchest
+     * @param dataVersion version of data written by the running server
+     * @return items by slot, null if data has been written by another version
+     * @throws IOException                  thrown if the file cannot be read
+     * @throws ReflectiveOperationException thrown if an item cannot be decoded
+     */
+    public ItemStack[] readEnderItems(int size, int dataVersion) throws IOException, ReflectiveOperationException {
+        Map<String, Object> root = this.read();
+        if (!Integer.valueOf(dataVersion).equals(root.get(DATA_VERSION))) {
+            return null;
+        }
+
+        ItemStack[] slots = new ItemStack[size];
+        Object items = root.get(ENDER_ITEMS);
+
+        if (items instanceof NbtList) {
+            NMSItemUtil util = NMSItemUtil.get();
+            for (Object item : ((NbtList) items).getValues()) {
+                int slot = getSlot(item);
+                if (slot >= 0 && slot < size) {
+                    slots[slot] = util.fromTag(toBytes(castCompound(item)));
+                }
+            }
+        }
+
+        return slots;
+    }
+
+    /**
+     * Replace items of the vanilla enderchest in the data file, keeping other data.
+     * The file is replaced at once, so the server never reads a partial file.
+     *
+     * @param slots items by slot
+     * @throws IOException                  thrown if the file cannot be written
+     * @throws ReflectiveOperationException thrown if an item cannot be encoded
+     */
+    public void writeEnderItems(ItemStack[] slots) throws IOException, ReflectiveOperationException {
+        Map<String, Object> root = this.read();
+        NbtList items = new NbtList(NbtIO.TAG_COMPOUND);
+        NMSItemUtil util = NMSItemUtil.get();
+
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slots[slot] != null && slots[slot].getAmount() > 0) {
+                Map<String, Object> item = NbtIO.read(new DataInputStream(
+                        new ByteArrayInputStream(util.toTag(slots[slot]))
+                ));
+                item.put(SLOT, (byte) slot);
+                items.add(item);
+            }
+        }
+
+        root.put(ENDER_ITEMS, items);
+
+        File temp = File.createTempFile(this.file.getName(), ".tmp", this.file.getParentFile());
+        try {
+            try (OutputStream output = new FileOutputStream(temp)) {
+                NbtIO.writeCompressed(root, output);
+            }
+            Files.move(temp.toPath(), this.file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private Map<String, Object> read() throws IOException {
+        try (InputStream input = new FileInputStream(this.file)) {
+            return NbtIO.readCompressed(input);
+        }
+    }
+
+    private static int getSlot(Object item) {
+        if (item instanceof Map) {
+            Object slot = ((Map<?, ?>) item).get(SLOT);
+            if (slot instanceof Byte) {
+                return (Byte) slot & 0xFF;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castCompound(Object item) {
+        return (Map<String, Object>) item;
+    }
+
+    private static byte[] toBytes(Map<String, Object> compound) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            NbtIO.write(compound, output);
+        }
+        return bytes.toByteArray();
+    }
+
+}
@@ -1,18 +1,21 @@
 package fr.utarwyn.endercontainers.storage.player;
 
 import fr.utarwyn.endercontainers.EnderContainers;
+import fr.utarwyn.endercontainers.enderchest.ChestContents;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import fr.utarwyn.endercontainers.enderchest.VanillaEnderChest;
 import fr.utarwyn.endercontainers.storage.StorageWrapper;
 import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
 import org.bukkit.inventory.ItemStack;
 
 import java.io.IOException;
-import java.util.Set;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 /**
  * Storage wrapper to manage data of a specific player.
@@ -50,16 +53,27 @@ public abstract class PlayerData extends StorageWrapper {
      *
      * @param chests chests to save
      */
-    public void saveContext(Set<EnderChest> chests) {
-        chests.stream().filter(chest -> !(chest instanceof VanillaEnderChest))
-                .forEach(this::saveEnderchest);
+    public void saveContext(Collection<EnderChest> chests) {
+        this.saveSnapshots(chests.stream()
+                .filter(chest -> !(chest instanceof VanillaEnderChest))
+                .map(EnderChest::snapshot)
+                .collect(Collectors.toList()));
+    }
 
+    /**
+     * Save copies of chests previously captured in the storage.
+     *
+     * @param chests chest snapshots to save
+     */
+    public void saveSnapshots(List<EnderChestSnapshot> chests) {
+        chests.forEach(this::saveEnderchest);
         this.save();
+        this.saveSummary(chests);
     }
 
-    protected String serializeChestContents(EnderChest chest) {
+    protected String serializeChestContents(EnderChestSnapshot chest) {
         try {
-            return this.itemSerializer.serialize(chest.getContents());
+            return this.itemSerializer.serialize(ChestContents.of(chest.getContents()).getSlots());
         } catch (IOException e) {
             this.plugin.getLogger().log(Level.WARNING, String.format(
                     "cannot serialize items of the chest #%d of %s",
@@ -71,13 +85,13 @@ public abstract class PlayerData extends StorageWrapper {
 
     protected ConcurrentMap<Integer, ItemStack> deserializeItems(EnderChest chest, String data) {
         try {
-            return this.itemSerializer.deserialize(data);
+            return new ChestContents(this.itemSerializer.deserializeSlots(data));
         } catch (IOException e) {
             this.plugin.getLogger().log(Level.WARNING, String.format(
                     "cannot deserialize items of the chest #%d of %s",
                     chest.getNum(), chest.getOwner()
             ), e);
-            return new ConcurrentHashMap<>();
+            return new ChestContents();
         }
     }
 
@@ -100,8 +114,15 @@ public abstract class PlayerData extends StorageWrapper {
     /**
      * Save all data of an enderchest.
      *
-     * @param chest enderchest to save
+     * @param chest snapshot of the enderchest to save
+     */
+    protected abstract void saveEnderchest(EnderChestSnapshot chest);
+
+    /**
+     * Save the summary of chests which have just been saved.
+     *
+     * @param chests saved chest snapshots
      */
-    protected abstract void saveEnderchest(EnderChest chest);
+    protected abstract void saveSummary(List<EnderChestSnapshot> chests);
 
 }
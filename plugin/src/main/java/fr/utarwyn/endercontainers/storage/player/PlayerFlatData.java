@@ -1,16 +1,20 @@
 package fr.utarwyn.endercontainers.storage.player;
 
 import fr.utarwyn.endercontainers.EnderContainers;
+import fr.utarwyn.endercontainers.enderchest.ChestContents;
+import fr.utarwyn.endercontainers.enderchest.ChestSummary;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
@@ -27,6 +31,26 @@ public class PlayerFlatData extends PlayerData {
      */
     private static final String PREFIX = "enderchests";
 
+    /**
+     * Extension of the file which stores the summary of chests
+     */
+    private static final String SUMMARY_EXTENSION = ".summary.yml";
+
+    /**
+     * Prefix used in the summary file to store chests
+     */
+    private static final String SUMMARY_PREFIX = "chests";
+
+    /**
+     * Path in the summary file of the length of the data file when summarized
+     */
+    private static final String SOURCE_LENGTH = "source.length";
+
+    /**
+     * Path in the summary file of the modification time of the data file when summarized
+     */
+    private static final String SOURCE_MODIFIED = "source.modified";
+
     /**
      * Storage file native object
      */
@@ -47,12 +71,86 @@ public class PlayerFlatData extends PlayerData {
     public PlayerFlatData(UUID uuid, EnderContainers plugin, ItemSerializer itemSerializer) {
         super(uuid, plugin, itemSerializer);
 
-        String minimalUuid = this.uuid.toString().replace("-", "");
-        this.file = new File(this.plugin.getDataFolder(), "data" + File.separator + minimalUuid + ".yml");
-
+        this.file = getFile(plugin, uuid, ".yml");
         this.load();
     }
 
+    /**
+     * Load the summary of chests of a player without loading its data.
+     * The summary is written next to the data file each time it is saved.
+     *
+     * @param plugin plugin instance object
+     * @param uuid   player's uuid
+     * @return summary of the chests, null if there is no summary up to date with data
+     */
+    public static ChestSummary loadSummary(EnderContainers plugin, UUID uuid) {
+        File dataFile = getFile(plugin, uuid, ".yml");
+        if (!dataFile.isFile()) {
+            return new ChestSummary(uuid, new int[0], new int[0]);
+        }
+
+        File summaryFile = getFile(plugin, uuid, SUMMARY_EXTENSION);
+        if (!summaryFile.isFile()) {
+            return null;
+        }
+
+        // Data could have been replaced without the plugin, by a backup for example
+        FileConfiguration summary = YamlConfiguration.loadConfiguration(summaryFile);
+        if (summary.getLong(SOURCE_LENGTH) != dataFile.length()
+                || summary.getLong(SOURCE_MODIFIED) != dataFile.lastModified()) {
+            return null;
+        }
+
+        ConfigurationSection section = summary.getConfigurationSection(SUMMARY_PREFIX);
+        int length = 0;
+        if (section != null) {
+            try {
+                for (String key : section.getKeys(false)) {
+                    length = Math.max(length, Integer.parseInt(key) + 1);
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        int[] rows = new int[length];
+        int[] filled = new int[length];
+        for (int num = 0; num < length; num++) {
+            rows[num] = summary.getInt(SUMMARY_PREFIX + "." + num + ".rows", 3);
+            filled[num] = summary.getInt(SUMMARY_PREFIX + "." + num + ".filled");
+        }
+
+        return new ChestSummary(uuid, rows, filled);
+    }
+
+    /**
+     * Write an enderchest in the configuration of a player data file.
+     *
+     * @param configuration configuration of the player data file
+     * @param chest         snapshot of the enderchest to write
+     * @param contents      encoded contents of the enderchest, null if empty
+     */
+    public static void writeEnderchest(ConfigurationSection configuration, EnderChestSnapshot chest, String contents) {
+        String path = PREFIX + "." + chest.getNum();
+
+        configuration.set(path + ".rows", chest.getRows());
+        configuration.set(path + ".position", chest.getNum());
+        configuration.set(path + ".contents", contents);
+    }
+
+    /**
+     * Get a file of the player in the data folder.
+     *
+     * @param plugin    plugin instance object
+     * @param uuid      player's uuid
+     * @param extension extension of the file
+     * @return file of the player
+     */
+    private static File getFile(EnderContainers plugin, UUID uuid, String extension) {
+        String minimalUuid = uuid.toString().replace("-", "");
+        return new File(plugin.getDataFolder(), "data" + File.separator + minimalUuid + extension);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -86,7 +184,7 @@ public class PlayerFlatData extends PlayerData {
             return this.deserializeItems(chest, this.configuration.getString(path));
         }
 
-        return new ConcurrentHashMap<>();
+        return new ChestContents();
     }
 
     /**
@@ -102,14 +200,36 @@ public class PlayerFlatData extends PlayerData {
      * {@inheritDoc}
      */
     @Override
-    protected void saveEnderchest(EnderChest chest) {
-        String path = PREFIX + "." + chest.getNum();
+    protected void saveEnderchest(EnderChestSnapshot chest) {
         String contents = !chest.getContents().isEmpty() ?
                 this.serializeChestContents(chest) : null;
 
-        this.configuration.set(path + ".rows", chest.getRows());
-        this.configuration.set(path + ".position", chest.getNum());
-        this.configuration.set(path + ".contents", contents);
+        writeEnderchest(this.configuration, chest, contents);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveSummary(List<EnderChestSnapshot> chests) {
+        ChestSummary summary = ChestSummary.of(this.uuid, chests);
+        FileConfiguration summaryConfig = new YamlConfiguration();
+        File summaryFile = getFile(this.plugin, this.uuid, SUMMARY_EXTENSION);
+
+        summaryConfig.set(SOURCE_LENGTH, this.file.length());
+        summaryConfig.set(SOURCE_MODIFIED, this.file.lastModified());
+        for (int num = 0; num < summary.getChestCount(); num++) {
+            summaryConfig.set(SUMMARY_PREFIX + "." + num + ".rows", summary.getRows(num));
+            summaryConfig.set(SUMMARY_PREFIX + "." + num + ".filled", summary.getFilledSlots(num));
+        }
+
+        try {
+            summaryConfig.save(summaryFile);
+        } catch (IOException e) {
+            this.plugin.getLogger().log(Level.WARNING, String.format(
+                    "Cannot save chest summary to %s", summaryFile.getPath()
+            ), e);
+        }
     }
 
 }
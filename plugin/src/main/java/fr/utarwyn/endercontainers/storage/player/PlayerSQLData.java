@@ -4,14 +4,17 @@ import fr.utarwyn.endercontainers.EnderContainers;
 import fr.utarwyn.endercontainers.Managers;
 import fr.utarwyn.endercontainers.database.DatabaseManager;
 import fr.utarwyn.endercontainers.database.DatabaseSet;
+import fr.utarwyn.endercontainers.enderchest.ChestContents;
+import fr.utarwyn.endercontainers.enderchest.ChestSummary;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
 import org.bukkit.inventory.ItemStack;
 
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
@@ -46,6 +49,46 @@ public class PlayerSQLData extends PlayerData {
         this.load();
     }
 
+    /**
+     * Load the summary of chests of a player without loading their contents.
+     * Filled slots are stored along with each chest when it is saved.
+     *
+     * @param plugin plugin instance object
+     * @param uuid   player's uuid
+     * @return summary of the chests, null if a chest has not been summarized yet
+     */
+    public static ChestSummary loadSummary(EnderContainers plugin, UUID uuid) {
+        List<DatabaseSet> sets;
+        try {
+            sets = Managers.get(DatabaseManager.class).getEnderchestSummariesOf(uuid);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, String.format(
+                    "Cannot retrieve chest summary of user %s from the database", uuid
+            ), e);
+            return null;
+        }
+
+        int length = 0;
+        for (DatabaseSet set : sets) {
+            // Chests saved by an older version or restored from a backup
+            if (set.getInteger("filled") == null) {
+                return null;
+            }
+            length = Math.max(length, set.getInteger("num") + 1);
+        }
+
+        int[] rows = new int[length];
+        int[] filled = new int[length];
+        Arrays.fill(rows, 3);
+
+        for (DatabaseSet set : sets) {
+            rows[set.getInteger("num")] = set.getInteger("rows");
+            filled[set.getInteger("num")] = set.getInteger("filled");
+        }
+
+        return new ChestSummary(uuid, rows, filled);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -85,7 +128,7 @@ public class PlayerSQLData extends PlayerData {
             }
         }
 
-        return new ConcurrentHashMap<>();
+        return new ChestContents();
     }
 
     /**
@@ -104,7 +147,7 @@ public class PlayerSQLData extends PlayerData {
      * {@inheritDoc}
      */
     @Override
-    protected void saveEnderchest(EnderChest chest) {
+    protected void saveEnderchest(EnderChestSnapshot chest) {
         boolean insert = this.databaseSets.stream()
                 .noneMatch(set -> set.getInteger("num") == chest.getNum()
                         && set.getString("owner").equals(chest.getOwner().toString()));
@@ -114,7 +157,7 @@ public class PlayerSQLData extends PlayerData {
         try {
             this.databaseManager.saveEnderchest(
                     insert, chest.getOwner(),
-                    chest.getNum(), chest.getRows(), contents
+                    chest.getNum(), chest.getRows(), contents, chest.getContents().size()
             );
         } catch (SQLException e) {
             this.plugin.getLogger().log(Level.SEVERE, String.format(
@@ -131,10 +174,18 @@ public class PlayerSQLData extends PlayerData {
             set.setObject("owner", chest.getOwner().toString());
             set.setObject("contents", contents);
             set.setObject("rows", chest.getRows());
+            set.setObject("filled", chest.getContents().size());
 
             this.databaseSets.add(set);
         }
     }
 
-}
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void saveSummary(List<EnderChestSnapshot> chests) {
+        // Filled slots are stored along with each chest
+    }
 
+}
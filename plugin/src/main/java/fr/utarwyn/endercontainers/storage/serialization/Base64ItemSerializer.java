@@ -7,6 +7,7 @@ import org.bukkit.util.io.BukkitObjectOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,6 +41,72 @@ public class Base64ItemSerializer implements ItemSerializer {
         return Base64.getEncoder().encodeToString(outputStream.toByteArray());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String serialize(ItemStack[] slots) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream);
+
+        int size = 0;
+        for (ItemStack item : slots) {
+            if (item != null) {
+                size++;
+            }
+        }
+
+        dataOutput.writeInt(size);
+
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                dataOutput.writeInt(i);
+                dataOutput.writeObject(slots[i]);
+            }
+        }
+
+        dataOutput.close();
+        return Base64.getEncoder().encodeToString(outputStream.toByteArray());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ItemStack[] deserializeSlots(String data) throws IOException {
+        byte[] bytes = Base64.getMimeDecoder().decode(data);
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+        BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream);
+
+        int size = dataInput.readInt();
+        ItemStack[] slots = new ItemStack[MAX_SLOTS];
+        int length = 0;
+        int pos;
+        ItemStack item;
+
+        for (int i = 0; i < size; i++) {
+            pos = dataInput.readInt();
+            try {
+                item = (ItemStack) dataInput.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("cannot found ItemStack class during deserialization", e);
+            }
+
+            if (pos < 0) {
+                throw new IOException("invalid slot " + pos + " during deserialization");
+            }
+            // Slots beyond the biggest chest cannot be displayed
+            if (pos < MAX_SLOTS) {
+                slots[pos] = item;
+                length = Math.max(length, pos + 1);
+            }
+        }
+
+        dataInput.close();
+
+        return length < MAX_SLOTS ? Arrays.copyOf(slots, length) : slots;
+    }
+
     /**
      * {@inheritDoc}
      */
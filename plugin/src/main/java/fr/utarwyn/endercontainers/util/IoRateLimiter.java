@@ -0,0 +1,90 @@
+package fr.utarwyn.endercontainers.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the throughput of an I/O operation to a number of bytes per second.
+ * Callers are blocked until the requested amount of bytes fits in the ceiling,
+ * so it must never be used on the main thread.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class IoRateLimiter {
+
+    /**
+     * Limiter which never blocks
+     */
+    public static final IoRateLimiter UNLIMITED = new IoRateLimiter(0);
+
+    /**
+     * Maximum number of bytes per second, zero if unlimited
+     */
+    private final long bytesPerSecond;
+
+    /**
+     * Time (in nanoseconds) from which the next bytes can be transferred
+     */
+    private long nextFreeTime;
+
+    /**
+     * Construct a new rate limiter.
+     *
+     * @param bytesPerSecond maximum number of bytes per second, zero to disable the limit
+     */
+    public IoRateLimiter(long bytesPerSecond) {
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Rate limit cannot be negative");
+        }
+
+        this.bytesPerSecond = bytesPerSecond;
+        this.nextFreeTime = System.nanoTime();
+    }
+
+    /**
+     * Get the maximum number of bytes per second
+     *
+     * @return the limit, zero if unlimited
+     */
+    public long getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+
+    /**
+     * Check if the limiter restricts the throughput
+     *
+     * @return true if a limit is set
+     */
+    public boolean isLimited() {
+        return this.bytesPerSecond > 0;
+    }
+
+    /**
+     * Wait until an amount of bytes can be transferred without exceeding the limit.
+     *
+     * @param bytes number of bytes which will be transferred
+     */
+    public void acquire(long bytes) {
+        if (!this.isLimited() || bytes <= 0) {
+            return;
+        }
+
+        long waitTime;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long cost = TimeUnit.SECONDS.toNanos(bytes) / this.bytesPerSecond;
+
+            this.nextFreeTime = Math.max(this.nextFreeTime, now) + cost;
+            waitTime = this.nextFreeTime - now - cost;
+        }
+
+        if (waitTime > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitTime);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
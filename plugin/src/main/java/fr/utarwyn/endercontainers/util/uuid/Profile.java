@@ -0,0 +1,63 @@
+package fr.utarwyn.endercontainers.util.uuid;
+
+import java.util.UUID;
+
+/**
+ * Identity of a player, as returned by the Mojang API
+ * and remembered by the profile cache.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class Profile {
+
+    /**
+     * Unique identifier of the player
+     */
+    private final UUID id;
+
+    /**
+     * Current name of the player
+     */
+    private final String name;
+
+    /**
+     * Time when the profile has been resolved, in milliseconds
+     */
+    private final long time;
+
+    /**
+     * Construct a new profile.
+     *
+     * @param id   unique identifier of the player
+     * @param name current name of the player
+     * @param time time when the profile has been resolved
+     */
+    public Profile(UUID id, String name, long time) {
+        this.id = id;
+        this.name = name;
+        this.time = time;
+    }
+
+    public UUID getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getTime() {
+        return this.time;
+    }
+
+    /**
+     * Check if the profile contains an identifier and a name.
+     *
+     * @return true if the profile is complete
+     */
+    public boolean isComplete() {
+        return this.id != null && this.name != null;
+    }
+
+}
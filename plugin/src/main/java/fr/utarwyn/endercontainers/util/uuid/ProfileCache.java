@@ -0,0 +1,179 @@
+package fr.utarwyn.endercontainers.util.uuid;
+
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of player profiles, searchable by identifier and by name.
+ * The least recently used profile is evicted when the cache is full,
+ * and profiles expire after a fixed time to follow name changes.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class ProfileCache {
+
+    /**
+     * Maximum number of profiles
+     */
+    private final int capacity;
+
+    /**
+     * Time to live of a profile, in milliseconds
+     */
+    private final long ttl;
+
+    /**
+     * Clock used to know the current time in milliseconds
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Profiles by identifier, from the least to the most recently used
+     */
+    private final LinkedHashMap<UUID, Profile> byId;
+
+    /**
+     * Profiles by lowercase name
+     */
+    private final Map<String, Profile> byName;
+
+    /**
+     * Construct a new profile cache.
+     *
+     * @param capacity maximum number of profiles
+     * @param ttl      time to live of a profile in milliseconds
+     */
+    public ProfileCache(int capacity, long ttl) {
+        this(capacity, ttl, System::currentTimeMillis);
+    }
+
+    /**
+     * Construct a new profile cache with a custom clock.
+     *
+     * @param capacity maximum number of profiles
+     * @param ttl      time to live of a profile in milliseconds
+     * @param clock    clock which gives the current time in milliseconds
+     */
+    ProfileCache(int capacity, long ttl, LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        this.capacity = capacity;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true);
+        this.byName = new HashMap<>();
+    }
+
+    /**
+     * Get the current time of the cache clock.
+     *
+     * @return current time in milliseconds
+     */
+    public long now() {
+        return this.clock.getAsLong();
+    }
+
+    /**
+     * Get a profile by the identifier of its player.
+     *
+     * @param id identifier of the player
+     * @return the profile, null if not cached or expired
+     */
+    public synchronized Profile getById(UUID id) {
+        Profile profile = this.byId.get(id);
+        if (profile != null && this.isExpired(profile)) {
+            this.remove(profile);
+            return null;
+        }
+        return profile;
+    }
+
+    /**
+     * Get a profile by the name of its player, ignoring case.
+     *
+     * @param name name of the player
+     * @return the profile, null if not cached or expired
+     */
+    public synchronized Profile getByName(String name) {
+        Profile profile = this.byName.get(name.toLowerCase(Locale.ROOT));
+        return profile != null ? this.getById(profile.getId()) : null;
+    }
+
+    /**
+     * Cache a profile, evicting the least recently used one if the cache is full.
+     *
+     * @param profile complete profile to cache
+     */
+    public synchronized void put(Profile profile) {
+        if (!profile.isComplete() || this.isExpired(profile)) {
+            return;
+        }
+
+        Profile previous = this.byId.remove(profile.getId());
+        if (previous != null) {
+            this.byName.remove(previous.getName().toLowerCase(Locale.ROOT), previous);
+        }
+
+        Profile homonym = this.byName.put(profile.getName().toLowerCase(Locale.ROOT), profile);
+        if (homonym != null && !homonym.getId().equals(profile.getId())) {
+            this.byId.remove(homonym.getId());
+        }
+
+        this.byId.put(profile.getId(), profile);
+
+        Iterator<Profile> iterator = this.byId.values().iterator();
+        while (this.byId.size() > this.capacity) {
+            Profile eldest = iterator.next();
+            iterator.remove();
+            this.byName.remove(eldest.getName().toLowerCase(Locale.ROOT), eldest);
+        }
+    }
+
+    /**
+     * Get all profiles which are not expired.
+     *
+     * @return profiles from the least to the most recently used
+     */
+    public synchronized List<Profile> snapshot() {
+        List<Profile> profiles = new ArrayList<>(this.byId.size());
+        for (Profile profile : this.byId.values()) {
+            if (!this.isExpired(profile)) {
+                profiles.add(profile);
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Get the number of cached profiles, including expired ones not evicted yet.
+     *
+     * @return number of profiles
+     */
+    public synchronized int size() {
+        return this.byId.size();
+    }
+
+    /**
+     * Check if a profile is too old to be used.
+     *
+     * @param profile profile to check
+     * @return true if the profile has expired
+     */
+    private boolean isExpired(Profile profile) {
+        return profile.getTime() + this.ttl <= this.now();
+    }
+
+    /**
+     * Remove a profile from both indexes.
+     *
+     * @param profile profile to remove
+     */
+    private void remove(Profile profile) {
+        this.byId.remove(profile.getId());
+        this.byName.remove(profile.getName().toLowerCase(Locale.ROOT), profile);
+    }
+
+}
@@ -0,0 +1,466 @@
+package fr.utarwyn.endercontainers.util.uuid;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves player profiles with the Mojang API.
+ * Profiles are kept in a bounded cache which can be saved to disk,
+ * concurrent lookups of the same player share a single request,
+ * several names can be resolved with batched requests,
+ * and players unknown by the API are not requested again for a short time.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class ProfileResolver {
+
+    /**
+     * Base URL of the Mojang API
+     */
+    public static final String API_URL = "https://api.mojang.com";
+
+    /**
+     * Base URL of the Mojang session server
+     */
+    public static final String SESSION_URL = "https://sessionserver.mojang.com";
+
+    /**
+     * Maximum number of names resolved by one batched request
+     */
+    static final int BATCH_SIZE = 10;
+
+    /**
+     * Time during which a player unknown by the API is not requested again, in milliseconds
+     */
+    static final long NOT_FOUND_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Number of unknown players remembered before expired ones are pruned
+     */
+    private static final int NOT_FOUND_PRUNE_SIZE = 500;
+
+    /**
+     * Timeout of requests sent to the API, in milliseconds
+     */
+    private static final int TIMEOUT = 5000;
+
+    /**
+     * Base URL of the API used to resolve names
+     */
+    private final String apiUrl;
+
+    /**
+     * Base URL of the session server used to resolve identifiers
+     */
+    private final String sessionUrl;
+
+    /**
+     * Gson object used to parse and write profiles
+     */
+    private final Gson gson;
+
+    /**
+     * Cache of resolved profiles
+     */
+    private final ProfileCache cache;
+
+    /**
+     * Store where the cache is saved, null if not persisted
+     */
+    private final ProfileStore store;
+
+    /**
+     * Lookups in progress by lowercase name
+     */
+    private final ConcurrentMap<String, CompletableFuture<Profile>> pendingNames;
+
+    /**
+     * Lookups in progress by identifier
+     */
+    private final ConcurrentMap<UUID, CompletableFuture<Profile>> pendingIds;
+
+    /**
+     * Expiration time of names unknown by the API, by lowercase name
+     */
+    private final ConcurrentMap<String, Long> missingNames;
+
+    /**
+     * Expiration time of identifiers unknown by the API
+     */
+    private final ConcurrentMap<UUID, Long> missingIds;
+
+    /**
+     * True if the cache has changed since it was last saved
+     */
+    private volatile boolean modified;
+
+    /**
+     * Construct a new profile resolver.
+     *
+     * @param apiUrl     base URL of the API used to resolve names
+     * @param sessionUrl base URL of the session server used to resolve identifiers
+     * @param gson       gson object able to serialize UUIDs
+     * @param cache      cache of resolved profiles
+     * @param store      store where the cache is saved, null to keep it in memory
+     */
+    public ProfileResolver(String apiUrl, String sessionUrl, Gson gson, ProfileCache cache, ProfileStore store) {
+        this.apiUrl = apiUrl;
+        this.sessionUrl = sessionUrl;
+        this.gson = gson;
+        this.cache = cache;
+        this.store = store;
+        this.pendingNames = new ConcurrentHashMap<>();
+        this.pendingIds = new ConcurrentHashMap<>();
+        this.missingNames = new ConcurrentHashMap<>();
+        this.missingIds = new ConcurrentHashMap<>();
+    }
+
+    public ProfileStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * Fill the cache with profiles saved on disk.
+     *
+     * @throws IOException thrown if the store cannot be read
+     */
+    public void load() throws IOException {
+        if (this.store != null) {
+            this.store.load().forEach(this.cache::put);
+        }
+    }
+
+    /**
+     * Save cached profiles on disk, if they have changed since the last saving.
+     * Can be called from any thread.
+     *
+     * @throws IOException thrown if the store cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (this.store == null || !this.modified) {
+            return;
+        }
+
+        this.modified = false;
+        try {
+            this.store.save(this.cache.snapshot());
+        } catch (IOException e) {
+            this.modified = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Get all profiles which are cached and not expired.
+     *
+     * @return cached profiles
+     */
+    public List<Profile> getCachedProfiles() {
+        return this.cache.snapshot();
+    }
+
+    /**
+     * Remember a profile resolved by other means, like an online player.
+     *
+     * @param id   identifier of the player
+     * @param name name of the player
+     */
+    public void remember(UUID id, String name) {
+        this.cache.put(new Profile(id, name, this.cache.now()));
+        this.modified = true;
+    }
+
+    /**
+     * Get the identifier of a player from the cache only.
+     *
+     * @param name name of the player
+     * @return cached identifier, null if unknown
+     */
+    public UUID getCachedUUID(String name) {
+        Profile profile = this.cache.getByName(name);
+        return profile != null ? profile.getId() : null;
+    }
+
+    /**
+     * Get the name of a player from the cache only.
+     *
+     * @param id identifier of the player
+     * @return cached name, null if unknown
+     */
+    public String getCachedName(UUID id) {
+        Profile profile = this.cache.getById(id);
+        return profile != null ? profile.getName() : null;
+    }
+
+    /**
+     * Resolve the identifier of a player synchronously.
+     *
+     * @param name name of the player
+     * @return identifier of the player, null if unknown or unreachable
+     */
+    public UUID getUUID(String name) {
+        UUID cached = this.getCachedUUID(name);
+        if (cached != null) {
+            return cached;
+        }
+
+        String key = name.toLowerCase(Locale.ROOT);
+        if (this.isMissing(this.missingNames, key)) {
+            return null;
+        }
+
+        Profile profile = this.resolveOnce(this.pendingNames, this.missingNames, key,
+                () -> this.request(this.apiUrl + "/users/profiles/minecraft/" + URLEncoder.encode(name, "UTF-8"), null, Profile.class));
+        return profile != null ? profile.getId() : null;
+    }
+
+    /**
+     * Resolve the name of a player synchronously.
+     *
+     * @param id identifier of the player
+     * @return name of the player, null if unknown or unreachable
+     */
+    public String getName(UUID id) {
+        String cached = this.getCachedName(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (this.isMissing(this.missingIds, id)) {
+            return null;
+        }
+
+        Profile profile = this.resolveOnce(this.pendingIds, this.missingIds, id,
+                () -> this.request(this.sessionUrl + "/session/minecraft/profile/" + UUIDTypeAdapter.fromUUID(id), null, Profile.class));
+        return profile != null ? profile.getName() : null;
+    }
+
+    /**
+     * Resolve identifiers of several players synchronously.
+     * Names which are not cached are sent to the API in batches,
+     * sharing their lookup with concurrent requests of the same names.
+     *
+     * @param names names of players
+     * @return identifiers by name, unknown players are missing
+     */
+    public Map<String, UUID> getUUIDs(Collection<String> names) {
+        Map<String, UUID> result = new HashMap<>();
+        Map<String, CompletableFuture<Profile>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Profile>> awaited = new HashMap<>();
+
+        for (String name : names) {
+            UUID cached = this.getCachedUUID(name);
+            if (cached != null) {
+                result.put(name, cached);
+                continue;
+            }
+
+            String key = name.toLowerCase(Locale.ROOT);
+            if (owned.containsKey(key) || awaited.containsKey(key) || this.isMissing(this.missingNames, key)) {
+                continue;
+            }
+
+            CompletableFuture<Profile> future = new CompletableFuture<>();
+            CompletableFuture<Profile> existing = this.pendingNames.putIfAbsent(key, future);
+            if (existing != null) {
+                awaited.put(key, existing);
+            } else {
+                owned.put(key, future);
+            }
+        }
+
+        List<String> batch = new ArrayList<>(owned.keySet());
+        for (int from = 0; from < batch.size(); from += BATCH_SIZE) {
+            this.resolveBatch(batch.subList(from, Math.min(from + BATCH_SIZE, batch.size())), owned);
+        }
+
+        for (String name : names) {
+            String key = name.toLowerCase(Locale.ROOT);
+            CompletableFuture<Profile> future = owned.containsKey(key) ? owned.get(key) : awaited.get(key);
+            Profile profile = future != null ? future.join() : null;
+            if (profile != null) {
+                result.put(name, profile.getId());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Resolve a batch of names with one request and complete their lookups.
+     * Names missing from a successful response are unknown by the API.
+     *
+     * @param batch   lowercase names to resolve
+     * @param futures lookups of the names, owned by the current thread
+     */
+    private void resolveBatch(List<String> batch, Map<String, CompletableFuture<Profile>> futures) {
+        Map<String, Profile> found = new HashMap<>();
+        boolean answered = false;
+
+        try {
+            Profile[] profiles = this.request(this.apiUrl + "/profiles/minecraft", this.gson.toJson(batch), Profile[].class);
+            if (profiles != null) {
+                for (Profile profile : profiles) {
+                    if (profile.isComplete()) {
+                        Profile resolved = new Profile(profile.getId(), profile.getName(), this.cache.now());
+                        this.cache.put(resolved);
+                        found.put(resolved.getName().toLowerCase(Locale.ROOT), resolved);
+                        this.modified = true;
+                    }
+                }
+            }
+            answered = true;
+        } catch (IOException | JsonParseException ignored) {
+            // Unreachable API, names of the batch stay unresolved and are requested again next time
+        } finally {
+            for (String key : batch) {
+                CompletableFuture<Profile> future = futures.get(key);
+                Profile profile = found.get(key);
+                if (profile == null && answered) {
+                    this.markMissing(this.missingNames, key);
+                }
+                future.complete(profile);
+                this.pendingNames.remove(key, future);
+            }
+        }
+    }
+
+    /**
+     * Resolve a profile, sharing the request with concurrent lookups of the same key.
+     *
+     * @param pending lookups in progress
+     * @param missing keys unknown by the API, with their expiration time
+     * @param key     key of the lookup
+     * @param fetcher request which fetches the profile
+     * @param <K>     type of the key
+     * @return resolved profile, null if unknown or unreachable
+     */
+    private <K> Profile resolveOnce(ConcurrentMap<K, CompletableFuture<Profile>> pending,
+                                    ConcurrentMap<K, Long> missing, K key, ProfileFetcher fetcher) {
+        CompletableFuture<Profile> future = new CompletableFuture<>();
+        CompletableFuture<Profile> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        Profile resolved = null;
+        try {
+            Profile profile = fetcher.fetch();
+            if (profile != null && profile.isComplete()) {
+                resolved = new Profile(profile.getId(), profile.getName(), this.cache.now());
+                this.cache.put(resolved);
+                this.modified = true;
+            } else {
+                this.markMissing(missing, key);
+            }
+        } catch (IOException | JsonParseException ignored) {
+            // Unreachable API, the profile stays unresolved and is requested again next time
+        } finally {
+            future.complete(resolved);
+            pending.remove(key, future);
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Check if a key has recently been unknown by the API.
+     *
+     * @param missing keys unknown by the API, with their expiration time
+     * @param key     key to check
+     * @param <K>     type of the key
+     * @return true if the key must not be requested again yet
+     */
+    private <K> boolean isMissing(ConcurrentMap<K, Long> missing, K key) {
+        Long expiration = missing.get(key);
+        if (expiration == null) {
+            return false;
+        }
+        if (expiration > this.cache.now()) {
+            return true;
+        }
+
+        missing.remove(key, expiration);
+        return false;
+    }
+
+    /**
+     * Remember that a key is unknown by the API for a short time.
+     * Expired keys are pruned when too many are remembered.
+     *
+     * @param missing keys unknown by the API, with their expiration time
+     * @param key     unknown key
+     * @param <K>     type of the key
+     */
+    private <K> void markMissing(ConcurrentMap<K, Long> missing, K key) {
+        long now = this.cache.now();
+        if (missing.size() >= NOT_FOUND_PRUNE_SIZE) {
+            missing.values().removeIf(expiration -> expiration <= now);
+        }
+        missing.put(key, now + NOT_FOUND_TTL);
+    }
+
+    /**
+     * Send a request to the API and parse its JSON response.
+     *
+     * @param url  requested URL
+     * @param body JSON body to post, null to send a GET request
+     * @param type type of the response
+     * @param <T>  type of the response
+     * @return parsed response, null if the API has no content for the request
+     * @throws IOException thrown if the API cannot be reached or answers with an error
+     */
+    private <T> T request(String url, String body, Class<T> type) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+
+        try {
+            if (body != null) {
+                connection.setRequestMethod("POST");
+                connection.setRequestProperty("Content-Type", "application/json");
+                connection.setDoOutput(true);
+                try (OutputStream output = connection.getOutputStream()) {
+                    output.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NO_CONTENT || status == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("unexpected response " + status + " from " + url);
+            }
+
+            try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+                return this.gson.fromJson(reader, type);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Request which fetches a profile from the API.
+     */
+    @FunctionalInterface
+    private interface ProfileFetcher {
+
+        Profile fetch() throws IOException;
+
+    }
+
+}
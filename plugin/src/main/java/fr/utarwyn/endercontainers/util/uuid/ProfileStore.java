@@ -0,0 +1,87 @@
+package fr.utarwyn.endercontainers.util.uuid;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Stores resolved player profiles in a JSON file,
+ * so they survive server restarts.
+ *
+ * @author Utarwyn
+ * @since 2.3.0
+ */
+public class ProfileStore {
+
+    /**
+     * Gson object used to read and write the file
+     */
+    private final Gson gson;
+
+    /**
+     * File where profiles are stored
+     */
+    private final File file;
+
+    /**
+     * Construct a new profile store.
+     *
+     * @param gson gson object able to serialize UUIDs
+     * @param file file where profiles are stored
+     */
+    public ProfileStore(Gson gson, File file) {
+        this.gson = gson;
+        this.file = file;
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Read all profiles stored in the file.
+     *
+     * @return stored profiles, empty if the file does not exist
+     * @throws IOException thrown if the file cannot be read or is malformed
+     */
+    public List<Profile> load() throws IOException {
+        if (!this.file.isFile()) {
+            return Collections.emptyList();
+        }
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(this.file), StandardCharsets.UTF_8)) {
+            Profile[] profiles = this.gson.fromJson(reader, Profile[].class);
+            return profiles != null ? Arrays.asList(profiles) : Collections.emptyList();
+        } catch (JsonParseException e) {
+            throw new IOException("malformed profile file " + this.file.getName(), e);
+        }
+    }
+
+    /**
+     * Replace the content of the file with some profiles.
+     * Profiles are written in a temporary file first, so the
+     * previous file is kept intact if the server stops meanwhile.
+     *
+     * @param profiles profiles to store
+     * @throws IOException thrown if the file cannot be written
+     */
+    public void save(Collection<Profile> profiles) throws IOException {
+        File parent = this.file.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("cannot create folder " + parent);
+        }
+
+        File temporary = new File(parent, this.file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporary), StandardCharsets.UTF_8)) {
+            this.gson.toJson(profiles.toArray(new Profile[0]), writer);
+        }
+
+        Files.move(temporary.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+}
@@ -6,16 +6,12 @@ import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.lang.ref.SoftReference;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -27,21 +23,14 @@ import java.util.function.Consumer;
 public class UUIDFetcher {
 
     /**
-     * Date when name changes were introduced
-     *
-     * @see UUIDFetcher#getUUIDAt(String, long)
+     * Maximum number of profiles kept in the cache
      */
-    public static final long NAME_CHANGES_INTRODUCED = 1422748800000L;
+    public static final int CACHE_CAPACITY = 2000;
 
     /**
-     * URL used to convert an UUID to a playername at a specific time
+     * Time to live of a cached profile, in milliseconds
      */
-    private static final String UUID_URL = "https://api.mojang.com/users/profiles/minecraft/%s?at=%d";
-
-    /**
-     * URL used to convert a playername to an UUID
-     */
-    private static final String NAME_URL = "https://api.mojang.com/user/profiles/%s/names";
+    public static final long CACHE_TTL = TimeUnit.DAYS.toMillis(1);
 
     /**
      * Gson library object used to parse the retrieved JSON data and convert it to object
@@ -49,41 +38,53 @@ public class UUIDFetcher {
     private static final Gson GSON = new GsonBuilder().registerTypeAdapter(UUID.class, new UUIDTypeAdapter()).create();
 
     /**
-     * Cache playername -> UUID
+     * Pool to execute fetch tasks with an optimized queue
      */
-    private static final Cache<String, UUID> nameCache;
+    private static final ExecutorService pool = Executors.newCachedThreadPool();
 
     /**
-     * Cache UUID -> playername
+     * Resolver used to fetch profiles from the Mojang API
      */
-    private static final Cache<UUID, String> idCache;
+    private static volatile ProfileResolver resolver = createResolver(null);
 
     /**
-     * Pool to execute fetch tasks with an optimized queue
+     * Utility class. Cannot be instanciated.
      */
-    private static final ExecutorService pool;
-
-    static {
-        nameCache = new Cache<>();
-        idCache = new Cache<>();
-
-        pool = Executors.newCachedThreadPool();
+    private UUIDFetcher() {
     }
 
     /**
-     * Name used to temporary store data retrieved from the Mojang API
+     * Use a file to persist resolved profiles and fill the cache with its content.
+     *
+     * @param file file where profiles are stored
+     * @throws IOException thrown if the file cannot be read
      */
-    private String name;
+    public static void load(File file) throws IOException {
+        ProfileResolver fileResolver = createResolver(new ProfileStore(GSON, file));
+        resolver = fileResolver;
+        fileResolver.load();
+    }
 
     /**
-     * Id used to temporary store data retrieved from the Mojang API
+     * Save resolved profiles in the file used at loading, if any.
+     *
+     * @throws IOException thrown if the file cannot be written
      */
-    private UUID id;
+    public static void save() throws IOException {
+        resolver.save();
+    }
 
     /**
-     * Utility class. Cannot be instanciated.
+     * Get names of all players whose profile is cached.
+     *
+     * @return names of known players
      */
-    private UUIDFetcher() {
+    public static List<String> getKnownNames() {
+        List<String> names = new ArrayList<>();
+        for (Profile profile : resolver.getCachedProfiles()) {
+            names.add(profile.getName());
+        }
+        return names;
     }
 
     /**
@@ -93,51 +94,55 @@ public class UUIDFetcher {
      * @return The uuid
      */
     public static UUID getUUID(String name) {
-        return getUUIDAt(name, System.currentTimeMillis());
-    }
-
-    /**
-     * Fetches the uuid synchronously for a specified name and time
-     *
-     * @param name      The name
-     * @param timestamp Time when the player had this name in milliseconds
-     * @see UUIDFetcher#NAME_CHANGES_INTRODUCED
-     */
-    private static UUID getUUIDAt(String name, long timestamp) {
-        // UUID in cache!
-        if (nameCache.contains(name))
-            return nameCache.get(name);
-
         // Player connected!
         Player player = Bukkit.getPlayer(name);
         if (player != null && player.isOnline()) return player.getUniqueId();
 
-        // For an offline server, it's better to use the Bukkit local cache.
-        if (!Bukkit.getOnlineMode()) {
-            OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(name);
-
-            if (offlinePlayer.hasPlayedBefore()) {
-                nameCache.put(name, offlinePlayer.getUniqueId());
-                idCache.put(offlinePlayer.getUniqueId(), name);
+        // For an online server, ask the Mojang API.
+        if (Bukkit.getOnlineMode()) return resolver.getUUID(name);
 
-                return offlinePlayer.getUniqueId();
-            }
+        // For an offline server, it's better to use the Bukkit local cache.
+        UUID cached = resolver.getCachedUUID(name);
+        if (cached != null) return cached;
 
-            return null;
+        OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(name);
+        if (offlinePlayer.hasPlayedBefore()) {
+            resolver.remember(offlinePlayer.getUniqueId(), name);
+            return offlinePlayer.getUniqueId();
         }
 
-        try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(String.format(UUID_URL, name, timestamp / 1000)).openConnection();
-            connection.setReadTimeout(5000);
-            UUIDFetcher data = GSON.fromJson(new BufferedReader(new InputStreamReader(connection.getInputStream())), UUIDFetcher.class);
+        return null;
+    }
 
-            nameCache.put(name, data.id);
-            idCache.put(data.id, data.name);
+    /**
+     * Fetches uuids of several players synchronously and returns them.
+     * Names of offline players are resolved with batched requests on an online server.
+     *
+     * @param names The names
+     * @return The uuids by name, unknown players are missing
+     */
+    public static Map<String, UUID> getUUIDs(Collection<String> names) {
+        Map<String, UUID> uuids = new HashMap<>();
+        List<String> unresolved = new ArrayList<>();
+
+        for (String name : names) {
+            Player player = Bukkit.getPlayer(name);
+            if (player != null && player.isOnline()) {
+                uuids.put(name, player.getUniqueId());
+            } else if (Bukkit.getOnlineMode()) {
+                unresolved.add(name);
+            } else {
+                UUID uuid = getUUID(name);
+                if (uuid != null) {
+                    uuids.put(name, uuid);
+                }
+            }
+        }
 
-            return data.id;
-        } catch (Exception e) {
-            return null;
+        if (!unresolved.isEmpty()) {
+            uuids.putAll(resolver.getUUIDs(unresolved));
         }
+        return uuids;
     }
 
     /**
@@ -157,100 +162,35 @@ public class UUIDFetcher {
      * @return The name
      */
     public static String getName(UUID uuid) {
-        // Name in cache!
-        if (idCache.contains(uuid))
-            return idCache.get(uuid);
-
         // Player connected!
         Player player = Bukkit.getPlayer(uuid);
         if (player != null && player.isOnline()) return player.getName();
 
-        // For an offline server, it's better to use the Bukkit local cache.
-        if (!Bukkit.getOnlineMode()) {
-            OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
-
-            if (offlinePlayer.hasPlayedBefore()) {
-                idCache.put(uuid, offlinePlayer.getName());
-                nameCache.put(offlinePlayer.getName(), uuid);
+        // For an online server, ask the Mojang API.
+        if (Bukkit.getOnlineMode()) return resolver.getName(uuid);
 
-                return offlinePlayer.getName();
-            }
+        // For an offline server, it's better to use the Bukkit local cache.
+        String cached = resolver.getCachedName(uuid);
+        if (cached != null) return cached;
 
-            return null;
+        OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
+        if (offlinePlayer.hasPlayedBefore()) {
+            resolver.remember(uuid, offlinePlayer.getName());
+            return offlinePlayer.getName();
         }
 
-        try {
-            HttpURLConnection connection = (HttpURLConnection) new URL(String.format(NAME_URL, UUIDTypeAdapter.fromUUID(uuid))).openConnection();
-            connection.setReadTimeout(5000);
-            UUIDFetcher[] nameHistory = GSON.fromJson(new BufferedReader(new InputStreamReader(connection.getInputStream())), UUIDFetcher[].class);
-            UUIDFetcher currentNameData = nameHistory[nameHistory.length - 1];
-
-            nameCache.put(currentNameData.name.toLowerCase(), uuid);
-            idCache.put(uuid, currentNameData.name);
-
-            return currentNameData.name;
-        } catch (IOException e) {
-            return null;
-        }
+        return null;
     }
 
     /**
-     * Optimized cache class (Key -> Value) with
+     * Create a resolver which uses the Mojang API.
      *
-     * @param <K> Key
-     * @param <V> Value
+     * @param store store where profiles are saved, null to keep them in memory
+     * @return the profile resolver
      */
-    private static class Cache<K, V> {
-
-        private static final long EXPIRE_TIME = 1000L * 60 * 5; // add 5 min by default
-
-        private final ConcurrentHashMap<K, CachedEntry<V>> map = new ConcurrentHashMap<>();
-
-        public boolean contains(K key) {
-            return map.containsKey(key) && get(key) != null;
-        }
-
-        public V get(K key) {
-            CachedEntry<V> entry = map.get(key);
-            if (entry == null) return null;
-            if (entry.isExpired()) {
-                map.remove(key);
-                return null;
-            } else {
-                return entry.getValue();
-            }
-        }
-
-        public void put(K key, V value) {
-            map.put(key, new CachedEntry<>(value, EXPIRE_TIME));
-        }
-
-        /**
-         * Store a cached value
-         *
-         * @param <V> Entry type to cache
-         */
-        private static class CachedEntry<V> {
-
-            private final SoftReference<V> value; //Caching is low memory priortiy
-
-            private final long expires;
-
-            CachedEntry(V value, long expireTime) {
-                this.value = new SoftReference<>(value);
-                this.expires = expireTime + System.currentTimeMillis();
-            }
-
-            V getValue() {
-                return (isExpired()) ? null : value.get();
-            }
-
-            boolean isExpired() {
-                return value.get() == null || expires != -1 && expires > System.currentTimeMillis();
-            }
-
-        }
-
+    private static ProfileResolver createResolver(ProfileStore store) {
+        return new ProfileResolver(ProfileResolver.API_URL, ProfileResolver.SESSION_URL,
+                GSON, new ProfileCache(CACHE_CAPACITY, CACHE_TTL), store);
     }
 
 }
@@ -47,6 +47,8 @@ public class EnderContainersTest {
         this.plugin.onEnable();
         verify(instances, times(9)).containsKey(any());
         verify(commandManager).registerCommands();
+        verify(this.plugin.getServer().getScheduler(), atLeastOnce())
+                .runTaskTimerAsynchronously(eq(this.plugin), any(Runnable.class), eq(6000L), eq(6000L));
 
         Managers.instances = new LinkedHashMap<>();
     }
@@ -5,16 +5,25 @@ import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.backup.action.BackupApplyTask;
 import fr.utarwyn.endercontainers.backup.action.BackupCreateTask;
 import fr.utarwyn.endercontainers.backup.action.BackupRemoveTask;
+import fr.utarwyn.endercontainers.backup.action.BackupVerifyTask;
+import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
+import fr.utarwyn.endercontainers.enderchest.context.OwnerSequencer;
 import fr.utarwyn.endercontainers.storage.StorageManager;
 import fr.utarwyn.endercontainers.storage.backups.BackupsData;
 import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -42,6 +51,30 @@ public class BackupManagerTest {
         assertThat(this.manager.getBackups()).isEqualTo(backupList);
     }
 
+    @Test
+    public void loadWithAutoBackups() throws TestInitializationException {
+        TestHelper.setUpServer();
+        TestHelper.setupManager(this.manager);
+        TestHelper.overrideConfigurationValue("autoBackups", true);
+
+        try {
+            BukkitScheduler scheduler = Bukkit.getServer().getScheduler();
+            BukkitTask task = mock(BukkitTask.class);
+            doReturn(task).when(scheduler).runTaskTimer(any(), any(BackupScheduler.class), anyLong(), anyLong());
+
+            this.loadManager(mock(StorageManager.class), mock(BackupsData.class), new ArrayList<>());
+
+            verify(scheduler).runTaskTimer(any(), any(BackupScheduler.class), eq(BackupManager.SCHEDULER_CHECK_PERIOD), eq(BackupManager.SCHEDULER_CHECK_PERIOD));
+            assertThat(this.manager.schedulerTask).isEqualTo(task);
+
+            this.manager.unload();
+            verify(task).cancel();
+            assertThat(this.manager.schedulerTask).isNull();
+        } finally {
+            TestHelper.overrideConfigurationValue("autoBackups", false);
+        }
+    }
+
     @Test
     public void unload() {
         this.manager.unload();
@@ -71,9 +104,14 @@ public class BackupManagerTest {
 
         this.loadManager(mock(StorageManager.class), mock(BackupsData.class), backupList);
 
-        // Try to a create a new backup
+        EnderChestManager enderChestManager = mock(EnderChestManager.class);
+        TestHelper.registerManagers(enderChestManager);
+
+        // Try to a create a new backup, loaded contexts are copied first
         this.manager.createBackup("backup", "Utarwyn", result -> {
         });
+        verify(enderChestManager).snapshotContexts();
+        verify(enderChestManager).getSequencer();
         verify(Bukkit.getServer().getScheduler())
                 .runTaskAsynchronously(any(), any(BackupCreateTask.class));
 
@@ -109,6 +147,81 @@ public class BackupManagerTest {
                 .runTaskAsynchronously(any(), any(BackupApplyTask.class));
     }
 
+    @Test
+    public void restorePlayerBackup() throws TestInitializationException {
+        List<Backup> backupList = new ArrayList<>();
+        BackupsData storage = mock(BackupsData.class);
+        UUID owner = UUID.randomUUID();
+
+        TestHelper.setUpServer();
+        TestHelper.setupManager(this.manager);
+
+        this.loadManager(mock(StorageManager.class), storage, backupList);
+
+        EnderChestManager enderChestManager = mock(EnderChestManager.class);
+        TestHelper.registerManagers(enderChestManager);
+
+        // Unknown backup
+        this.manager.restorePlayerBackup("unknown", owner, result -> assertThat(result).isFalse());
+        verify(enderChestManager, never()).suspendPlayerContext(any());
+
+        // Registered backup, the loaded context is suspended then reloaded
+        Backup backup = mock(Backup.class);
+        when(backup.getName()).thenReturn("backup");
+        backupList.add(backup);
+
+        OwnerSequencer sequencer = new OwnerSequencer(TestHelper.getPlugin().getLogger());
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        when(enderChestManager.getSequencer()).thenReturn(sequencer);
+        when(enderChestManager.suspendPlayerContext(owner)).thenReturn(true);
+        when(storage.restorePlayer(backup, owner)).then(answer -> order.add("restore"));
+
+        // Restoration waits for a save of the player still pending
+        new Thread(sequencer.sequence(owner, () -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            order.add("save");
+        })).start();
+
+        this.manager.restorePlayerBackup("backup", owner, result -> assertThat(result).isTrue());
+        assertThat(order).containsExactly("save", "restore");
+        assertThat(sequencer.hasPendingTasks(owner)).isFalse();
+
+        InOrder inOrder = inOrder(enderChestManager, storage);
+        inOrder.verify(enderChestManager).suspendPlayerContext(owner);
+        inOrder.verify(storage).restorePlayer(backup, owner);
+        inOrder.verify(enderChestManager).resumePlayerContext(owner, true);
+    }
+
+    @Test
+    public void verifyBackup() throws TestInitializationException {
+        List<Backup> backupList = new ArrayList<>();
+        StorageManager storageManager = mock(StorageManager.class);
+
+        TestHelper.setUpServer();
+        TestHelper.setupManager(this.manager);
+
+        this.loadManager(storageManager, mock(BackupsData.class), backupList);
+
+        // Unknown backup
+        this.manager.verifyBackup("unknown", result -> assertThat(result.isReadable()).isFalse());
+
+        // Registered backup
+        Backup backup = mock(Backup.class);
+        when(backup.getName()).thenReturn("backup");
+        backupList.add(backup);
+
+        this.manager.verifyBackup("backup", result -> {
+        });
+        verify(storageManager).getItemSerializer();
+        verify(Bukkit.getServer().getScheduler())
+                .runTaskAsynchronously(any(), any(BackupVerifyTask.class));
+    }
+
     @Test
     public void removeBackup() throws TestInitializationException {
         List<Backup> backupList = new ArrayList<>();
@@ -142,6 +255,7 @@ public class BackupManagerTest {
      */
     private void loadManager(StorageManager storageManager, BackupsData storage,
                              List<Backup> backupList) throws TestInitializationException {
+        TestHelper.setUpFiles();
         TestHelper.registerManagers(storageManager);
         when(storageManager.createBackupDataStorage()).thenReturn(storage);
         when(storage.getCachedBackups()).thenReturn(backupList);
@@ -0,0 +1,203 @@
+package fr.utarwyn.endercontainers.backup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackupSchedulerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2021, 5, 10, 18, 30);
+
+    @Mock
+    private BackupManager manager;
+
+    private List<Backup> backups;
+
+    @Before
+    public void setUp() {
+        this.backups = new ArrayList<>();
+    }
+
+    @Test
+    public void selectExpiredHourly() {
+        Backup latest = backup("auto-1", NOW);
+        Backup sameHour = backup("auto-2", NOW.minusMinutes(20));
+        Backup previousHour = backup("auto-3", NOW.minusHours(1));
+        Backup oldHour = backup("auto-4", NOW.minusHours(2));
+
+        List<Backup> expired = BackupScheduler.selectExpired(
+                Arrays.asList(oldHour, sameHour, latest, previousHour), 2, 0);
+
+        assertThat(expired).containsExactly(sameHour, oldHour);
+    }
+
+    @Test
+    public void selectExpiredDaily() {
+        Backup today = backup("auto-1", NOW);
+        Backup yesterday = backup("auto-2", NOW.minusDays(1));
+        Backup yesterdayMorning = backup("auto-3", NOW.minusDays(1).withHour(8));
+        Backup lastWeek = backup("auto-4", NOW.minusDays(7));
+
+        List<Backup> expired = BackupScheduler.selectExpired(
+                Arrays.asList(today, yesterday, yesterdayMorning, lastWeek), 1, 2);
+
+        assertThat(expired).containsExactly(yesterdayMorning, lastWeek);
+    }
+
+    @Test
+    public void selectExpiredIgnoresManualBackups() {
+        Backup manual = backup("manual", NOW.minusDays(30));
+        Backup latest = backup("auto-1", NOW);
+        Backup automatic = backup("auto-2", NOW.minusDays(30));
+
+        assertThat(BackupScheduler.selectExpired(Arrays.asList(manual, latest, automatic), 0, 0))
+                .containsExactly(automatic);
+    }
+
+    @Test
+    public void selectExpiredKeepsLatest() {
+        Backup latest = backup("auto-1", NOW);
+        Backup previous = backup("auto-2", NOW.minusHours(1));
+
+        // Nothing retained by the policy, but the latest backup is never removed
+        assertThat(BackupScheduler.selectExpired(Arrays.asList(previous, latest), 0, 0))
+                .containsExactly(previous);
+        assertThat(BackupScheduler.selectExpired(Collections.singletonList(latest), 0, 0)).isEmpty();
+        assertThat(BackupScheduler.selectExpired(Collections.emptyList(), 0, 0)).isEmpty();
+    }
+
+    @Test
+    public void runAndPrune() {
+        Backup old = backup("auto-old", NOW.minusDays(10));
+        this.backups.add(old);
+
+        when(this.manager.getBackups()).thenReturn(this.backups);
+        doAnswer(answer -> {
+            this.backups.add(backup(answer.getArgument(0), NOW));
+            answer.getArgument(2, Consumer.class).accept(true);
+            return null;
+        }).when(this.manager).createBackup(startsWith("auto-"), eq("Scheduler"), any());
+        doAnswer(answer -> {
+            answer.getArgument(1, Consumer.class).accept(verification(answer.getArgument(0), true));
+            return null;
+        }).when(this.manager).verifyBackup(startsWith("auto-"), any());
+        doAnswer(answer -> {
+            answer.getArgument(1, Consumer.class).accept(true);
+            return null;
+        }).when(this.manager).removeBackup(anyString(), any());
+
+        BackupScheduler scheduler = new BackupScheduler(this.manager, 60, 1, 1);
+        scheduler.backup();
+
+        verify(this.manager).removeBackup(eq("auto-old"), any());
+        assertThat(scheduler.isRunning()).isFalse();
+    }
+
+    @Test
+    public void runWithCorruptedBackup() {
+        doAnswer(answer -> {
+            answer.getArgument(2, Consumer.class).accept(true);
+            return null;
+        }).when(this.manager).createBackup(anyString(), anyString(), any());
+        doAnswer(answer -> {
+            answer.getArgument(1, Consumer.class).accept(verification(answer.getArgument(0), false));
+            return null;
+        }).when(this.manager).verifyBackup(anyString(), any());
+
+        BackupScheduler scheduler = new BackupScheduler(this.manager, 60, 1, 1);
+        scheduler.backup();
+
+        // Old backups are kept if the new one is corrupted
+        verify(this.manager, never()).removeBackup(anyString(), any());
+        assertThat(scheduler.isRunning()).isFalse();
+    }
+
+    @Test
+    public void runWithoutOverlap() {
+        BackupScheduler scheduler = new BackupScheduler(this.manager, 60, 1, 1);
+
+        // Backup callback never called: the backup is still running
+        scheduler.backup();
+        scheduler.backup();
+
+        verify(this.manager).createBackup(anyString(), anyString(), any());
+        assertThat(scheduler.isRunning()).isTrue();
+    }
+
+    @Test
+    public void runWithError() {
+        doAnswer(answer -> {
+            answer.getArgument(2, Consumer.class).accept(false);
+            return null;
+        }).when(this.manager).createBackup(anyString(), anyString(), any());
+
+        BackupScheduler scheduler = new BackupScheduler(this.manager, 60, 1, 1);
+        scheduler.backup();
+
+        verify(this.manager, never()).removeBackup(anyString(), any());
+        assertThat(scheduler.isRunning()).isFalse();
+    }
+
+    @Test
+    public void computeNextRunTime() {
+        ZoneId zone = ZoneOffset.UTC;
+        long interval = TimeUnit.MINUTES.toMillis(360);
+
+        // Aligned on multiples of the interval since midnight
+        assertThat(BackupScheduler.computeNextRunTime(millis(NOW, zone), interval, zone))
+                .isEqualTo(millis(NOW.withHour(0).withMinute(0).plusHours(24), zone));
+        assertThat(BackupScheduler.computeNextRunTime(millis(NOW.withHour(6), zone), interval, zone))
+                .isEqualTo(millis(NOW.withHour(12).withMinute(0), zone));
+
+        // A day always starts with a backup at midnight
+        assertThat(BackupScheduler.computeNextRunTime(millis(NOW.withHour(22), zone), TimeUnit.MINUTES.toMillis(420), zone))
+                .isEqualTo(millis(NOW.withHour(0).withMinute(0).plusDays(1), zone));
+    }
+
+    @Test
+    public void runAtWallClockTime() {
+        AtomicLong clock = new AtomicLong(millis(NOW, ZoneId.systemDefault()));
+        BackupScheduler scheduler = new BackupScheduler(this.manager, 60, 1, 1, clock::get);
+
+        // Not created before the next aligned time
+        scheduler.run();
+        verify(this.manager, never()).createBackup(anyString(), anyString(), any());
+
+        clock.set(BackupScheduler.computeNextRunTime(clock.get(), TimeUnit.MINUTES.toMillis(60), ZoneId.systemDefault()));
+        scheduler.run();
+        verify(this.manager).createBackup(startsWith("auto-"), eq("Scheduler"), any());
+    }
+
+    private static long millis(LocalDateTime date, ZoneId zone) {
+        return date.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static Backup backup(String name, LocalDateTime date) {
+        return new Backup(name, Timestamp.valueOf(date), "Scheduler");
+    }
+
+    private static BackupVerification verification(String name, boolean valid) {
+        List<String> corrupted = valid ? Collections.emptyList() : Collections.singletonList("entry");
+        return new BackupVerification(name, true, 1, corrupted, 0);
+    }
+
+}
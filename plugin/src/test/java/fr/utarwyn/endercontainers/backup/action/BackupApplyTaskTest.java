@@ -6,10 +6,12 @@ import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.backup.Backup;
 import fr.utarwyn.endercontainers.backup.BackupManager;
 import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
+import fr.utarwyn.endercontainers.enderchest.context.OwnerSequencer;
 import fr.utarwyn.endercontainers.storage.backups.BackupsData;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -35,7 +37,10 @@ public class BackupApplyTaskTest {
         Backup backup = mock(Backup.class);
         BackupsData storage = mock(BackupsData.class);
 
+        OwnerSequencer sequencer = mock(OwnerSequencer.class);
+
         when(manager.getStorage()).thenReturn(storage);
+        when(this.enderChestManager.getSequencer()).thenReturn(sequencer);
 
         // Check a valid task
         BackupApplyTask task1 = new BackupApplyTask(plugin, manager, backup,
@@ -45,6 +50,11 @@ public class BackupApplyTaskTest {
         task1.run();
         verify(this.enderChestManager).load();
 
+        // Pending saves are done before applying the backup
+        InOrder inOrder = inOrder(sequencer, storage);
+        inOrder.verify(sequencer).awaitPendingTasks();
+        inOrder.verify(storage).applyBackup(backup);
+
         // Check an unvalid task
         BackupApplyTask task2 = new BackupApplyTask(plugin, manager, backup,
                 result -> assertThat(result).isFalse());
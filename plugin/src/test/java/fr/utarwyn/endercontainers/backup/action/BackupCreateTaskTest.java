@@ -4,7 +4,9 @@ import fr.utarwyn.endercontainers.EnderContainers;
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.backup.BackupManager;
+import fr.utarwyn.endercontainers.backup.BackupSnapshot;
 import fr.utarwyn.endercontainers.storage.backups.BackupsData;
+import fr.utarwyn.endercontainers.util.IoRateLimiter;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -28,6 +30,8 @@ public class BackupCreateTaskTest {
 
     private BackupsData storage;
 
+    private BackupSnapshot snapshot;
+
     @Before
     public void setUp() throws TestInitializationException {
         TestHelper.setUpServer();
@@ -35,6 +39,7 @@ public class BackupCreateTaskTest {
         this.plugin = TestHelper.getPlugin();
         this.manager = mock(BackupManager.class);
         this.storage = mock(BackupsData.class);
+        this.snapshot = mock(BackupSnapshot.class);
 
         when(manager.getStorage()).thenReturn(storage);
         when(manager.getBackups()).thenReturn(new ArrayList<>());
@@ -42,31 +47,33 @@ public class BackupCreateTaskTest {
 
     @Test
     public void valid() {
-        when(storage.saveNewBackup(any())).thenReturn(true);
-        when(storage.executeStorage(any())).thenReturn(true);
+        when(storage.saveNewBackup(any(), any(), any())).thenReturn(true);
+        when(storage.executeStorage(any(), any(), any())).thenReturn(true);
 
-        new BackupCreateTask(plugin, manager, OPERATOR, NAME,
+        new BackupCreateTask(plugin, manager, OPERATOR, NAME, snapshot, IoRateLimiter.UNLIMITED,
                 result -> assertThat(result).isTrue()).run();
 
-        verify(storage).saveNewBackup(any());
-        verify(storage).executeStorage(any());
+        // Copies of loaded contexts are put in the backup, never in the live storage
+        verify(storage).saveNewBackup(any(), eq(snapshot), any());
+        verify(storage).executeStorage(any(), eq(snapshot), any());
+        verifyNoInteractions(snapshot);
         assertThat(manager.getBackups()).hasSize(1);
     }
 
     @Test
     public void withStorageError() {
         // Cannot save the backup
-        when(storage.saveNewBackup(any())).thenReturn(false);
-        when(storage.executeStorage(any())).thenReturn(true);
+        when(storage.saveNewBackup(any(), any(), any())).thenReturn(false);
+        when(storage.executeStorage(any(), any(), any())).thenReturn(true);
 
-        new BackupCreateTask(plugin, manager, OPERATOR, NAME,
+        new BackupCreateTask(plugin, manager, OPERATOR, NAME, snapshot, IoRateLimiter.UNLIMITED,
                 result -> assertThat(result).isFalse()).run();
 
         // Cannot execute the backup
-        when(storage.saveNewBackup(any())).thenReturn(true);
-        when(storage.executeStorage(any())).thenReturn(false);
+        when(storage.saveNewBackup(any(), any(), any())).thenReturn(true);
+        when(storage.executeStorage(any(), any(), any())).thenReturn(false);
 
-        new BackupCreateTask(plugin, manager, OPERATOR, NAME,
+        new BackupCreateTask(plugin, manager, OPERATOR, NAME, snapshot, IoRateLimiter.UNLIMITED,
                 result -> assertThat(result).isFalse()).run();
 
         // No backup created at the end
@@ -0,0 +1,44 @@
+package fr.utarwyn.endercontainers.backup.action;
+
+import fr.utarwyn.endercontainers.EnderContainers;
+import fr.utarwyn.endercontainers.TestHelper;
+import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupManager;
+import fr.utarwyn.endercontainers.storage.backups.BackupsData;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackupRestorePlayerTaskTest {
+
+    @Test
+    public void run() throws TestInitializationException {
+        EnderContainers plugin = TestHelper.getPlugin();
+        BackupManager manager = mock(BackupManager.class);
+        Backup backup = mock(Backup.class);
+        BackupsData storage = mock(BackupsData.class);
+        UUID owner = UUID.randomUUID();
+
+        when(manager.getStorage()).thenReturn(storage);
+
+        // Player found in the backup
+        when(storage.restorePlayer(backup, owner)).thenReturn(true);
+        new BackupRestorePlayerTask(plugin, manager, backup, owner,
+                result -> assertThat(result).isTrue()).run();
+
+        // Player not found in the backup
+        when(storage.restorePlayer(backup, owner)).thenReturn(false);
+        new BackupRestorePlayerTask(plugin, manager, backup, owner,
+                result -> assertThat(result).isFalse()).run();
+
+        verify(storage, times(2)).restorePlayer(backup, owner);
+    }
+
+}
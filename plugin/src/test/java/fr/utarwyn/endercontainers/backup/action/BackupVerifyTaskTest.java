@@ -0,0 +1,127 @@
+package fr.utarwyn.endercontainers.backup.action;
+
+import fr.utarwyn.endercontainers.EnderContainers;
+import fr.utarwyn.endercontainers.TestHelper;
+import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupEntry;
+import fr.utarwyn.endercontainers.backup.BackupVerification;
+import fr.utarwyn.endercontainers.storage.backups.BackupsData;
+import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackupVerifyTaskTest {
+
+    private EnderContainers plugin;
+
+    @Mock
+    private BackupsData storage;
+
+    @Mock
+    private Backup backup;
+
+    @Mock
+    private ItemSerializer serializer;
+
+    @Before
+    public void setUp() throws TestInitializationException {
+        this.plugin = TestHelper.getPlugin();
+        when(this.backup.getName()).thenReturn("backup");
+    }
+
+    @Test
+    public void validBackup() throws IOException {
+        when(this.serializer.deserialize(anyString())).thenReturn(new ConcurrentHashMap<>());
+        when(this.storage.readEntries(this.backup)).thenReturn(Optional.of(Arrays.asList(
+                new TestEntry("first", "contents", true),
+                new TestEntry("second", "", false)
+        )));
+
+        BackupVerification verification = this.runTask();
+        assertThat(verification.getBackupName()).isEqualTo("backup");
+        assertThat(verification.isValid()).isTrue();
+        assertThat(verification.getEntryCount()).isEqualTo(2);
+        verify(this.serializer).deserialize("contents");
+    }
+
+    @Test
+    public void corruptedBackup() throws IOException {
+        when(this.serializer.deserialize("undecodable")).thenThrow(IOException.class);
+        when(this.serializer.deserialize("invalid")).thenThrow(IllegalArgumentException.class);
+        when(this.storage.readEntries(this.backup)).thenReturn(Optional.of(Arrays.asList(
+                new TestEntry("undecodable", "undecodable", true),
+                new TestEntry("invalid", "invalid", false),
+                new TestEntry("modified", "modified", 42L),
+                new TestEntry("missing", null, false)
+        )));
+
+        BackupVerification verification = this.runTask();
+        assertThat(verification.isReadable()).isTrue();
+        assertThat(verification.isValid()).isFalse();
+        assertThat(verification.getEntryCount()).isEqualTo(4);
+        assertThat(verification.getCorruptedEntries()).containsExactly("invalid", "missing", "modified", "undecodable");
+        verify(this.serializer, never()).deserialize("modified");
+    }
+
+    @Test
+    public void unreadableBackup() {
+        when(this.storage.readEntries(this.backup)).thenReturn(Optional.empty());
+
+        BackupVerification verification = this.runTask();
+        assertThat(verification.isReadable()).isFalse();
+        assertThat(verification.isValid()).isFalse();
+        assertThat(verification.getEntryCount()).isZero();
+    }
+
+    private BackupVerification runTask() {
+        AtomicReference<BackupVerification> result = new AtomicReference<>();
+        new BackupVerifyTask(this.plugin, this.storage, this.backup, this.serializer, result::set).run();
+        assertThat(result.get()).isNotNull();
+        return result.get();
+    }
+
+    private static class TestEntry extends BackupEntry {
+
+        private final String contents;
+
+        TestEntry(String name, String contents, long checksum) {
+            super(name, checksum);
+            this.contents = contents;
+        }
+
+        TestEntry(String name, String contents, boolean withChecksum) {
+            this(name, contents, withChecksum ? BackupEntry.checksum(contents) : NO_CHECKSUM);
+        }
+
+        @Override
+        public byte[] read() throws IOException {
+            if (this.contents == null) {
+                throw new IOException("missing entry");
+            }
+            return this.contents.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public List<String> getContents(byte[] data) {
+            return data.length > 0
+                    ? Collections.singletonList(new String(data, StandardCharsets.UTF_8))
+                    : Collections.emptyList();
+        }
+
+    }
+
+}
@@ -4,18 +4,28 @@ import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.mock.v1_15.ServerMock;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -92,4 +102,83 @@ public class CommandManagerTest {
         assertThat(commandMap.getCommand(ALIAS)).isNotNull().isEqualTo(pluginCommand);
     }
 
+    @Test
+    public void runStage() {
+        CommandSender sender = mock(CommandSender.class);
+        when(sender.getName()).thenReturn("CONSOLE");
+        AtomicReference<String> result = new AtomicReference<>();
+
+        assertThat(this.manager.runStage(sender, () -> {
+            assertThat(this.manager.getStageCount(sender)).isEqualTo(1);
+            return "resolved";
+        }, result::set)).isTrue();
+
+        assertThat(result.get()).isEqualTo("resolved");
+        assertThat(this.manager.getStageCount(sender)).isZero();
+    }
+
+    @Test
+    public void limitStagesPerSender() {
+        Player player = TestHelper.getPlayer();
+        CommandSender other = mock(CommandSender.class);
+        when(other.getName()).thenReturn("CONSOLE");
+        List<Boolean> scheduled = new ArrayList<>();
+
+        // Stages are run inline by the test scheduler, so nested stages are all in progress
+        this.manager.runStage(player, () -> {
+            scheduled.add(this.manager.runStage(player, () -> {
+                scheduled.add(this.manager.runStage(player, () -> null, value -> fail("too many stages")));
+                scheduled.add(this.manager.runStage(other, () -> null, value -> {
+                }));
+                return null;
+            }, value -> {
+            }));
+            return null;
+        }, value -> {
+        });
+
+        assertThat(scheduled).containsExactly(false, true, true);
+        assertThat(this.manager.getStageCount(player)).isZero();
+    }
+
+    @Test
+    public void cancelStagesOnQuit() {
+        Player player = TestHelper.getPlayer();
+        AtomicBoolean called = new AtomicBoolean();
+
+        this.manager.runStage(player, () -> {
+            this.manager.onPlayerQuit(new PlayerQuitEvent(player, "quit"));
+            return "resolved";
+        }, value -> called.set(true));
+
+        assertThat(called).isFalse();
+        assertThat(this.manager.getStageCount(player)).isZero();
+    }
+
+    @Test
+    public void failingStage() {
+        Player player = TestHelper.getPlayer();
+        AtomicBoolean called = new AtomicBoolean();
+
+        this.manager.runStage(player, () -> {
+            throw new IllegalStateException("lookup error");
+        }, value -> called.set(true));
+
+        assertThat(called).isFalse();
+        assertThat(this.manager.getStageCount(player)).isZero();
+    }
+
+    @Test
+    public void indexKnownNames() {
+        OfflinePlayer offlinePlayer = mock(OfflinePlayer.class);
+        when(offlinePlayer.getName()).thenReturn("OfflinePlayer");
+        when(Bukkit.getServer().getOfflinePlayers()).thenReturn(new OfflinePlayer[]{offlinePlayer});
+
+        this.manager.load();
+        assertThat(this.manager.getNameIndex().complete("offline", 10)).containsExactly("OfflinePlayer");
+
+        this.manager.onPlayerJoin(new PlayerJoinEvent(TestHelper.getPlayer(), "join"));
+        assertThat(this.manager.getNameIndex().complete("uta", 10)).containsExactly("Utarwyn");
+    }
+
 }
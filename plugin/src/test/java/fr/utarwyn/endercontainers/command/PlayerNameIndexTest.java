@@ -0,0 +1,57 @@
+package fr.utarwyn.endercontainers.command;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlayerNameIndexTest {
+
+    private PlayerNameIndex index;
+
+    @Before
+    public void setUp() {
+        this.index = new PlayerNameIndex();
+        this.index.addAll(Arrays.asList("Utarwyn", "utopia", "Notch", "jeb_", "", null));
+    }
+
+    @Test
+    public void add() {
+        assertThat(this.index.size()).isEqualTo(4);
+
+        // Same name with another case replaces the previous one
+        this.index.add("NOTCH");
+        assertThat(this.index.size()).isEqualTo(4);
+        assertThat(this.index.complete("no", 10)).containsExactly("NOTCH");
+    }
+
+    @Test
+    public void complete() {
+        assertThat(this.index.complete("ut", 10)).containsExactly("Utarwyn", "utopia");
+        assertThat(this.index.complete("UTA", 10)).containsExactly("Utarwyn");
+        assertThat(this.index.complete("", 10)).containsExactly("jeb_", "Notch", "Utarwyn", "utopia");
+        assertThat(this.index.complete("x", 10)).isEmpty();
+        assertThat(this.index.complete("utopias", 10)).isEmpty();
+    }
+
+    @Test
+    public void completeWithLimit() {
+        assertThat(this.index.complete("", 2)).containsExactly("jeb_", "Notch");
+        assertThat(this.index.complete("u", 0)).isEmpty();
+    }
+
+    @Test
+    public void completeManyNames() {
+        for (int i = 0; i < 200_000; i++) {
+            this.index.add("Player" + i);
+        }
+
+        assertThat(this.index.complete("player19999", 50))
+                .hasSize(11)
+                .allMatch(name -> name.startsWith("Player19999"));
+        assertThat(this.index.complete("player", 50)).hasSize(50);
+    }
+
+}
@@ -0,0 +1,99 @@
+package fr.utarwyn.endercontainers.command.backup;
+
+import fr.utarwyn.endercontainers.TestHelper;
+import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupManager;
+import fr.utarwyn.endercontainers.command.CommandManager;
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RestoreCommandTest {
+
+    @Mock
+    private BackupManager backupManager;
+
+    private Player player;
+
+    @Before
+    public void setUp() throws TestInitializationException {
+        TestHelper.setUpFiles();
+        CommandManager commandManager = new CommandManager();
+        TestHelper.setupManager(commandManager);
+        TestHelper.registerManagers(commandManager);
+        this.player = TestHelper.getPlayer();
+    }
+
+    @Test
+    public void create() {
+        RestoreCommand command = new RestoreCommand(this.backupManager);
+        assertThat(command.manager).isNotNull().isEqualTo(this.backupManager);
+        assertThat(command.getName()).isEqualTo("restore");
+    }
+
+    @Test
+    public void noPermission() {
+        RestoreCommand command = spy(new RestoreCommand(this.backupManager));
+        command.onCommand(this.player, command, null, new String[]{"noperm", "Utarwyn"});
+        verify(command, never()).perform(this.player);
+    }
+
+    @Test
+    public void unknownBackup() {
+        RestoreCommand command = new RestoreCommand(this.backupManager);
+
+        when(this.player.hasPermission("endercontainers.backup.restore")).thenReturn(true);
+        when(this.backupManager.getBackupByName("unknown")).thenReturn(Optional.empty());
+
+        command.onCommand(this.player, command, null, new String[]{"unknown", "Utarwyn"});
+        verify(this.player).sendMessage(contains("not found"));
+        verify(this.backupManager, never()).restorePlayerBackup(anyString(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void perform() {
+        ArgumentCaptor<Consumer<Boolean>> consumer = ArgumentCaptor.forClass(Consumer.class);
+        RestoreCommand command = new RestoreCommand(this.backupManager);
+
+        when(this.player.hasPermission("endercontainers.backup.restore")).thenReturn(true);
+        when(this.backupManager.getBackupByName("testbackup")).thenReturn(Optional.of(mock(Backup.class)));
+
+        // Perform the restoration of a player
+        command.onCommand(this.player, command, null, new String[]{"testbackup", "Utarwyn"});
+        verify(this.backupManager).restorePlayerBackup(eq("testbackup"),
+                eq(this.player.getUniqueId()), consumer.capture());
+
+        // Check message sent to the player after restoration
+        consumer.getValue().accept(true);
+        verify(this.player).sendMessage(contains("have been restored"));
+        consumer.getValue().accept(false);
+        verify(this.player).sendMessage(contains("No chest of"));
+    }
+
+    @Test
+    public void performSeveralPlayers() {
+        RestoreCommand command = new RestoreCommand(this.backupManager);
+
+        when(this.player.hasPermission("endercontainers.backup.restore")).thenReturn(true);
+        when(this.backupManager.getBackupByName("testbackup")).thenReturn(Optional.of(mock(Backup.class)));
+
+        // Names are resolved together, unknown players are reported one by one
+        command.onCommand(this.player, command, null, new String[]{"testbackup", "Utarwyn,Unknown,Utarwyn"});
+        verify(this.backupManager).restorePlayerBackup(eq("testbackup"), eq(this.player.getUniqueId()), any());
+        verify(this.player).sendMessage(contains("Unknown"));
+    }
+
+}
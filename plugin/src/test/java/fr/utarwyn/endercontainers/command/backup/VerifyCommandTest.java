@@ -0,0 +1,88 @@
+package fr.utarwyn.endercontainers.command.backup;
+
+import fr.utarwyn.endercontainers.TestHelper;
+import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupManager;
+import fr.utarwyn.endercontainers.backup.BackupVerification;
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class VerifyCommandTest {
+
+    @Mock
+    private BackupManager backupManager;
+
+    private Player player;
+
+    @Before
+    public void setUp() throws TestInitializationException {
+        TestHelper.setUpFiles();
+        this.player = TestHelper.getPlayer();
+    }
+
+    @Test
+    public void create() {
+        VerifyCommand command = new VerifyCommand(this.backupManager);
+        assertThat(command.manager).isNotNull().isEqualTo(this.backupManager);
+        assertThat(command.getName()).isEqualTo("verify");
+        assertThat(command.getAliases()).containsExactly("check");
+    }
+
+    @Test
+    public void noPermission() {
+        VerifyCommand command = spy(new VerifyCommand(this.backupManager));
+        command.onCommand(this.player, command, null, new String[]{"noperm"});
+        verify(command, never()).perform(this.player);
+    }
+
+    @Test
+    public void unknownBackup() {
+        VerifyCommand command = new VerifyCommand(this.backupManager);
+
+        when(this.player.hasPermission("endercontainers.backup.verify")).thenReturn(true);
+        when(this.backupManager.getBackupByName("unknown")).thenReturn(Optional.empty());
+
+        command.onCommand(this.player, command, null, new String[]{"unknown"});
+        verify(this.player).sendMessage(contains("not found"));
+        verify(this.backupManager, never()).verifyBackup(anyString(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void perform() {
+        ArgumentCaptor<Consumer<BackupVerification>> consumer = ArgumentCaptor.forClass(Consumer.class);
+        VerifyCommand command = new VerifyCommand(this.backupManager);
+
+        when(this.player.hasPermission("endercontainers.backup.verify")).thenReturn(true);
+        when(this.backupManager.getBackupByName("testbackup")).thenReturn(Optional.of(mock(Backup.class)));
+
+        // Perform the verification
+        command.onCommand(this.player, command, null, new String[]{"testbackup"});
+        verify(this.player).sendMessage(contains("Starting backup verification"));
+        verify(this.backupManager).verifyBackup(eq("testbackup"), consumer.capture());
+
+        // Check messages sent to the player after verification
+        consumer.getValue().accept(new BackupVerification("testbackup", true, 2, Collections.emptyList(), 10));
+        verify(this.player).sendMessage(contains("is valid"));
+        consumer.getValue().accept(new BackupVerification("testbackup", true, 2, Arrays.asList("a", "b"), 10));
+        verify(this.player).sendMessage(contains("a, b"));
+        consumer.getValue().accept(new BackupVerification("testbackup", false, 0, Collections.emptyList(), 10));
+        verify(this.player).sendMessage(contains("cannot be read"));
+    }
+
+}
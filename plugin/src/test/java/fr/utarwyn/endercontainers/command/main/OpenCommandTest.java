@@ -2,6 +2,7 @@ package fr.utarwyn.endercontainers.command.main;
 
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.command.CommandManager;
 import fr.utarwyn.endercontainers.command.CommandTestHelper;
 import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
 import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
@@ -14,6 +15,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Arrays;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -31,6 +33,8 @@ public class OpenCommandTest extends CommandTestHelper<OpenCommand> {
 
     private Player player;
 
+    private CommandManager commandManager;
+
     @BeforeClass
     public static void setUpClass() throws TestInitializationException {
         TestHelper.setUpFiles();
@@ -38,7 +42,9 @@ public class OpenCommandTest extends CommandTestHelper<OpenCommand> {
 
     @Before
     public void setUp() throws TestInitializationException {
-        TestHelper.registerManagers(this.manager);
+        this.commandManager = new CommandManager();
+        TestHelper.setupManager(this.commandManager);
+        TestHelper.registerManagers(this.manager, this.commandManager);
         this.player = TestHelper.getPlayer();
         this.command = new OpenCommand();
         this.permission = "endercontainers.openchests";
@@ -89,6 +95,11 @@ public class OpenCommandTest extends CommandTestHelper<OpenCommand> {
         assertThat(this.tabComplete(this.player, "")).containsExactly("Utarwyn");
         assertThat(this.tabComplete(this.player, "Uta")).containsExactly("Utarwyn");
         assertThat(this.tabComplete(this.player, "nyw")).isEmpty();
+
+        // Known offline players are proposed after online players
+        this.commandManager.getNameIndex().addAll(Arrays.asList("utarwyn", "Utopia", "Notch"));
+        assertThat(this.tabComplete(this.player, "ut")).containsExactly("Utarwyn", "Utopia");
+        assertThat(this.tabComplete(this.player, "no")).containsExactly("Notch");
     }
 
     @Test
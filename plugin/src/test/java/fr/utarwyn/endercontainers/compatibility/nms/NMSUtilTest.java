@@ -5,6 +5,10 @@ import fr.utarwyn.endercontainers.compatibility.ServerVersion;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
 import static fr.utarwyn.endercontainers.TestHelper.overrideServerVersion;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
@@ -36,4 +40,30 @@ public class NMSUtilTest {
         overrideServerVersion(defVersion);
     }
 
+    @Test
+    public void resolveHandle() throws Throwable {
+        MethodHandle handle = NMSUtil.resolve("test.toLowerCase", () -> NMSUtil.generic(
+                MethodHandles.lookup().findVirtual(String.class, "toLowerCase", MethodType.methodType(String.class))
+        ));
+
+        assertThat(handle.type()).isEqualTo(MethodType.methodType(Object.class, Object.class));
+        assertThat((Object) handle.invokeExact((Object) "TeSt")).isEqualTo("test");
+        assertThat(NMSUtil.getFailedHandles()).doesNotContainKey("test.toLowerCase");
+        NMSUtil.checkHandles("test");
+    }
+
+    @Test
+    public void resolveMissingHandle() {
+        assertThat(NMSUtil.resolve("missing.fake", () -> MethodHandles.lookup()
+                .findStatic(String.class, "fake", MethodType.methodType(void.class)))).isNull();
+        assertThat(NMSUtil.getFailedHandles()).containsKey("missing.fake");
+
+        try {
+            NMSUtil.checkHandles("missing");
+            fail("check of handles must fail");
+        } catch (ReflectiveOperationException e) {
+            assertThat(e.getMessage()).startsWith("cannot resolve missing.fake");
+        }
+    }
+
 }
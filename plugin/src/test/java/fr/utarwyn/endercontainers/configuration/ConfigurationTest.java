@@ -2,6 +2,7 @@ package fr.utarwyn.endercontainers.configuration;
 
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
+import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.junit.BeforeClass;
@@ -9,6 +10,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.EnumSet;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -29,13 +32,34 @@ public class ConfigurationTest {
         assertThat(config.isOnlyShowAccessibleEnderchests()).isFalse();
         assertThat(config.isUseVanillaEnderchest()).isTrue();
         assertThat(config.isNumberingEnderchests()).isTrue();
+        assertThat(config.getForbiddenMaterials()).isInstanceOf(EnumSet.class)
+                .containsOnly(Material.ANDESITE, Material.BEDROCK, Material.OAK_BOAT);
         assertThat(config.getMysqlSslKeystoreFile()).isNull();
         assertThat(config.getMysqlSslKeystorePassword()).isNull();
         assertThat(config.getMysqlSslTrustKeystoreFile()).isNull();
         assertThat(config.getMysqlSslTrustKeystorePassword()).isNull();
+        assertThat(config.isAutoBackups()).isFalse();
+        assertThat(config.getAutoBackupsInterval()).isEqualTo(60);
+        assertThat(config.getAutoBackupsKeepHourly()).isEqualTo(24);
+        assertThat(config.getAutoBackupsKeepDaily()).isEqualTo(7);
+        assertThat(config.getBackupsIoLimit()).isZero();
         assertThat(config.isSaveOnChestClose()).isFalse();
     }
 
+    @Test
+    public void loadInvalidBackupInterval() throws TestInitializationException {
+        FileConfiguration fileConfiguration = new YamlConfiguration();
+        fileConfiguration.setDefaults(TestHelper.getPlugin().getConfig());
+        fileConfiguration.set("backups.auto.interval", 0);
+
+        try {
+            new Configuration(fileConfiguration);
+            fail("configuration with a null backup interval must fail");
+        } catch (ConfigLoadingException e) {
+            assertThat(e.getMessage()).contains("backups.auto.interval");
+        }
+    }
+
     @Test
     public void loadDatabaseSSLValues() throws ConfigLoadingException, TestInitializationException {
         FileConfiguration fileConfiguration = new YamlConfiguration();
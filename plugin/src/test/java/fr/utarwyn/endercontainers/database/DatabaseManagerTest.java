@@ -2,7 +2,9 @@ package fr.utarwyn.endercontainers.database;
 
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.database.request.BatchRequest;
 import fr.utarwyn.endercontainers.database.request.DeleteRequest;
+import fr.utarwyn.endercontainers.database.request.Request;
 import fr.utarwyn.endercontainers.database.request.SavingRequest;
 import fr.utarwyn.endercontainers.database.request.SelectRequest;
 import org.junit.AfterClass;
@@ -54,6 +56,7 @@ public class DatabaseManagerTest {
         lenient().when(this.database.select(any())).thenCallRealMethod();
         lenient().when(this.database.update(anyString())).thenCallRealMethod();
         lenient().when(this.database.delete(any())).thenCallRealMethod();
+        lenient().when(this.database.batch(anyString())).thenCallRealMethod();
 
         // Force custom database
         Field field = this.databaseManager.getClass().getDeclaredField("database");
@@ -92,10 +95,10 @@ public class DatabaseManagerTest {
         UUID uuid = UUID.randomUUID();
         ArgumentCaptor<SavingRequest> request = ArgumentCaptor.forClass(SavingRequest.class);
 
-        this.databaseManager.saveEnderchest(true, uuid, 2, 6, "data");
+        this.databaseManager.saveEnderchest(true, uuid, 2, 6, "data", 7);
         verify(this.database).execUpdateStatement(request.capture());
         assertThat(request.getValue().getRequest()).startsWith("INSERT INTO");
-        assertThat(request.getValue().getAttributes()).hasSameElementsAs(Arrays.asList(2, uuid.toString(), 6, "data"));
+        assertThat(request.getValue().getAttributes()).hasSameElementsAs(Arrays.asList(2, uuid.toString(), 6, "data", 7));
     }
 
     @Test
@@ -103,10 +106,10 @@ public class DatabaseManagerTest {
         UUID uuid = UUID.randomUUID();
         ArgumentCaptor<SavingRequest> request = ArgumentCaptor.forClass(SavingRequest.class);
 
-        this.databaseManager.saveEnderchest(false, uuid, 3, 5, "data2");
+        this.databaseManager.saveEnderchest(false, uuid, 3, 5, "data2", 12);
         verify(this.database).execUpdateStatement(request.capture());
         assertThat(request.getValue().getRequest()).startsWith("UPDATE");
-        assertThat(request.getValue().getAttributes()).hasSameElementsAs(Arrays.asList(3, uuid.toString(), 5, "data2"));
+        assertThat(request.getValue().getAttributes()).hasSameElementsAs(Arrays.asList(3, uuid.toString(), 5, "data2", 12));
     }
 
     @Test
@@ -117,6 +120,26 @@ public class DatabaseManagerTest {
         assertThat(request.getValue().getRequest()).contains("enderchests");
     }
 
+    @Test
+    public void getEnderchestsAfter() throws SQLException {
+        ArgumentCaptor<SelectRequest> request = ArgumentCaptor.forClass(SelectRequest.class);
+        when(this.database.execQueryStatement(request.capture())).thenReturn(Collections.singletonList(new DatabaseSet()));
+        assertThat(this.databaseManager.getEnderchestsAfter(12, 100)).hasSize(1);
+        assertThat(request.getValue().getRequest()).contains("enderchests").endsWith("ORDER BY `id` LIMIT 100");
+        assertThat(request.getValue().getAttributes()).containsExactly(12);
+    }
+
+    @Test
+    public void getEnderchestSummariesOf() throws SQLException {
+        UUID uuid = UUID.randomUUID();
+        ArgumentCaptor<SelectRequest> request = ArgumentCaptor.forClass(SelectRequest.class);
+
+        when(this.database.execQueryStatement(request.capture())).thenReturn(Collections.singletonList(new DatabaseSet()));
+        assertThat(this.databaseManager.getEnderchestSummariesOf(uuid)).hasSize(1);
+        assertThat(request.getValue().getRequest()).contains("`filled`").doesNotContain("contents");
+        assertThat(request.getValue().getAttributes()).containsExactly(uuid.toString());
+    }
+
     @Test
     public void getEnderchestsOf() throws SQLException {
         UUID uuid = UUID.randomUUID();
@@ -129,10 +152,99 @@ public class DatabaseManagerTest {
 
     @Test
     public void replaceEnderchests() throws SQLException {
-        List<DatabaseSet> sets = Arrays.asList(new DatabaseSet(), new DatabaseSet());
-        this.databaseManager.replaceEnderchests(sets);
-        verify(this.database).execUpdateStatement(any(DeleteRequest.class));
-        verify(this.database, times(2)).execUpdateStatement(any(SavingRequest.class));
+        ArgumentCaptor<BatchRequest> request = ArgumentCaptor.forClass(BatchRequest.class);
+        DatabaseSet set = new DatabaseSet();
+        set.setObject("id", 1);
+        set.setObject("num", 2);
+        set.setObject("owner", "owner");
+        set.setObject("rows", 3);
+
+        when(this.database.execBatchStatement(request.capture())).thenReturn(2);
+        assertThat(this.databaseManager.replaceEnderchests(Arrays.asList(set, new DatabaseSet()).iterator())).isEqualTo(2);
+
+        assertThat(request.getValue().getRequest()).startsWith("INSERT INTO").contains("enderchests");
+        assertThat(request.getValue().getPreliminaries()).hasSize(1)
+                .first().isInstanceOf(DeleteRequest.class);
+        assertThat(request.getValue().getRows()).toIterable().containsExactly(
+                new Object[]{1, 2, "owner", 3, null},
+                new Object[]{null, null, null, null, null}
+        );
+        verify(this.database, never()).execUpdateStatement(any());
+    }
+
+    @Test
+    public void replaceEnderchestsOf() throws SQLException {
+        UUID uuid = UUID.randomUUID();
+        ArgumentCaptor<BatchRequest> request = ArgumentCaptor.forClass(BatchRequest.class);
+        DatabaseSet set = new DatabaseSet();
+        set.setObject("num", 2);
+        set.setObject("rows", 3);
+        set.setObject("contents", "data");
+
+        when(this.database.execBatchStatement(request.capture())).thenReturn(1);
+        assertThat(this.databaseManager.replaceEnderchestsOf(uuid, Collections.singletonList(set).iterator())).isEqualTo(1);
+
+        assertThat(request.getValue().getPreliminaries()).hasSize(1)
+                .first().isInstanceOf(DeleteRequest.class)
+                .extracting(Request::getAttributes).isEqualTo(new Object[]{uuid.toString()});
+        assertThat(request.getValue().getRows()).toIterable().containsExactly(
+                new Object[]{2, uuid.toString(), 3, "data"}
+        );
+    }
+
+    @Test
+    public void saveBackup() throws SQLException {
+        ArgumentCaptor<BatchRequest> request = ArgumentCaptor.forClass(BatchRequest.class);
+        DatabaseSet set = new DatabaseSet();
+        set.setObject("num", 1);
+        set.setObject("owner", "owner");
+        set.setObject("rows", 6);
+        set.setObject("checksum", 42L);
+
+        when(this.database.execBatchStatement(request.capture())).thenReturn(1);
+        assertThat(this.databaseManager.saveBackup("name", 0L, "Utarwyn",
+                Collections.singletonList(set).iterator())).isEqualTo(1);
+
+        // Backup and its chests are saved in the same transaction
+        assertThat(request.getValue().getRequest()).contains("backup_chests");
+        assertThat(request.getValue().getPreliminaries()).hasSize(1);
+        assertThat(request.getValue().getPreliminaries().get(0).getRequest()).startsWith("INSERT INTO `backups`");
+        assertThat(request.getValue().getPreliminaries().get(0).getAttributes())
+                .containsExactly("name", new Timestamp(0L), "Utarwyn");
+        assertThat(request.getValue().getRows()).toIterable().containsExactly(
+                new Object[]{"name", 1, "owner", 6, null, 42L}
+        );
+    }
+
+    @Test
+    public void getBackupEnderchestsOf() throws SQLException {
+        UUID uuid = UUID.randomUUID();
+        ArgumentCaptor<SelectRequest> request = ArgumentCaptor.forClass(SelectRequest.class);
+
+        when(this.database.execQueryStatement(request.capture())).thenReturn(Collections.singletonList(new DatabaseSet()));
+        assertThat(this.databaseManager.getBackupEnderchestsOf("name", uuid)).hasSize(1);
+        assertThat(request.getValue().getRequest()).contains("backup_chests");
+        assertThat(request.getValue().getAttributes()).containsExactly("name", uuid.toString());
+    }
+
+    @Test
+    public void getBackupEnderchests() throws SQLException {
+        ArgumentCaptor<SelectRequest> request = ArgumentCaptor.forClass(SelectRequest.class);
+
+        when(this.database.execQueryStatement(request.capture())).thenReturn(Collections.singletonList(new DatabaseSet()));
+        assertThat(this.databaseManager.getBackupEnderchests("name")).hasSize(1);
+        assertThat(request.getValue().getRequest()).contains("backup_chests");
+        assertThat(request.getValue().getAttributes()).containsExactly("name");
+    }
+
+    @Test
+    public void getBackupEnderchestsAfter() throws SQLException {
+        ArgumentCaptor<SelectRequest> request = ArgumentCaptor.forClass(SelectRequest.class);
+
+        when(this.database.execQueryStatement(request.capture())).thenReturn(Collections.singletonList(new DatabaseSet()));
+        assertThat(this.databaseManager.getBackupEnderchestsAfter("name", 12, 100)).hasSize(1);
+        assertThat(request.getValue().getRequest()).contains("backup_chests").endsWith("ORDER BY `id` LIMIT 100");
+        assertThat(request.getValue().getAttributes()).containsExactly("name", 12);
     }
 
     @Test
@@ -152,29 +264,26 @@ public class DatabaseManagerTest {
         assertThat(request.getValue().getAttributes()).hasSameElementsAs(Collections.singletonList("name"));
     }
 
-    @Test
-    public void saveBackup() throws SQLException {
-        ArgumentCaptor<SavingRequest> request = ArgumentCaptor.forClass(SavingRequest.class);
-
-        this.databaseManager.saveBackup("name", 0L, "data", "Utarwyn");
-        verify(this.database).execUpdateStatement(request.capture());
-        assertThat(request.getValue().getRequest()).startsWith("INSERT INTO");
-        assertThat(request.getValue().getAttributes()).hasSameElementsAs(Arrays.asList("name", new Timestamp(0L), "data", "Utarwyn"));
-    }
-
     @Test
     public void removeExisitingBackup() throws SQLException {
-        ArgumentCaptor<DeleteRequest> request = ArgumentCaptor.forClass(DeleteRequest.class);
+        ArgumentCaptor<Request> request = ArgumentCaptor.forClass(Request.class);
 
         DatabaseSet set = new DatabaseSet();
         set.setObject("id", 2);
 
         when(this.database.execQueryStatement(any(SelectRequest.class)))
                 .thenReturn(Collections.singletonList(set));
-        when(this.database.execUpdateStatement(request.capture())).thenReturn(true);
 
+        // Backup and its chests are removed in the same transaction
         assertThat(this.databaseManager.removeBackup("name")).isTrue();
-        assertThat(request.getValue().getAttributes()).hasSameElementsAs(Collections.singletonList(2));
+        verify(this.database).transaction(request.capture());
+        verify(this.database, never()).execBatchStatement(any());
+
+        List<Request> deletions = request.getAllValues();
+        assertThat(deletions).hasSize(2);
+        assertThat(deletions.get(0).getRequest()).contains("backup_chests");
+        assertThat(deletions.get(0).getAttributes()).containsExactly("name");
+        assertThat(deletions.get(1).getAttributes()).containsExactly(2);
     }
 
     @Test
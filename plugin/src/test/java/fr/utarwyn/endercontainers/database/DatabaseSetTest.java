@@ -56,6 +56,22 @@ public class DatabaseSetTest {
         assertThat(this.set.getInteger(KEY_UNKNOWN)).isNull();
     }
 
+    @Test
+    public void getLong() {
+        // Correct value types
+        this.set.setObject(KEY, 4294967295L);
+        assertThat(this.set.getLong(KEY)).isNotNull().isEqualTo(4294967295L);
+        this.set.setObject(KEY, 55);
+        assertThat(this.set.getLong(KEY)).isNotNull().isEqualTo(55L);
+
+        // Unvalid value type
+        this.set.setObject(KEY, "test");
+        assertThat(this.set.getLong(KEY)).isNull();
+
+        // Unknown key
+        assertThat(this.set.getLong(KEY_UNKNOWN)).isNull();
+    }
+
     @Test
     public void getTimestamp() {
         // Correct value type
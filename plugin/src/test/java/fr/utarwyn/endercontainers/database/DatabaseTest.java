@@ -1,9 +1,11 @@
 package fr.utarwyn.endercontainers.database;
 
+import com.google.common.collect.Iterators;
 import com.zaxxer.hikari.HikariDataSource;
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.database.adapter.MySQLAdapter;
+import fr.utarwyn.endercontainers.database.request.BatchRequest;
 import fr.utarwyn.endercontainers.database.request.DeleteRequest;
 import fr.utarwyn.endercontainers.database.request.SavingRequest;
 import fr.utarwyn.endercontainers.database.request.SelectRequest;
@@ -16,9 +18,12 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.sql.*;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -116,6 +121,22 @@ public class DatabaseTest {
         assertThat(this.database.getTables()).containsExactlyInAnyOrder("table1", "table2");
     }
 
+    @Test
+    public void getColumns() throws SQLException {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(resultSet.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+        when(resultSet.getString(4)).thenReturn("num").thenReturn("filled");
+
+        when(metaData.getColumns(null, null, "table1", "%")).thenReturn(resultSet);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(this.database.source.getConnection()).thenReturn(connection);
+
+        assertThat(this.database.getColumns("table1")).containsExactlyInAnyOrder("num", "filled");
+    }
+
     @Test
     public void performSelect() throws SQLException {
         PreparedStatement statement = this.createFakeStatement();
@@ -156,6 +177,104 @@ public class DatabaseTest {
         verify(statement, times(1)).executeUpdate();
     }
 
+    @Test
+    public void performBatch() throws SQLException {
+        PreparedStatement statement = this.createFakeStatement();
+        Connection connection = this.database.source.getConnection();
+
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        BatchRequest request = this.database.batch("table1")
+                .before(this.database.delete().from("table1"))
+                .fields("field1", "field2")
+                .rows(Arrays.asList(new Object[]{1, "a"}, new Object[]{2, "b"}, new Object[]{3, "c"}).iterator())
+                .batchSize(2);
+        assertThat(request.execute()).isEqualTo(3);
+
+        verify(statement).executeUpdate();
+        verify(statement, times(3)).addBatch();
+        verify(statement, times(2)).executeBatch();
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+        verify(connection).setAutoCommit(true);
+    }
+
+    @Test
+    public void performBatchWithoutRows() throws SQLException {
+        PreparedStatement statement = this.createFakeStatement();
+        Connection connection = this.database.source.getConnection();
+
+        BatchRequest request = this.database.batch("table1")
+                .before(this.database.delete().from("table1"))
+                .before(this.database.delete().from("table2"));
+        assertThat(request.execute()).isZero();
+
+        // Only preliminary requests are executed, in one transaction
+        verify(connection, times(2)).prepareStatement(anyString());
+        verify(statement, times(2)).executeUpdate();
+        verify(statement, never()).executeBatch();
+        verify(connection).commit();
+    }
+
+    @Test
+    public void performBatchWithError() throws SQLException {
+        PreparedStatement statement = this.createFakeStatement();
+        Connection connection = this.database.source.getConnection();
+
+        when(statement.executeBatch()).thenThrow(SQLException.class);
+
+        BatchRequest request = this.database.batch("table1")
+                .fields("field")
+                .rows(Collections.singletonList(new Object[]{"test"}).iterator());
+        assertThatExceptionOfType(SQLException.class).isThrownBy(request::execute);
+
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    public void performBatchWithPageError() throws SQLException {
+        this.createFakeStatement();
+        Connection connection = this.database.source.getConnection();
+        SQLException cause = new SQLException("page");
+
+        BatchRequest request = this.database.batch("table1")
+                .fields("field")
+                .rows(Iterators.transform(new PagedIterator((lastId, length) -> {
+                    throw cause;
+                }, 10), set -> new Object[]{set}));
+
+        // The cause of a page which cannot be read is thrown after a rollback
+        assertThatThrownBy(request::execute).isSameAs(cause);
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    public void performTransaction() throws SQLException {
+        PreparedStatement statement = this.createFakeStatement();
+        Connection connection = this.database.source.getConnection();
+
+        this.database.transaction(
+                this.database.delete("`id` = ?").from("table1").attributes(1),
+                this.database.delete().from("table2")
+        );
+
+        verify(connection, times(2)).prepareStatement(anyString());
+        verify(statement).setObject(1, 1);
+        verify(statement, times(2)).executeUpdate();
+        verify(connection).commit();
+
+        // Nothing is kept if one of the requests fails
+        when(statement.executeUpdate()).thenReturn(1).thenThrow(SQLException.class);
+        assertThatExceptionOfType(SQLException.class).isThrownBy(() -> this.database.transaction(
+                this.database.delete().from("table1"),
+                this.database.delete().from("table2")
+        ));
+        verify(connection).rollback();
+        verify(connection).commit();
+    }
+
     @Test
     public void performCustomRequest() throws SQLException {
         Statement statement = mock(Statement.class);
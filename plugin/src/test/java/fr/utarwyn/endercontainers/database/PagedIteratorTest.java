@@ -0,0 +1,65 @@
+package fr.utarwyn.endercontainers.database;
+
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PagedIteratorTest {
+
+    private static DatabaseSet generateSet(int id) {
+        DatabaseSet set = new DatabaseSet();
+        set.setObject("id", id);
+        return set;
+    }
+
+    @Test
+    public void readByPages() {
+        List<Integer> requested = new ArrayList<>();
+        PagedIterator iterator = new PagedIterator((lastId, length) -> {
+            requested.add(lastId);
+            switch (lastId) {
+                case 0:
+                    return Arrays.asList(generateSet(2), generateSet(5));
+                case 5:
+                    return Collections.singletonList(generateSet(7));
+                default:
+                    return Collections.emptyList();
+            }
+        }, 2);
+
+        // Pages are only read once the previous one has been consumed
+        assertThat(iterator.next().getInteger("id")).isEqualTo(2);
+        assertThat(requested).containsExactly(0);
+        assertThat(iterator).toIterable().extracting(set -> set.getInteger("id")).containsExactly(5, 7);
+
+        // The last page is not full, so there is nothing to read after
+        assertThat(requested).containsExactly(0, 5);
+        assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(iterator::next);
+    }
+
+    @Test
+    public void readEmptyTable() {
+        assertThat(new PagedIterator((lastId, length) -> Collections.emptyList(), 10)).isExhausted();
+        assertThatIllegalArgumentException().isThrownBy(() -> new PagedIterator((lastId, length) -> null, 0));
+    }
+
+    @Test
+    public void readWithError() {
+        SQLException cause = new SQLException("page");
+        PagedIterator iterator = new PagedIterator((lastId, length) -> {
+            throw cause;
+        }, 10);
+
+        assertThatExceptionOfType(PagedIterator.ReadException.class)
+                .isThrownBy(iterator::hasNext)
+                .withCause(cause);
+    }
+
+}
@@ -52,7 +52,8 @@ public class MySQLAdapterTest {
         assertThat(config.getPassword()).isEqualTo("password");
         assertThat(config.getDataSourceProperties())
                 .containsEntry("useSSL", "false")
-                .containsEntry("encoding", "UTF-8");
+                .containsEntry("encoding", "UTF-8")
+                .containsEntry("rewriteBatchedStatements", "true");
     }
 
 }
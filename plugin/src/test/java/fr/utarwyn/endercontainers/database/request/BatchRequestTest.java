@@ -0,0 +1,75 @@
+package fr.utarwyn.endercontainers.database.request;
+
+import fr.utarwyn.endercontainers.database.Database;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchRequestTest {
+
+    @Test
+    public void fields() {
+        BatchRequest request = new BatchRequest(null, "test").fields("num", "key", "8569yrte_");
+
+        assertThat(request.getRequest())
+                .isEqualTo("INSERT INTO `test`(`num`,`key`,`8569yrte_`) VALUES (?,?,?)");
+        assertThat(request.getAttributes()).isEmpty();
+    }
+
+    @Test
+    public void preliminaries() {
+        DeleteRequest delete = new DeleteRequest(null).from("test");
+        BatchRequest request = new BatchRequest(null, "test").before(delete);
+
+        assertThat(request.getPreliminaries()).containsExactly(delete);
+    }
+
+    @Test
+    public void rows() {
+        Object[] row = new Object[]{1, "value"};
+        BatchRequest request = new BatchRequest(null, "test");
+
+        assertThat(request.getRows()).isExhausted();
+        request.rows(Collections.singletonList(row).iterator());
+        assertThat(request.getRows()).toIterable().containsExactly(row);
+    }
+
+    @Test
+    public void batchSize() {
+        BatchRequest request = new BatchRequest(null, "test");
+
+        assertThat(request.getBatchSize()).isEqualTo(BatchRequest.DEFAULT_BATCH_SIZE);
+        assertThat(request.batchSize(50).getBatchSize()).isEqualTo(50);
+        assertThatIllegalArgumentException().isThrownBy(() -> request.batchSize(0))
+                .withMessage("Batch size must be positive");
+    }
+
+    @Test
+    public void execute() throws SQLException {
+        Database database = mock(Database.class);
+        BatchRequest request = new BatchRequest(database, "test").fields("field");
+
+        when(database.execBatchStatement(request)).thenReturn(3);
+        assertThat(request.execute()).isEqualTo(3);
+    }
+
+    @Test
+    public void illegalParameters() {
+        BatchRequest request1 = new BatchRequest(null, null);
+        BatchRequest request2 = new BatchRequest(null, "test");
+
+        assertThatNullPointerException().isThrownBy(request1::getRequest)
+                .withMessage("Table seems to be null")
+                .withNoCause();
+
+        assertThatIllegalArgumentException().isThrownBy(request2::getRequest)
+                .withMessage("You must add at least one field")
+                .withNoCause();
+    }
+
+}
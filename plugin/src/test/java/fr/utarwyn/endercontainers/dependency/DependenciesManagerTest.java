@@ -7,6 +7,7 @@ import fr.utarwyn.endercontainers.dependency.exceptions.BlockChestOpeningExcepti
 import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.PluginManager;
@@ -19,8 +20,10 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -83,6 +86,54 @@ public class DependenciesManagerTest {
         verify(dep2, times(1)).validateBlockChestOpening(block, player);
     }
 
+    @Test
+    public void validateBlockChestOpeningCached() throws BlockChestOpeningException {
+        Dependency dependency = mock(Dependency.class);
+        Block block = mock(Block.class);
+        Block otherBlock = mock(Block.class);
+        Player player = mock(Player.class);
+
+        when(otherBlock.getX()).thenReturn(10);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+
+        this.registerFakeDependencies(dependency);
+
+        // Same player and block: dependencies are checked once
+        this.manager.validateBlockChestOpening(block, player);
+        this.manager.validateBlockChestOpening(block, player);
+        verify(dependency, times(1)).validateBlockChestOpening(block, player);
+
+        // Another block is checked on its own
+        this.manager.validateBlockChestOpening(otherBlock, player);
+        verify(dependency, times(1)).validateBlockChestOpening(otherBlock, player);
+
+        // Changes of protections force a new check
+        this.manager.invalidateValidations();
+        this.manager.validateBlockChestOpening(block, player);
+        verify(dependency, times(2)).validateBlockChestOpening(block, player);
+
+        // Forget validations of a player who leaves the server
+        this.manager.onPlayerQuit(new PlayerQuitEvent(player, "quit"));
+        assertThat(this.manager.validations).isEmpty();
+    }
+
+    @Test
+    public void validateBlockChestOpeningCachedError() throws BlockChestOpeningException {
+        Dependency dependency = mock(Dependency.class);
+        Block block = mock(Block.class);
+        Player player = mock(Player.class);
+        BlockChestOpeningException exception = new BlockChestOpeningException();
+
+        doThrow(exception).when(dependency).validateBlockChestOpening(block, player);
+        this.registerFakeDependencies(dependency);
+
+        // The denial is reused
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> this.manager.validateBlockChestOpening(block, player)).isSameAs(exception);
+        }
+        verify(dependency, times(1)).validateBlockChestOpening(block, player);
+    }
+
     @Test
     public void blockChestOpeningException() {
         Map<String, String> parameters = Collections.singletonMap("faction", "test");
@@ -6,6 +6,7 @@ import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class DependencyTest {
 
@@ -22,4 +23,17 @@ public class DependencyTest {
         dependency.onDisable();
     }
 
+    @Test
+    public void notifyStateChange() {
+        Dependency dependency = new DependencyMock(mock(Plugin.class));
+        Runnable handler = mock(Runnable.class);
+
+        // Without handler, nothing happens
+        dependency.notifyStateChange();
+
+        dependency.setStateChangeHandler(handler);
+        dependency.notifyStateChange();
+        verify(handler).run();
+    }
+
 }
@@ -0,0 +1,134 @@
+package fr.utarwyn.endercontainers.enderchest;
+
+import fr.utarwyn.endercontainers.TestHelper;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ChestContentsTest {
+
+    private ChestContents contents;
+
+    private ItemStack stone;
+
+    private ItemStack dirt;
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestHelper.setUpServer();
+    }
+
+    @Before
+    public void setUp() {
+        this.contents = new ChestContents();
+        this.stone = new ItemStack(Material.STONE, 3);
+        this.dirt = new ItemStack(Material.DIRT, 12);
+    }
+
+    @Test
+    public void empty() {
+        assertThat(this.contents).isEmpty();
+        assertThat(this.contents.getSlots()).isEmpty();
+        assertThat(this.contents.get(0)).isNull();
+        assertThat(this.contents.get("0")).isNull();
+    }
+
+    @Test
+    public void putAndRemove() {
+        assertThat(this.contents.put(4, this.stone)).isNull();
+        assertThat(this.contents.put(4, this.dirt)).isEqualTo(this.stone);
+        assertThat(this.contents.putIfAbsent(4, this.stone)).isEqualTo(this.dirt);
+        assertThat(this.contents.putIfAbsent(60, this.stone)).isNull();
+
+        assertThat(this.contents).hasSize(2).containsOnly(entry(4, this.dirt), entry(60, this.stone));
+        assertThat(this.contents.getSlots()).hasSize(61);
+
+        assertThat(this.contents.remove(4)).isEqualTo(this.dirt);
+        assertThat(this.contents.remove(5)).isNull();
+        assertThat(this.contents.remove(60, this.dirt)).isFalse();
+        assertThat(this.contents.replace(60, this.stone, this.dirt)).isTrue();
+        assertThat(this.contents).containsOnly(entry(60, this.dirt));
+
+        this.contents.clear();
+        assertThat(this.contents).isEmpty();
+    }
+
+    @Test
+    public void snapshotsAreNotModified() {
+        this.contents.put(1, this.stone);
+        ItemStack[] snapshot = this.contents.getSlots();
+
+        this.contents.put(2, this.dirt);
+        this.contents.remove(1);
+
+        assertThat(snapshot[1]).isEqualTo(this.stone);
+        assertThat(snapshot[2]).isNull();
+        assertThat(this.contents.getSlots()).isNotSameAs(snapshot);
+    }
+
+    @Test
+    public void update() {
+        this.contents.put(1, this.stone);
+        this.contents.update(27, slots -> {
+            slots[1] = null;
+            slots[26] = this.dirt;
+        });
+
+        assertThat(this.contents).containsOnly(entry(26, this.dirt));
+    }
+
+    @Test
+    public void filledSlotsCount() {
+        ItemStack[] slots = new ItemStack[27];
+        slots[2] = this.stone;
+        slots[5] = this.dirt;
+        this.contents = new ChestContents(slots);
+        assertThat(this.contents.size()).isEqualTo(2);
+
+        // The count follows each write
+        this.contents.put(5, this.stone);
+        this.contents.put(8, this.dirt);
+        assertThat(this.contents.size()).isEqualTo(3);
+        this.contents.remove(2);
+        this.contents.remove(3);
+        assertThat(this.contents.size()).isEqualTo(2);
+        this.contents.update(27, copy -> {
+            copy[5] = null;
+            copy[8] = null;
+            copy[20] = this.stone;
+        });
+        assertThat(this.contents.size()).isEqualTo(1);
+        this.contents.clear();
+        assertThat(this.contents.size()).isZero();
+    }
+
+    @Test
+    public void mapAdapter() {
+        Map<Integer, ItemStack> map = new ConcurrentHashMap<>();
+        map.put(3, this.stone);
+        map.put(20, this.dirt);
+
+        ChestContents converted = ChestContents.of(map);
+        assertThat(converted).isEqualTo(map);
+        assertThat(ChestContents.of(converted)).isSameAs(converted);
+        assertThat(ChestContents.toSlots(map)).hasSize(21);
+
+        // Entries can be removed while iterating
+        Iterator<Map.Entry<Integer, ItemStack>> iterator = converted.entrySet().iterator();
+        assertThat(iterator.next()).isEqualTo(entry(3, this.stone));
+        iterator.remove();
+        assertThat(iterator.next()).isEqualTo(entry(20, this.dirt));
+        assertThat(iterator.hasNext()).isFalse();
+        assertThat(converted).containsOnlyKeys(20);
+    }
+
+}
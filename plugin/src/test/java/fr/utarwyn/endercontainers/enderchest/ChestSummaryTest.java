@@ -0,0 +1,81 @@
+package fr.utarwyn.endercontainers.enderchest;
+
+import fr.utarwyn.endercontainers.TestHelper;
+import fr.utarwyn.endercontainers.TestInitializationException;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class ChestSummaryTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+
+    @BeforeClass
+    public static void setUpClass() throws TestInitializationException {
+        TestHelper.setUpServer();
+        TestHelper.setUpFiles();
+    }
+
+    @Test
+    public void create() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ChestSummary(OWNER, new int[2], new int[1]));
+
+        ChestSummary summary = new ChestSummary(OWNER, new int[]{4, 6}, new int[]{0, 54});
+        assertThat(summary.getOwner()).isEqualTo(OWNER);
+        assertThat(summary.getChestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void of() {
+        ConcurrentHashMap<Integer, ItemStack> contents = new ConcurrentHashMap<>();
+        contents.put(3, new ItemStack(Material.DIRT));
+        contents.put(8, new ItemStack(Material.STONE));
+
+        ChestSummary summary = ChestSummary.of(OWNER, Arrays.asList(
+                new EnderChestSnapshot(OWNER, 0, 2, contents),
+                new EnderChestSnapshot(OWNER, 3, 6, new ConcurrentHashMap<>())
+        ));
+
+        assertThat(summary.getChestCount()).isEqualTo(4);
+        assertThat(summary.getRows(0)).isEqualTo(2);
+        assertThat(summary.getFilledSlots(0)).isEqualTo(2);
+        assertThat(summary.getRows(3)).isEqualTo(6);
+        assertThat(summary.getFilledSlots(3)).isZero();
+
+        // Chests without data have default rows
+        assertThat(summary.getRows(1)).isEqualTo(3);
+        assertThat(summary.getFilledSlots(1)).isZero();
+    }
+
+    @Test
+    public void fillState() {
+        ChestSummary summary = new ChestSummary(OWNER, new int[]{1, 2, 3}, new int[]{0, 9, 27});
+
+        assertThat(summary.getMaxSize(1)).isEqualTo(18);
+        assertThat(summary.getFillPercentage(1)).isEqualTo(0.5);
+
+        assertThat(summary.isEmpty(0)).isTrue();
+        assertThat(summary.isFull(0)).isFalse();
+        assertThat(summary.isEmpty(2)).isFalse();
+        assertThat(summary.isFull(2)).isTrue();
+
+        // Unknown chests are empty
+        assertThat(summary.isEmpty(10)).isTrue();
+        assertThat(summary.getMaxSize(-1)).isEqualTo(27);
+    }
+
+    @Test
+    public void accessibleChestCountOfOfflineOwner() {
+        ChestSummary summary = new ChestSummary(OWNER, new int[0], new int[0]);
+        assertThat(summary.getAccessibleChestCount()).isEqualTo(27);
+    }
+
+}
@@ -4,26 +4,37 @@ import fr.utarwyn.endercontainers.EnderContainers;
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.dependency.DependenciesManager;
-import fr.utarwyn.endercontainers.enderchest.context.LoadTask;
+import fr.utarwyn.endercontainers.enderchest.context.LoadMetrics;
 import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
-import fr.utarwyn.endercontainers.enderchest.context.SaveTask;
 import fr.utarwyn.endercontainers.enderchest.listener.EnderChestListener;
 import fr.utarwyn.endercontainers.inventory.InventoryManager;
 import fr.utarwyn.endercontainers.storage.StorageManager;
 import fr.utarwyn.endercontainers.storage.player.PlayerData;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -63,24 +74,80 @@ public class EnderChestManagerTest {
         InventoryManager inventoryManager = mock(InventoryManager.class);
         PlayerContext context = mock(PlayerContext.class);
 
+        List<Thread> savingThreads = new CopyOnWriteArrayList<>();
+        UUID owner = UUID.randomUUID();
+
         TestHelper.registerManagers(inventoryManager);
         TestHelper.setupManager(this.manager);
 
-        this.manager.contextMap.put(UUID.randomUUID(), context);
+        doAnswer(answer -> savingThreads.add(Thread.currentThread())).when(context).save();
+        this.manager.contextMap.put(owner, context);
 
         this.manager.unload();
 
+        // Contexts are saved on other threads, but are done once unloaded
         verify(context).save();
+        assertThat(savingThreads).doesNotContain(Thread.currentThread());
+        assertThat(this.manager.sequencer.hasPendingTasks(owner)).isFalse();
         verify(inventoryManager).closeAll();
         assertThat(this.manager.contextMap).isEmpty();
     }
 
+    @Test
+    public void snapshotContexts() throws TestInitializationException {
+        InventoryManager inventoryManager = mock(InventoryManager.class);
+        UUID owner = UUID.randomUUID();
+        PlayerContext context = this.registerPlayerContext(owner);
+        List<EnderChestSnapshot> snapshots = Collections.singletonList(mock(EnderChestSnapshot.class));
+
+        TestHelper.registerManagers(inventoryManager);
+        TestHelper.setupManager(this.manager);
+
+        when(context.snapshot()).thenReturn(snapshots);
+
+        assertThat(this.manager.snapshotContexts()).containsOnly(entry(owner, snapshots));
+
+        // Contexts are kept in memory, without closing any inventory
+        verify(context, never()).save();
+        verify(inventoryManager, never()).closeAll();
+        assertThat(this.manager.contextMap).hasSize(1);
+    }
+
     @Test
     public void getMaxEnderchests() {
         // Max amount of enderchests defined in the test config file
         assertThat(this.manager.getMaxEnderchests()).isEqualTo(27);
     }
 
+    @Test
+    public void getVanillaEnderchestUsedBy() throws TestInitializationException {
+        Player viewer = mock(Player.class);
+        VanillaEnderChest chest = mock(VanillaEnderChest.class);
+        when(viewer.getUniqueId()).thenReturn(UUID.randomUUID());
+
+        assertThat(this.manager.getVanillaEnderchestUsedBy(viewer)).isEmpty();
+
+        // Enderchest opened through the plugin
+        this.manager.registerVanillaViewer(viewer, chest);
+        assertThat(this.manager.getVanillaEnderchestUsedBy(viewer)).contains(chest);
+
+        this.manager.unregisterVanillaViewer(viewer);
+        assertThat(this.manager.getVanillaEnderchestUsedBy(viewer)).isEmpty();
+
+        // Own enderchest opened without the plugin
+        PlayerContext context = this.registerPlayerContext(viewer.getUniqueId());
+        when(context.getChest(0)).thenReturn(Optional.of(chest));
+        assertThat(this.manager.getVanillaEnderchestUsedBy(viewer)).isEmpty();
+
+        when(chest.isUsedBy(viewer)).thenReturn(true);
+        assertThat(this.manager.getVanillaEnderchestUsedBy(viewer)).contains(chest);
+
+        // Disabled vanilla enderchest
+        TestHelper.overrideConfigurationValue("useVanillaEnderchest", false);
+        assertThat(this.manager.getVanillaEnderchestUsedBy(viewer)).isEmpty();
+        TestHelper.overrideConfigurationValue("useVanillaEnderchest", true);
+    }
+
     @Test
     public void isContextUnused() throws TestInitializationException {
         UUID uuid = UUID.randomUUID();
@@ -98,6 +165,21 @@ public class EnderChestManagerTest {
         assertThat(this.manager.isContextUnused(uuid)).isTrue();
     }
 
+    @Test
+    public void invalidatePermissionProfile() throws TestInitializationException {
+        UUID uuid = UUID.randomUUID();
+
+        TestHelper.setupManager(this.manager);
+
+        // Unknown context
+        this.manager.invalidatePermissionProfile(uuid);
+
+        // Loaded context
+        PlayerContext context = this.registerPlayerContext(uuid);
+        this.manager.invalidatePermissionProfile(uuid);
+        verify(context).invalidatePermissionProfile();
+    }
+
     @Test
     public void loadPlayerContext() throws TestInitializationException {
         // Setup the manager correctly
@@ -109,6 +191,7 @@ public class EnderChestManagerTest {
 
         TestHelper.registerManagers(manager);
         TestHelper.setupManager(this.manager);
+        clearInvocations(Bukkit.getServer().getScheduler());
 
         Player player = TestHelper.getPlayer();
 
@@ -122,7 +205,8 @@ public class EnderChestManagerTest {
 
         // Verify that the scheduler has been called only once (in the first scenario)
         verify(Bukkit.getServer().getScheduler())
-                .runTaskAsynchronously(any(), any(LoadTask.class));
+                .runTaskAsynchronously(any(), any(Runnable.class));
+        assertThat(this.manager.sequencer.hasPendingTasks(player.getUniqueId())).isFalse();
     }
 
     @Test
@@ -132,7 +216,7 @@ public class EnderChestManagerTest {
         TestHelper.setupManager(this.manager);
 
         // Check before state
-        this.manager.loadingContexts.add(uuid);
+        this.manager.loadingContexts.put(uuid, new CompletableFuture<>());
         assertThat(this.manager.contextMap).isEmpty();
 
         this.registerPlayerContext(uuid);
@@ -147,16 +231,62 @@ public class EnderChestManagerTest {
         UUID uuid = UUID.randomUUID();
         PlayerContext playerContext = mock(PlayerContext.class);
         Consumer<PlayerContext> consumer = mock(Consumer.class);
+        CompletableFuture<PlayerContext> loading = new CompletableFuture<>();
 
         TestHelper.setupManager(this.manager);
+        clearInvocations(Bukkit.getServer().getScheduler());
 
-        this.manager.contextMap.put(uuid, playerContext);
-        this.manager.loadingContexts.add(uuid);
+        this.manager.loadingContexts.put(uuid, loading);
         this.manager.loadPlayerContext(uuid, consumer);
+        assertThat(this.manager.loadPlayerContext(uuid)).isSameAs(loading);
+        this.manager.loadPlayerContext(uuid, consumer);
+
+        // Consumers wait for the loading in progress
+        verify(consumer, never()).accept(any());
+
+        // Every request is completed by the same loading
+        loading.complete(playerContext);
+        verify(consumer, times(2)).accept(playerContext);
+        verify(Bukkit.getServer().getScheduler(), never()).runTaskAsynchronously(any(), any(Runnable.class));
+    }
+
+    @Test
+    public void loadPlayerContextTimeout() throws TestInitializationException {
+        BukkitScheduler scheduler = Bukkit.getServer().getScheduler();
+        LoadMetrics metrics = mock(LoadMetrics.class);
+        UUID uuid = UUID.randomUUID();
 
-        // Consumer should be never called due to loading state
-        assertThat(this.manager.loadingContexts).contains(uuid);
-        verify(consumer, never()).accept(playerContext);
+        TestHelper.setupManager(this.manager);
+        this.manager.setLoadMetrics(metrics);
+        clearInvocations(scheduler);
+
+        // Loading task which never ends
+        doReturn(mock(BukkitTask.class)).when(scheduler).runTaskAsynchronously(any(), any(Runnable.class));
+
+        try {
+            CompletableFuture<PlayerContext> loading = this.manager.loadPlayerContext(uuid);
+            assertThat(this.manager.loadPlayerContext(uuid)).isSameAs(loading);
+            assertThat(loading).isNotDone();
+            verify(metrics).loadStarted(uuid);
+            verify(metrics).loadShared(uuid);
+
+            ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+            verify(scheduler).scheduleSyncDelayedTask(any(), timeout.capture(),
+                    eq(EnderChestManager.CONTEXT_LOAD_TIMEOUT));
+            timeout.getValue().run();
+
+            // Loading is failed and forgotten, so it can be started again
+            assertThat(loading).isCompletedExceptionally();
+            assertThat(this.manager.loadingContexts).isEmpty();
+            verify(metrics).loadFailed(eq(uuid), any(TimeoutException.class));
+            verify(metrics, never()).loadCompleted(any(), anyLong());
+        } finally {
+            doAnswer(answer -> {
+                answer.getArgument(1, Runnable.class).run();
+                return mock(BukkitTask.class);
+            }).when(scheduler).runTaskAsynchronously(any(), any(Runnable.class));
+            clearInvocations(scheduler);
+        }
     }
 
     @Test
@@ -165,19 +295,290 @@ public class EnderChestManagerTest {
 
         // Setup the manager correctly
         TestHelper.setupManager(this.manager);
+        clearInvocations(TestHelper.getPlugin());
 
         // Unregistered context?
         this.manager.savePlayerContext(uuid, false);
-        this.registerPlayerContext(uuid);
+        PlayerContext context = this.registerPlayerContext(uuid);
 
         // Check saving without deletion
+        ArgumentCaptor<Runnable> saveTask = ArgumentCaptor.forClass(Runnable.class);
         this.manager.savePlayerContext(uuid, false);
         assertThat(this.manager.contextMap).containsKey(uuid);
-        verify(TestHelper.getPlugin()).executeTaskOnOtherThread(any(SaveTask.class));
+        verify(TestHelper.getPlugin()).executeTaskOnOtherThread(saveTask.capture());
+        assertThat(this.manager.sequencer.hasPendingTasks(uuid)).isTrue();
 
-        // Check deletion of a context
+        saveTask.getValue().run();
+        verify(context).save();
+        assertThat(this.manager.sequencer.hasPendingTasks(uuid)).isFalse();
+
+        // Check deletion of a context, its summary is saved with data
         this.manager.savePlayerContext(uuid, true);
         assertThat(this.manager.contextMap).isEmpty();
+        assertThat(this.manager.summaries).isEmpty();
+    }
+
+    @Test
+    public void loadChestSummary() throws TestInitializationException {
+        StorageManager storageManager = mock(StorageManager.class);
+        ChestSummary summary = mock(ChestSummary.class);
+        Consumer<ChestSummary> consumer = mock(Consumer.class);
+        UUID uuid = UUID.randomUUID();
+
+        when(storageManager.loadChestSummary(uuid)).thenReturn(summary);
+
+        TestHelper.registerManagers(storageManager);
+        TestHelper.setupManager(this.manager);
+
+        // Only the stored summary is read, then cached
+        this.manager.loadChestSummary(uuid, consumer);
+        this.manager.loadChestSummary(uuid, consumer);
+        verify(consumer, times(2)).accept(summary);
+        verify(storageManager).loadChestSummary(uuid);
+        verify(storageManager, never()).createPlayerDataStorage(uuid);
+        assertThat(this.manager.contextMap).isEmpty();
+        assertThat(this.manager.loadingSummaries).isEmpty();
+
+        // Loaded context is summarized instead, and the cached summary forgotten
+        PlayerContext context = this.registerPlayerContext(uuid);
+        ChestSummary contextSummary = mock(ChestSummary.class);
+        when(context.summarize()).thenReturn(contextSummary);
+
+        this.manager.loadChestSummary(uuid, consumer);
+        verify(consumer).accept(contextSummary);
+        assertThat(this.manager.summaries).isEmpty();
+
+        clearInvocations(Bukkit.getServer().getScheduler());
+    }
+
+    @Test
+    public void evictChestSummaries() throws TestInitializationException {
+        TestHelper.setupManager(this.manager);
+
+        UUID first = UUID.randomUUID();
+        this.manager.summaries.put(first, mock(ChestSummary.class));
+        for (int i = 0; i < EnderChestManager.SUMMARY_CACHE_SIZE; i++) {
+            this.manager.summaries.put(UUID.randomUUID(), mock(ChestSummary.class));
+        }
+
+        assertThat(this.manager.summaries).hasSize(EnderChestManager.SUMMARY_CACHE_SIZE)
+                .doesNotContainKey(first);
+    }
+
+    @Test
+    public void loadChestSummaryDuringLoading() throws TestInitializationException {
+        Consumer<ChestSummary> first = mock(Consumer.class);
+        Consumer<ChestSummary> second = mock(Consumer.class);
+        UUID uuid = UUID.randomUUID();
+
+        TestHelper.setupManager(this.manager);
+
+        // Requests received during a loading share it
+        CompletableFuture<PlayerContext> loading = new CompletableFuture<>();
+        this.manager.loadingContexts.put(uuid, loading);
+        this.manager.loadChestSummary(uuid, first);
+        this.manager.loadChestSummary(uuid, second);
+        verify(first, never()).accept(any());
+
+        PlayerContext context = mock(PlayerContext.class);
+        ChestSummary summary = mock(ChestSummary.class);
+        when(context.summarize()).thenReturn(summary);
+        loading.complete(context);
+
+        verify(first).accept(summary);
+        verify(second).accept(summary);
+    }
+
+    @Test
+    public void loadChestSummaryWithoutStoredSummary() throws TestInitializationException {
+        StorageManager storageManager = mock(StorageManager.class);
+        PlayerData storage = mock(PlayerData.class);
+        Consumer<ChestSummary> consumer = mock(Consumer.class);
+        UUID uuid = TestHelper.getPlayer().getUniqueId();
+
+        when(storage.getEnderchestContents(any())).thenReturn(new ConcurrentHashMap<>());
+        when(storageManager.createPlayerDataStorage(uuid)).thenReturn(storage);
+
+        TestHelper.registerManagers(storageManager);
+        TestHelper.setupManager(this.manager);
+
+        // Full context is loaded to build the summary
+        this.manager.loadChestSummary(uuid, consumer);
+        verify(storageManager).loadChestSummary(uuid);
+        verify(consumer).accept(any(ChestSummary.class));
+        assertThat(this.manager.contextMap).containsOnlyKeys(uuid);
+        assertThat(this.manager.summaries).isEmpty();
+
+        clearInvocations(Bukkit.getServer().getScheduler());
+    }
+
+    @Test
+    public void suspendPlayerContext() throws TestInitializationException {
+        UUID uuid = UUID.randomUUID();
+        TestHelper.setupManager(this.manager);
+
+        // No context loaded
+        assertThat(this.manager.suspendPlayerContext(uuid)).isFalse();
+        assertThat(this.manager.loadingContexts).containsOnlyKeys(uuid);
+
+        this.manager.resumePlayerContext(uuid, false);
+        assertThat(this.manager.loadingContexts).isEmpty();
+
+        // Loaded context is discarded without being saved
+        PlayerContext context = this.registerPlayerContext(uuid);
+
+        assertThat(this.manager.suspendPlayerContext(uuid)).isTrue();
+        assertThat(this.manager.contextMap).isEmpty();
+        assertThat(this.manager.loadingContexts).containsOnlyKeys(uuid);
+        verify(context).closeChests();
+        verify(context, never()).save();
+
+        // Context cannot be loaded while suspended
+        Consumer<PlayerContext> consumer = mock(Consumer.class);
+        this.manager.loadPlayerContext(uuid, consumer);
+        verify(consumer, never()).accept(any());
+    }
+
+    @Test
+    public void saveOfflineEnderchestBeforeLogin() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        VanillaEnderChest chest = mock(VanillaEnderChest.class);
+        ItemStack[] contents = new ItemStack[27];
+        when(chest.getOwner()).thenReturn(uuid);
+        when(chest.copyOfflineContents()).thenReturn(contents);
+
+        TestHelper.setupManager(this.manager);
+        clearInvocations(TestHelper.getPlugin());
+
+        // A login started after the write waits for it
+        ArgumentCaptor<Runnable> writeTask = ArgumentCaptor.forClass(Runnable.class);
+        this.manager.saveOfflineEnderchest(chest);
+        verify(TestHelper.getPlugin()).executeTaskOnOtherThread(writeTask.capture());
+
+        CompletableFuture<Boolean> login = CompletableFuture.supplyAsync(() -> this.manager.prepareLogin(uuid));
+        Thread.sleep(100);
+        assertThat(login).isNotDone();
+
+        writeTask.getValue().run();
+        assertThat(login.get(5, TimeUnit.SECONDS)).isTrue();
+        verify(chest).writeOfflineContents(contents);
+
+        // Writes are refused while the player logs in
+        clearInvocations(TestHelper.getPlugin());
+        this.manager.saveOfflineEnderchest(chest);
+        verify(TestHelper.getPlugin()).executeTaskOnOtherThread(writeTask.capture());
+        writeTask.getValue().run();
+        verify(chest, times(1)).writeOfflineContents(contents);
+        assertThat(this.manager.sequencer.hasPendingTasks(uuid)).isFalse();
+
+        this.manager.finishLogin(uuid);
+        assertThat(this.manager.loggingPlayers).isEmpty();
+    }
+
+    @Test
+    public void saveOfflineEnderchestAfterExpiredLogin() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        VanillaEnderChest chest = mock(VanillaEnderChest.class);
+        ItemStack[] contents = new ItemStack[27];
+        when(chest.getOwner()).thenReturn(uuid);
+        when(chest.copyOfflineContents()).thenReturn(contents);
+
+        TestHelper.setupManager(this.manager);
+        clearInvocations(TestHelper.getPlugin());
+
+        // The player has disconnected during its login, long time ago
+        long expiredStart = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(EnderChestManager.LOGIN_EXPIRATION + 1);
+        this.manager.loggingPlayers.put(uuid, expiredStart);
+
+        ArgumentCaptor<Runnable> writeTask = ArgumentCaptor.forClass(Runnable.class);
+        this.manager.saveOfflineEnderchest(chest);
+        verify(TestHelper.getPlugin()).executeTaskOnOtherThread(writeTask.capture());
+        writeTask.getValue().run();
+        verify(chest).writeOfflineContents(contents);
+        assertThat(this.manager.loggingPlayers).isEmpty();
+
+        // Expired logins of other players are cleared by a new login
+        this.manager.loggingPlayers.put(UUID.randomUUID(), expiredStart);
+        assertThat(this.manager.prepareLogin(uuid)).isTrue();
+        assertThat(this.manager.loggingPlayers).containsOnlyKeys(uuid);
+        this.manager.finishLogin(uuid);
+    }
+
+    @Test
+    public void resumePlayerContextWithReload() throws TestInitializationException {
+        StorageManager manager = mock(StorageManager.class);
+        PlayerData storage = mock(PlayerData.class);
+        UUID uuid = TestHelper.getPlayer().getUniqueId();
+
+        when(storage.getEnderchestContents(any())).thenReturn(new ConcurrentHashMap<>());
+        when(manager.createPlayerDataStorage(uuid)).thenReturn(storage);
+
+        TestHelper.registerManagers(manager);
+        TestHelper.setupManager(this.manager);
+
+        this.manager.suspendPlayerContext(uuid);
+        this.manager.resumePlayerContext(uuid, true);
+
+        // A fresh context has been loaded from the storage
+        assertThat(this.manager.contextMap).containsOnlyKeys(uuid);
+        assertThat(this.manager.loadingContexts).isEmpty();
+        verify(manager).createPlayerDataStorage(uuid);
+
+        // Requests received during the suspension are completed once resumed
+        Consumer<PlayerContext> consumer = mock(Consumer.class);
+        this.manager.suspendPlayerContext(uuid);
+        this.manager.loadPlayerContext(uuid, consumer);
+        verify(consumer, never()).accept(any());
+
+        this.manager.resumePlayerContext(uuid, false);
+        verify(consumer).accept(this.manager.contextMap.get(uuid));
+        assertThat(this.manager.loadingContexts).isEmpty();
+
+        clearInvocations(Bukkit.getServer().getScheduler());
+    }
+
+    @Test
+    public void suspendPlayerContextDuringLoading() throws TestInitializationException {
+        BukkitScheduler scheduler = Bukkit.getServer().getScheduler();
+        StorageManager manager = mock(StorageManager.class);
+        PlayerData storage = mock(PlayerData.class);
+        UUID uuid = TestHelper.getPlayer().getUniqueId();
+
+        when(storage.getEnderchestContents(any())).thenReturn(new ConcurrentHashMap<>());
+        when(manager.createPlayerDataStorage(uuid)).thenReturn(storage);
+
+        TestHelper.registerManagers(manager);
+        TestHelper.setupManager(this.manager);
+        clearInvocations(scheduler);
+
+        // Loading task still running when the context is suspended
+        ArgumentCaptor<Runnable> loadTask = ArgumentCaptor.forClass(Runnable.class);
+        CompletableFuture<PlayerContext> loading;
+        doReturn(mock(BukkitTask.class)).when(scheduler).runTaskAsynchronously(any(), loadTask.capture());
+
+        try {
+            loading = this.manager.loadPlayerContext(uuid);
+            this.manager.suspendPlayerContext(uuid);
+        } finally {
+            doAnswer(answer -> {
+                answer.getArgument(1, Runnable.class).run();
+                return mock(BukkitTask.class);
+            }).when(scheduler).runTaskAsynchronously(any(), any(Runnable.class));
+        }
+
+        // Context read before the suspension is discarded, the suspension goes on
+        loadTask.getValue().run();
+        assertThat(this.manager.contextMap).isEmpty();
+        assertThat(this.manager.loadingContexts).containsOnlyKeys(uuid);
+        assertThat(loading).isNotDone();
+
+        // Requests are completed by the loading started once resumed
+        this.manager.resumePlayerContext(uuid, true);
+        assertThat(this.manager.contextMap).containsOnlyKeys(uuid);
+        assertThat(loading).isCompletedWithValue(this.manager.contextMap.get(uuid));
+        verify(manager, times(2)).createPlayerDataStorage(uuid);
+
+        clearInvocations(scheduler);
     }
 
     private PlayerContext registerPlayerContext(UUID uuid) {
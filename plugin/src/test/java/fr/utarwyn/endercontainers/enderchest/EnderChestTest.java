@@ -2,6 +2,7 @@ package fr.utarwyn.endercontainers.enderchest;
 
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.enderchest.context.PermissionProfile;
 import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
 import fr.utarwyn.endercontainers.inventory.EnderChestInventory;
 import fr.utarwyn.endercontainers.inventory.InventoryManager;
@@ -45,8 +46,9 @@ public class EnderChestTest {
         UUID uuid = player.getUniqueId();
 
         when(this.storage.getEnderchestContents(any())).thenReturn(new ConcurrentHashMap<>());
-        when(this.context.getOwnerAsObject()).thenReturn(player);
+        when(this.context.getPermissionProfile()).thenReturn(new PermissionProfile(player, 27));
         when(this.context.getOwner()).thenReturn(uuid);
+        when(this.context.getOwnerName()).thenReturn(player.getName());
         when(this.context.getData()).thenReturn(this.storage);
 
         this.chest = new EnderChest(this.context, 1);
@@ -108,6 +110,32 @@ public class EnderChestTest {
         assertThat(this.chest.getContents()).isEqualTo(fakeContents);
     }
 
+    @Test
+    public void snapshot() {
+        ItemStack item = new ItemStack(Material.STONE, 3);
+        ConcurrentMap<Integer, ItemStack> fakeContents = new ConcurrentHashMap<>();
+        fakeContents.put(4, item);
+
+        this.chest.container = mock(EnderChestInventory.class);
+        when(this.chest.container.isInitialized()).thenReturn(true);
+        when(this.chest.container.getContents()).thenReturn(fakeContents);
+
+        EnderChestSnapshot snapshot = this.chest.snapshot();
+
+        verify(this.chest.container).updateContentsFromContainer();
+        verify(this.chest.container, never()).close();
+        assertThat(snapshot.getOwner()).isEqualTo(this.chest.getOwner());
+        assertThat(snapshot.getNum()).isEqualTo(1);
+        assertThat(snapshot.getRows()).isEqualTo(3);
+        assertThat(snapshot.getContents()).isEqualTo(fakeContents);
+
+        // Later changes are not reflected in the snapshot
+        item.setAmount(10);
+        fakeContents.remove(4);
+        assertThat(snapshot.getContents()).containsOnlyKeys(4);
+        assertThat(snapshot.getContents().get(4).getAmount()).isEqualTo(3);
+    }
+
     @Test
     public void accessibility() {
         EnderChest defaultChest = new EnderChest(this.context, 0);
@@ -117,7 +145,7 @@ public class EnderChestTest {
         assertThat(defaultChest.isAccessible()).isTrue();
 
         // An administrator should have access to the chest of an offline player
-        when(this.context.getOwnerAsObject()).thenReturn(null);
+        when(this.context.getPermissionProfile()).thenReturn(null);
         assertThat(this.chest.isAccessible()).isTrue();
         assertThat(defaultChest.isAccessible()).isTrue();
     }
@@ -95,22 +95,29 @@ public class VanillaEnderChestTest {
         when(this.context.getOwnerAsObject()).thenReturn(null);
         assertThat((new VanillaEnderChest(this.context)).getSize()).isZero();
 
-        // Inventory without content
-        when(this.inventory.getContents()).thenReturn(new ItemStack[0]);
-        assertThat(this.chest.getSize()).isZero();
-
-        // Inventory with few items
+        // Inventory with few items, counted on the first query
         ItemStack itemStack = mock(ItemStack.class);
         when(this.inventory.getContents()).thenReturn(
                 Arrays.asList(itemStack, itemStack, null, itemStack).toArray(new ItemStack[0])
         );
         assertThat(this.chest.getSize()).isEqualTo(3);
+
+        // Slots are only counted again once changes have been applied
+        when(this.inventory.getContents()).thenReturn(new ItemStack[0]);
+        assertThat(this.chest.getSize()).isEqualTo(3);
+        this.chest.updateSize();
+        assertThat(this.chest.getSize()).isZero();
+        verify(this.inventory, times(2)).getContents();
     }
 
     @Test
-    public void openContainerFor() {
+    public void openContainerFor() throws TestInitializationException {
+        EnderChestManager manager = mock(EnderChestManager.class);
+        TestHelper.registerManagers(manager);
+
         this.chest.openContainerFor(this.player);
         verify(this.player).openInventory(this.inventory);
+        verify(manager).registerVanillaViewer(this.player, this.chest);
     }
 
     @Test
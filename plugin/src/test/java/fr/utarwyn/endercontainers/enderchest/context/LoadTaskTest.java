@@ -61,6 +61,7 @@ public class LoadTaskTest {
         LoadTask task = this.createTask(this.uuid);
         task.run();
         assertThat(this.resultContext).isNotNull();
+        assertThat(this.resultContext.getOwnerName()).isEqualTo("Utarwyn");
     }
 
     @Test
@@ -0,0 +1,184 @@
+package fr.utarwyn.endercontainers.enderchest.context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OwnerSequencerTest {
+
+    private OwnerSequencer sequencer;
+
+    @Mock
+    private Logger logger;
+
+    @Before
+    public void setUp() {
+        this.sequencer = new OwnerSequencer(this.logger);
+    }
+
+    @Test
+    public void sequenceSameOwner() throws InterruptedException {
+        UUID owner = UUID.randomUUID();
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch saving = new CountDownLatch(1);
+
+        Runnable save = this.sequencer.sequence(owner, () -> {
+            await(saving);
+            order.add("save");
+        });
+        Runnable load = this.sequencer.sequence(owner, () -> order.add("load"));
+
+        // Loading is started first but waits for the saving
+        Thread loadThread = new Thread(load);
+        loadThread.start();
+        Thread saveThread = new Thread(save);
+        saveThread.start();
+
+        loadThread.join(200);
+        assertThat(order).isEmpty();
+
+        saving.countDown();
+        saveThread.join(5000);
+        loadThread.join(5000);
+
+        assertThat(order).containsExactly("save", "load");
+        assertThat(this.sequencer.lastTasks).isEmpty();
+    }
+
+    @Test
+    public void sequenceOtherOwners() throws InterruptedException {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch saving = new CountDownLatch(1);
+
+        Runnable save = this.sequencer.sequence(UUID.randomUUID(), () -> {
+            await(saving);
+            order.add("save");
+        });
+        Runnable load = this.sequencer.sequence(UUID.randomUUID(), () -> order.add("load"));
+
+        Thread saveThread = new Thread(save);
+        saveThread.start();
+
+        // Loading of another player does not wait
+        load.run();
+        assertThat(order).containsExactly("load");
+
+        saving.countDown();
+        saveThread.join(5000);
+        assertThat(order).containsExactly("load", "save");
+        assertThat(this.sequencer.lastTasks).isEmpty();
+    }
+
+    @Test
+    public void sequenceFailedTask() {
+        UUID owner = UUID.randomUUID();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Runnable save = this.sequencer.sequence(owner, () -> {
+            throw new IllegalStateException("storage error");
+        });
+        Runnable load = this.sequencer.sequence(owner, () -> order.add("load"));
+
+        try {
+            save.run();
+        } catch (IllegalStateException ignored) {
+            // The error is reported by the scheduler
+        }
+
+        // Next tasks are not blocked by a failed one
+        load.run();
+        assertThat(order).containsExactly("load");
+        assertThat(this.sequencer.lastTasks).isEmpty();
+    }
+
+    @Test
+    public void awaitPendingTasks() throws InterruptedException {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch saving = new CountDownLatch(1);
+
+        Runnable save = this.sequencer.sequence(UUID.randomUUID(), () -> {
+            await(saving);
+            order.add("save");
+        });
+
+        Thread saveThread = new Thread(save);
+        saveThread.start();
+        Thread waitThread = new Thread(() -> {
+            this.sequencer.awaitPendingTasks();
+            order.add("backup");
+        });
+        waitThread.start();
+
+        // Pending tasks of all players are done before the backup
+        waitThread.join(200);
+        assertThat(order).isEmpty();
+
+        saving.countDown();
+        saveThread.join(5000);
+        waitThread.join(5000);
+        assertThat(order).containsExactly("save", "backup");
+    }
+
+    @Test
+    public void awaitTasks() throws InterruptedException {
+        UUID owner = UUID.randomUUID();
+        CountDownLatch saving = new CountDownLatch(1);
+
+        // Nothing to wait for
+        assertThat(this.sequencer.awaitTasks(owner, 0, TimeUnit.SECONDS)).isTrue();
+
+        Runnable save = this.sequencer.sequence(owner, () -> await(saving));
+        Thread saveThread = new Thread(save);
+        saveThread.start();
+
+        // Tasks of other players are not awaited
+        assertThat(this.sequencer.awaitTasks(UUID.randomUUID(), 0, TimeUnit.SECONDS)).isTrue();
+        assertThat(this.sequencer.awaitTasks(owner, 100, TimeUnit.MILLISECONDS)).isFalse();
+
+        saving.countDown();
+        assertThat(this.sequencer.awaitTasks(owner, 5, TimeUnit.SECONDS)).isTrue();
+        saveThread.join(5000);
+    }
+
+    @Test
+    public void awaitPendingTasksWithTimeout() throws InterruptedException {
+        CountDownLatch saving = new CountDownLatch(1);
+
+        // Nothing to wait for
+        assertThat(this.sequencer.awaitPendingTasks(0, TimeUnit.SECONDS)).isTrue();
+
+        Thread firstSave = new Thread(this.sequencer.sequence(UUID.randomUUID(), () -> await(saving)));
+        Thread secondSave = new Thread(this.sequencer.sequence(UUID.randomUUID(), () -> await(saving)));
+        firstSave.start();
+        secondSave.start();
+
+        // The timeout bounds the wait for all players together
+        assertThat(this.sequencer.awaitPendingTasks(100, TimeUnit.MILLISECONDS)).isFalse();
+
+        saving.countDown();
+        assertThat(this.sequencer.awaitPendingTasks(5, TimeUnit.SECONDS)).isTrue();
+        firstSave.join(5000);
+        secondSave.join(5000);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
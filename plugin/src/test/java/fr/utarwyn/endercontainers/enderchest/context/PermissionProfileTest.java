@@ -0,0 +1,120 @@
+package fr.utarwyn.endercontainers.enderchest.context;
+
+import org.bukkit.entity.Player;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PermissionProfileTest {
+
+    @Mock
+    private Player player;
+
+    private PermissionProfile profile;
+
+    @Before
+    public void setUp() {
+        this.profile = new PermissionProfile(this.player, 10);
+    }
+
+    @Test
+    public void nodes() {
+        assertThat(PermissionProfile.getOpenNode(4)).isEqualTo("endercontainers.open.4");
+        assertThat(PermissionProfile.getSlotRowNode(2, 5)).isEqualTo("endercontainers.slot2.row5");
+        assertThat(PermissionProfile.getOpenNode(100)).isEqualTo("endercontainers.open.100");
+
+        // Nodes are computed once
+        assertThat(PermissionProfile.getOpenNode(4)).isSameAs(PermissionProfile.getOpenNode(4));
+    }
+
+    @Test
+    public void nodesReadDuringGrowth() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                results.add(executor.submit(() -> {
+                    for (int num = offset; num < 2000; num += 4) {
+                        if (!PermissionProfile.getSlotRowNode(num, 6).equals("endercontainers.slot" + num + ".row6")) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void canOpen() {
+        when(this.player.hasPermission("endercontainers.open.2")).thenReturn(true);
+
+        assertThat(this.profile.canOpen(1)).isFalse();
+        assertThat(this.profile.canOpen(2)).isTrue();
+
+        // Permissions are resolved once per chest
+        assertThat(this.profile.canOpen(2)).isTrue();
+        verify(this.player, times(1)).hasPermission("endercontainers.open.2");
+
+        // Chests out of the profile are resolved each time
+        assertThat(this.profile.canOpen(20)).isFalse();
+        assertThat(this.profile.canOpen(20)).isFalse();
+        verify(this.player, times(2)).hasPermission("endercontainers.open.20");
+    }
+
+    @Test
+    public void defaultRows() {
+        assertThat(this.profile.getRows(0)).isEqualTo(3);
+        assertThat(this.profile.getRows(0)).isEqualTo(3);
+        verify(this.player, times(12)).hasPermission(anyString());
+    }
+
+    @Test
+    public void rows() {
+        when(this.player.hasPermission(anyString())).thenReturn(false);
+        when(this.player.hasPermission("endercontainers.slots.row4")).thenReturn(true);
+        when(this.player.hasPermission("endercontainers.slot1.row5")).thenReturn(true);
+        lenient().when(this.player.hasPermission("endercontainers.slot2.row2")).thenReturn(true);
+
+        // Highest row count between chest and global permissions
+        assertThat(this.profile.getRows(0)).isEqualTo(4);
+        assertThat(this.profile.getRows(1)).isEqualTo(5);
+        assertThat(this.profile.getRows(2)).isEqualTo(4);
+        assertThat(this.profile.getRows(20)).isEqualTo(4);
+
+        // Global permissions are resolved once
+        verify(this.player, times(1)).hasPermission("endercontainers.slots.row4");
+        verify(this.player, never()).hasPermission("endercontainers.slots.row3");
+    }
+
+    @Test
+    public void validity() {
+        long now = System.currentTimeMillis();
+
+        assertThat(this.profile.isValidFor(this.player, now)).isTrue();
+        assertThat(this.profile.isValidFor(mock(Player.class), now)).isFalse();
+        assertThat(this.profile.isValidFor(this.player, now + PermissionProfile.TTL)).isFalse();
+    }
+
+}
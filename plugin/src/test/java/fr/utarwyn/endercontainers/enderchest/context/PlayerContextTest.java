@@ -3,6 +3,8 @@ package fr.utarwyn.endercontainers.enderchest.context;
 import com.google.common.collect.Maps;
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import fr.utarwyn.endercontainers.enderchest.VanillaEnderChest;
 import fr.utarwyn.endercontainers.inventory.menu.EnderChestListMenu;
 import fr.utarwyn.endercontainers.storage.StorageManager;
@@ -65,11 +67,32 @@ public class PlayerContextTest {
         assertThat(this.context.getOwner()).isEqualTo(this.player.getUniqueId());
         assertThat(this.context.getOwnerAsObject()).isEqualTo(this.player);
         assertThat(this.context.getData()).isEqualTo(this.playerData);
+        assertThat(this.context.getPaneCache()).isNotNull();
+    }
+
+    @Test
+    public void ownerName() {
+        assertThat(this.context.getOwnerName()).isEqualTo("Utarwyn");
+
+        // Fallback name while the name of an offline owner is resolved
+        PlayerContext offline = new PlayerContext(TestHelper.FAKE_OFFLINE_UUID);
+        assertThat(offline.getOwnerName()).isEqualTo(TestHelper.FAKE_OFFLINE_UUID.toString().substring(0, 8));
     }
 
     @Test
     public void offlineOwner() {
-        assertThat(new PlayerContext(UUID.randomUUID()).getOwnerAsObject()).isNull();
+        PlayerContext offline = new PlayerContext(UUID.randomUUID());
+        assertThat(offline.getOwnerAsObject()).isNull();
+        assertThat(offline.getPermissionProfile()).isNull();
+    }
+
+    @Test
+    public void permissionProfile() {
+        PermissionProfile profile = this.context.getPermissionProfile();
+        assertThat(profile).isNotNull().isSameAs(this.context.getPermissionProfile());
+
+        this.context.invalidatePermissionProfile();
+        assertThat(this.context.getPermissionProfile()).isNotNull().isNotSameAs(profile);
     }
 
     @Test
@@ -77,12 +100,31 @@ public class PlayerContextTest {
         assertThat(this.context.getChest(0)).isPresent();
         assertThat(this.context.getChest(ENDERCHEST_AMOUNT - 1)).isPresent();
         assertThat(this.context.getChest(ENDERCHEST_AMOUNT)).isNotPresent();
+        assertThat(this.context.getChest(-1)).isNotPresent();
+
+        // Chests are indexed by their number
+        for (int num = 0; num < ENDERCHEST_AMOUNT; num++) {
+            assertThat(this.context.getChest(num)).get().extracting(EnderChest::getNum).isEqualTo(num);
+        }
+    }
+
+    @Test
+    public void loadEnderchestsAgain() {
+        EnderChest previous = this.context.getChest(1).orElse(null);
+
+        this.context.loadEnderchests(2);
+        assertThat(this.context.getChest(1)).isPresent().get().isNotSameAs(previous);
+        assertThat(this.context.getChest(2)).isNotPresent();
     }
 
     @Test
     public void getAccessibleChestCount() {
         assertThat(this.context.getAccessibleChestCount()).isEqualTo(1);
         when(this.player.hasPermission(anyString())).thenReturn(true);
+
+        // Permissions are cached until the profile is invalidated
+        assertThat(this.context.getAccessibleChestCount()).isEqualTo(1);
+        this.context.invalidatePermissionProfile();
         assertThat(this.context.getAccessibleChestCount()).isEqualTo(ENDERCHEST_AMOUNT);
     }
 
@@ -157,6 +199,7 @@ public class PlayerContextTest {
         assertThat(this.context.openEnderchestInventory(this.player, 0)).isTrue();
         assertThat(this.context.openEnderchestInventory(this.player, 2)).isFalse();
         when(this.player.hasPermission(anyString())).thenReturn(true);
+        this.context.invalidatePermissionProfile();
         assertThat(this.context.openEnderchestInventory(this.player, 2)).isTrue();
         assertThat(this.context.openEnderchestInventory(this.player, ENDERCHEST_AMOUNT)).isFalse();
     }
@@ -167,6 +210,14 @@ public class PlayerContextTest {
         verify(this.playerData).saveContext(any());
     }
 
+    @Test
+    public void snapshot() {
+        // vanilla enderchest is not managed by the plugin storage
+        assertThat(this.context.snapshot()).hasSize(ENDERCHEST_AMOUNT - 1)
+                .extracting(EnderChestSnapshot::getNum)
+                .doesNotContain(0);
+    }
+
     private void assertThatPlayerOpenListInventory() {
         ArgumentCaptor<Inventory> captor = ArgumentCaptor.forClass(Inventory.class);
         verify(this.player).openInventory(captor.capture());
@@ -18,6 +18,7 @@ import org.bukkit.inventory.ItemStack;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -79,7 +80,9 @@ public class EnderChestInventoryListenerTest {
 
     @Test
     public void inventoryClickVanillaChest() {
+        VanillaEnderChest chest = mock(VanillaEnderChest.class);
         when(this.inventory.getType()).thenReturn(InventoryType.ENDER_CHEST);
+        when(this.manager.getVanillaEnderchestUsedBy(this.player)).thenReturn(Optional.of(chest));
 
         InventoryClickEvent event = createInventoryClickEvent(false);
 
@@ -96,6 +99,13 @@ public class EnderChestInventoryListenerTest {
         when(this.inventoryView.getCursor()).thenReturn(new ItemStack(Material.BEDROCK));
         this.listener.onInventoryClick(event);
         assertThat(event.isCancelled()).isTrue();
+
+        // Filled slots of the chest are counted again once allowed clicks have been applied
+        ArgumentCaptor<Runnable> sizeUpdate = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.inventoryManager, times(2)).runAfterChanges(sizeUpdate.capture());
+        verify(chest, never()).updateSize();
+        sizeUpdate.getValue().run();
+        verify(chest).updateSize();
     }
 
     @Test
@@ -115,6 +125,7 @@ public class EnderChestInventoryListenerTest {
         when(this.inventoryView.getCursor()).thenReturn(new ItemStack(Material.OAK_BOAT));
         this.listener.onInventoryClick(event);
         assertThat(event.isCancelled()).isTrue();
+        verify(this.manager, never()).getVanillaEnderchestUsedBy(any());
     }
 
     @Test
@@ -205,6 +216,25 @@ public class EnderChestInventoryListenerTest {
         this.listener.onInventoryClose(event);
         verify(this.manager).savePlayerContext(player2.getUniqueId(), true);
         verify(player2).saveData();
+        verify(chest, times(3)).updateSize();
+        verify(this.manager, times(3)).unregisterVanillaViewer(this.player);
+    }
+
+    @Test
+    public void inventoryCloseSaveOfflineDataFileChest() {
+        when(this.inventory.getType()).thenReturn(InventoryType.ENDER_CHEST);
+
+        UUID ownerIdentifier = UUID.randomUUID();
+        VanillaEnderChest chest = mock(VanillaEnderChest.class);
+        InventoryCloseEvent event = new InventoryCloseEvent(this.inventoryView);
+
+        when(chest.getOwner()).thenReturn(ownerIdentifier);
+        when(this.manager.getVanillaEnderchestUsedBy(this.player)).thenReturn(Optional.of(chest));
+
+        // chest read from the data file of its offline owner, without player object
+        this.listener.onInventoryClose(event);
+        verify(this.manager).savePlayerContext(ownerIdentifier, true);
+        verify(this.manager).saveOfflineEnderchest(chest);
     }
 
     @Test
@@ -14,7 +14,11 @@ import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
@@ -25,6 +29,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.HashMap;
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -148,12 +154,70 @@ public class EnderChestListenerTest {
         assertThat(event.useInteractedBlock()).isEqualTo(Event.Result.ALLOW);
     }
 
+    @Test
+    public void playerPreLoginWaitsForOfflineWrites() throws UnknownHostException {
+        UUID uuid = UUID.randomUUID();
+        AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent("player", InetAddress.getLocalHost(), uuid);
+
+        // Pending writes are done in time
+        when(this.manager.prepareLogin(uuid)).thenReturn(true);
+        this.listener.onAsyncPlayerPreLogin(event);
+        this.listener.onAsyncPlayerPreLoginResult(event);
+        assertThat(event.getLoginResult()).isEqualTo(AsyncPlayerPreLoginEvent.Result.ALLOWED);
+        verify(this.manager, never()).finishLogin(uuid);
+
+        // Pending writes are too long, the player cannot log in
+        when(this.manager.prepareLogin(uuid)).thenReturn(false);
+        this.listener.onAsyncPlayerPreLogin(event);
+        this.listener.onAsyncPlayerPreLoginResult(event);
+        assertThat(event.getLoginResult()).isEqualTo(AsyncPlayerPreLoginEvent.Result.KICK_OTHER);
+        verify(this.manager).finishLogin(uuid);
+    }
+
+    @Test
+    public void playerPreLoginAlreadyDisallowed() throws UnknownHostException {
+        UUID uuid = UUID.randomUUID();
+        AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent("player", InetAddress.getLocalHost(), uuid);
+        event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED, "banned");
+
+        this.listener.onAsyncPlayerPreLogin(event);
+        this.listener.onAsyncPlayerPreLoginResult(event);
+        verify(this.manager, never()).prepareLogin(uuid);
+        verify(this.manager).finishLogin(uuid);
+    }
+
+    @Test
+    public void playerLoginDisallowed() throws UnknownHostException {
+        PlayerLoginEvent event = new PlayerLoginEvent(this.player, "localhost", InetAddress.getLocalHost());
+
+        this.listener.onPlayerLoginResult(event);
+        verify(this.manager, never()).finishLogin(this.player.getUniqueId());
+
+        event.disallow(PlayerLoginEvent.Result.KICK_FULL, "full");
+        this.listener.onPlayerLoginResult(event);
+        verify(this.manager).finishLogin(this.player.getUniqueId());
+    }
+
+    @Test
+    public void playerJoinInvalidatePermissions() {
+        this.listener.onPlayerJoin(new PlayerJoinEvent(this.player, ""));
+        verify(this.manager).finishLogin(this.player.getUniqueId());
+        verify(this.manager).invalidatePermissionProfile(this.player.getUniqueId());
+    }
+
+    @Test
+    public void playerChangedWorldInvalidatePermissions() {
+        this.listener.onPlayerChangedWorld(new PlayerChangedWorldEvent(this.player, this.world));
+        verify(this.manager).invalidatePermissionProfile(this.player.getUniqueId());
+    }
+
     @Test
     public void playerLeaveSaveContext() {
         PlayerQuitEvent event = new PlayerQuitEvent(this.player, "");
 
         // By default, we have to save the context but not delete it
         this.listener.onPlayerQuit(event);
+        verify(this.manager).finishLogin(this.player.getUniqueId());
         verify(this.manager).savePlayerContext(this.player.getUniqueId(), false);
 
         // With an unused context, we also have to delete the context
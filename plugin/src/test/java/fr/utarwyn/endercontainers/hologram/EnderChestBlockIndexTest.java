@@ -0,0 +1,143 @@
+package fr.utarwyn.endercontainers.hologram;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EnderChestBlockIndexTest {
+
+    private EnderChestBlockIndex index;
+
+    @Mock
+    private World world;
+
+    @Before
+    public void setUp() {
+        this.index = new EnderChestBlockIndex();
+        when(this.world.getUID()).thenReturn(UUID.randomUUID());
+    }
+
+    @Test
+    public void addAndRemove() {
+        Block block = this.createBlock(-17, -60, 33);
+
+        this.index.add(block);
+        this.index.add(block);
+        assertThat(this.index.size()).isEqualTo(1);
+        assertThat(this.index.isNear(new Location(this.world, -17, -60, 33), 1)).isTrue();
+
+        this.index.remove(block);
+        this.index.remove(block);
+        assertThat(this.index.size()).isZero();
+        assertThat(this.index.isNear(new Location(this.world, -17, -60, 33), 1)).isFalse();
+    }
+
+    @Test
+    public void isNear() {
+        this.index.add(this.createBlock(15, 64, -1));
+
+        assertThat(this.index.isNear(new Location(this.world, 20, 64, -4), 8)).isTrue();
+        assertThat(this.index.isNear(new Location(this.world, 15.5, 72, -0.5), 8)).isTrue();
+        assertThat(this.index.isNear(new Location(this.world, 15.5, 72.6, -0.5), 8)).isFalse();
+        assertThat(this.index.isNear(new Location(this.world, 40, 64, -1), 8)).isFalse();
+
+        // Other worlds are not concerned
+        World other = mock(World.class);
+        when(other.getUID()).thenReturn(UUID.randomUUID());
+        assertThat(this.index.isNear(new Location(other, 15, 64, -1), 8)).isFalse();
+        assertThat(this.index.isNear(new Location(null, 15, 64, -1), 8)).isFalse();
+    }
+
+    @Test
+    public void positions() {
+        int[][] coordinates = {{0, 0, 0}, {-1, -64, -1}, {29999984, 319, -29999984}, {-29999984, -2048, 29999984}};
+
+        for (int[] xyz : coordinates) {
+            long position = EnderChestBlockIndex.getPosition(xyz[0], xyz[1], xyz[2]);
+            assertThat(position >> 38).isEqualTo(xyz[0]);
+            assertThat(position << 52 >> 52).isEqualTo(xyz[1]);
+            assertThat(position << 26 >> 38).isEqualTo(xyz[2]);
+        }
+
+        assertThat(EnderChestBlockIndex.getChunkKey(-1, 1)).isNotEqualTo(EnderChestBlockIndex.getChunkKey(1, -1));
+    }
+
+    @Test
+    public void chunks() {
+        Chunk chunk = mock(Chunk.class);
+        BlockState chest = mock(BlockState.class);
+        BlockState furnace = mock(BlockState.class);
+
+        when(chunk.getWorld()).thenReturn(this.world);
+        when(chunk.getX()).thenReturn(1);
+        when(chunk.getZ()).thenReturn(0);
+        when(chunk.getTileEntities()).thenReturn(new BlockState[]{chest, furnace});
+        when(chest.getType()).thenReturn(Material.ENDER_CHEST);
+        when(chest.getX()).thenReturn(20);
+        when(chest.getY()).thenReturn(70);
+        when(chest.getZ()).thenReturn(5);
+        when(furnace.getType()).thenReturn(Material.FURNACE);
+        when(this.world.getLoadedChunks()).thenReturn(new Chunk[]{chunk});
+
+        this.index.addWorld(this.world);
+        assertThat(this.index.size()).isEqualTo(1);
+        assertThat(this.index.isNear(new Location(this.world, 20, 70, 5), 1)).isTrue();
+
+        this.index.removeChunk(chunk);
+        assertThat(this.index.size()).isZero();
+
+        this.index.addChunk(chunk);
+        this.index.removeWorld(this.world);
+        assertThat(this.index.size()).isZero();
+    }
+
+    @Test
+    public void refreshChunk() {
+        Chunk chunk = mock(Chunk.class);
+        BlockState chest = mock(BlockState.class);
+
+        when(chunk.getWorld()).thenReturn(this.world);
+        when(chunk.getX()).thenReturn(1);
+        when(chunk.getZ()).thenReturn(0);
+        when(chunk.getTileEntities()).thenReturn(new BlockState[]{chest});
+        when(chest.getType()).thenReturn(Material.ENDER_CHEST);
+        when(chest.getX()).thenReturn(20);
+        when(chest.getY()).thenReturn(70);
+        when(chest.getZ()).thenReturn(5);
+
+        // Ender chest removed without a block event, other chunks are kept
+        this.index.add(this.createBlock(17, -60, 3));
+        this.index.add(this.createBlock(-17, -60, 33));
+
+        this.index.refreshChunk(chunk);
+        assertThat(this.index.size()).isEqualTo(2);
+        assertThat(this.index.isNear(new Location(this.world, 20, 70, 5), 1)).isTrue();
+        assertThat(this.index.isNear(new Location(this.world, 17, -60, 3), 1)).isFalse();
+        assertThat(this.index.isNear(new Location(this.world, -17, -60, 33), 1)).isTrue();
+    }
+
+    private Block createBlock(int x, int y, int z) {
+        Block block = mock(Block.class);
+        when(block.getWorld()).thenReturn(this.world);
+        when(block.getX()).thenReturn(x);
+        when(block.getY()).thenReturn(y);
+        when(block.getZ()).thenReturn(z);
+        return block;
+    }
+
+}
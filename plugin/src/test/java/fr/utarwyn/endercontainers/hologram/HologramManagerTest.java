@@ -4,14 +4,18 @@ import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.dependency.DependenciesManager;
 import fr.utarwyn.endercontainers.dependency.exceptions.BlockChestOpeningException;
+import fr.utarwyn.endercontainers.enderchest.ChestSummary;
 import fr.utarwyn.endercontainers.enderchest.EnderChestManager;
-import fr.utarwyn.endercontainers.enderchest.context.PlayerContext;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -20,6 +24,10 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,7 +45,7 @@ public class HologramManagerTest {
     private Block targetedBlock;
 
     @Mock
-    private PlayerContext context;
+    private ChestSummary summary;
 
     @Mock
     private DependenciesManager dependenciesManager;
@@ -60,13 +68,19 @@ public class HologramManagerTest {
         TestHelper.registerManagers(this.dependenciesManager, this.enderChestManager);
         TestHelper.setupManager(this.manager);
 
+        World world = this.observer.getWorld();
+        lenient().when(world.getUID()).thenReturn(UUID.randomUUID());
+        lenient().when(this.observer.getLocation()).thenReturn(new Location(world, 2, 0, 3));
+
         when(this.targetedBlock.getType()).thenReturn(Material.ENDER_CHEST);
-        when(this.targetedBlock.getLocation()).thenReturn(new Location(mock(World.class), 0, 0, 0));
+        when(this.targetedBlock.getWorld()).thenReturn(world);
+        when(this.targetedBlock.getLocation()).thenReturn(new Location(world, 0, 0, 0));
+        this.manager.blockIndex.add(this.targetedBlock);
         when(this.observer.getTargetBlock(isNull(), anyInt())).thenReturn(this.targetedBlock);
         doAnswer(answer -> {
-            ((Consumer<PlayerContext>) answer.getArgument(1)).accept(this.context);
+            ((Consumer<ChestSummary>) answer.getArgument(1)).accept(this.summary);
             return null;
-        }).when(this.enderChestManager).loadPlayerContext(any(), any());
+        }).when(this.enderChestManager).loadChestSummary(any(), any());
     }
 
     @After
@@ -99,7 +113,7 @@ public class HologramManagerTest {
         this.manager.load();
 
         verify(this.dependenciesManager).validateBlockChestOpening(this.targetedBlock, this.observer);
-        verify(this.enderChestManager).loadPlayerContext(eq(this.observer.getUniqueId()), any(Consumer.class));
+        verify(this.enderChestManager).loadChestSummary(eq(this.observer.getUniqueId()), any(Consumer.class));
         assertThat(this.manager.holograms).isNotEmpty().hasSize(1);
     }
 
@@ -125,10 +139,153 @@ public class HologramManagerTest {
         this.manager.load();
         assertThat(this.manager.holograms).isNotEmpty().hasSize(1);
 
-        // Dispawn hologram when targeting AIR right after
+        // Hide hologram when targeting AIR right after, its entity is kept
         when(this.targetedBlock.getType()).thenReturn(Material.AIR);
         this.manager.run();
+        assertThat(this.manager.holograms).hasSize(1);
+        assertThat(this.manager.holograms.get(this.observer.getUniqueId()).isVisible()).isFalse();
+    }
+
+    @Test
+    public void reuseHologram() throws BlockChestOpeningException {
+        this.manager.load();
+        Hologram hologram = this.manager.holograms.get(this.observer.getUniqueId());
+
+        // Access is not checked again while targeting the same enderchest
+        for (int i = 0; i < HologramManager.SCAN_PERIOD; i++) {
+            this.manager.run();
+        }
+        verify(this.dependenciesManager).validateBlockChestOpening(this.targetedBlock, this.observer);
+        verify(this.summary, atLeast(2)).getAccessibleChestCount();
+
+        // Same hologram shown again after looking away
+        when(this.targetedBlock.getType()).thenReturn(Material.AIR);
+        this.manager.run();
+        when(this.targetedBlock.getType()).thenReturn(Material.ENDER_CHEST);
+        this.manager.run();
+
+        assertThat(this.manager.holograms.get(this.observer.getUniqueId())).isSameAs(hologram);
+        assertThat(hologram.isVisible()).isTrue();
+        verify(this.dependenciesManager, times(2)).validateBlockChestOpening(this.targetedBlock, this.observer);
+    }
+
+    @Test
+    public void noEnderChestInRange() {
+        this.manager.blockIndex.remove(this.targetedBlock);
+        this.manager.load();
+
+        verify(this.observer, never()).getTargetBlock(isNull(), anyInt());
         assertThat(this.manager.holograms).isEmpty();
     }
 
+    @Test
+    public void refreshIndexPeriodically() {
+        World world = this.observer.getWorld();
+        List<Chunk> chunks = new ArrayList<>();
+        for (int i = 0; i <= HologramManager.INDEX_REFRESH_BATCH; i++) {
+            Chunk chunk = mock(Chunk.class);
+            when(chunk.getWorld()).thenReturn(world);
+            when(chunk.getX()).thenReturn(-i);
+            when(chunk.isLoaded()).thenReturn(true);
+            when(chunk.getTileEntities()).thenReturn(new BlockState[0]);
+            chunks.add(chunk);
+        }
+
+        // The targeted ender chest has been removed from the last chunk without a block event
+        Collections.reverse(chunks);
+        when(world.getLoadedChunks()).thenReturn(chunks.toArray(new Chunk[0]));
+        when(Bukkit.getServer().getWorlds()).thenReturn(Collections.singletonList(world));
+
+        try {
+            this.manager.load();
+            assertThat(this.manager.holograms).hasSize(1);
+            clearInvocations(chunks.toArray());
+
+            for (int i = 2; i < HologramManager.INDEX_REFRESH_PERIOD; i++) {
+                this.manager.run();
+            }
+            assertThat(this.manager.blockIndex.size()).isEqualTo(1);
+
+            // Loaded chunks are refreshed by batches over several ticks
+            this.manager.run();
+            assertThat(this.manager.blockIndex.size()).isEqualTo(1);
+            verify(chunks.get(HologramManager.INDEX_REFRESH_BATCH), never()).getTileEntities();
+
+            this.manager.run();
+            assertThat(this.manager.blockIndex.size()).isZero();
+            assertThat(this.manager.holograms).isEmpty();
+        } finally {
+            when(Bukkit.getServer().getWorlds()).thenReturn(Collections.emptyList());
+        }
+    }
+
+    @Test
+    public void dispawnHologramOutOfRange() {
+        this.manager.load();
+        assertThat(this.manager.holograms).hasSize(1);
+
+        when(this.observer.getLocation()).thenReturn(new Location(this.observer.getWorld(), 100, 0, 100));
+        this.manager.run();
+        assertThat(this.manager.holograms).isEmpty();
+    }
+
+    @Test
+    public void respawnHologramAfterPlayerRespawn() {
+        this.manager.load();
+        Hologram hologram = this.manager.holograms.get(this.observer.getUniqueId());
+
+        // The client has removed the entity, a new one is spawned on next check
+        Location spawn = new Location(this.observer.getWorld(), 2, 0, 3);
+        this.manager.onPlayerRespawn(new PlayerRespawnEvent(this.observer, spawn, false));
+        assertThat(this.manager.holograms).isEmpty();
+
+        this.manager.run();
+        assertThat(this.manager.holograms.get(this.observer.getUniqueId())).isNotNull().isNotSameAs(hologram);
+    }
+
+    @Test
+    public void respawnHologramAfterLongTeleport() {
+        when(Bukkit.getServer().getViewDistance()).thenReturn(10);
+        World world = this.observer.getWorld();
+        Location from = new Location(world, 2, 0, 3);
+        this.manager.load();
+
+        // The entity is still known by the client after a short teleport
+        this.manager.onPlayerTeleport(new PlayerTeleportEvent(this.observer, from, new Location(world, 50, 0, 3)));
+        assertThat(this.manager.holograms).hasSize(1);
+
+        // But not after a teleport beyond the view distance
+        this.manager.onPlayerTeleport(new PlayerTeleportEvent(this.observer, from, new Location(world, 500, 0, 3)));
+        assertThat(this.manager.holograms).isEmpty();
+
+        this.manager.run();
+        assertThat(this.manager.holograms).hasSize(1);
+    }
+
+    @Test
+    public void spreadScanOverTicks() {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < HologramManager.SCAN_PERIOD * 2; i++) {
+            Player player = mock(Player.class);
+            when(player.isOnline()).thenReturn(true);
+            when(player.getWorld()).thenReturn(this.observer.getWorld());
+            when(player.getLocation()).thenReturn(new Location(this.observer.getWorld(), 100, 0, 100));
+            players.add(player);
+        }
+        doReturn(players).when(Bukkit.getServer()).getOnlinePlayers();
+
+        // Two players are checked on each tick
+        this.manager.load();
+        verify(players.get(0)).getLocation();
+        verify(players.get(1)).getLocation();
+        verify(players.get(2), never()).getLocation();
+
+        for (int i = 1; i < HologramManager.SCAN_PERIOD; i++) {
+            this.manager.run();
+        }
+        players.forEach(player -> verify(player).getLocation());
+
+        doReturn(Collections.singletonList(this.observer)).when(Bukkit.getServer()).getOnlinePlayers();
+    }
+
 }
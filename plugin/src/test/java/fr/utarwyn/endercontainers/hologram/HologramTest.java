@@ -13,6 +13,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -36,21 +37,72 @@ public class HologramTest {
 
     @Test
     public void spawn() throws HologramException, ReflectiveOperationException {
-        new Hologram(this.observer, TITLE, this.location);
-        verify(NMSHologramUtil.get()).spawnHologram(this.location, TITLE, this.observer);
+        Object entity = new Object();
+        when(NMSHologramUtil.get().createHologram(this.location, TITLE)).thenReturn(entity);
+
+        Hologram hologram = new Hologram(this.observer);
+        assertThat(hologram.isVisible()).isFalse();
+
+        hologram.show(TITLE, this.location);
+        verify(NMSHologramUtil.get()).spawnEntity(entity, this.observer);
+        assertThat(hologram.isVisible()).isTrue();
+        assertThat(hologram.isVisibleAt(this.location)).isTrue();
+    }
+
+    @Test
+    public void reuseEntity() throws HologramException, ReflectiveOperationException {
+        Object entity = new Object();
+        Location otherLocation = mock(Location.class);
+        when(NMSHologramUtil.get().createHologram(this.location, TITLE)).thenReturn(entity);
+
+        Hologram hologram = new Hologram(this.observer);
+        hologram.show(TITLE, this.location);
+
+        // Nothing has to be sent if nothing has changed
+        hologram.show(TITLE, this.location);
+        verify(NMSHologramUtil.get(), never()).teleportEntity(any(), any(), eq(this.observer));
+        verify(NMSHologramUtil.get(), never()).updateHologram(any(), any(), anyBoolean(), eq(this.observer));
+
+        // Only a teleport if the targeted enderchest has changed
+        hologram.show(TITLE, otherLocation);
+        verify(NMSHologramUtil.get()).teleportEntity(entity, otherLocation, this.observer);
+        verify(NMSHologramUtil.get(), never()).updateHologram(any(), any(), anyBoolean(), eq(this.observer));
+        assertThat(hologram.isVisibleAt(otherLocation)).isTrue();
+
+        // Only a metadata update if the title has changed
+        hologram.show("other", otherLocation);
+        verify(NMSHologramUtil.get()).updateHologram(entity, "other", true, this.observer);
+
+        // Hide and show again the same entity
+        hologram.hide();
+        verify(NMSHologramUtil.get()).updateHologram(entity, "other", false, this.observer);
+        assertThat(hologram.isVisible()).isFalse();
+        hologram.show("other", otherLocation);
+        verify(NMSHologramUtil.get(), times(2)).updateHologram(entity, "other", true, this.observer);
+
+        verify(NMSHologramUtil.get()).spawnEntity(entity, this.observer);
+        verify(NMSHologramUtil.get(), never()).destroyEntity(anyInt(), eq(this.observer));
     }
 
     @Test
     public void destroy() throws HologramException, ReflectiveOperationException {
-        when(NMSHologramUtil.get().spawnHologram(this.location, TITLE, this.observer)).thenReturn(ENTITY_ID);
-        Hologram h = new Hologram(this.observer, TITLE, this.location);
+        when(NMSHologramUtil.get().spawnEntity(any(), eq(this.observer))).thenReturn(ENTITY_ID);
+        Hologram h = new Hologram(this.observer);
+        h.show(TITLE, this.location);
         h.destroy();
         verify(NMSHologramUtil.get()).destroyEntity(ENTITY_ID, this.observer);
+        assertThat(h.isVisible()).isFalse();
+    }
+
+    @Test
+    public void destroyNotSpawned() throws HologramException, ReflectiveOperationException {
+        new Hologram(this.observer).destroy();
+        verify(NMSHologramUtil.get(), never()).destroyEntity(anyInt(), eq(this.observer));
     }
 
     @Test
-    public void observerOnline() throws HologramException {
-        Hologram hologram = new Hologram(this.observer, TITLE, this.location);
+    public void observerOnline() {
+        Hologram hologram = new Hologram(this.observer);
 
         when(this.observer.isOnline()).thenReturn(true);
         assertThat(hologram.isObserverOnline()).isTrue();
@@ -60,22 +112,25 @@ public class HologramTest {
 
     @Test
     public void spawnError() throws ReflectiveOperationException {
-        when(NMSHologramUtil.get().spawnHologram(this.location, TITLE, this.observer))
+        when(NMSHologramUtil.get().spawnEntity(any(), eq(this.observer)))
                 .thenThrow(ReflectiveOperationException.class);
 
+        Hologram hologram = new Hologram(this.observer);
         try {
-            new Hologram(this.observer, TITLE, this.location);
+            hologram.show(TITLE, this.location);
             fail("spawn method must fail");
         } catch (HologramException ignored) {
+            assertThat(hologram.isVisible()).isFalse();
         }
     }
 
     @Test
     public void destroyError() throws HologramException, ReflectiveOperationException {
-        when(NMSHologramUtil.get().spawnHologram(this.location, TITLE, this.observer)).thenReturn(ENTITY_ID);
+        when(NMSHologramUtil.get().spawnEntity(any(), eq(this.observer))).thenReturn(ENTITY_ID);
         doThrow(ReflectiveOperationException.class).when(NMSHologramUtil.get()).destroyEntity(ENTITY_ID, this.observer);
 
-        Hologram h = new Hologram(this.observer, TITLE, this.location);
+        Hologram h = new Hologram(this.observer);
+        h.show(TITLE, this.location);
 
         try {
             h.destroy();
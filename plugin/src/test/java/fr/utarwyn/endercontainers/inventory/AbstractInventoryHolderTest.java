@@ -118,6 +118,10 @@ public class AbstractInventoryHolderTest {
 
         when(this.holder.inventory.getContents()).thenReturn(this.getFakeItemList(27));
         assertThat(this.holder.getFilledSlotsNb()).isEqualTo(3);
+
+        // Slots always follow the current contents of the inventory
+        when(this.holder.inventory.getContents()).thenReturn(new ItemStack[27]);
+        assertThat(this.holder.getFilledSlotsNb()).isZero();
     }
 
     /**
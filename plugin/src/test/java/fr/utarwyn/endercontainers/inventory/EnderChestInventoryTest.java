@@ -1,5 +1,6 @@
 package fr.utarwyn.endercontainers.inventory;
 
+import com.google.common.collect.ImmutableMap;
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
@@ -10,6 +11,8 @@ import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.*;
+import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.ItemStack;
 import org.junit.Before;
 import org.junit.Test;
@@ -41,6 +44,7 @@ public class EnderChestInventoryTest {
 
         UUID uuid = TestHelper.getPlayer().getUniqueId();
         when(this.chest.getOwner()).thenReturn(uuid);
+        when(this.chest.getOwnerName()).thenReturn("Utarwyn");
         when(this.chest.getRows()).thenReturn(3);
         when(this.chest.getMaxSize()).thenReturn(27);
         when(this.chest.getContents()).thenReturn(new ConcurrentHashMap<>());
@@ -101,6 +105,7 @@ public class EnderChestInventoryTest {
 
         this.inventory.prepare();
         this.inventory.getInventory().setContents(itemList);
+        this.inventory.markAllSlotsChanged();
         this.inventory.updateContentsFromContainer();
 
         Map<Integer, ItemStack> map = this.inventory.getContents();
@@ -116,6 +121,63 @@ public class EnderChestInventoryTest {
         assertThat(map.get(35)).isNotNull(); // not in the container but out of bounds, so OK
     }
 
+    @Test
+    public void updateChangedSlotsOnly() {
+        ItemStack diamond = new ItemStack(Material.DIAMOND, 3);
+        this.inventory.getContents().put(1, diamond);
+
+        this.inventory.getInventory().setItem(2, new ItemStack(Material.STONE));
+        this.inventory.getInventory().setItem(5, new ItemStack(Material.DIRT));
+        this.inventory.markSlotChanged(2);
+        assertThat(this.inventory.hasChangedSlots()).isTrue();
+
+        this.inventory.updateContentsFromContainer();
+        assertThat(this.inventory.hasChangedSlots()).isFalse();
+        assertThat(this.inventory.getContents()).containsOnlyKeys(1, 2).containsEntry(1, diamond);
+    }
+
+    @Test
+    public void trackClickChanges() {
+        InventoryView view = mock(InventoryView.class);
+        when(view.getTopInventory()).thenReturn(this.inventory.getInventory());
+
+        // Click in the container
+        assertThat(this.inventory.trackChanges(createClickEvent(view, 4, InventoryAction.PLACE_ALL))).isTrue();
+        assertThat(this.inventory.trackChanges(createClickEvent(view, 6, InventoryAction.HOTBAR_SWAP))).isTrue();
+        assertThat(this.inventory.trackChanges(createClickEvent(view, 7, InventoryAction.NOTHING))).isFalse();
+
+        // Click in the player inventory
+        assertThat(this.inventory.trackChanges(createClickEvent(view, 40, InventoryAction.PICKUP_ALL))).isFalse();
+
+        this.inventory.getInventory().setItem(4, new ItemStack(Material.STONE));
+        this.inventory.getInventory().setItem(5, new ItemStack(Material.DIRT));
+        this.inventory.updateContentsFromContainer();
+        assertThat(this.inventory.getContents()).containsOnlyKeys(4);
+
+        // Items shifted from the player inventory can go anywhere
+        assertThat(this.inventory.trackChanges(createClickEvent(view, 40, InventoryAction.MOVE_TO_OTHER_INVENTORY))).isTrue();
+        this.inventory.updateContentsFromContainer();
+        assertThat(this.inventory.getContents()).containsOnlyKeys(4, 5);
+    }
+
+    @Test
+    public void trackDragChanges() {
+        InventoryView view = mock(InventoryView.class);
+        when(view.getTopInventory()).thenReturn(this.inventory.getInventory());
+
+        InventoryDragEvent event = new InventoryDragEvent(view, null, new ItemStack(Material.STONE), false,
+                ImmutableMap.of(3, new ItemStack(Material.STONE), 30, new ItemStack(Material.STONE)));
+        assertThat(this.inventory.trackChanges(event)).isTrue();
+
+        this.inventory.getInventory().setItem(3, new ItemStack(Material.STONE));
+        this.inventory.reconcileChanges();
+        assertThat(this.inventory.getContents()).containsOnlyKeys(3);
+
+        event = new InventoryDragEvent(view, null, new ItemStack(Material.STONE), false,
+                ImmutableMap.of(30, new ItemStack(Material.STONE)));
+        assertThat(this.inventory.trackChanges(event)).isFalse();
+    }
+
     @Test
     public void saveOnClose() throws TestInitializationException {
         EnderChestManager manager = mock(EnderChestManager.class);
@@ -168,4 +230,8 @@ public class EnderChestInventoryTest {
         verify(viewer).playSound(location, Sound.BLOCK_CHEST_CLOSE, 1f, 1f);
     }
 
+    private InventoryClickEvent createClickEvent(InventoryView view, int slot, InventoryAction action) {
+        return new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER, slot, ClickType.LEFT, action);
+    }
+
 }
@@ -171,6 +171,35 @@ public class InventoryManagerTest {
         assertThat(event.isCancelled()).isFalse();
     }
 
+    @Test
+    public void reconcileTrackedChanges() throws TestInitializationException {
+        TestHelper.setupManager(this.manager);
+        when(this.inventory.getSize()).thenReturn(27);
+
+        InventoryDragEvent event = new InventoryDragEvent(
+                this.inventoryView, null, new ItemStack(Material.STONE), false,
+                ImmutableMap.of(2, new ItemStack(Material.STONE))
+        );
+
+        // No tracked change
+        this.manager.onInventoryDrag(event);
+        verify(this.holder, never()).reconcileChanges();
+
+        // Tracked changes are reconciled once the event is applied
+        when(this.holder.trackChanges(event)).thenReturn(true);
+        this.manager.onInventoryDrag(event);
+        verify(this.holder).reconcileChanges();
+    }
+
+    @Test
+    public void runAfterChanges() throws TestInitializationException {
+        TestHelper.setupManager(this.manager);
+        Runnable task = mock(Runnable.class);
+
+        this.manager.runAfterChanges(task);
+        verify(task).run();
+    }
+
     @Test
     public void inventoryDragOutside() {
         when(this.inventory.getSize()).thenReturn(27);
@@ -221,6 +250,24 @@ public class InventoryManagerTest {
         verify(this.holder, never()).isItemMovingRestricted();
     }
 
+    @Test
+    public void dragRestrictedByLaterItem() {
+        when(this.inventory.getSize()).thenReturn(27);
+
+        InventoryDragEvent event = new InventoryDragEvent(
+                this.inventoryView, null, new ItemStack(Material.STONE), false,
+                ImmutableMap.of(2, new ItemStack(Material.STONE), 5, new ItemStack(Material.BEDROCK))
+        );
+
+        // Only the second dragged item is forbidden
+        this.manager.cancelDragEventIfRestricted(event, item -> item.getType() == Material.BEDROCK);
+        assertThat(event.isCancelled()).isTrue();
+
+        event.setResult(Event.Result.DEFAULT);
+        this.manager.cancelDragEventIfRestricted(event, item -> item.getType() == Material.DIRT);
+        assertThat(event.isCancelled()).isFalse();
+    }
+
     @Test
     public void inventoryClose() {
         InventoryCloseEvent event = new InventoryCloseEvent(inventoryView);
@@ -0,0 +1,86 @@
+package fr.utarwyn.endercontainers.inventory.menu;
+
+import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import org.bukkit.inventory.ItemStack;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ChestPaneCacheTest {
+
+    private ChestPaneCache cache;
+
+    @Mock
+    private EnderChest chest;
+
+    @Mock
+    private Function<EnderChest, ItemStack> renderer;
+
+    @Before
+    public void setUp() {
+        this.cache = new ChestPaneCache();
+
+        when(this.chest.getSize()).thenReturn(3);
+        when(this.chest.getMaxSize()).thenReturn(27);
+        when(this.chest.isAccessible()).thenReturn(true);
+        when(this.renderer.apply(this.chest)).thenAnswer(answer -> mock(ItemStack.class));
+    }
+
+    @Test
+    public void reuseUnchangedPane() {
+        ItemStack pane = this.cache.getPane(this.chest, this.renderer);
+        assertThat(pane).isNotNull();
+        assertThat(this.cache.getPane(this.chest, this.renderer)).isSameAs(pane);
+        verify(this.renderer).apply(this.chest);
+    }
+
+    @Test
+    public void renderChangedPane() {
+        ItemStack pane = this.cache.getPane(this.chest, this.renderer);
+
+        // Fill count changed
+        when(this.chest.getSize()).thenReturn(4);
+        ItemStack filled = this.cache.getPane(this.chest, this.renderer);
+        assertThat(filled).isNotSameAs(pane);
+
+        // Rows changed
+        when(this.chest.getMaxSize()).thenReturn(54);
+        ItemStack resized = this.cache.getPane(this.chest, this.renderer);
+        assertThat(resized).isNotSameAs(filled);
+
+        // Accessibility changed
+        when(this.chest.isAccessible()).thenReturn(false);
+        assertThat(this.cache.getPane(this.chest, this.renderer)).isNotSameAs(resized);
+
+        verify(this.renderer, times(4)).apply(this.chest);
+    }
+
+    @Test
+    public void panesByChestNumber() {
+        EnderChest other = mock(EnderChest.class);
+        when(other.getNum()).thenReturn(1);
+        when(other.getSize()).thenReturn(3);
+        when(other.getMaxSize()).thenReturn(27);
+        when(other.isAccessible()).thenReturn(true);
+        when(this.renderer.apply(other)).thenAnswer(answer -> mock(ItemStack.class));
+
+        ItemStack pane = this.cache.getPane(this.chest, this.renderer);
+        assertThat(this.cache.getPane(other, this.renderer)).isNotSameAs(pane);
+        assertThat(this.cache.getPane(this.chest, this.renderer)).isSameAs(pane);
+    }
+
+    @Test
+    public void version() {
+        assertThat(ChestPaneCache.getVersion(this.chest))
+                .isNotEqualTo(ChestPaneCache.getVersion(mock(EnderChest.class)));
+    }
+
+}
@@ -19,7 +19,6 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -44,8 +43,6 @@ public class EnderChestListMenuTest {
 
     @Before
     public void setUp() {
-        UUID playerId = TestHelper.getPlayer().getUniqueId();
-
         this.chests = IntStream.range(0, 27).mapToObj((number) -> {
             EnderChest chest = mock(EnderChest.class);
             lenient().when(chest.isAccessible()).thenReturn(true);
@@ -53,7 +50,8 @@ public class EnderChestListMenuTest {
             return chest;
         }).collect(Collectors.toList());
 
-        when(this.context.getOwner()).thenReturn(playerId);
+        when(this.context.getOwnerName()).thenReturn(TestHelper.getPlayer().getName());
+        when(this.context.getPaneCache()).thenReturn(new ChestPaneCache());
         when(this.context.getChest(anyInt())).thenAnswer(
                 a -> Optional.ofNullable(this.chests.get(a.getArgument(0, Integer.class)))
         );
@@ -74,6 +72,22 @@ public class EnderChestListMenuTest {
         assertThat(this.menu.getInventory().getItem(64)).isNull();
     }
 
+    @Test
+    public void reusePanes() {
+        EnderChest chest = this.chests.get(0);
+        verify(chest, times(2)).getFillPercentage();
+
+        // Unchanged chest is not rendered again in a new menu
+        EnderChestListMenu other = new EnderChestListMenu(this.context);
+        assertThat(other.getInventory().getItem(0)).isEqualTo(this.menu.getInventory().getItem(0));
+        verify(chest, times(2)).getFillPercentage();
+
+        // Chest rendered again when its fill count has changed
+        when(chest.getSize()).thenReturn(5);
+        new EnderChestListMenu(this.context);
+        verify(chest, times(4)).getFillPercentage();
+    }
+
     @Test
     public void itemNumbering() {
         Inventory inventory = this.menu.getInventory();
@@ -3,6 +3,15 @@ package fr.utarwyn.endercontainers.storage.backups;
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupEntry;
+import fr.utarwyn.endercontainers.backup.BackupReport;
+import fr.utarwyn.endercontainers.backup.BackupSnapshot;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
+import fr.utarwyn.endercontainers.enderchest.context.OwnerSequencer;
+import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
+import fr.utarwyn.endercontainers.util.IoRateLimiter;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -16,11 +25,14 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.sql.Timestamp;
-import java.util.Arrays;
-import java.util.Scanner;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BackupsFlatDataTest {
@@ -121,13 +133,122 @@ public class BackupsFlatDataTest {
         copy(this.fakeFile, this.dataFolder);
 
         // Execute storage
-        this.data.executeStorage(this.backup);
+        BackupReport report = new BackupReport(IoRateLimiter.UNLIMITED);
+        assertThat(this.data.executeStorage(this.backup, BackupSnapshot.EMPTY, report)).isTrue();
         assertThat(this.backupFolder).exists();
-        assertThat(this.backupFolder.listFiles()).isNotEmpty().hasSize(1);
+        assertThat(this.backupFolder.listFiles()).extracting(File::getName)
+                .containsExactlyInAnyOrder("fakedatafile.yml", "manifest.yml");
+        assertThat(report.getEntries()).isEqualTo(1);
+        assertThat(report.getBytes()).isEqualTo(this.fakeFile.length());
 
         // Still one file in the folder
         this.data.executeStorage(this.backup);
-        assertThat(this.backupFolder.listFiles()).isNotEmpty().hasSize(1);
+        assertThat(this.backupFolder.listFiles()).isNotEmpty().hasSize(2);
+    }
+
+    @Test
+    public void executeStorageWithSnapshot() throws IOException {
+        UUID owner = UUID.randomUUID();
+        UUID newOwner = UUID.randomUUID();
+        File ownerFile = new File(this.dataFolder, owner.toString().replace("-", "") + ".yml");
+        String newOwnerFile = newOwner.toString().replace("-", "") + ".yml";
+
+        emptyFolder(this.backupFolder);
+        emptyFolder(this.dataFolder);
+        Files.copy(this.fakeFile.toPath(), ownerFile.toPath());
+
+        ItemSerializer serializer = mock(ItemSerializer.class);
+        ConcurrentMap<Integer, ItemStack> contents = new ConcurrentHashMap<>();
+        contents.put(0, mock(ItemStack.class));
+        when(serializer.serialize(any(ItemStack[].class))).thenReturn("SNAPSHOT");
+
+        Map<UUID, List<EnderChestSnapshot>> chests = new HashMap<>();
+        chests.put(owner, Collections.singletonList(new EnderChestSnapshot(owner, 1, 6, contents)));
+        chests.put(newOwner, Collections.singletonList(new EnderChestSnapshot(newOwner, 0, 3, new ConcurrentHashMap<>())));
+        OwnerSequencer sequencer = new OwnerSequencer(TestHelper.getPlugin().getLogger());
+        BackupSnapshot snapshot = new BackupSnapshot(chests, sequencer, serializer);
+
+        BackupReport report = new BackupReport(IoRateLimiter.UNLIMITED);
+        assertThat(this.data.executeStorage(this.backup, snapshot, report)).isTrue();
+        assertThat(report.getEntries()).isEqualTo(2);
+        assertThat(sequencer.hasPendingTasks(owner)).isFalse();
+
+        // Copied chests are put in the backup, over data stored in the file
+        YamlConfiguration backupOwner = YamlConfiguration.loadConfiguration(new File(this.backupFolder, ownerFile.getName()));
+        assertThat(backupOwner.getBoolean("backup-testing-file")).isTrue();
+        assertThat(backupOwner.getInt("enderchests.1.rows")).isEqualTo(6);
+        assertThat(backupOwner.getString("enderchests.1.contents")).isEqualTo("SNAPSHOT");
+
+        YamlConfiguration backupNewOwner = YamlConfiguration.loadConfiguration(new File(this.backupFolder, newOwnerFile));
+        assertThat(backupNewOwner.getInt("enderchests.0.rows")).isEqualTo(3);
+        assertThat(backupNewOwner.contains("enderchests.0.contents")).isFalse();
+
+        // Live storage is never written by the backup
+        assertThat(ownerFile).hasSameTextualContentAs(this.fakeFile);
+        assertThat(new File(this.dataFolder, newOwnerFile)).doesNotExist();
+
+        // Saved files match their checksum
+        for (BackupEntry entry : this.data.readEntries(this.backup).orElse(Collections.emptyList())) {
+            assertThat(BackupEntry.checksum(entry.read())).isEqualTo(entry.getChecksum());
+        }
+    }
+
+    @Test
+    public void executeStorageWithNeverSavedPlayer() throws IOException {
+        UUID owner = UUID.randomUUID();
+
+        emptyFolder(this.backupFolder);
+        emptyFolder(this.dataFolder);
+        copy(this.fakeFile, this.dataFolder);
+
+        // Online player without custom chest, who has never been saved
+        OwnerSequencer sequencer = new OwnerSequencer(TestHelper.getPlugin().getLogger());
+        BackupSnapshot snapshot = new BackupSnapshot(Collections.singletonMap(owner, Collections.emptyList()),
+                sequencer, mock(ItemSerializer.class));
+
+        BackupReport report = new BackupReport(IoRateLimiter.UNLIMITED);
+        assertThat(this.data.executeStorage(this.backup, snapshot, report)).isTrue();
+        assertThat(report.getEntries()).isEqualTo(1);
+        assertThat(this.backupFolder.listFiles()).extracting(File::getName)
+                .containsExactlyInAnyOrder("fakedatafile.yml", "manifest.yml");
+    }
+
+    @Test
+    public void readEntries() throws IOException {
+        // Prepare test
+        emptyFolder(this.backupFolder);
+        emptyFolder(this.dataFolder);
+        copy(this.fakeFile, this.dataFolder);
+        Files.copy(this.fakeFile.toPath(), new File(this.dataFolder, "other.yml").toPath());
+        assertThat(this.data.executeStorage(this.backup)).isTrue();
+
+        // All entries match their checksum
+        List<BackupEntry> entries = this.data.readEntries(this.backup).orElse(Collections.emptyList());
+        assertThat(entries).extracting(BackupEntry::getName)
+                .containsExactlyInAnyOrder("fakedatafile.yml", "other.yml");
+        for (BackupEntry entry : entries) {
+            assertThat(entry.hasChecksum()).isTrue();
+            assertThat(BackupEntry.checksum(entry.read())).isEqualTo(entry.getChecksum());
+            assertThat(entry.getContents(entry.read())).isEmpty();
+        }
+
+        // Modified and missing files are detected
+        Files.write(new File(this.backupFolder, "fakedatafile.yml").toPath(), "corrupted".getBytes());
+        Files.delete(new File(this.backupFolder, "other.yml").toPath());
+
+        entries = this.data.readEntries(this.backup).orElse(Collections.emptyList());
+        assertThat(entries).hasSize(2);
+        for (BackupEntry entry : entries) {
+            if (entry.getName().equals("other.yml")) {
+                assertThatExceptionOfType(IOException.class).isThrownBy(entry::read);
+            } else {
+                assertThat(BackupEntry.checksum(entry.read())).isNotEqualTo(entry.getChecksum());
+            }
+        }
+
+        // Unknown backup cannot be read
+        Backup unknown = new Backup("unknown", new Timestamp(System.currentTimeMillis()), "Utarwyn");
+        assertThat(this.data.readEntries(unknown)).isEmpty();
     }
 
     @Test
@@ -147,6 +268,30 @@ public class BackupsFlatDataTest {
         assertThat(this.dataFolder.listFiles()).isNotNull().isNotEmpty().hasSize(1);
     }
 
+    @Test
+    public void restorePlayer() throws IOException {
+        UUID owner = UUID.randomUUID();
+        String fileName = owner.toString().replace("-", "") + ".yml";
+        File otherFile = new File(this.dataFolder, "other.yml");
+
+        // Prepare test
+        emptyFolder(this.backupFolder);
+        emptyFolder(this.dataFolder);
+        Files.copy(this.fakeFile.toPath(), new File(this.backupFolder, fileName).toPath());
+        copy(this.fakeFile, this.backupFolder);
+        assertThat(otherFile.createNewFile()).isTrue();
+
+        // Player not in the backup
+        assertThat(this.data.restorePlayer(this.backup, UUID.randomUUID())).isFalse();
+
+        // Only the file of the player is restored
+        assertThat(this.data.restorePlayer(this.backup, owner)).isTrue();
+        assertThat(this.dataFolder.listFiles()).extracting(File::getName)
+                .containsExactlyInAnyOrder(fileName, "other.yml");
+        assertThat(new File(this.dataFolder, fileName)).hasSameBinaryContentAs(this.fakeFile);
+        assertThat(otherFile).isEmpty();
+    }
+
     @Test
     public void removeBackup() throws IOException {
         // Prepare test
@@ -3,21 +3,34 @@ package fr.utarwyn.endercontainers.storage.backups;
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.backup.Backup;
+import fr.utarwyn.endercontainers.backup.BackupEntry;
+import fr.utarwyn.endercontainers.backup.BackupReport;
+import fr.utarwyn.endercontainers.backup.BackupSnapshot;
 import fr.utarwyn.endercontainers.database.DatabaseManager;
 import fr.utarwyn.endercontainers.database.DatabaseSet;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
+import fr.utarwyn.endercontainers.enderchest.context.OwnerSequencer;
+import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
+import fr.utarwyn.endercontainers.util.IoRateLimiter;
+import org.bukkit.inventory.ItemStack;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.Arrays;
-import java.util.Date;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -94,18 +107,88 @@ public class BackupsSQLDataTest {
 
     @Test
     public void saveNewBackup() throws SQLException {
+        List<Long> checksums = new ArrayList<>();
+        when(this.databaseManager.saveBackup(eq(NAME), eq(CURRENT.getTime()), eq(AUTHOR), any())).then(answer -> {
+            answer.<Iterator<DatabaseSet>>getArgument(3).forEachRemaining(set -> checksums.add(set.getLong("checksum")));
+            return checksums.size();
+        });
+
         // Without chest in the database
         assertThat(this.data.saveNewBackup(backup)).isTrue();
-        verify(this.databaseManager).saveBackup(NAME, CURRENT.getTime(), "", AUTHOR);
+        assertThat(checksums).isEmpty();
 
-        // With multiple chests
-        when(this.databaseManager.getAllEnderchests()).thenReturn(Arrays.asList(
-                generateEnderchestSet(1, 1, null, "CONTENTS", 3),
+        // With multiple chests, only stored in the owner index
+        when(this.databaseManager.getEnderchestsAfter(0, BackupsSQLData.READ_PAGE_SIZE)).thenReturn(Arrays.asList(
+                generateEnderchestSet(1, 1, null, "CONTÉNTS", 3),
                 generateEnderchestSet(2, 2, "Utarwyn", null, 6)
         ));
 
-        assertThat(this.data.saveNewBackup(backup)).isTrue();
-        verify(this.databaseManager).saveBackup(NAME, CURRENT.getTime(), DATA, AUTHOR);
+        BackupReport report = new BackupReport(IoRateLimiter.UNLIMITED);
+        assertThat(this.data.saveNewBackup(backup, BackupSnapshot.EMPTY, report)).isTrue();
+        assertThat(checksums).containsExactly(BackupEntry.checksum("CONTÉNTS"), BackupEntry.checksum((String) null));
+        assertThat(report.getEntries()).isEqualTo(2);
+        // Encoded bytes are counted once read and once written
+        assertThat(report.getBytes()).isEqualTo(2 * "CONTÉNTS".getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void saveNewBackupWithSnapshot() throws IOException, SQLException {
+        UUID owner = UUID.randomUUID();
+        OwnerSequencer sequencer = mock(OwnerSequencer.class);
+        ItemSerializer serializer = mock(ItemSerializer.class);
+        ConcurrentMap<Integer, ItemStack> contents = new ConcurrentHashMap<>();
+        contents.put(0, mock(ItemStack.class));
+
+        BackupSnapshot snapshot = new BackupSnapshot(Collections.singletonMap(owner, Arrays.asList(
+                new EnderChestSnapshot(owner, 0, 3, contents),
+                new EnderChestSnapshot(owner, 1, 6, new ConcurrentHashMap<>())
+        )), sequencer, serializer);
+
+        when(serializer.serialize(any(ItemStack[].class))).thenReturn("SNAPSHOT");
+        when(this.databaseManager.getEnderchestsAfter(0, BackupsSQLData.READ_PAGE_SIZE)).thenReturn(Arrays.asList(
+                generateEnderchestSet(1, 0, owner.toString(), "STORED", 3),
+                generateEnderchestSet(2, 0, "Utarwyn", "OTHER", 3)
+        ));
+
+        List<DatabaseSet> saved = new ArrayList<>();
+        when(this.databaseManager.saveBackup(eq(NAME), eq(CURRENT.getTime()), eq(AUTHOR), any())).then(answer -> {
+            answer.<Iterator<DatabaseSet>>getArgument(3).forEachRemaining(saved::add);
+            return saved.size();
+        });
+
+        // Stored chests of the owner are replaced by its copied chests, after pending saves
+        assertThat(this.data.saveNewBackup(backup, snapshot, new BackupReport(IoRateLimiter.UNLIMITED))).isTrue();
+        verify(sequencer).awaitPendingTasks();
+        assertThat(saved).extracting(set -> set.getString("owner"), set -> set.getString("contents"))
+                .containsExactly(
+                        tuple("Utarwyn", "OTHER"),
+                        tuple(owner.toString(), "SNAPSHOT"),
+                        tuple(owner.toString(), null)
+                );
+    }
+
+    @Test
+    public void saveNewBackupByPages() throws SQLException {
+        List<DatabaseSet> firstPage = new ArrayList<>();
+        for (int i = 1; i <= BackupsSQLData.READ_PAGE_SIZE; i++) {
+            firstPage.add(generateEnderchestSet(i, 0, "owner" + i, null, 3));
+        }
+        int lastId = BackupsSQLData.READ_PAGE_SIZE;
+
+        when(this.databaseManager.getEnderchestsAfter(0, BackupsSQLData.READ_PAGE_SIZE)).thenReturn(firstPage);
+        when(this.databaseManager.getEnderchestsAfter(lastId, BackupsSQLData.READ_PAGE_SIZE)).thenReturn(
+                Collections.singletonList(generateEnderchestSet(lastId + 1, 0, "owner", null, 3))
+        );
+        when(this.databaseManager.saveBackup(eq(NAME), eq(CURRENT.getTime()), eq(AUTHOR), any())).then(answer -> {
+            answer.<Iterator<DatabaseSet>>getArgument(3).forEachRemaining(set -> {
+            });
+            return lastId + 1;
+        });
+
+        BackupReport report = new BackupReport(IoRateLimiter.UNLIMITED);
+        assertThat(this.data.saveNewBackup(backup, BackupSnapshot.EMPTY, report)).isTrue();
+        assertThat(report.getEntries()).isEqualTo(lastId + 1L);
+        verify(this.databaseManager, times(2)).getEnderchestsAfter(anyInt(), eq(BackupsSQLData.READ_PAGE_SIZE));
     }
 
     @Test
@@ -115,12 +198,137 @@ public class BackupsSQLDataTest {
         assertThat(this.data.applyBackup(this.backup)).isFalse();
 
         // Backup saved in the database
+        List<DatabaseSet> replaced = new ArrayList<>();
+        when(this.databaseManager.replaceEnderchests(any())).then(answer -> {
+            answer.<Iterator<DatabaseSet>>getArgument(0).forEachRemaining(replaced::add);
+            return replaced.size();
+        });
+
+        // Legacy backup, only stored in its data
         when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.of(generateBackupSet(NAME, AUTHOR, DATA)));
         assertThat(this.data.applyBackup(this.backup)).isTrue();
-        verify(this.databaseManager).replaceEnderchests(Arrays.asList(
+        assertThat(replaced).containsExactly(
                 generateEnderchestSet(1, 1, null, "CONTENTS", 3),
                 generateEnderchestSet(2, 2, "Utarwyn", null, 6)
-        ));
+        );
+
+        // Backup stored in the owner index
+        replaced.clear();
+        DatabaseSet chest = generateEnderchestSet(1, 0, "Utarwyn", "CONTENTS", 3);
+        when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.of(generateBackupSet(NAME, AUTHOR, null)));
+        when(this.databaseManager.getBackupEnderchestsAfter(NAME, 0, BackupsSQLData.READ_PAGE_SIZE))
+                .thenReturn(Collections.singletonList(chest));
+        assertThat(this.data.applyBackup(this.backup)).isTrue();
+        assertThat(replaced).containsExactly(chest);
+        when(this.databaseManager.getBackupEnderchestsAfter(NAME, 0, BackupsSQLData.READ_PAGE_SIZE))
+                .thenReturn(Collections.emptyList());
+
+        // Empty backup
+        replaced.clear();
+        when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.of(generateBackupSet(NAME, AUTHOR, "")));
+        assertThat(this.data.applyBackup(this.backup)).isTrue();
+        assertThat(replaced).isEmpty();
+    }
+
+    @Test
+    public void applyBackupByPages() throws SQLException {
+        List<DatabaseSet> firstPage = new ArrayList<>();
+        for (int i = 1; i <= BackupsSQLData.READ_PAGE_SIZE; i++) {
+            firstPage.add(generateEnderchestSet(i, 0, "owner" + i, null, 3));
+        }
+        int lastId = BackupsSQLData.READ_PAGE_SIZE;
+        List<Integer> readPages = new ArrayList<>();
+
+        when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.of(generateBackupSet(NAME, AUTHOR, null)));
+        when(this.databaseManager.getBackupEnderchestsAfter(NAME, 0, BackupsSQLData.READ_PAGE_SIZE)).thenReturn(firstPage);
+        when(this.databaseManager.getBackupEnderchestsAfter(NAME, lastId, BackupsSQLData.READ_PAGE_SIZE)).then(answer -> {
+            readPages.add(lastId);
+            return Collections.singletonList(generateEnderchestSet(lastId + 1, 0, "owner", null, 3));
+        });
+
+        // The second page is only read while chests are replaced
+        when(this.databaseManager.replaceEnderchests(any())).then(answer -> {
+            assertThat(readPages).isEmpty();
+            Iterator<DatabaseSet> chests = answer.getArgument(0);
+            int count = 0;
+            while (chests.hasNext()) {
+                chests.next();
+                count++;
+            }
+            return count;
+        });
+
+        assertThat(this.data.applyBackup(this.backup)).isTrue();
+        assertThat(readPages).containsExactly(lastId);
+        verify(this.databaseManager, never()).getBackupEnderchests(anyString());
+    }
+
+    @Test
+    public void restorePlayer() throws SQLException {
+        UUID owner = UUID.randomUUID();
+        List<DatabaseSet> replaced = new ArrayList<>();
+        when(this.databaseManager.replaceEnderchestsOf(eq(owner), any())).then(answer -> {
+            answer.<Iterator<DatabaseSet>>getArgument(1).forEachRemaining(replaced::add);
+            return replaced.size();
+        });
+
+        // Chests indexed by owner
+        DatabaseSet chest = generateEnderchestSet(1, 0, owner.toString(), "CONTENTS", 3);
+        when(this.databaseManager.getBackupEnderchestsOf(NAME, owner)).thenReturn(Collections.singletonList(chest));
+
+        assertThat(this.data.restorePlayer(this.backup, owner)).isTrue();
+        assertThat(replaced).containsExactly(chest);
+        verify(this.databaseManager, never()).getBackup(anyString());
+
+        // Backup not indexed by owner
+        replaced.clear();
+        String legacyData = "1:1:" + Base64Coder.encodeString(owner.toString()) + ":Q09OVEVOVFM=:3;2:2:VXRhcnd5bg==::6";
+        when(this.databaseManager.getBackupEnderchestsOf(NAME, owner)).thenReturn(Collections.emptyList());
+        when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.of(generateBackupSet(NAME, AUTHOR, legacyData)));
+
+        assertThat(this.data.restorePlayer(this.backup, owner)).isTrue();
+        assertThat(replaced).containsExactly(generateEnderchestSet(1, 1, owner.toString(), "CONTENTS", 3));
+
+        // Player not in the backup
+        assertThat(this.data.restorePlayer(this.backup, UUID.randomUUID())).isFalse();
+        verify(this.databaseManager, times(2)).replaceEnderchestsOf(any(), any());
+    }
+
+    @Test
+    public void readEntries() throws IOException, SQLException {
+        // No backup found
+        when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.empty());
+        assertThat(this.data.readEntries(this.backup)).isEmpty();
+
+        // Chests of the owner index, with their checksum
+        DatabaseSet valid = generateEnderchestSet(0, 1, null, "CONTENTS", 0);
+        valid.setObject("checksum", BackupEntry.checksum("CONTENTS"));
+        DatabaseSet modified = generateEnderchestSet(0, 2, "Utarwyn", null, 0);
+        modified.setObject("checksum", 42L);
+
+        when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.of(generateBackupSet(NAME, AUTHOR, null)));
+        when(this.databaseManager.getBackupEnderchests(NAME)).thenReturn(Arrays.asList(valid, modified));
+
+        List<BackupEntry> entries = this.data.readEntries(this.backup).orElse(Collections.emptyList());
+        assertThat(entries).extracting(BackupEntry::getName).containsExactly("null#1", "Utarwyn#2");
+
+        BackupEntry entry = entries.get(0);
+        assertThat(BackupEntry.checksum(entry.read())).isEqualTo(entry.getChecksum());
+        assertThat(entry.getContents(entry.read())).containsExactly("CONTENTS");
+
+        entry = entries.get(1);
+        assertThat(BackupEntry.checksum(entry.read())).isNotEqualTo(entry.getChecksum());
+        assertThat(entry.getContents(entry.read())).isEmpty();
+
+        // Legacy backup, only stored in its data
+        when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.of(generateBackupSet(NAME, AUTHOR, DATA + ";malformed")));
+        when(this.databaseManager.getBackupEnderchests(NAME)).thenReturn(Collections.emptyList());
+
+        entries = this.data.readEntries(this.backup).orElse(Collections.emptyList());
+        assertThat(entries).extracting(BackupEntry::getName).containsExactly("null#1", "Utarwyn#2", "#2");
+        assertThat(entries).extracting(BackupEntry::getChecksum).containsOnly(BackupEntry.NO_CHECKSUM);
+        assertThat(entries.get(0).getContents(entries.get(0).read())).containsExactly("CONTENTS");
+        assertThatExceptionOfType(IOException.class).isThrownBy(entries.get(2)::read);
     }
 
     @Test
@@ -139,18 +347,25 @@ public class BackupsSQLDataTest {
 
         // Save backup
         doThrow(SQLException.class).when(this.databaseManager).saveBackup(
-                anyString(), any(Long.class), anyString(), anyString()
+                anyString(), any(Long.class), anyString(), any()
         );
         assertThat(this.data.saveNewBackup(backup)).isFalse();
 
         // Apply backup
         when(this.databaseManager.getBackup(NAME)).thenReturn(Optional.of(generateBackupSet(NAME, AUTHOR, DATA)));
-        doThrow(SQLException.class).when(this.databaseManager).replaceEnderchests(anyList());
+        doThrow(SQLException.class).when(this.databaseManager).replaceEnderchests(any());
         assertThat(this.data.applyBackup(backup)).isFalse();
 
         doThrow(SQLException.class).when(this.databaseManager).getBackup(anyString());
         assertThat(this.data.applyBackup(backup)).isFalse();
 
+        // Restore a player
+        doThrow(SQLException.class).when(this.databaseManager).getBackupEnderchestsOf(anyString(), any());
+        assertThat(this.data.restorePlayer(backup, UUID.randomUUID())).isFalse();
+
+        // Read entries of a backup
+        assertThat(this.data.readEntries(backup)).isEmpty();
+
         // Remove backup
         doThrow(SQLException.class).when(this.databaseManager).removeBackup(anyString());
         assertThat(this.data.removeBackup(backup)).isFalse();
@@ -0,0 +1,103 @@
+package fr.utarwyn.endercontainers.storage.nbt;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+public class NbtIOTest {
+
+    @Test
+    public void writeAndRead() throws IOException {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("id", "minecraft:diamond");
+        nested.put("Count", (byte) 12);
+
+        NbtList list = new NbtList(NbtIO.TAG_COMPOUND);
+        list.add(nested);
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("byte", (byte) -3);
+        root.put("short", (short) 300);
+        root.put("int", 19133);
+        root.put("long", 1L << 40);
+        root.put("float", 1.5F);
+        root.put("double", -2.25D);
+        root.put("bytes", new byte[]{1, 2, 3});
+        root.put("string", "Ender");
+        root.put("list", list);
+        root.put("compound", nested);
+        root.put("ints", new int[]{4, 5});
+        root.put("longs", new long[]{6L});
+        root.put("empty", new NbtList(NbtIO.TAG_END));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        NbtIO.writeCompressed(root, output);
+        Map<String, Object> read = NbtIO.readCompressed(new ByteArrayInputStream(output.toByteArray()));
+
+        assertThat(read).containsOnlyKeys(root.keySet().toArray(new String[0]));
+        assertThat(read.get("byte")).isEqualTo((byte) -3);
+        assertThat(read.get("short")).isEqualTo((short) 300);
+        assertThat(read.get("int")).isEqualTo(19133);
+        assertThat(read.get("long")).isEqualTo(1L << 40);
+        assertThat(read.get("float")).isEqualTo(1.5F);
+        assertThat(read.get("double")).isEqualTo(-2.25D);
+        assertThat((byte[]) read.get("bytes")).containsExactly(1, 2, 3);
+        assertThat(read.get("string")).isEqualTo("Ender");
+        assertThat((int[]) read.get("ints")).containsExactly(4, 5);
+        assertThat((long[]) read.get("longs")).containsExactly(6L);
+        assertThat(read.get("compound")).isEqualTo(nested);
+
+        NbtList readList = (NbtList) read.get("list");
+        assertThat(readList.getElementType()).isEqualTo(NbtIO.TAG_COMPOUND);
+        assertThat(readList.getValues()).containsExactly(nested);
+        assertThat(((NbtList) read.get("empty")).getValues()).isEmpty();
+
+        // Same bytes once written again
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        NbtIO.write(read, new DataOutputStream(second));
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        NbtIO.write(root, new DataOutputStream(first));
+        assertThat(second.toByteArray()).isEqualTo(first.toByteArray());
+    }
+
+    @Test
+    public void readInvalidData() {
+        // Root tag must be a compound
+        assertThatIOException().isThrownBy(() -> NbtIO.read(input(NbtIO.TAG_INT, 0, 0)));
+        // Unknown tag type
+        assertThatIOException().isThrownBy(() -> NbtIO.read(input(NbtIO.TAG_COMPOUND, 0, 0, 42, 0, 0)));
+        // Negative array length
+        assertThatIOException().isThrownBy(() -> NbtIO.read(input(
+                NbtIO.TAG_COMPOUND, 0, 0, NbtIO.TAG_INT_ARRAY, 0, 0, -1, -1, -1, -1
+        )));
+        // Truncated data
+        assertThatIOException().isThrownBy(() -> NbtIO.read(input(NbtIO.TAG_COMPOUND, 0, 0, NbtIO.TAG_INT, 0)));
+    }
+
+    @Test
+    public void writeInvalidData() {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("unsupported", new Object());
+        assertThatIOException().isThrownBy(() -> NbtIO.write(root, new DataOutputStream(new ByteArrayOutputStream())));
+
+        NbtList list = new NbtList(NbtIO.TAG_INT);
+        list.add("not an int");
+        root.clear();
+        root.put("list", list);
+        assertThatIOException().isThrownBy(() -> NbtIO.write(root, new DataOutputStream(new ByteArrayOutputStream())));
+    }
+
+    private static DataInput input(int... bytes) {
+        byte[] data = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            data[i] = (byte) bytes[i];
+        }
+        return new DataInputStream(new ByteArrayInputStream(data));
+    }
+
+}
@@ -0,0 +1,128 @@
+package fr.utarwyn.endercontainers.storage.nbt;
+
+import fr.utarwyn.endercontainers.TestHelper;
+import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.compatibility.nms.NMSItemUtil;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PlayerDatFileTest {
+
+    private static final int DATA_VERSION = 3105;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private NMSItemUtil itemUtil;
+
+    private File file;
+
+    private PlayerDatFile dataFile;
+
+    @BeforeClass
+    public static void setUpClass() throws TestInitializationException {
+        TestHelper.setUpServer();
+    }
+
+    @Before
+    public void setUp() throws IOException, ReflectiveOperationException {
+        setItemUtil(this.itemUtil);
+
+        this.file = this.folder.newFile("player.dat");
+        this.dataFile = new PlayerDatFile(this.file);
+
+        NbtList items = new NbtList(NbtIO.TAG_COMPOUND);
+        items.add(createItem("minecraft:diamond", 2));
+        items.add(createItem("minecraft:dirt", 26));
+        items.add(createItem("minecraft:stone", 40));
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put(PlayerDatFile.DATA_VERSION, DATA_VERSION);
+        root.put("Health", 20F);
+        root.put(PlayerDatFile.ENDER_ITEMS, items);
+        NbtIO.writeCompressed(root, new FileOutputStream(this.file));
+    }
+
+    @After
+    public void tearDown() throws ReflectiveOperationException {
+        setItemUtil(null);
+    }
+
+    @Test
+    public void exists() {
+        assertThat(this.dataFile.exists()).isTrue();
+        assertThat(new PlayerDatFile(new File(this.folder.getRoot(), "unknown.dat")).exists()).isFalse();
+    }
+
+    @Test
+    public void readEnderItems() throws IOException, ReflectiveOperationException {
+        ItemStack item = new ItemStack(Material.DIAMOND);
+        when(this.itemUtil.fromTag(any())).thenReturn(item);
+
+        ItemStack[] slots = this.dataFile.readEnderItems(27, DATA_VERSION);
+        assertThat(slots).hasSize(27);
+        assertThat(slots[2]).isEqualTo(item);
+        assertThat(slots[26]).isEqualTo(item);
+        assertThat(slots[0]).isNull();
+
+        // Data written by another version must be upgraded by the server
+        assertThat(this.dataFile.readEnderItems(27, DATA_VERSION + 1)).isNull();
+    }
+
+    @Test
+    public void writeEnderItems() throws IOException, ReflectiveOperationException {
+        ItemStack item = new ItemStack(Material.DIRT);
+        when(this.itemUtil.toTag(item)).thenReturn(toBytes(createItem("minecraft:dirt", 0)));
+
+        ItemStack[] slots = new ItemStack[27];
+        slots[5] = item;
+        this.dataFile.writeEnderItems(slots);
+
+        Map<String, Object> root = NbtIO.readCompressed(new FileInputStream(this.file));
+        assertThat(root).containsEntry(PlayerDatFile.DATA_VERSION, DATA_VERSION).containsEntry("Health", 20F);
+
+        NbtList items = (NbtList) root.get(PlayerDatFile.ENDER_ITEMS);
+        assertThat(items.getValues()).containsExactly(createItem("minecraft:dirt", 5));
+
+        // No temporary file left
+        assertThat(this.folder.getRoot().list()).containsExactly("player.dat");
+    }
+
+    private static Map<String, Object> createItem(String id, int slot) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", id);
+        item.put("Count", (byte) 1);
+        item.put(PlayerDatFile.SLOT, (byte) slot);
+        return item;
+    }
+
+    private static byte[] toBytes(Map<String, Object> compound) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NbtIO.write(compound, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static void setItemUtil(NMSItemUtil util) throws ReflectiveOperationException {
+        Field field = NMSItemUtil.class.getDeclaredField("instance");
+        field.setAccessible(true);
+        field.set(null, util);
+        field.setAccessible(false);
+    }
+
+}
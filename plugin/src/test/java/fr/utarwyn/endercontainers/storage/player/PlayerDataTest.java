@@ -2,6 +2,7 @@ package fr.utarwyn.endercontainers.storage.player;
 
 import com.google.common.collect.Sets;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import fr.utarwyn.endercontainers.enderchest.VanillaEnderChest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,6 +10,8 @@ import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Collections;
+
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -22,14 +25,28 @@ public class PlayerDataTest {
         EnderChest enderchest1 = mock(VanillaEnderChest.class);
         EnderChest enderchest2 = mock(EnderChest.class);
         EnderChest enderchest3 = mock(EnderChest.class);
+        EnderChestSnapshot snapshot2 = mock(EnderChestSnapshot.class);
+        EnderChestSnapshot snapshot3 = mock(EnderChestSnapshot.class);
+
+        when(enderchest2.snapshot()).thenReturn(snapshot2);
+        when(enderchest3.snapshot()).thenReturn(snapshot3);
 
         this.playerData.saveContext(Sets.newHashSet(enderchest1, enderchest2, enderchest3));
 
         // does not save vanilla enderchest with our system
-        verify(this.playerData, never()).saveEnderchest(enderchest1);
+        verify(enderchest1, never()).snapshot();
         // save custom enderchests
-        verify(this.playerData).saveEnderchest(enderchest2);
-        verify(this.playerData).saveEnderchest(enderchest3);
+        verify(this.playerData).saveEnderchest(snapshot2);
+        verify(this.playerData).saveEnderchest(snapshot3);
+    }
+
+    @Test
+    public void saveSnapshots() {
+        EnderChestSnapshot snapshot = mock(EnderChestSnapshot.class);
+
+        this.playerData.saveSnapshots(Collections.singletonList(snapshot));
+
+        verify(this.playerData).saveEnderchest(snapshot);
     }
 
 }
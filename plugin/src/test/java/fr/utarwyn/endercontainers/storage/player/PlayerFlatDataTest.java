@@ -2,7 +2,10 @@ package fr.utarwyn.endercontainers.storage.player;
 
 import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
+import fr.utarwyn.endercontainers.enderchest.ChestContents;
+import fr.utarwyn.endercontainers.enderchest.ChestSummary;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
@@ -15,6 +18,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Scanner;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -36,6 +40,8 @@ public class PlayerFlatDataTest {
         put(1, new ItemStack(Material.OAK_BOAT));
     }};
 
+    private static final ItemStack[] SLOTS = ChestContents.toSlots(ITEMS);
+
     private PlayerFlatData data;
 
     @Mock
@@ -52,8 +58,8 @@ public class PlayerFlatDataTest {
     @Before
     public void setUp() throws TestInitializationException, IOException {
         this.data = new PlayerFlatData(TEST_UUID, TestHelper.getPlugin(), this.itemSerializer);
-        when(this.itemSerializer.serialize(ITEMS)).thenReturn(VALID);
-        when(this.itemSerializer.deserialize(VALID)).thenReturn(ITEMS);
+        when(this.itemSerializer.serialize(SLOTS)).thenReturn(VALID);
+        when(this.itemSerializer.deserializeSlots(VALID)).thenReturn(SLOTS);
     }
 
     @Test
@@ -84,8 +90,8 @@ public class PlayerFlatDataTest {
 
         // valid chest with data
         when(this.chest.getNum()).thenReturn(1);
-        assertThat(this.data.getEnderchestContents(this.chest)).isNotEmpty();
-        verify(this.itemSerializer).deserialize(VALID);
+        assertThat(this.data.getEnderchestContents(this.chest)).isEqualTo(ITEMS);
+        verify(this.itemSerializer).deserializeSlots(VALID);
 
         // unknown chest
         when(this.chest.getNum()).thenReturn(2);
@@ -107,11 +113,7 @@ public class PlayerFlatDataTest {
 
     @Test
     public void saveEnderchest() {
-        when(this.chest.getNum()).thenReturn(1);
-        when(this.chest.getRows()).thenReturn(4);
-        when(this.chest.getContents()).thenReturn(ITEMS);
-
-        this.data.saveEnderchest(this.chest);
+        this.data.saveEnderchest(new EnderChestSnapshot(TEST_UUID, 1, 4, ITEMS));
 
         String base = "enderchests.1.";
         assertThat(this.data.configuration.get(base + "rows")).isEqualTo(4);
@@ -119,4 +121,31 @@ public class PlayerFlatDataTest {
         assertThat(this.data.configuration.get(base + "contents")).isEqualTo(VALID);
     }
 
+    @Test
+    public void loadSummary() throws TestInitializationException {
+        UUID uuid = UUID.randomUUID();
+        PlayerFlatData playerData = new PlayerFlatData(uuid, TestHelper.getPlugin(), this.itemSerializer);
+
+        // No data saved yet
+        assertThat(PlayerFlatData.loadSummary(TestHelper.getPlugin(), uuid).getChestCount()).isZero();
+
+        playerData.saveSnapshots(Arrays.asList(
+                new EnderChestSnapshot(uuid, 0, 4, ITEMS),
+                new EnderChestSnapshot(uuid, 2, 6, new ConcurrentHashMap<>())
+        ));
+
+        ChestSummary summary = PlayerFlatData.loadSummary(TestHelper.getPlugin(), uuid);
+        assertThat(summary).isNotNull();
+        assertThat(summary.getChestCount()).isEqualTo(3);
+        assertThat(summary.getRows(0)).isEqualTo(4);
+        assertThat(summary.getFilledSlots(0)).isEqualTo(1);
+        assertThat(summary.getRows(2)).isEqualTo(6);
+        assertThat(summary.getFilledSlots(2)).isZero();
+
+        // Data changed without the plugin, summary is outdated
+        playerData.configuration.set("check", true);
+        playerData.save();
+        assertThat(PlayerFlatData.loadSummary(TestHelper.getPlugin(), uuid)).isNull();
+    }
+
 }
@@ -4,7 +4,10 @@ import fr.utarwyn.endercontainers.TestHelper;
 import fr.utarwyn.endercontainers.TestInitializationException;
 import fr.utarwyn.endercontainers.database.DatabaseManager;
 import fr.utarwyn.endercontainers.database.DatabaseSet;
+import fr.utarwyn.endercontainers.enderchest.ChestContents;
+import fr.utarwyn.endercontainers.enderchest.ChestSummary;
 import fr.utarwyn.endercontainers.enderchest.EnderChest;
+import fr.utarwyn.endercontainers.enderchest.EnderChestSnapshot;
 import fr.utarwyn.endercontainers.storage.serialization.ItemSerializer;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -56,9 +59,8 @@ public class PlayerSQLDataTest {
 
         this.data = new PlayerSQLData(uuid, TestHelper.getPlugin(), this.itemSerializer);
 
-        when(this.chest.getOwner()).thenReturn(uuid);
-        when(this.itemSerializer.deserialize(FAKE_DATA)).thenReturn(CONTENTS);
-        when(this.itemSerializer.serialize(CONTENTS)).thenReturn(FAKE_DATA);
+        when(this.itemSerializer.deserializeSlots(FAKE_DATA)).thenReturn(ChestContents.toSlots(CONTENTS));
+        when(this.itemSerializer.serialize(ChestContents.toSlots(CONTENTS))).thenReturn(FAKE_DATA);
         when(this.databaseManager.getEnderchestsOf(uuid)).thenReturn(Arrays.asList(
                 createChestSet(1, 3, uuid, FAKE_DATA),
                 createChestSet(10, 5, uuid, FAKE_DATA),
@@ -105,35 +107,58 @@ public class PlayerSQLDataTest {
 
     @Test
     public void saveNewEnderchest() throws SQLException {
+        UUID uuid = this.player.getUniqueId();
+
         // Insert a new enderchest
-        when(this.chest.getNum()).thenReturn(12);
-        when(this.chest.getRows()).thenReturn(6);
-        when(this.chest.getContents()).thenReturn(CONTENTS);
-        this.data.saveEnderchest(this.chest);
-        verify(this.databaseManager).saveEnderchest(true, this.player.getUniqueId(), 12, 6, FAKE_DATA);
+        this.data.saveEnderchest(new EnderChestSnapshot(uuid, 12, 6, CONTENTS));
+        verify(this.databaseManager).saveEnderchest(true, uuid, 12, 6, FAKE_DATA, 2);
 
         // Try to update same enderchest but without content
-        when(this.chest.getContents()).thenReturn(new ConcurrentHashMap<>());
-        this.data.saveEnderchest(this.chest);
-        verify(this.databaseManager).saveEnderchest(false, this.player.getUniqueId(), 12, 6, null);
+        EnderChestSnapshot emptyChest = new EnderChestSnapshot(uuid, 12, 6, new ConcurrentHashMap<>());
+        this.data.saveEnderchest(emptyChest);
+        verify(this.databaseManager).saveEnderchest(false, uuid, 12, 6, null, 0);
 
         // SQL error during saving, do not throw exception
         doThrow(SQLException.class).when(this.databaseManager).saveEnderchest(
-                eq(false), any(UUID.class), eq(12), eq(6), isNull()
+                eq(false), any(UUID.class), eq(12), eq(6), isNull(), eq(0)
         );
-        this.data.saveEnderchest(this.chest);
+        this.data.saveEnderchest(emptyChest);
     }
 
     @Test
     public void saveExistingEnderchest() throws SQLException {
-        when(this.chest.getNum()).thenReturn(1);
-        when(this.chest.getRows()).thenReturn(4);
-        when(this.chest.getContents()).thenReturn(CONTENTS);
-
         this.data.load();
-        this.data.saveEnderchest(this.chest);
+        this.data.saveEnderchest(new EnderChestSnapshot(this.player.getUniqueId(), 1, 4, CONTENTS));
+
+        verify(this.databaseManager).saveEnderchest(false, this.player.getUniqueId(), 1, 4, FAKE_DATA, 2);
+    }
 
-        verify(this.databaseManager).saveEnderchest(false, this.player.getUniqueId(), 1, 4, FAKE_DATA);
+    @Test
+    public void loadSummary() throws SQLException, TestInitializationException {
+        UUID uuid = this.player.getUniqueId();
+        DatabaseSet first = createChestSet(0, 4, uuid, null);
+        DatabaseSet second = createChestSet(2, 6, uuid, null);
+        first.setObject("filled", 12);
+        second.setObject("filled", 0);
+        when(this.databaseManager.getEnderchestSummariesOf(uuid)).thenReturn(Arrays.asList(first, second));
+
+        ChestSummary summary = PlayerSQLData.loadSummary(TestHelper.getPlugin(), uuid);
+        assertThat(summary).isNotNull();
+        assertThat(summary.getChestCount()).isEqualTo(3);
+        assertThat(summary.getRows(0)).isEqualTo(4);
+        assertThat(summary.getFilledSlots(0)).isEqualTo(12);
+        assertThat(summary.getRows(1)).isEqualTo(3);
+        assertThat(summary.getFilledSlots(1)).isZero();
+        assertThat(summary.getRows(2)).isEqualTo(6);
+
+        // Chests saved without summary cannot be summarized
+        when(this.databaseManager.getEnderchestSummariesOf(uuid))
+                .thenReturn(Arrays.asList(first, createChestSet(2, 6, uuid, null)));
+        assertThat(PlayerSQLData.loadSummary(TestHelper.getPlugin(), uuid)).isNull();
+
+        // SQL error during loading, do not throw exception
+        when(this.databaseManager.getEnderchestSummariesOf(uuid)).thenThrow(SQLException.class);
+        assertThat(PlayerSQLData.loadSummary(TestHelper.getPlugin(), uuid)).isNull();
     }
 
     private DatabaseSet createChestSet(int num, int rows, UUID owner, String contents) {
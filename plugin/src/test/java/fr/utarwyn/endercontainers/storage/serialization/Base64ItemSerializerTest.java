@@ -87,4 +87,37 @@ public class Base64ItemSerializerTest {
                 .containsExactlyEntriesOf(expected);
     }
 
+    @Test
+    public void serializeSlots() throws IOException {
+        ConcurrentMap<Integer, ItemStack> map = new ConcurrentHashMap<>();
+        map.put(1, new ItemStack(Material.OAK_LOG, 10));
+        map.put(17, new ItemStack(Material.GRASS, 20));
+
+        ItemStack[] slots = new ItemStack[27];
+        slots[1] = map.get(1);
+        slots[17] = map.get(17);
+
+        // Both formats must be compatible
+        String data = this.serializer.serialize(slots);
+        assertThat(data).isEqualTo(this.serializer.serialize(map));
+
+        ItemStack[] result = this.serializer.deserializeSlots(data);
+        assertThat(result).hasSize(18);
+        assertThat(result[1]).isEqualTo(map.get(1));
+        assertThat(result[17]).isEqualTo(map.get(17));
+        assertThat(this.serializer.deserialize(data)).containsExactlyInAnyOrderEntriesOf(map);
+    }
+
+    @Test
+    public void deserializeSlotsBeyondBiggestChest() throws IOException {
+        ConcurrentMap<Integer, ItemStack> map = new ConcurrentHashMap<>();
+        map.put(53, new ItemStack(Material.OAK_LOG, 10));
+        map.put(Integer.MAX_VALUE - 1, new ItemStack(Material.GRASS, 20));
+
+        // Slots which cannot be displayed must never size the result
+        ItemStack[] result = this.serializer.deserializeSlots(this.serializer.serialize(map));
+        assertThat(result).hasSize(ItemSerializer.MAX_SLOTS);
+        assertThat(result[53]).isEqualTo(map.get(53));
+    }
+
 }
@@ -0,0 +1,37 @@
+package fr.utarwyn.endercontainers.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class IoRateLimiterTest {
+
+    @Test
+    public void create() {
+        assertThat(IoRateLimiter.UNLIMITED.isLimited()).isFalse();
+        assertThat(new IoRateLimiter(1024).isLimited()).isTrue();
+        assertThat(new IoRateLimiter(1024).getBytesPerSecond()).isEqualTo(1024);
+        assertThatIllegalArgumentException().isThrownBy(() -> new IoRateLimiter(-1));
+    }
+
+    @Test
+    public void acquireUnlimited() {
+        long start = System.nanoTime();
+        IoRateLimiter.UNLIMITED.acquire(Long.MAX_VALUE / 2);
+        assertThat(System.nanoTime() - start).isLessThan(100_000_000L);
+    }
+
+    @Test
+    public void acquireLimited() {
+        IoRateLimiter limiter = new IoRateLimiter(1000);
+        long start = System.currentTimeMillis();
+
+        // First chunk passes directly, the second waits for the first one
+        limiter.acquire(200);
+        limiter.acquire(200);
+
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(190);
+    }
+
+}
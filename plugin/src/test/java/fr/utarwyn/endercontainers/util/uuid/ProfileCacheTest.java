@@ -0,0 +1,105 @@
+package fr.utarwyn.endercontainers.util.uuid;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class ProfileCacheTest {
+
+    private AtomicLong clock;
+
+    private ProfileCache cache;
+
+    @Before
+    public void setUp() {
+        this.clock = new AtomicLong(1000);
+        this.cache = new ProfileCache(2, 100, this.clock::get);
+    }
+
+    @Test
+    public void create() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ProfileCache(0, 100));
+        assertThat(new ProfileCache(1, 100).size()).isZero();
+    }
+
+    @Test
+    public void getFreshProfile() {
+        UUID id = UUID.randomUUID();
+        this.cache.put(new Profile(id, "Utarwyn", this.clock.get()));
+
+        assertThat(this.cache.getById(id).getName()).isEqualTo("Utarwyn");
+        assertThat(this.cache.getByName("utarwyn").getId()).isEqualTo(id);
+        assertThat(this.cache.getByName("UTARWYN").getId()).isEqualTo(id);
+        assertThat(this.cache.getById(UUID.randomUUID())).isNull();
+        assertThat(this.cache.getByName("unknown")).isNull();
+    }
+
+    @Test
+    public void expire() {
+        UUID id = UUID.randomUUID();
+        this.cache.put(new Profile(id, "Utarwyn", this.clock.get()));
+
+        this.clock.addAndGet(99);
+        assertThat(this.cache.getById(id)).isNotNull();
+
+        this.clock.addAndGet(1);
+        assertThat(this.cache.getByName("Utarwyn")).isNull();
+        assertThat(this.cache.getById(id)).isNull();
+        assertThat(this.cache.size()).isZero();
+
+        // Already expired profiles are not cached
+        this.cache.put(new Profile(id, "Utarwyn", 0));
+        assertThat(this.cache.size()).isZero();
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        this.cache.put(new Profile(first, "First", this.clock.get()));
+        this.cache.put(new Profile(second, "Second", this.clock.get()));
+        assertThat(this.cache.getById(first)).isNotNull();
+        this.cache.put(new Profile(third, "Third", this.clock.get()));
+
+        assertThat(this.cache.size()).isEqualTo(2);
+        assertThat(this.cache.getById(second)).isNull();
+        assertThat(this.cache.getByName("Second")).isNull();
+        assertThat(this.cache.getById(first)).isNotNull();
+        assertThat(this.cache.getById(third)).isNotNull();
+    }
+
+    @Test
+    public void replaceName() {
+        UUID id = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        this.cache.put(new Profile(id, "OldName", this.clock.get()));
+        this.cache.put(new Profile(id, "NewName", this.clock.get()));
+        assertThat(this.cache.getByName("OldName")).isNull();
+        assertThat(this.cache.getByName("NewName").getId()).isEqualTo(id);
+
+        // Name taken by another player
+        this.cache.put(new Profile(other, "NewName", this.clock.get()));
+        assertThat(this.cache.getById(id)).isNull();
+        assertThat(this.cache.getByName("NewName").getId()).isEqualTo(other);
+        assertThat(this.cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void snapshot() {
+        this.cache.put(new Profile(UUID.randomUUID(), "Old", this.clock.get()));
+        this.clock.addAndGet(50);
+        this.cache.put(new Profile(UUID.randomUUID(), "Recent", this.clock.get()));
+        this.clock.addAndGet(50);
+
+        assertThat(this.cache.snapshot()).extracting(Profile::getName).containsExactly("Recent");
+    }
+
+}
@@ -0,0 +1,289 @@
+package fr.utarwyn.endercontainers.util.uuid;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProfileResolverTest {
+
+    private static final Gson GSON = new GsonBuilder().registerTypeAdapter(UUID.class, new UUIDTypeAdapter()).create();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+
+    private Map<String, UUID> accounts;
+
+    private Map<String, AtomicInteger> requests;
+
+    private CountDownLatch slowReceived;
+
+    private CountDownLatch slowReleased;
+
+    private AtomicLong time;
+
+    private volatile boolean failing;
+
+    private ProfileResolver resolver;
+
+    @Before
+    public void setUp() throws IOException {
+        this.accounts = new HashMap<>();
+        this.requests = new ConcurrentHashMap<>();
+        this.slowReceived = new CountDownLatch(1);
+        this.slowReleased = new CountDownLatch(0);
+        this.time = new AtomicLong();
+
+        this.accounts.put("Utarwyn", UUID.randomUUID());
+        this.accounts.put("Slow", UUID.randomUUID());
+        for (int i = 0; i < 12; i++) {
+            this.accounts.put("Player" + i, UUID.randomUUID());
+        }
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/users/profiles/minecraft/", this::handleName);
+        this.server.createContext("/session/minecraft/profile/", this::handleId);
+        this.server.createContext("/profiles/minecraft", this::handleBatch);
+        this.server.start();
+
+        this.resolver = this.createResolver(null);
+    }
+
+    @After
+    public void tearDown() {
+        this.slowReleased.countDown();
+        this.server.stop(0);
+    }
+
+    @Test
+    public void getUUID() {
+        assertThat(this.resolver.getUUID("Utarwyn")).isEqualTo(this.accounts.get("Utarwyn"));
+        assertThat(this.resolver.getUUID("utarwyn")).isEqualTo(this.accounts.get("Utarwyn"));
+        assertThat(this.resolver.getCachedName(this.accounts.get("Utarwyn"))).isEqualTo("Utarwyn");
+        assertThat(this.requestCount("/users/profiles/minecraft/Utarwyn")).isEqualTo(1);
+    }
+
+    @Test
+    public void getUnknownUUID() {
+        assertThat(this.resolver.getUUID("Unknown")).isNull();
+        assertThat(this.resolver.getCachedUUID("Unknown")).isNull();
+    }
+
+    @Test
+    public void cacheUnknownProfiles() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThat(this.resolver.getUUID("Unknown")).isNull();
+        assertThat(this.resolver.getUUID("unknown")).isNull();
+        assertThat(this.resolver.getName(unknown)).isNull();
+        assertThat(this.resolver.getName(unknown)).isNull();
+        assertThat(this.requestCount("/users/profiles/minecraft/Unknown")).isEqualTo(1);
+        assertThat(this.requestCount("/users/profiles/minecraft/unknown")).isZero();
+        assertThat(this.requestCount("/session/minecraft/profile/" + UUIDTypeAdapter.fromUUID(unknown))).isEqualTo(1);
+
+        // Unknown profiles are requested again once expired
+        this.time.addAndGet(ProfileResolver.NOT_FOUND_TTL);
+        assertThat(this.resolver.getUUID("Unknown")).isNull();
+        assertThat(this.requestCount("/users/profiles/minecraft/Unknown")).isEqualTo(2);
+    }
+
+    @Test
+    public void unreachableApiIsRetried() {
+        this.failing = true;
+        assertThat(this.resolver.getUUID("Utarwyn")).isNull();
+
+        this.failing = false;
+        assertThat(this.resolver.getUUID("Utarwyn")).isEqualTo(this.accounts.get("Utarwyn"));
+    }
+
+    @Test
+    public void getName() {
+        UUID id = this.accounts.get("Utarwyn");
+
+        assertThat(this.resolver.getName(id)).isEqualTo("Utarwyn");
+        assertThat(this.resolver.getName(id)).isEqualTo("Utarwyn");
+        assertThat(this.resolver.getCachedUUID("Utarwyn")).isEqualTo(id);
+        assertThat(this.requestCount("/session/minecraft/profile/" + UUIDTypeAdapter.fromUUID(id))).isEqualTo(1);
+        assertThat(this.resolver.getName(UUID.randomUUID())).isNull();
+    }
+
+    @Test
+    public void unreachableApi() {
+        this.server.stop(0);
+        assertThat(this.resolver.getUUID("Utarwyn")).isNull();
+        assertThat(this.resolver.getName(UUID.randomUUID())).isNull();
+        assertThat(this.resolver.getUUIDs(Collections.singletonList("Utarwyn"))).isEmpty();
+    }
+
+    @Test
+    public void deduplicateConcurrentLookups() throws Exception {
+        this.slowReleased = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<UUID> first = executor.submit(() -> this.resolver.getUUID("Slow"));
+            assertThat(this.slowReceived.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<UUID> second = executor.submit(() -> this.resolver.getUUID("slow"));
+            Thread.sleep(100);
+            this.slowReleased.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(this.accounts.get("Slow"));
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(this.accounts.get("Slow"));
+            assertThat(this.requestCount("/users/profiles/minecraft/Slow")).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getUUIDs() {
+        this.resolver.getUUID("Utarwyn");
+
+        List<String> names = new ArrayList<>();
+        names.add("Utarwyn");
+        names.add("Unknown");
+        for (int i = 0; i < 12; i++) {
+            names.add("Player" + i);
+        }
+
+        Map<String, UUID> uuids = this.resolver.getUUIDs(names);
+
+        assertThat(uuids).hasSize(13).doesNotContainKey("Unknown");
+        assertThat(uuids.get("Utarwyn")).isEqualTo(this.accounts.get("Utarwyn"));
+        assertThat(uuids.get("Player11")).isEqualTo(this.accounts.get("Player11"));
+        // 13 unknown names sent in batches of 10
+        assertThat(this.requestCount("/profiles/minecraft")).isEqualTo(2);
+        assertThat(this.resolver.getCachedUUID("Player5")).isEqualTo(this.accounts.get("Player5"));
+
+        // Names missing from the response are not requested again
+        assertThat(this.resolver.getUUIDs(Collections.singletonList("Unknown"))).isEmpty();
+        assertThat(this.resolver.getUUID("Unknown")).isNull();
+        assertThat(this.requestCount("/profiles/minecraft")).isEqualTo(2);
+        assertThat(this.requestCount("/users/profiles/minecraft/Unknown")).isZero();
+    }
+
+    @Test
+    public void persist() throws IOException {
+        File file = new File(this.folder.getRoot(), "data/profiles.json");
+        ProfileResolver persistent = this.createResolver(new ProfileStore(GSON, file));
+
+        persistent.load();
+        persistent.getUUID("Utarwyn");
+        persistent.remember(this.accounts.get("Player1"), "Player1");
+        persistent.save();
+        assertThat(file).isFile();
+
+        ProfileResolver restarted = this.createResolver(new ProfileStore(GSON, file));
+        restarted.load();
+        assertThat(restarted.getCachedUUID("Utarwyn")).isEqualTo(this.accounts.get("Utarwyn"));
+        assertThat(restarted.getCachedName(this.accounts.get("Player1"))).isEqualTo("Player1");
+        assertThat(restarted.getStore().getFile()).isEqualTo(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void loadMalformedStore() throws IOException {
+        File file = this.folder.newFile("profiles.json");
+        java.nio.file.Files.write(file.toPath(), "{malformed".getBytes(StandardCharsets.UTF_8));
+        this.createResolver(new ProfileStore(GSON, file)).load();
+    }
+
+    private ProfileResolver createResolver(ProfileStore store) {
+        String url = "http://127.0.0.1:" + this.server.getAddress().getPort();
+        return new ProfileResolver(url, url, GSON, new ProfileCache(100, 60000, this.time::get), store);
+    }
+
+    private int requestCount(String path) {
+        AtomicInteger count = this.requests.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    private void handleName(HttpExchange exchange) throws IOException {
+        String name = this.record(exchange).substring("/users/profiles/minecraft/".length());
+
+        if (name.equals("Slow")) {
+            this.slowReceived.countDown();
+            try {
+                this.slowReleased.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        UUID id = this.accounts.get(name);
+        this.respond(exchange, id != null ? new Profile(id, name, 0) : null);
+    }
+
+    private void handleId(HttpExchange exchange) throws IOException {
+        String id = this.record(exchange).substring("/session/minecraft/profile/".length());
+
+        Profile profile = null;
+        for (Map.Entry<String, UUID> account : this.accounts.entrySet()) {
+            if (UUIDTypeAdapter.fromUUID(account.getValue()).equals(id)) {
+                profile = new Profile(account.getValue(), account.getKey(), 0);
+            }
+        }
+        this.respond(exchange, profile);
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        this.record(exchange);
+        String[] names = GSON.fromJson(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), String[].class);
+
+        List<Profile> profiles = new ArrayList<>();
+        for (String name : names) {
+            this.accounts.entrySet().stream()
+                    .filter(account -> account.getKey().equalsIgnoreCase(name))
+                    .findFirst()
+                    .ifPresent(account -> profiles.add(new Profile(account.getValue(), account.getKey(), 0)));
+        }
+        this.respond(exchange, profiles);
+    }
+
+    private String record(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        this.requests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        return path;
+    }
+
+    private void respond(HttpExchange exchange, Object body) throws IOException {
+        if (this.failing) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        if (body == null) {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] bytes = GSON.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+}